@@ -0,0 +1,205 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.extension.siddhi.io.cdc.source;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.wso2.siddhi.core.SiddhiAppRuntime;
+import org.wso2.siddhi.core.SiddhiManager;
+import org.wso2.siddhi.core.event.Event;
+import org.wso2.siddhi.core.stream.output.StreamCallback;
+
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the listening mode end to end without a database, from the debezium shaped records generated by the
+ * synthetic mode, through the change data capture handler and the keyvalue mapper, to a stream callback. The score
+ * is the time per event; run with '-prof gc' to get the allocation per event. The latency percentiles of the events,
+ * from the commit timestamp of the record to the callback, are reported as the secondary results of each iteration.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, batchSize = 1)
+@Measurement(iterations = 5, batchSize = 1)
+@Fork(1)
+public class SyntheticModeBenchmark {
+
+    private static final int EVENTS_PER_INVOCATION = 100000;
+
+    @Param({"8", "32"})
+    public int columnCount;
+
+    @Param({"insert:1", "insert:6, update:3, delete:1"})
+    public String operations;
+
+    @Param({"uniform", "hotspot"})
+    public String keyDistribution;
+
+    private SiddhiManager siddhiManager;
+    private SiddhiAppRuntime siddhiAppRuntime;
+    private CountDownLatch eventsReceived;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        siddhiManager = new SiddhiManager();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        siddhiManager.shutdown();
+    }
+
+    /**
+     * Create the app before each invocation, so that only the generation and the processing of the events is
+     * measured. All the generated events are sent to the stream, whatever their operation is, as each operation has
+     * a source of its own.
+     */
+    @Setup(Level.Invocation)
+    public void createApp(Latency latency) {
+        StringBuilder attributes = new StringBuilder("id long");
+        for (int i = 1; i < columnCount; i++) {
+            attributes.append(", column").append(i).append(i % 2 == 0 ? " int" : " string");
+        }
+        StringBuilder app = new StringBuilder("@App:name('SyntheticModeBenchmark')\n");
+        app.append("define stream ChangeStream (").append(attributes).append(", commit_timestamp string);\n");
+        String[] operationNames = {"insert", "update", "delete"};
+        for (String operation : operationNames) {
+            //deletes only have the before values, which are mapped to the same attributes.
+            String prefix = "delete".equals(operation) ? "before_" : "";
+            StringBuilder mapping = new StringBuilder("id='" + prefix + "id'");
+            for (int i = 1; i < columnCount; i++) {
+                mapping.append(", column").append(i).append("='").append(prefix).append("column").append(i)
+                        .append("'");
+            }
+            app.append("@source(type='cdc', mode='synthetic', operation='").append(operation)
+                    .append("', synthetic.rate='0', synthetic.events='").append(EVENTS_PER_INVOCATION)
+                    .append("', synthetic.columns='").append(columnCount)
+                    .append("', synthetic.operations='").append(operations)
+                    .append("', synthetic.key.distribution='").append(keyDistribution)
+                    .append("', @map(type='keyvalue', @attributes(").append(mapping)
+                    .append(", commit_timestamp='trp:commit.timestamp')))\n")
+                    .append("define stream ").append(operation).append("Stream (").append(attributes)
+                    .append(", commit_timestamp string);\n")
+                    .append("from ").append(operation).append("Stream insert into ChangeStream;\n");
+        }
+        siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(app.toString());
+
+        //the sources generate the same events with the default seed, and each sends the ones of its operation.
+        eventsReceived = new CountDownLatch(EVENTS_PER_INVOCATION);
+        siddhiAppRuntime.addCallback("ChangeStream", new StreamCallback() {
+            @Override
+            public void receive(Event[] events) {
+                long now = System.currentTimeMillis();
+                for (Event event : events) {
+                    Object commitTimestamp = event.getData(columnCount);
+                    if (commitTimestamp != null) {
+                        latency.record(now - Long.parseLong((String) commitTimestamp));
+                    }
+                    eventsReceived.countDown();
+                }
+            }
+        });
+    }
+
+    @TearDown(Level.Invocation)
+    public void shutdownApp() {
+        siddhiAppRuntime.shutdown();
+    }
+
+    /**
+     * The latency is taken as an argument only to report its counters with the results of this benchmark.
+     */
+    @Benchmark
+    @OperationsPerInvocation(EVENTS_PER_INVOCATION)
+    public void generateAndReceive(Latency latency) throws InterruptedException {
+        siddhiAppRuntime.start();
+        eventsReceived.await();
+    }
+
+    /**
+     * The latency of the events received in an iteration, in milliseconds. JMH reports the public methods as the
+     * secondary results of the benchmark. The latencies are recorded in a histogram with a bucket per millisecond,
+     * as an iteration receives millions of events.
+     */
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Latency {
+
+        private static final int MAX_LATENCY_MILLIS = 60000;
+        private final long[] counts = new long[MAX_LATENCY_MILLIS + 1];
+        private long count;
+
+        @Setup(Level.Iteration)
+        public synchronized void reset() {
+            Arrays.fill(counts, 0);
+            count = 0;
+        }
+
+        /**
+         * Record the latency of an event. Called by the stream callback, from the thread of each source.
+         */
+        synchronized void record(long latencyMillis) {
+            counts[(int) Math.max(0, Math.min(MAX_LATENCY_MILLIS, latencyMillis))]++;
+            count++;
+        }
+
+        public long latencyP50Millis() {
+            return percentile(0.5);
+        }
+
+        public long latencyP99Millis() {
+            return percentile(0.99);
+        }
+
+        public long latencyP999Millis() {
+            return percentile(0.999);
+        }
+
+        public long latencyMaxMillis() {
+            return percentile(1);
+        }
+
+        private synchronized long percentile(double percentile) {
+            long rank = (long) Math.ceil(percentile * count);
+            long seen = 0;
+            for (int latency = 0; latency < counts.length; latency++) {
+                seen += counts[latency];
+                if (seen >= rank && seen > 0) {
+                    return latency;
+                }
+            }
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.extension.siddhi.io.cdc.source.listening;
+
+import org.apache.kafka.connect.data.Schema;
+import org.apache.kafka.connect.data.SchemaBuilder;
+import org.apache.kafka.connect.data.Struct;
+import org.apache.kafka.connect.source.SourceRecord;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.wso2.extension.siddhi.io.cdc.source.metrics.CDCSourceMetrics;
+import org.wso2.extension.siddhi.io.cdc.util.CDCSourceConstants;
+import org.wso2.siddhi.core.config.SiddhiAppContext;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the conversion of the change data records received from the debezium engine to the key-value maps
+ * sent to the source event listener, for rows of different widths.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ChangeDataCaptureBenchmark {
+
+    @Param({"4", "16", "64"})
+    public int columnCount;
+
+    private ChangeDataCapture changeDataCapture;
+    private SourceRecord insertRecord;
+    private SourceRecord updateRecord;
+    private SourceRecord deleteRecord;
+
+    @Setup
+    public void setup() {
+        CDCSourceMetrics metrics = new CDCSourceMetrics(new SiddhiAppContext(), "BenchmarkStream",
+                CDCSourceConstants.MODE_LISTENING);
+        changeDataCapture = new ChangeDataCapture(CDCSourceConstants.INSERT, null, metrics, null);
+
+        SchemaBuilder rowSchemaBuilder = SchemaBuilder.struct().name("benchmark.Value").optional();
+        rowSchemaBuilder.field("id", Schema.INT64_SCHEMA);
+        for (int i = 1; i < columnCount; i++) {
+            rowSchemaBuilder.field("column" + i, i % 2 == 0 ? Schema.OPTIONAL_INT32_SCHEMA :
+                    Schema.OPTIONAL_STRING_SCHEMA);
+        }
+        Schema rowSchema = rowSchemaBuilder.build();
+        Schema envelopeSchema = SchemaBuilder.struct().name("benchmark.Envelope")
+                .field(CDCSourceConstants.BEFORE, rowSchema)
+                .field(CDCSourceConstants.AFTER, rowSchema)
+                .field("op", Schema.STRING_SCHEMA)
+                .build();
+
+        insertRecord = createRecord(envelopeSchema, CDCSourceConstants.CONNECT_RECORD_INSERT_OPERATION, null,
+                createRow(rowSchema, 1));
+        updateRecord = createRecord(envelopeSchema, CDCSourceConstants.CONNECT_RECORD_UPDATE_OPERATION,
+                createRow(rowSchema, 1), createRow(rowSchema, 2));
+        deleteRecord = createRecord(envelopeSchema, CDCSourceConstants.CONNECT_RECORD_DELETE_OPERATION,
+                createRow(rowSchema, 2), null);
+    }
+
+    private Struct createRow(Schema rowSchema, int version) {
+        Struct row = new Struct(rowSchema);
+        row.put("id", 1L);
+        for (int i = 1; i < columnCount; i++) {
+            row.put("column" + i, i % 2 == 0 ? (Object) (i * version) : "value-" + i + "-" + version);
+        }
+        return row;
+    }
+
+    private SourceRecord createRecord(Schema envelopeSchema, String op, Struct before, Struct after) {
+        Struct envelope = new Struct(envelopeSchema);
+        envelope.put("op", op);
+        envelope.put(CDCSourceConstants.BEFORE, before);
+        envelope.put(CDCSourceConstants.AFTER, after);
+        return new SourceRecord(null, null, "benchmark", envelopeSchema, envelope);
+    }
+
+    @Benchmark
+    public Map<String, Object> insert() {
+        return changeDataCapture.createMap(insertRecord, CDCSourceConstants.INSERT);
+    }
+
+    @Benchmark
+    public Map<String, Object> update() {
+        return changeDataCapture.createMap(updateRecord, CDCSourceConstants.UPDATE);
+    }
+
+    @Benchmark
+    public Map<String, Object> delete() {
+        return changeDataCapture.createMap(deleteRecord, CDCSourceConstants.DELETE);
+    }
+}
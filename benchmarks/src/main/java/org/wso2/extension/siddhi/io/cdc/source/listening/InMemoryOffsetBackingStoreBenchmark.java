@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.extension.siddhi.io.cdc.source.listening;
+
+import org.apache.kafka.connect.json.JsonConverter;
+import org.apache.kafka.connect.runtime.standalone.StandaloneConfig;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.wso2.extension.siddhi.io.cdc.source.CDCSource;
+import org.wso2.extension.siddhi.io.cdc.util.CDCSourceConstants;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks saving the offsets of the debezium engine to the cdc source, and loading them from the cdc source when
+ * the engine starts.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InMemoryOffsetBackingStoreBenchmark {
+
+    @Param({"1", "100"})
+    public int offsetCount;
+
+    private CDCSource cdcSource;
+    private String cdcSourceObjectId;
+    private InMemoryOffsetBackingStore startedStore;
+    private InMemoryOffsetBackingStore stoppedStore;
+    private Map<ByteBuffer, ByteBuffer> offsets = new HashMap<>();
+
+    @Setup(Level.Trial)
+    public void setup() {
+        cdcSource = new CDCSource();
+        cdcSourceObjectId = CDCSourceObjectKeeper.getCdcSourceObjectKeeper().generateObjectId();
+        CDCSourceObjectKeeper.getCdcSourceObjectKeeper().addCdcObject(cdcSourceObjectId, cdcSource);
+        Map<byte[], byte[]> offsetData = new HashMap<>();
+        for (int i = 0; i < offsetCount; i++) {
+            byte[] key = ("[\"benchmark-connector\",{\"server\":\"server-" + i + "\"}]")
+                    .getBytes(StandardCharsets.UTF_8);
+            byte[] value = ("{\"file\":\"mysql-bin.000003\",\"pos\":" + (154 + i) + ",\"row\":1}")
+                    .getBytes(StandardCharsets.UTF_8);
+            offsetData.put(key, value);
+            offsets.put(ByteBuffer.wrap(key), ByteBuffer.wrap(value));
+        }
+        cdcSource.setOffsetData(offsetData);
+
+        Map<String, String> config = new HashMap<>();
+        config.put(StandaloneConfig.KEY_CONVERTER_CLASS_CONFIG, JsonConverter.class.getName());
+        config.put(StandaloneConfig.VALUE_CONVERTER_CLASS_CONFIG, JsonConverter.class.getName());
+        config.put(StandaloneConfig.OFFSET_STORAGE_FILE_FILENAME_CONFIG, "");
+        config.put(CDCSourceConstants.CDC_SOURCE_OBJECT, cdcSourceObjectId);
+        startedStore = new InMemoryOffsetBackingStore();
+        startedStore.configure(new StandaloneConfig(config));
+        startedStore.start();
+        stoppedStore = new InMemoryOffsetBackingStore();
+        stoppedStore.configure(new StandaloneConfig(config));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        startedStore.stop();
+        CDCSourceObjectKeeper.getCdcSourceObjectKeeper().removeObject(cdcSourceObjectId);
+    }
+
+    @Benchmark
+    public void save() throws ExecutionException, InterruptedException {
+        startedStore.set(offsets, null).get();
+    }
+
+    /**
+     * Each start creates the executor of the store, which is shut down by the stop.
+     */
+    @Benchmark
+    public void startAndStop() {
+        stoppedStore.start();
+        stoppedStore.stop();
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.extension.siddhi.io.cdc.source.polling;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.wso2.extension.siddhi.io.cdc.source.metrics.CDCSourceMetrics;
+import org.wso2.extension.siddhi.io.cdc.util.CDCSourceConstants;
+import org.wso2.siddhi.core.config.SiddhiAppContext;
+import org.wso2.siddhi.core.stream.input.source.SourceEventListener;
+import org.wso2.siddhi.core.util.config.InMemoryConfigReader;
+import org.wso2.siddhi.query.api.definition.StreamDefinition;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
+import javax.naming.NamingException;
+
+/**
+ * Benchmarks a poll cycle of the polling mode reading all the rows of an in-memory H2 table, including the
+ * conversion of the rows to the key-value maps sent to the source event listener.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CDCPollerBenchmark {
+
+    private static final String URL = "jdbc:h2:mem:cdc_poller_benchmark;DB_CLOSE_DELAY=-1";
+    private static final String TABLE_NAME = "BENCHMARK_TABLE";
+
+    @Param({"100", "1000"})
+    public int rowCount;
+
+    @Param({"4", "16"})
+    public int columnCount;
+
+    private Connection connection;
+    private CDCPoller cdcPoller;
+    private String selectQuery;
+    private volatile Object lastEvent;
+
+    @Setup(Level.Trial)
+    public void setup() throws SQLException, NamingException {
+        connection = DriverManager.getConnection(URL, "sa", "");
+        StringBuilder createQuery = new StringBuilder("CREATE TABLE " + TABLE_NAME + " (ID INT PRIMARY KEY");
+        StringBuilder insertQuery = new StringBuilder("INSERT INTO " + TABLE_NAME + " VALUES (?");
+        for (int i = 1; i < columnCount; i++) {
+            createQuery.append(", COLUMN").append(i).append(i % 2 == 0 ? " INT" : " VARCHAR(64)");
+            insertQuery.append(", ?");
+        }
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(createQuery.append(")").toString());
+        }
+        try (PreparedStatement statement = connection.prepareStatement(insertQuery.append(")").toString())) {
+            for (int row = 0; row < rowCount; row++) {
+                statement.setInt(1, row);
+                for (int i = 1; i < columnCount; i++) {
+                    if (i % 2 == 0) {
+                        statement.setInt(i + 1, row * i);
+                    } else {
+                        statement.setString(i + 1, "value-" + row + "-" + i);
+                    }
+                }
+                statement.addBatch();
+            }
+            statement.executeBatch();
+        }
+
+        SourceEventListener sourceEventListener = new SourceEventListener() {
+            @Override
+            public StreamDefinition getStreamDefinition() {
+                return null;
+            }
+
+            @Override
+            public void onEvent(Object eventObject, String[] transportProperties) {
+                lastEvent = eventObject;
+            }
+
+            @Override
+            public void onEvent(Object eventObject, String[] transportProperties, String[] transportSyncProperties) {
+                lastEvent = eventObject;
+            }
+        };
+        cdcPoller = new CDCPoller(URL, "sa", "", TABLE_NAME, "org.h2.Driver", null, null, "ID", 1, null,
+                sourceEventListener, new InMemoryConfigReader("", new HashMap<>()),
+                new CDCSourceMetrics(new SiddhiAppContext(), "BenchmarkStream", CDCSourceConstants.MODE_POLLING),
+                null);
+        cdcPoller.initializeDatasource();
+        selectQuery = cdcPoller.initializePolling();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        cdcPoller.releaseDataSource();
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE " + TABLE_NAME);
+        }
+        connection.close();
+    }
+
+    /**
+     * Poll from the start of the table, so that every cycle reads all the rows.
+     */
+    @Benchmark
+    public Object pollAllRows() {
+        cdcPoller.setLastReadPollingColumnValue(PollingCursor.EMPTY_TABLE_VALUE);
+        cdcPoller.poll(selectQuery);
+        return lastEvent;
+    }
+}
@@ -21,10 +21,23 @@ package org.wso2.extension.siddhi.io.cdc.source;
 import io.debezium.embedded.EmbeddedEngine;
 import io.debezium.engine.DebeziumEngine;
 import org.apache.log4j.Logger;
+import org.wso2.extension.siddhi.io.cdc.source.listening.BinlogFileReader;
 import org.wso2.extension.siddhi.io.cdc.source.listening.CDCSourceObjectKeeper;
 import org.wso2.extension.siddhi.io.cdc.source.listening.ChangeDataCapture;
+import org.wso2.extension.siddhi.io.cdc.source.listening.ChangeLogReplayer;
+import org.wso2.extension.siddhi.io.cdc.source.listening.IncrementalSnapshotter;
+import org.wso2.extension.siddhi.io.cdc.source.listening.LeaseCoordinator;
+import org.wso2.extension.siddhi.io.cdc.source.listening.SyntheticChangeEventGenerator;
 import org.wso2.extension.siddhi.io.cdc.source.listening.WrongConfigurationException;
+import org.wso2.extension.siddhi.io.cdc.source.metrics.CDCSourceMetrics;
 import org.wso2.extension.siddhi.io.cdc.source.polling.CDCPoller;
+import org.wso2.extension.siddhi.io.cdc.source.polling.CDCPollingModeException;
+import org.wso2.extension.siddhi.io.cdc.source.polling.ChangeCounterPollingTrigger;
+import org.wso2.extension.siddhi.io.cdc.source.polling.NotifyPollingTrigger;
+import org.wso2.extension.siddhi.io.cdc.source.polling.PollingRateLimit;
+import org.wso2.extension.siddhi.io.cdc.source.polling.PollingTrigger;
+import org.wso2.extension.siddhi.io.cdc.source.polling.ReplicaRouter;
+import org.wso2.extension.siddhi.io.cdc.util.CDCPollingUtil;
 import org.wso2.extension.siddhi.io.cdc.util.CDCSourceConstants;
 import org.wso2.extension.siddhi.io.cdc.util.CDCSourceUtil;
 import org.wso2.siddhi.annotation.Example;
@@ -43,10 +56,16 @@ import org.wso2.siddhi.query.api.exception.SiddhiAppValidationException;
 
 import java.io.File;
 import java.sql.SQLException;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Extension to the siddhi to retrieve Database Changes - implementation of cdc source.
@@ -63,6 +82,12 @@ import java.util.concurrent.Executors;
                 "\n\tFor update: Keys are followed followed by the specified table columns. This is achieved via " +
                 "'before_'. e.g., specifying 'before_X' results in the key being added before the column named 'X'." +
                 "\nFor 'polling' mode: Keys are specified as the coloumns of the table." +
+                "\nThe time the change is committed in the database can be mapped using the transport property " +
+                "'trp:commit.timestamp' (in milliseconds). In 'listening' mode this is the 'ts_ms' of the change's " +
+                "source, and in 'polling' mode this is the value of the 'polling.column' if it is a TIMESTAMP " +
+                "column. Use it with time based windows such as 'externalTime' to process changes in commit time." +
+                "\nThe table of the change can be mapped using the transport property 'trp:table.name', to route " +
+                "the changes of the tables captured by a single source." +
                 "\nSee parameter: mode for supported databases and change events.",
         parameters = {
                 @Parameter(name = "url",
@@ -79,7 +104,16 @@ import java.util.concurrent.Executors;
                                 "'polling': This mode uses a column named 'polling.column' to monitor the given " +
                                 "table. It captures change events of the 'RDBMS', 'INSERT, and 'UPDATE' types.\n" +
                                 "'listening': This mode uses logs to monitor the given table. It currently supports" +
-                                " change events only of the 'MySQL', 'INSERT', 'UPDATE', and 'DELETE' types.",
+                                " change events only of the 'MySQL', 'INSERT', 'UPDATE', and 'DELETE' types.\n" +
+                                "'synthetic': This mode generates change events shaped like the 'listening' mode" +
+                                " events without a database, to benchmark the source. The 'table.name' is" +
+                                " optional in this mode.\n" +
+                                "'replay': This mode replays the change events recorded as newline-delimited" +
+                                " Debezium JSON envelopes, with the schemas, in the files given by 'replay.path'." +
+                                " The 'table.name' is optional in this mode.\n" +
+                                "'binlog': This mode reads the row events of the given table from the MySQL binlog" +
+                                " files given by 'binlog.path', e.g. the binlogs of a restored backup, without a" +
+                                " live server. It sends the same events as the 'listening' mode.",
                         type = DataType.STRING,
                         defaultValue = "listening",
                         optional = true
@@ -108,7 +142,10 @@ import java.util.concurrent.Executors;
                 ),
                 @Parameter(name = "pool.properties",
                         description = "The pool parameters for the database connection can be specified as key-value" +
-                                " pairs.",
+                                " pairs." +
+                                "\nIn polling mode, the sources connecting with the same URL, username, password," +
+                                " driver and pool parameters share a single connection pool. Each poll borrows a" +
+                                " connection from the pool only while it runs.",
                         type = DataType.STRING,
                         optional = true,
                         defaultValue = "<Empty_String>"
@@ -126,7 +163,13 @@ import java.util.concurrent.Executors;
                 ),
                 @Parameter(
                         name = "table.name",
-                        description = "The name of the table that needs to be monitored for data changes.",
+                        description = "The name of the table that needs to be monitored for data changes." +
+                                "\nIn 'listening' and 'binlog' modes, this can be a comma separated list of table" +
+                                " names or regular expressions, e.g., 'orders_[0-9]+', so that a single source" +
+                                " captures the changes of all the matching tables. Map 'trp:table.name' to find the" +
+                                " table of a change. A table name can be qualified with its schema, e.g.," +
+                                " 'dbo.orders', which is required for Microsoft SQL Server." +
+                                "\nIt is not required when 'polling.query' is given.",
                         type = DataType.STRING
                 ),
                 @Parameter(
@@ -138,7 +181,295 @@ import java.util.concurrent.Executors;
                                 " used as 'polling.column'. However, note that fields of these types only support" +
                                 " insert change capturing, and the possibility of using a char field also depends on" +
                                 " how the data is input." +
-                                "\n**It is required to enter a value for this parameter when the mode is 'polling'.**"
+                                "\n**It is required to enter a value for this parameter when the mode is 'polling'" +
+                                " and 'polling.cursor' is 'column'.**" +
+                                "\nWhen 'polling.cursor' is 'native', this is only used by databases whose row" +
+                                " version is a column of the table, i.e., the 'rowversion' column in Microsoft SQL" +
+                                " Server."
+                        ,
+                        type = DataType.STRING,
+                        defaultValue = "<Empty_String>",
+                        optional = true
+                ),
+                @Parameter(
+                        name = "polling.query",
+                        description = "A query to poll instead of the 'table.name', e.g., a join of several tables," +
+                                " so that the database does the join. The query should contain the cursor" +
+                                " placeholder '{{CURSOR}}', which is replaced with the last read value of the" +
+                                " 'polling.column', e.g., 'SELECT o.id, o.last_updated, c.name FROM orders o JOIN" +
+                                " customers c ON o.customer_id = c.id WHERE o.last_updated > {{CURSOR}}'." +
+                                " The 'polling.column' should be a column of the query results, and 'table.name'" +
+                                " is not required." +
+                                "\nThis parameter is applicable only when the mode is set to 'polling' and" +
+                                " 'polling.cursor' is 'column'."
+                        ,
+                        type = DataType.STRING,
+                        defaultValue = "<Empty_String>",
+                        optional = true
+                ),
+                @Parameter(
+                        name = "polling.grace.period",
+                        description = "The time (specified in milliseconds) given for rows to be committed. Rows" +
+                                " with a 'polling.column' value later than the current time of the database less" +
+                                " this period are read in a later poll, so that rows committed late with an earlier" +
+                                " timestamp are not missed. '0' means no upper bound." +
+                                "\nThis parameter is applicable only when the mode is set to 'polling' and the" +
+                                " 'polling.column' is a TIMESTAMP."
+                        ,
+                        type = DataType.LONG,
+                        defaultValue = "0",
+                        optional = true
+                ),
+                @Parameter(
+                        name = "polling.lookback",
+                        description = "The time (specified in milliseconds) before the last read 'polling.column'" +
+                                " value that is read again in each poll, to capture rows committed late with an" +
+                                " earlier timestamp. The rows already sent are dropped, by keeping the primary key" +
+                                " and the 'polling.column' value of the rows read within this window. Hence the" +
+                                " table should have an integer primary key, and with 'polling.query' the" +
+                                " 'table.name' should be given and the query should select its primary key." +
+                                " '0' means no lookback." +
+                                "\nThis parameter is applicable only when the mode is set to 'polling' and the" +
+                                " 'polling.column' is a TIMESTAMP."
+                        ,
+                        type = DataType.LONG,
+                        defaultValue = "0",
+                        optional = true
+                ),
+                @Parameter(
+                        name = "polling.cursor",
+                        description = "How the changed rows are found in polling mode. Possible values are" +
+                                " 'column' and 'native'." +
+                                "\n'column' reads the rows whose 'polling.column' value is greater than the last" +
+                                " read value." +
+                                "\n'native' uses the row version the database maintains for each row, so that" +
+                                " updates are captured without a TIMESTAMP column. The row version used is 'xmin' in" +
+                                " PostgreSQL, 'ORA_ROWSCN' in Oracle, the 'rowversion' column given as" +
+                                " 'polling.column' in Microsoft SQL Server and '_ROWID_' (inserts only) in H2. For" +
+                                " other databases, configure the system parameter '<database_name>.nativeCursor'." +
+                                " Note that 'ORA_ROWSCN' is tracked per block unless the table is created with" +
+                                " ROWDEPENDENCIES, in which case unchanged rows in the same block may be sent again." +
+                                " Also note that 'xmin' is a 32-bit transaction id, which wraps around after about" +
+                                " four billion transactions. Rows changed after a wraparound have smaller values than" +
+                                " the last read value and are not captured until the persisted state of the source is" +
+                                " cleared, hence use the 'column' cursor for PostgreSQL tables that are expected to" +
+                                " outlive a wraparound." +
+                                "\nThis parameter is applicable only when the mode is set to 'polling'."
+                        ,
+                        type = DataType.STRING,
+                        defaultValue = "column",
+                        optional = true
+                ),
+                @Parameter(
+                        name = "polling.trigger",
+                        description = "A channel through which the database signals changes, so that the table is" +
+                                " polled right away instead of waiting for the 'polling.interval'. The" +
+                                " 'polling.interval' is still used as the maximum time between two polls." +
+                                " Possible values are 'none', 'notify' and 'counter'." +
+                                "\n'notify' listens on the PostgreSQL channel given as 'polling.trigger.channel'," +
+                                " to which a trigger on the table sends a NOTIFY." +
+                                "\n'counter' runs the 'polling.trigger.query' every 'polling.trigger.check.interval'" +
+                                " and polls the table when its result changes, e.g., a counter in a single row table" +
+                                " updated by a trigger on the polled table." +
+                                "\nThe trigger keeps a connection of its own, which is opened with the 'url'," +
+                                " 'jdbc.driver.name' and 'pool.properties' instead of being taken from the" +
+                                " connection pool when the pool isn't given as a 'datasource.name' or" +
+                                " 'jndi.resource'. If the trigger fails, the table is polled at" +
+                                " the 'polling.interval' till the trigger is restarted on a new connection." +
+                                "\nThis parameter is applicable only when the mode is set to 'polling'."
+                        ,
+                        type = DataType.STRING,
+                        defaultValue = "none",
+                        optional = true
+                ),
+                @Parameter(
+                        name = "polling.trigger.channel",
+                        description = "The PostgreSQL notification channel to listen on. It is required when" +
+                                " 'polling.trigger' is 'notify'."
+                        ,
+                        type = DataType.STRING,
+                        defaultValue = "<Empty_String>",
+                        optional = true
+                ),
+                @Parameter(
+                        name = "polling.trigger.query",
+                        description = "A query returning a single value that changes whenever the polled table" +
+                                " changes. It is required when 'polling.trigger' is 'counter'."
+                        ,
+                        type = DataType.STRING,
+                        defaultValue = "<Empty_String>",
+                        optional = true
+                ),
+                @Parameter(
+                        name = "polling.trigger.check.interval",
+                        description = "The time interval (specified in milliseconds) to run the" +
+                                " 'polling.trigger.query'." +
+                                "\nThis parameter is applicable only when 'polling.trigger' is 'counter'."
+                        ,
+                        type = DataType.INT,
+                        defaultValue = "100",
+                        optional = true
+                ),
+                @Parameter(
+                        name = "polling.delete.detection.interval",
+                        description = "The interval (specified in seconds) at which the polled table is checked" +
+                                " for deleted rows, which polling can't see otherwise. The keys of the integer" +
+                                " primary key are split into ranges, and only the ranges whose row count or key sum" +
+                                " changed since the last check are read. A deleted row is sent as an event with" +
+                                " only the 'before_' + primary key column attribute, so the mapping should not" +
+                                " fail on missing attributes. Rows deleted before the first check, or while the" +
+                                " source is not running, are not detected. '0' disables the detection." +
+                                "\nThis parameter is applicable only when the mode is set to 'polling' and" +
+                                " 'polling.query' is not given."
+                        ,
+                        type = DataType.LONG,
+                        defaultValue = "0",
+                        optional = true
+                ),
+                @Parameter(
+                        name = "polling.delete.detection.range.size",
+                        description = "Number of primary key values in a range checked by the delete detection." +
+                                " The keys of each range are kept in memory as a bitmap of this many bits." +
+                                "\nThis parameter is applicable only when the mode is set to 'polling'."
+                        ,
+                        type = DataType.INT,
+                        defaultValue = "8192",
+                        optional = true
+                ),
+                @Parameter(
+                        name = "polling.partitions",
+                        description = "Number of partitions the rows of the table are split into by the" +
+                                " 'polling.partition.key'. The partitions are spread over the nodes running the" +
+                                " Siddhi app with 'coordination' = 'lease', and rebalanced as the nodes join or" +
+                                " leave. Each partition is polled with its own cursor, kept in the 'cdc_leases'" +
+                                " table of the 'store.url' database, so that a partition continues from its" +
+                                " position on another node. Rows polled by a node that loses a partition may be" +
+                                " sent again by the next holder." +
+                                "\nA row belongs to partition 'MOD(ABS(key), partitions)'. The expression can be" +
+                                " changed with the system parameter '<database_name>.partitionExpression'." +
+                                "\nThis parameter is applicable only when the mode is set to 'polling', and it" +
+                                " can't be used with 'polling.query', 'polling.lookback' or" +
+                                " 'polling.delete.detection.interval'."
+                        ,
+                        type = DataType.INT,
+                        defaultValue = "1",
+                        optional = true
+                ),
+                @Parameter(
+                        name = "polling.partition.key",
+                        description = "The integer column the rows are partitioned on when 'polling.partitions'" +
+                                " is greater than 1." +
+                                "\nThis parameter is applicable only when the mode is set to 'polling'."
+                        ,
+                        type = DataType.STRING,
+                        defaultValue = "The primary key of the table.",
+                        optional = true
+                ),
+                @Parameter(
+                        name = "polling.plan.check",
+                        description = "Whether the plans of the polling queries are checked with the database's" +
+                                " EXPLAIN at startup, to find out whether the 'polling.column' is indexed. Possible" +
+                                " values are 'off', 'warn' and 'reject'." +
+                                "\n'warn' logs a warning if a query scans the full table, and 'reject' fails the" +
+                                " source. The estimated plan costs are exposed as metrics when statistics are" +
+                                " enabled." +
+                                "\nThe check is supported for MySQL, PostgreSQL and H2. For other databases," +
+                                " configure the system parameters '<database_name>.explainQuery'," +
+                                " '<database_name>.fullScanPattern' and '<database_name>.planCostPattern'." +
+                                "\nThis parameter is applicable only when the mode is set to 'polling'."
+                        ,
+                        type = DataType.STRING,
+                        defaultValue = "off",
+                        optional = true
+                ),
+                @Parameter(
+                        name = "polling.max.rows.per.second",
+                        description = "The maximum number of rows the source reads per second. '0' means no limit." +
+                                " The rows of a poll are read at once, and the next poll waits until they are " +
+                                "within the limit, so that the source holds no pooled connection while it waits." +
+                                "\nA limit shared by all the sources of a connection pool can be set with the" +
+                                " 'maxRowsPerSecond' key in 'pool.properties'." +
+                                "\nThis parameter is applicable only when the mode is set to 'polling'."
+                        ,
+                        type = DataType.DOUBLE,
+                        defaultValue = "0",
+                        optional = true
+                ),
+                @Parameter(
+                        name = "polling.max.queries.per.second",
+                        description = "The maximum number of polling queries the source runs per second. '0' means" +
+                                " no limit." +
+                                "\nA limit shared by all the sources of a connection pool can be set with the" +
+                                " 'maxQueriesPerSecond' key in 'pool.properties'." +
+                                "\nThis parameter is applicable only when the mode is set to 'polling'."
+                        ,
+                        type = DataType.DOUBLE,
+                        defaultValue = "0",
+                        optional = true
+                ),
+                @Parameter(
+                        name = "replica.url",
+                        description = "The connection URL of a read replica of the database. The poll queries are" +
+                                " run on the replica while its replication lag is under 'replica.max.lag', and on" +
+                                " the primary otherwise." +
+                                "\nThis parameter is applicable only when the mode is set to 'polling' and the" +
+                                " source connects with the 'url'."
+                        ,
+                        type = DataType.STRING,
+                        defaultValue = "<Empty_String>",
+                        optional = true
+                ),
+                @Parameter(
+                        name = "replica.username",
+                        description = "The username to connect to the read replica.",
+                        type = DataType.STRING,
+                        defaultValue = "The 'username' of the primary.",
+                        optional = true
+                ),
+                @Parameter(
+                        name = "replica.password",
+                        description = "The password to connect to the read replica.",
+                        type = DataType.STRING,
+                        defaultValue = "The 'password' of the primary.",
+                        optional = true
+                ),
+                @Parameter(
+                        name = "replica.max.lag",
+                        description = "The maximum replication lag (specified in milliseconds) of the read replica" +
+                                " to run the poll queries on it.",
+                        type = DataType.LONG,
+                        defaultValue = "1000",
+                        optional = true
+                ),
+                @Parameter(
+                        name = "replica.lag.check.interval",
+                        description = "The interval (specified in milliseconds) at which the replication lag of the" +
+                                " read replica is read. The poll queries in between are routed by the last read" +
+                                " lag, hence the replica may fall behind by up to this interval more than" +
+                                " 'replica.max.lag' before the polls move to the primary. Set to 0 to read the lag" +
+                                " in every poll.",
+                        type = DataType.LONG,
+                        defaultValue = "5000",
+                        optional = true
+                ),
+                @Parameter(
+                        name = "replica.lag.query",
+                        description = "A query run on the read replica that returns its replication lag in" +
+                                " milliseconds, e.g., the age of a heartbeat row updated on the primary. A null" +
+                                " lag is taken as the replica not being usable." +
+                                "\nThe default query is only available for PostgreSQL. For other databases this" +
+                                " parameter is required when 'replica.url' is given.",
+                        type = DataType.STRING,
+                        defaultValue = "<Empty_String>",
+                        optional = true
+                ),
+                @Parameter(
+                        name = "polling.rate.limit.window",
+                        description = "The daily time window, in the format 'HH:mm-HH:mm', in which the rate limits" +
+                                " apply, e.g., '09:00-18:00' for business hours. The window may span midnight." +
+                                " Outside the window the source polls at full speed. When not given, the limits" +
+                                " always apply." +
+                                "\nThis parameter is applicable only when the mode is set to 'polling'."
                         ,
                         type = DataType.STRING,
                         defaultValue = "<Empty_String>",
@@ -157,16 +488,124 @@ import java.util.concurrent.Executors;
                         name = "operation",
                         description = "The change event operation you want to carry out. Possible values are" +
                                 " 'insert', 'update' or 'delete'. It is required to specify a value when the mode is" +
-                                " 'listening'." +
+                                " 'listening', 'synthetic', 'replay' or 'binlog'." +
                                 "\nThis parameter is not case sensitive.",
                         type = DataType.STRING
                 ),
+                @Parameter(
+                        name = "synthetic.rate",
+                        description = "Number of change events generated per second. '0' generates them as fast" +
+                                " as the events are consumed." +
+                                "\nThis parameter is applicable only when the mode is set to 'synthetic'.",
+                        type = DataType.DOUBLE,
+                        defaultValue = "1000",
+                        optional = true
+                ),
+                @Parameter(
+                        name = "synthetic.events",
+                        description = "Number of change events generated before the generation stops. '0' means" +
+                                " no limit." +
+                                "\nThis parameter is applicable only when the mode is set to 'synthetic'.",
+                        type = DataType.LONG,
+                        defaultValue = "0",
+                        optional = true
+                ),
+                @Parameter(
+                        name = "synthetic.columns",
+                        description = "Number of columns of a generated row. The rows have an 'id' LONG key column" +
+                                " followed by 'column1', 'column2', and so on, alternating STRING and INT columns." +
+                                "\nThis parameter is applicable only when the mode is set to 'synthetic'.",
+                        type = DataType.INT,
+                        defaultValue = "8",
+                        optional = true
+                ),
+                @Parameter(
+                        name = "synthetic.operations",
+                        description = "Relative weights of the generated operations, as comma-separated" +
+                                " key-value pairs, e.g. 'insert:70, update:20, delete:10'. Only the events of the" +
+                                " 'operation' are sent to the stream." +
+                                "\nThis parameter is applicable only when the mode is set to 'synthetic'.",
+                        type = DataType.STRING,
+                        defaultValue = "insert:1",
+                        optional = true
+                ),
+                @Parameter(
+                        name = "synthetic.key.count",
+                        description = "Number of distinct keys of the generated rows." +
+                                "\nThis parameter is applicable only when the mode is set to 'synthetic'.",
+                        type = DataType.LONG,
+                        defaultValue = "1000000",
+                        optional = true
+                ),
+                @Parameter(
+                        name = "synthetic.key.distribution",
+                        description = "How the keys of the generated rows are chosen. Possible values are" +
+                                " 'uniform', 'sequential' and 'hotspot'. 'hotspot' sends 90% of the events to 10%" +
+                                " of the keys." +
+                                "\nThis parameter is applicable only when the mode is set to 'synthetic'.",
+                        type = DataType.STRING,
+                        defaultValue = "uniform",
+                        optional = true
+                ),
+                @Parameter(
+                        name = "synthetic.seed",
+                        description = "Seed of the generated keys and operations. Sources with the same seed and" +
+                                " the same generation parameters generate the same change events, so each" +
+                                " operation of the same generated changes can be received by a source of its own." +
+                                "\nThis parameter is applicable only when the mode is set to 'synthetic'.",
+                        type = DataType.LONG,
+                        defaultValue = "0",
+                        optional = true
+                ),
+                @Parameter(
+                        name = "replay.path",
+                        description = "The file of the recorded change events, or a directory whose files are" +
+                                " replayed in the order of their names. The replay continues from the file and the" +
+                                " position of the last sent event when the state of the siddhi app is restored." +
+                                "\nIt is required to specify a value when the mode is 'replay'.",
+                        type = DataType.STRING
+                ),
+                @Parameter(
+                        name = "replay.speed",
+                        description = "Multiple of the commit speed of the recorded events they are replayed in," +
+                                " e.g. '2' replays an hour of changes in half an hour. '0' replays them as fast as" +
+                                " the events are consumed." +
+                                "\nThis parameter is applicable only when the mode is set to 'replay'.",
+                        type = DataType.DOUBLE,
+                        defaultValue = "0",
+                        optional = true
+                ),
+                @Parameter(
+                        name = "binlog.path",
+                        description = "The MySQL binlog file, or a directory whose binlog files are read in the" +
+                                " order of their names. The '.index' file of the directory is ignored. The reading" +
+                                " continues from the file and the position of the last read event when the state" +
+                                " of the siddhi app is restored." +
+                                "\nIt is required to specify a value when the mode is 'binlog'.",
+                        type = DataType.STRING
+                ),
+                @Parameter(
+                        name = "binlog.column.names",
+                        description = "The comma-separated names of the columns of the table, in the order of the" +
+                                " table. When many tables are read, the names are used for all of them." +
+                                " The binlog doesn't have the column names, so the columns without a given" +
+                                " name are named 'column1', 'column2', and so on, by their position. TEXT and BLOB" +
+                                " columns are received as bytes, since the binlog doesn't tell them apart." +
+                                "\nThis parameter is applicable only when the mode is set to 'binlog'.",
+                        type = DataType.STRING,
+                        defaultValue = "<Empty_String>",
+                        optional = true
+                ),
                 @Parameter(
                         name = "connector.properties",
                         description = "Here, you can specify Debezium connector properties as a comma-separated " +
                                 "string. " +
-                                "\nThe properties specified here are given more priority over the parameters. This" +
-                                " parameter is applicable only for the 'listening' mode.",
+                                "\nThe properties specified here are given more priority over the parameters." +
+                                " The properties which the source depends on, 'name', 'connector.class'," +
+                                " 'table.whitelist', 'offset.storage', 'offset.storage.file.filename'," +
+                                " 'cdc.source.object', 'database.history' and 'database.history.file.filename'," +
+                                " can't be specified here. This parameter is applicable only for the 'listening'" +
+                                " mode.",
                         type = DataType.STRING,
                         optional = true,
                         defaultValue = "Empty_String"
@@ -185,6 +624,117 @@ import java.util.concurrent.Executors;
                         defaultValue = "{host}_{port}",
                         optional = true,
                         type = DataType.STRING
+                ),
+                @Parameter(name = "incremental.snapshot",
+                        description = "If this is set to 'true', the existing rows of the table are read in " +
+                                "primary key chunks and emitted as inserts while the live changes are being " +
+                                "captured. The chunks are read without locking the table, and the progress is " +
+                                "persisted with the state of the Siddhi app. The 'table.name' should be a single " +
+                                "table, optionally qualified with its schema, with a single column primary key. " +
+                                "This parameter is applicable only when the mode is 'listening' and " +
+                                "the operation is 'insert'.",
+                        defaultValue = "false",
+                        optional = true,
+                        type = DataType.BOOL
+                ),
+                @Parameter(name = "incremental.snapshot.chunk.size",
+                        description = "The number of rows read in a single chunk of the incremental snapshot.",
+                        defaultValue = "1024",
+                        optional = true,
+                        type = DataType.INT
+                ),
+                @Parameter(name = "incremental.snapshot.watermark.table",
+                        description = "The table used to write the watermarks that separate the chunks of the " +
+                                "incremental snapshot from the live changes. It is created in the monitored " +
+                                "database if it does not exist, and the user needs 'INSERT' and 'UPDATE' " +
+                                "privileges for it.",
+                        defaultValue = "cdc_snapshot_watermark",
+                        optional = true,
+                        type = DataType.STRING
+                ),
+                @Parameter(name = "spill.on.pause",
+                        description = "If this is set to 'true', the source keeps consuming changes from the " +
+                                "database while it is paused, and appends them to segment files in the history " +
+                                "directory instead of blocking the connection. The spilled changes are sent in " +
+                                "order when the source is resumed. This keeps the replication slot or binlog " +
+                                "reader advancing without holding the backlog in memory. The spilled changes " +
+                                "are synced to disk once per batch of the engine, before the offsets of the batch " +
+                                "are committed. If the spilled changes can't be sent, " +
+                                "the source stops capturing and keeps them on disk until it is started again. " +
+                                "This parameter is applicable only when the mode is 'listening'.",
+                        defaultValue = "false",
+                        optional = true,
+                        type = DataType.BOOL
+                ),
+                @Parameter(name = "heartbeat.interval",
+                        description = "The interval (specified in seconds) at which heartbeats are recorded. " +
+                                "Heartbeats advance the stored offset even when the monitored table has no " +
+                                "changes, which keeps the restart catch-up time and the binlog or WAL retained by " +
+                                "the database small. Heartbeats are not sent as events. Heartbeats are disabled " +
+                                "when it is 0. The topic prefix of the heartbeats can be changed with the " +
+                                "'heartbeat.topics.prefix' connector property. This parameter is applicable only " +
+                                "when the mode is 'listening'.",
+                        defaultValue = "0",
+                        optional = true,
+                        type = DataType.INT
+                ),
+                @Parameter(name = "heartbeat.action.query",
+                        description = "A query executed on the database at each heartbeat, e.g. an update of a " +
+                                "heartbeat table. This lets a PostgreSQL replication slot advance when the " +
+                                "database has changes only in tables that are not monitored. This parameter is " +
+                                "applicable only when the mode is 'listening' and 'heartbeat.interval' is set.",
+                        defaultValue = "<Empty_String>",
+                        optional = true,
+                        type = DataType.STRING
+                ),
+                @Parameter(name = "store.url",
+                        description = "The JDBC url of a database in which the offsets and the schema history of " +
+                                "the source are kept, in the 'cdc_offsets' and 'cdc_history' tables, instead of " +
+                                "local files under the carbon home. The tables are created if they do not exist. " +
+                                "This lets the source continue from its position on another node. The table " +
+                                "names can be changed with the 'offset.storage.jdbc.table.name' and " +
+                                "'database.history.jdbc.table.name' connector properties. This parameter is " +
+                                "applicable only when the mode is 'listening'. In the polling mode, it only keeps " +
+                                "the leases and the cursors of 'coordination'.",
+                        defaultValue = "<Empty_String>",
+                        optional = true,
+                        type = DataType.STRING
+                ),
+                @Parameter(name = "store.username",
+                        description = "The username of the 'store.url' database.",
+                        defaultValue = "The 'username' of the source.",
+                        optional = true,
+                        type = DataType.STRING
+                ),
+                @Parameter(name = "store.password",
+                        description = "The password of the 'store.url' database.",
+                        defaultValue = "The 'password' of the source.",
+                        optional = true,
+                        type = DataType.STRING
+                ),
+                @Parameter(name = "coordination",
+                        description = "How the nodes running the same Siddhi app share this source. Supported " +
+                                "values are 'none' and 'lease'. With 'none', each node captures the changes on " +
+                                "its own. With 'lease', only the node holding the lease of the source, kept in " +
+                                "the 'cdc_leases' table of the 'store.url' database, captures the changes. The " +
+                                "other nodes stand by and one of them takes the lease over when it isn't renewed " +
+                                "within 'coordination.lease.timeout', continuing from the offsets and the schema " +
+                                "history kept in the 'store.url' database." +
+                                "\nIn the polling mode, the partitions of the table given by 'polling.partitions'" +
+                                " are leased, and each node polls its share of the partitions." +
+                                "\nThis parameter is applicable only for the listening and polling modes, and needs" +
+                                " 'store.url'.",
+                        defaultValue = "none",
+                        optional = true,
+                        type = DataType.STRING
+                ),
+                @Parameter(name = "coordination.lease.timeout",
+                        description = "Time in seconds after which a lease that is not renewed is taken over by a " +
+                                "standby node. The holder renews the lease six times within this time, and gives " +
+                                "it up and stops capturing if it couldn't renew it for half this time.",
+                        defaultValue = "30",
+                        optional = true,
+                        type = DataType.INT
                 )
         },
         examples = {
@@ -254,6 +804,17 @@ import java.util.concurrent.Executors;
                         description = "In this example, the CDC source polls the 'students' table for inserts " +
                                 "and updates. The polling column is a timestamp field."
                 ),
+                @Example(
+                        syntax = "@source(type = 'cdc' , url = 'jdbc:mysql://localhost:3306/SimpleDB', " +
+                                "\nusername = 'cdcuser', password = 'pswd4cdc', " +
+                                "\ntable.name = 'students', operation = 'insert', " +
+                                "\n@map(type='keyvalue', @attributes(id = 'id', name = 'name', " +
+                                "\ncommitTime = 'trp:commit.timestamp')))" +
+                                "\ndefine stream inputStream (id string, name string, commitTime long);",
+                        description = "In this example, the CDC source listens to the row insertions that are made " +
+                                "in the 'students' table, and maps the time each row is committed in the " +
+                                "database to the 'commitTime' attribute."
+                ),
 
         }
 )
@@ -268,9 +829,18 @@ public class CDCSource extends Source {
     private ChangeDataCapture changeDataCapture;
     private String historyFileDirectory;
     private CDCSourceObjectKeeper cdcSourceObjectKeeper = CDCSourceObjectKeeper.getCdcSourceObjectKeeper();
+    private String cdcSourceObjectId = cdcSourceObjectKeeper.generateObjectId();
     private String carbonHome;
     private CDCPoller cdcPoller;
-
+    private CDCSourceMetrics metrics;
+    private IncrementalSnapshotter incrementalSnapshotter;
+    private ExecutorService snapshotExecutorService;
+    private SyntheticChangeEventGenerator syntheticGenerator;
+    private ChangeLogReplayer changeLogReplayer;
+    private BinlogFileReader binlogFileReader;
+    private LeaseCoordinator leaseCoordinator;
+    private String leaseName;
+    private EmbeddedEngine engine;
 
     @Override
     public void init(SourceEventListener sourceEventListener, OptionHolder optionHolder,
@@ -279,8 +849,26 @@ public class CDCSource extends Source {
         //initialize mode
         mode = optionHolder.validateAndGetStaticValue(CDCSourceConstants.MODE, CDCSourceConstants.MODE_LISTENING);
 
-        //initialize common mandatory parameters
-        String tableName = optionHolder.validateAndGetOption(CDCSourceConstants.TABLE_NAME).getValue();
+        //initialize common mandatory parameters. table.name is not needed when polling with a custom query.
+        String tableName = null;
+        if (CDCSourceConstants.MODE_SYNTHETIC.equals(mode)) {
+            tableName = optionHolder.validateAndGetStaticValue(CDCSourceConstants.TABLE_NAME,
+                    CDCSourceConstants.MODE_SYNTHETIC);
+        } else if (CDCSourceConstants.MODE_REPLAY.equals(mode)) {
+            if (optionHolder.isOptionExists(CDCSourceConstants.TABLE_NAME)) {
+                tableName = optionHolder.validateAndGetStaticValue(CDCSourceConstants.TABLE_NAME);
+            }
+        } else if (!CDCSourceConstants.MODE_POLLING.equals(mode) ||
+                !optionHolder.isOptionExists(CDCSourceConstants.POLLING_QUERY)) {
+            tableName = optionHolder.validateAndGetOption(CDCSourceConstants.TABLE_NAME).getValue();
+        } else if (optionHolder.isOptionExists(CDCSourceConstants.TABLE_NAME)) {
+            tableName = optionHolder.validateAndGetStaticValue(CDCSourceConstants.TABLE_NAME);
+        }
+
+        CDCSourceUtil.validateTransportPropertyNames(requestedTransportPropertyNames);
+
+        //register the metrics of this source with the statistics manager of the siddhi app.
+        metrics = new CDCSourceMetrics(siddhiAppContext, sourceEventListener.getStreamDefinition().getId(), mode);
 
         switch (mode) {
             case CDCSourceConstants.MODE_LISTENING:
@@ -316,7 +904,8 @@ public class CDCSource extends Source {
                 validateListeningModeParameters(optionHolder);
 
                 //send sourceEventListener and preferred operation to changeDataCapture object
-                changeDataCapture = new ChangeDataCapture(operation, sourceEventListener);
+                changeDataCapture = new ChangeDataCapture(operation, sourceEventListener, metrics,
+                        requestedTransportPropertyNames);
 
                 //create the folder for history file if not exists
                 File directory = new File(historyFileDirectory);
@@ -327,10 +916,51 @@ public class CDCSource extends Source {
                     }
                 }
 
+                if (Boolean.parseBoolean(optionHolder.validateAndGetStaticValue(CDCSourceConstants.SPILL_ON_PAUSE,
+                        "false"))) {
+                    //the engine is stopped, so that no more offsets are committed without sending the events.
+                    changeDataCapture.enableSpillBuffer(historyFileDirectory + "spill" + File.separator +
+                            streamName + File.separator, (segment, error) -> {
+                        log.error("Stopping the CDC source of the stream '" + streamName + "', as the spilled " +
+                                "change events in " + segment + " couldn't be sent. The segment is kept, and is " +
+                                "sent when the source is started again.", error);
+                        stopCapturing();
+                    });
+                }
+
+                boolean isIncrementalSnapshot = Boolean.parseBoolean(optionHolder.validateAndGetStaticValue(
+                        CDCSourceConstants.INCREMENTAL_SNAPSHOT, "false"));
+
                 try {
                     Map<String, Object> configMap = CDCSourceUtil.getConfigMap(username, password, url, tableName,
                             historyFileDirectory, siddhiAppName, streamName, serverID, serverName, connectorProperties,
-                            this.hashCode());
+                            cdcSourceObjectId);
+                    int heartbeatInterval = Integer.parseInt(optionHolder.validateAndGetStaticValue(
+                            CDCSourceConstants.HEARTBEAT_INTERVAL,
+                            Integer.toString(CDCSourceConstants.DEFAULT_HEARTBEAT_INTERVAL_SECONDS)));
+                    if (heartbeatInterval < 0) {
+                        throw new SiddhiAppValidationException(CDCSourceConstants.HEARTBEAT_INTERVAL + " should be " +
+                                "a non negative integer. Current mode: " + CDCSourceConstants.MODE_LISTENING);
+                    }
+                    CDCSourceUtil.addHeartbeatConfig(configMap, heartbeatInterval,
+                            optionHolder.validateAndGetStaticValue(CDCSourceConstants.HEARTBEAT_ACTION_QUERY,
+                                    CDCSourceConstants.EMPTY_STRING));
+                    if (optionHolder.isOptionExists(CDCSourceConstants.STORE_URL)) {
+                        CDCSourceUtil.addJdbcStoreConfig(configMap,
+                                optionHolder.validateAndGetStaticValue(CDCSourceConstants.STORE_URL),
+                                optionHolder.validateAndGetStaticValue(CDCSourceConstants.STORE_USERNAME, username),
+                                optionHolder.validateAndGetStaticValue(CDCSourceConstants.STORE_PASSWORD, password),
+                                siddhiAppName + "." + streamName);
+                    }
+                    initializeCoordination(optionHolder, username, password, siddhiAppName + "." + streamName);
+                    if (isIncrementalSnapshot) {
+                        initializeIncrementalSnapshot(optionHolder, url, username, password, tableName,
+                                siddhiAppName + "." + streamName, sourceEventListener,
+                                requestedTransportPropertyNames);
+                        CDCSourceUtil.addToTableWhitelist(configMap, optionHolder.validateAndGetStaticValue(
+                                CDCSourceConstants.INCREMENTAL_SNAPSHOT_WATERMARK_TABLE,
+                                CDCSourceConstants.DEFAULT_INCREMENTAL_SNAPSHOT_WATERMARK_TABLE));
+                    }
                     changeDataCapture.setConfig(configMap);
                 } catch (WrongConfigurationException ex) {
                     throw new SiddhiAppCreationException("The cdc source couldn't get started because of invalid" +
@@ -341,13 +971,18 @@ public class CDCSource extends Source {
                 break;
             case CDCSourceConstants.MODE_POLLING:
 
-                String pollingColumn = optionHolder.validateAndGetStaticValue(CDCSourceConstants.POLLING_COLUMN);
+                String pollingCursor = optionHolder.validateAndGetStaticValue(CDCSourceConstants.POLLING_CURSOR,
+                        CDCSourceConstants.POLLING_CURSOR_COLUMN).toLowerCase(Locale.ENGLISH);
+                String pollingColumn = optionHolder.validateAndGetStaticValue(CDCSourceConstants.POLLING_COLUMN,
+                        null);
                 boolean isDatasourceNameAvailable = optionHolder.isOptionExists(CDCSourceConstants.DATASOURCE_NAME);
                 boolean isJndiResourceAvailable = optionHolder.isOptionExists(CDCSourceConstants.JNDI_RESOURCE);
                 pollingInterval = Integer.parseInt(
                         optionHolder.validateAndGetStaticValue(CDCSourceConstants.POLLING_INTERVAL,
                                 Integer.toString(CDCSourceConstants.DEFAULT_POLLING_INTERVAL_SECONDS)));
-                validatePollingModeParameters();
+                String pollingQuery = optionHolder.validateAndGetStaticValue(CDCSourceConstants.POLLING_QUERY,
+                        null);
+                validatePollingModeParameters(pollingCursor, pollingColumn, pollingQuery);
                 String poolPropertyString = optionHolder.validateAndGetStaticValue(CDCSourceConstants.POOL_PROPERTIES,
                         null);
 
@@ -355,12 +990,14 @@ public class CDCSource extends Source {
                     String datasourceName = optionHolder.validateAndGetStaticValue(CDCSourceConstants.DATASOURCE_NAME);
                     cdcPoller = new CDCPoller(null, null, null, tableName, null,
                             datasourceName, null, pollingColumn, pollingInterval,
-                            poolPropertyString, sourceEventListener, configReader);
+                            poolPropertyString, sourceEventListener, configReader, metrics,
+                            requestedTransportPropertyNames);
                 } else if (isJndiResourceAvailable) {
                     String jndiResource = optionHolder.validateAndGetStaticValue(CDCSourceConstants.JNDI_RESOURCE);
                     cdcPoller = new CDCPoller(null, null, null, tableName, null,
                             null, jndiResource, pollingColumn, pollingInterval, poolPropertyString,
-                            sourceEventListener, configReader);
+                            sourceEventListener, configReader, metrics,
+                            requestedTransportPropertyNames);
                 } else {
                     String driverClassName;
                     try {
@@ -375,8 +1012,82 @@ public class CDCSource extends Source {
                     }
                     cdcPoller = new CDCPoller(url, username, password, tableName, driverClassName,
                             null, null, pollingColumn, pollingInterval, poolPropertyString,
-                            sourceEventListener, configReader);
+                            sourceEventListener, configReader, metrics,
+                            requestedTransportPropertyNames);
+                    if (optionHolder.isOptionExists(CDCSourceConstants.REPLICA_URL)) {
+                        cdcPoller.setReplicaRouter(createReplicaRouter(optionHolder, username, password));
+                    }
+                }
+                if ((isDatasourceNameAvailable || isJndiResourceAvailable) &&
+                        optionHolder.isOptionExists(CDCSourceConstants.REPLICA_URL)) {
+                    throw new SiddhiAppValidationException(CDCSourceConstants.REPLICA_URL + " is only supported" +
+                            " when connecting with " + CDCSourceConstants.DATABASE_CONNECTION_URL + ". Current mode: " +
+                            CDCSourceConstants.MODE_POLLING);
+                }
+                cdcPoller.setPollingCursor(pollingCursor);
+                if (pollingQuery != null) {
+                    cdcPoller.setPollingQuery(pollingQuery);
                 }
+                cdcPoller.setLateRowHandling(getNonNegativeLong(optionHolder, CDCSourceConstants.POLLING_GRACE_PERIOD),
+                        getNonNegativeLong(optionHolder, CDCSourceConstants.POLLING_LOOKBACK));
+                cdcPoller.setPollingTrigger(createPollingTrigger(optionHolder));
+                long deleteDetectionInterval = getNonNegativeLong(optionHolder,
+                        CDCSourceConstants.POLLING_DELETE_DETECTION_INTERVAL);
+                if (deleteDetectionInterval > 0) {
+                    if (pollingQuery != null) {
+                        throw new SiddhiAppValidationException(CDCSourceConstants.POLLING_DELETE_DETECTION_INTERVAL +
+                                " is not supported with " + CDCSourceConstants.POLLING_QUERY + ". Current mode: " +
+                                CDCSourceConstants.MODE_POLLING);
+                    }
+                    int rangeSize = Integer.parseInt(optionHolder.validateAndGetStaticValue(
+                            CDCSourceConstants.POLLING_DELETE_DETECTION_RANGE_SIZE,
+                            Integer.toString(CDCSourceConstants.DEFAULT_POLLING_DELETE_DETECTION_RANGE_SIZE)));
+                    if (rangeSize <= 0) {
+                        throw new SiddhiAppValidationException(
+                                CDCSourceConstants.POLLING_DELETE_DETECTION_RANGE_SIZE + " should be a positive" +
+                                        " integer. Current mode: " + CDCSourceConstants.MODE_POLLING);
+                    }
+                    cdcPoller.setDeleteDetection(deleteDetectionInterval, rangeSize);
+                }
+                cdcPoller.setPlanCheck(getPlanCheck(optionHolder));
+                cdcPoller.setRateLimit(createPollingRateLimit(optionHolder));
+                initializeCoordination(optionHolder,
+                        optionHolder.validateAndGetStaticValue(CDCSourceConstants.USERNAME, null),
+                        optionHolder.validateAndGetStaticValue(CDCSourceConstants.PASSWORD, null),
+                        siddhiAppContext.getName() + "." + sourceEventListener.getStreamDefinition().getId());
+                initializePollingPartitions(optionHolder, pollingQuery, deleteDetectionInterval);
+                break;
+            case CDCSourceConstants.MODE_SYNTHETIC:
+                operation = optionHolder.validateAndGetOption(CDCSourceConstants.OPERATION).getValue();
+                changeDataCapture = new ChangeDataCapture(operation, sourceEventListener, metrics,
+                        requestedTransportPropertyNames);
+                syntheticGenerator = createSyntheticGenerator(optionHolder, tableName);
+                break;
+            case CDCSourceConstants.MODE_REPLAY:
+                operation = optionHolder.validateAndGetOption(CDCSourceConstants.OPERATION).getValue();
+                changeDataCapture = new ChangeDataCapture(operation, sourceEventListener, metrics,
+                        requestedTransportPropertyNames);
+                String replayPath = optionHolder.validateAndGetStaticValue(CDCSourceConstants.REPLAY_PATH);
+                if (!new File(replayPath).exists()) {
+                    throw new SiddhiAppValidationException("Couldn't find the " + CDCSourceConstants.REPLAY_PATH +
+                            " '" + replayPath + "'. Current mode: " + mode);
+                }
+                changeLogReplayer = new ChangeLogReplayer(changeDataCapture, replayPath,
+                        getNonNegativeDouble(optionHolder, CDCSourceConstants.REPLAY_SPEED));
+                break;
+            case CDCSourceConstants.MODE_BINLOG:
+                operation = optionHolder.validateAndGetOption(CDCSourceConstants.OPERATION).getValue();
+                changeDataCapture = new ChangeDataCapture(operation, sourceEventListener, metrics,
+                        requestedTransportPropertyNames);
+                String binlogPath = optionHolder.validateAndGetStaticValue(CDCSourceConstants.BINLOG_PATH);
+                if (!new File(binlogPath).exists()) {
+                    throw new SiddhiAppValidationException("Couldn't find the " + CDCSourceConstants.BINLOG_PATH +
+                            " '" + binlogPath + "'. Current mode: " + mode);
+                }
+                String columnNames = optionHolder.validateAndGetStaticValue(CDCSourceConstants.BINLOG_COLUMN_NAMES,
+                        "");
+                binlogFileReader = new BinlogFileReader(changeDataCapture, binlogPath, tableName,
+                        CDCPollingUtil.isEmpty(columnNames) ? null : columnNames.trim().split("\\s*,\\s*"));
                 break;
             default:
                 throw new SiddhiAppValidationException("Unsupported " + CDCSourceConstants.MODE + ": " + mode);
@@ -395,7 +1106,7 @@ public class CDCSource extends Source {
         switch (mode) {
             case CDCSourceConstants.MODE_LISTENING:
                 //keep the object reference in Object keeper
-                cdcSourceObjectKeeper.addCdcObject(this);
+                cdcSourceObjectKeeper.addCdcObject(cdcSourceObjectId, this);
 
                 //create completion callback to handle the exceptions from debezium engine.
                 EmbeddedEngine.CompletionCallback completionCallback = (success, message, error) -> {
@@ -405,9 +1116,29 @@ public class CDCSource extends Source {
                     }
                 };
 
-                EmbeddedEngine engine = changeDataCapture.getEngine(completionCallback);
-                executorService.execute(engine);
+                changeDataCapture.start();
+                if (leaseCoordinator == null) {
+                    startCapturing(completionCallback);
+                    break;
+                }
+
+                //capture the changes only while this node holds the lease of the source.
+                leaseCoordinator.addLease(leaseName, new LeaseCoordinator.LeaseListener() {
+                    @Override
+                    public void onLeaseAcquired(String name) {
+                        startCapturing(completionCallback);
+                    }
 
+                    @Override
+                    public void onLeaseLost(String name) {
+                        stopCapturing();
+                    }
+                });
+                try {
+                    leaseCoordinator.start();
+                } catch (IllegalStateException e) {
+                    throw new ConnectionUnavailableException("Couldn't connect to the lease store of the source.", e);
+                }
                 break;
             case CDCSourceConstants.MODE_POLLING:
                 //create a completion callback to handle exceptions from CDCPoller
@@ -425,6 +1156,29 @@ public class CDCSource extends Source {
 
                 cdcPoller.setCompletionCallback(cdcCompletionCallback);
                 executorService.execute(cdcPoller);
+                if (leaseCoordinator != null) {
+                    try {
+                        leaseCoordinator.start();
+                    } catch (IllegalStateException e) {
+                        throw new ConnectionUnavailableException("Couldn't connect to the lease store of the source.",
+                                e);
+                    }
+                }
+                break;
+            case CDCSourceConstants.MODE_SYNTHETIC:
+                changeDataCapture.start();
+                syntheticGenerator.start();
+                executorService.execute(syntheticGenerator);
+                break;
+            case CDCSourceConstants.MODE_REPLAY:
+                changeDataCapture.start();
+                changeLogReplayer.start();
+                executorService.execute(changeLogReplayer);
+                break;
+            case CDCSourceConstants.MODE_BINLOG:
+                changeDataCapture.start();
+                binlogFileReader.start();
+                executorService.execute(binlogFileReader);
                 break;
             default:
                 break; //Never get executed since mode is validated.
@@ -433,14 +1187,30 @@ public class CDCSource extends Source {
 
     @Override
     public void disconnect() {
+        if (leaseCoordinator != null) {
+            //the work of the leases is stopped before they are released, so that another node taking them over
+            //doesn't capture the same changes at the same time.
+            if (cdcPoller != null) {
+                cdcPoller.removePartitions();
+            }
+            stopCapturing();
+            leaseCoordinator.stop();
+        }
+        stopIncrementalSnapshot();
         if (mode.equals(CDCSourceConstants.MODE_POLLING)) {
             cdcPoller.pause();
             if (cdcPoller.isLocalDataSource()) {
-                cdcPoller.getDataSource().close();
+                cdcPoller.releaseDataSource();
                 if (log.isDebugEnabled()) {
-                    log.debug("Closing the pool for CDC polling mode.");
+                    log.debug("Releasing the pool for CDC polling mode.");
                 }
             }
+        } else if (mode.equals(CDCSourceConstants.MODE_SYNTHETIC)) {
+            syntheticGenerator.stop();
+        } else if (mode.equals(CDCSourceConstants.MODE_REPLAY)) {
+            changeLogReplayer.stop();
+        } else if (mode.equals(CDCSourceConstants.MODE_BINLOG)) {
+            binlogFileReader.stop();
         }
     }
 
@@ -449,8 +1219,12 @@ public class CDCSource extends Source {
         this.disconnect();
 
         if (mode.equals(CDCSourceConstants.MODE_LISTENING)) {
+            changeDataCapture.shutdown();
             //Remove this CDCSource object from the CDCObjectKeeper.
-            cdcSourceObjectKeeper.removeObject(this.hashCode());
+            cdcSourceObjectKeeper.removeObject(cdcSourceObjectId);
+        } else if (mode.equals(CDCSourceConstants.MODE_SYNTHETIC) || mode.equals(CDCSourceConstants.MODE_REPLAY)
+                || mode.equals(CDCSourceConstants.MODE_BINLOG)) {
+            changeDataCapture.shutdown();
         }
         //shutdown the executor service.
         executorService.shutdown();
@@ -458,11 +1232,15 @@ public class CDCSource extends Source {
 
     @Override
     public void pause() {
+        metrics.paused();
         switch (mode) {
             case CDCSourceConstants.MODE_POLLING:
                 cdcPoller.pause();
                 break;
             case CDCSourceConstants.MODE_LISTENING:
+            case CDCSourceConstants.MODE_SYNTHETIC:
+            case CDCSourceConstants.MODE_REPLAY:
+            case CDCSourceConstants.MODE_BINLOG:
                 changeDataCapture.pause();
                 break;
             default:
@@ -472,11 +1250,15 @@ public class CDCSource extends Source {
 
     @Override
     public void resume() {
+        metrics.resumed();
         switch (mode) {
             case CDCSourceConstants.MODE_POLLING:
                 cdcPoller.resume();
                 break;
             case CDCSourceConstants.MODE_LISTENING:
+            case CDCSourceConstants.MODE_SYNTHETIC:
+            case CDCSourceConstants.MODE_REPLAY:
+            case CDCSourceConstants.MODE_BINLOG:
                 changeDataCapture.resume();
                 break;
             default:
@@ -497,6 +1279,139 @@ public class CDCSource extends Source {
         this.offsetData = offsetData;
     }
 
+    /**
+     * Start the debezium engine and the incremental snapshot of the mode: listening.
+     */
+    private synchronized void startCapturing(EmbeddedEngine.CompletionCallback completionCallback) {
+        engine = changeDataCapture.getEngine(completionCallback);
+        executorService.execute(engine);
+
+        //backfill the existing rows alongside the live changes.
+        if (incrementalSnapshotter != null && !incrementalSnapshotter.isCompleted()) {
+            snapshotExecutorService = Executors.newSingleThreadExecutor();
+            snapshotExecutorService.execute(incrementalSnapshotter);
+        }
+    }
+
+    /**
+     * Stop the debezium engine and the incremental snapshot started by {@link #startCapturing}, when the lease of
+     * the source is lost. The offsets committed so far are kept in the shared store for the next holder.
+     */
+    private synchronized void stopCapturing() {
+        stopIncrementalSnapshot();
+        if (engine != null) {
+            engine.stop();
+            engine = null;
+        }
+    }
+
+    private synchronized void stopIncrementalSnapshot() {
+        if (snapshotExecutorService != null) {
+            incrementalSnapshotter.stop();
+            snapshotExecutorService.shutdown();
+            snapshotExecutorService = null;
+        }
+    }
+
+    /**
+     * Used to initialize the lease coordination for the modes: listening and polling.
+     */
+    private void initializeCoordination(OptionHolder optionHolder, String username, String password,
+                                        String sourceName) {
+        String coordination = optionHolder.validateAndGetStaticValue(CDCSourceConstants.COORDINATION,
+                CDCSourceConstants.COORDINATION_NONE);
+        if (CDCSourceConstants.COORDINATION_NONE.equalsIgnoreCase(coordination)) {
+            return;
+        }
+        if (!CDCSourceConstants.COORDINATION_LEASE.equalsIgnoreCase(coordination)) {
+            throw new SiddhiAppValidationException("Unsupported " + CDCSourceConstants.COORDINATION + ": '" +
+                    coordination + "'. " + CDCSourceConstants.COORDINATION + " should be one of 'none' or 'lease'." +
+                    " Current mode: " + mode);
+        }
+        if (!optionHolder.isOptionExists(CDCSourceConstants.STORE_URL)) {
+            throw new SiddhiAppValidationException(CDCSourceConstants.STORE_URL + " is required when " +
+                    CDCSourceConstants.COORDINATION + " is 'lease', to share the offsets and the leases between " +
+                    "the nodes. Current mode: " + mode);
+        }
+        int leaseTimeout = Integer.parseInt(optionHolder.validateAndGetStaticValue(
+                CDCSourceConstants.COORDINATION_LEASE_TIMEOUT,
+                Integer.toString(CDCSourceConstants.DEFAULT_COORDINATION_LEASE_TIMEOUT_SECONDS)));
+        if (leaseTimeout <= 0) {
+            throw new SiddhiAppValidationException(CDCSourceConstants.COORDINATION_LEASE_TIMEOUT + " should be " +
+                    "a positive integer. Current mode: " + mode);
+        }
+        leaseCoordinator = new LeaseCoordinator(optionHolder.validateAndGetStaticValue(CDCSourceConstants.STORE_URL),
+                optionHolder.validateAndGetStaticValue(CDCSourceConstants.STORE_USERNAME, username),
+                optionHolder.validateAndGetStaticValue(CDCSourceConstants.STORE_PASSWORD, password),
+                CDCSourceConstants.LEASE_TABLE_NAME, TimeUnit.SECONDS.toMillis(leaseTimeout));
+        leaseName = sourceName;
+    }
+
+    /**
+     * Used to spread the partitions of the table over the nodes, when the mode: polling is coordinated.
+     */
+    private void initializePollingPartitions(OptionHolder optionHolder, String pollingQuery,
+                                             long deleteDetectionInterval) {
+        int partitions = Integer.parseInt(optionHolder.validateAndGetStaticValue(
+                CDCSourceConstants.POLLING_PARTITIONS, "1"));
+        if (partitions <= 0) {
+            throw new SiddhiAppValidationException(CDCSourceConstants.POLLING_PARTITIONS + " should be a positive" +
+                    " integer. Current mode: " + CDCSourceConstants.MODE_POLLING);
+        }
+        if (leaseCoordinator == null) {
+            if (partitions > 1) {
+                throw new SiddhiAppValidationException(CDCSourceConstants.POLLING_PARTITIONS + " is only supported" +
+                        " when " + CDCSourceConstants.COORDINATION + " is 'lease'. Current mode: " +
+                        CDCSourceConstants.MODE_POLLING);
+            }
+            return;
+        }
+        if (deleteDetectionInterval > 0) {
+            throw new SiddhiAppValidationException(CDCSourceConstants.POLLING_DELETE_DETECTION_INTERVAL + " is not" +
+                    " supported with " + CDCSourceConstants.COORDINATION + ". Current mode: " +
+                    CDCSourceConstants.MODE_POLLING);
+        }
+        if (partitions > 1 && (pollingQuery != null ||
+                getNonNegativeLong(optionHolder, CDCSourceConstants.POLLING_LOOKBACK) > 0)) {
+            throw new SiddhiAppValidationException(CDCSourceConstants.POLLING_PARTITIONS + " is not supported with " +
+                    CDCSourceConstants.POLLING_QUERY + " or " + CDCSourceConstants.POLLING_LOOKBACK + ". Current" +
+                    " mode: " + CDCSourceConstants.MODE_POLLING);
+        }
+        cdcPoller.setPartitioning(partitions,
+                optionHolder.validateAndGetStaticValue(CDCSourceConstants.POLLING_PARTITION_KEY, null),
+                (partition, cursor) -> leaseCoordinator.setLeaseData(getPartitionLeaseName(partition), cursor));
+        List<String> leaseNames = new ArrayList<>();
+        for (int partition = 0; partition < partitions; partition++) {
+            leaseNames.add(getPartitionLeaseName(partition));
+        }
+        leaseCoordinator.addLeaseGroup(leaseName, leaseNames, new LeaseCoordinator.LeaseListener() {
+            @Override
+            public void onLeaseAcquired(String name) {
+                try {
+                    cdcPoller.addPartition(getPartition(name), leaseCoordinator.getLeaseData(name));
+                } catch (SQLException e) {
+                    throw new CDCPollingModeException("Couldn't read the cursor of the partition '" + name + "'." +
+                            " Current mode: " + CDCSourceConstants.MODE_POLLING, e);
+                }
+            }
+
+            @Override
+            public void onLeaseLost(String name) {
+                cdcPoller.removePartition(getPartition(name));
+            }
+        });
+    }
+
+    private String getPartitionLeaseName(int partition) {
+        return leaseName + CDCSourceConstants.POLLING_PARTITION_SEPARATOR + partition;
+    }
+
+    private int getPartition(String partitionLeaseName) {
+        return Integer.parseInt(partitionLeaseName.substring(partitionLeaseName.lastIndexOf(
+                CDCSourceConstants.POLLING_PARTITION_SEPARATOR) +
+                CDCSourceConstants.POLLING_PARTITION_SEPARATOR.length()));
+    }
+
     /**
      * Used to Validate the parameters for the mode: listening.
      */
@@ -521,14 +1436,298 @@ public class CDCSource extends Source {
         }
     }
 
+    /**
+     * Used to initialize the incremental snapshot for the mode: listening.
+     */
+    private void initializeIncrementalSnapshot(OptionHolder optionHolder, String url, String username,
+                                               String password, String tableName, String watermarkId,
+                                               SourceEventListener sourceEventListener,
+                                               String[] requestedTransportPropertyNames) {
+        if (!operation.equalsIgnoreCase(CDCSourceConstants.INSERT)) {
+            throw new SiddhiAppValidationException(CDCSourceConstants.INCREMENTAL_SNAPSHOT + " is supported only " +
+                    "when the operation is 'insert'. Found operation: '" + operation + "'.");
+        }
+        if (!CDCSourceUtil.isSingleTable(tableName)) {
+            throw new SiddhiAppValidationException(CDCSourceConstants.INCREMENTAL_SNAPSHOT + " is supported only " +
+                    "for a single table. Found table.name: '" + tableName + "'.");
+        }
+        int chunkSize = Integer.parseInt(optionHolder.validateAndGetStaticValue(
+                CDCSourceConstants.INCREMENTAL_SNAPSHOT_CHUNK_SIZE,
+                Integer.toString(CDCSourceConstants.DEFAULT_INCREMENTAL_SNAPSHOT_CHUNK_SIZE)));
+        if (chunkSize <= 0) {
+            throw new SiddhiAppValidationException(CDCSourceConstants.INCREMENTAL_SNAPSHOT_CHUNK_SIZE + " should " +
+                    "be a positive integer. Found: " + chunkSize);
+        }
+        String watermarkTable = optionHolder.validateAndGetStaticValue(
+                CDCSourceConstants.INCREMENTAL_SNAPSHOT_WATERMARK_TABLE,
+                CDCSourceConstants.DEFAULT_INCREMENTAL_SNAPSHOT_WATERMARK_TABLE);
+        incrementalSnapshotter = new IncrementalSnapshotter(url, username, password, tableName, watermarkTable,
+                watermarkId, chunkSize, requestedTransportPropertyNames);
+        changeDataCapture.setIncrementalSnapshotter(incrementalSnapshotter);
+    }
+
     /**
      * Used to Validate the parameters for the mode: polling.
      */
-    private void validatePollingModeParameters() {
+    private void validatePollingModeParameters(String pollingCursor, String pollingColumn, String pollingQuery) {
         if (pollingInterval < 0) {
             throw new SiddhiAppValidationException(CDCSourceConstants.POLLING_INTERVAL + " should be a " +
                     "non negative integer. Current mode: " + CDCSourceConstants.MODE_POLLING);
         }
+        if (pollingQuery != null) {
+            if (!pollingQuery.contains(CDCSourceConstants.POLLING_QUERY_CURSOR_PLACEHOLDER)) {
+                throw new SiddhiAppValidationException(CDCSourceConstants.POLLING_QUERY + " should contain the" +
+                        " cursor placeholder " + CDCSourceConstants.POLLING_QUERY_CURSOR_PLACEHOLDER + ", e.g.," +
+                        " 'WHERE last_updated > " + CDCSourceConstants.POLLING_QUERY_CURSOR_PLACEHOLDER + "'." +
+                        " Current mode: " + CDCSourceConstants.MODE_POLLING);
+            }
+            if (!CDCSourceConstants.POLLING_CURSOR_COLUMN.equals(pollingCursor)) {
+                throw new SiddhiAppValidationException(CDCSourceConstants.POLLING_QUERY + " is only supported" +
+                        " when " + CDCSourceConstants.POLLING_CURSOR + " is '" +
+                        CDCSourceConstants.POLLING_CURSOR_COLUMN + "'. Current mode: " +
+                        CDCSourceConstants.MODE_POLLING);
+            }
+        }
+        switch (pollingCursor) {
+            case CDCSourceConstants.POLLING_CURSOR_COLUMN:
+                if (pollingColumn == null || pollingColumn.isEmpty()) {
+                    throw new SiddhiAppValidationException(CDCSourceConstants.POLLING_COLUMN + " is required when " +
+                            CDCSourceConstants.POLLING_CURSOR + " is '" + CDCSourceConstants.POLLING_CURSOR_COLUMN +
+                            "'. Current mode: " + CDCSourceConstants.MODE_POLLING);
+                }
+                break;
+            case CDCSourceConstants.POLLING_CURSOR_NATIVE:
+                break;
+            default:
+                throw new SiddhiAppValidationException("Unsupported " + CDCSourceConstants.POLLING_CURSOR + ": " +
+                        pollingCursor + ". Expected '" + CDCSourceConstants.POLLING_CURSOR_COLUMN + "' or '" +
+                        CDCSourceConstants.POLLING_CURSOR_NATIVE + "'. Current mode: " +
+                        CDCSourceConstants.MODE_POLLING);
+        }
+    }
+
+    private PollingTrigger createPollingTrigger(OptionHolder optionHolder) {
+        String pollingTrigger = optionHolder.validateAndGetStaticValue(CDCSourceConstants.POLLING_TRIGGER,
+                CDCSourceConstants.POLLING_TRIGGER_NONE).toLowerCase(Locale.ENGLISH);
+        switch (pollingTrigger) {
+            case CDCSourceConstants.POLLING_TRIGGER_NONE:
+                return null;
+            case CDCSourceConstants.POLLING_TRIGGER_NOTIFY:
+                return new NotifyPollingTrigger(getRequiredPollingTriggerOption(optionHolder,
+                        CDCSourceConstants.POLLING_TRIGGER_CHANNEL, pollingTrigger));
+            case CDCSourceConstants.POLLING_TRIGGER_COUNTER:
+                String counterQuery = getRequiredPollingTriggerOption(optionHolder,
+                        CDCSourceConstants.POLLING_TRIGGER_QUERY, pollingTrigger);
+                int checkInterval = Integer.parseInt(optionHolder.validateAndGetStaticValue(
+                        CDCSourceConstants.POLLING_TRIGGER_CHECK_INTERVAL,
+                        Integer.toString(CDCSourceConstants.DEFAULT_POLLING_TRIGGER_CHECK_INTERVAL_MILLIS)));
+                if (checkInterval <= 0) {
+                    throw new SiddhiAppValidationException(CDCSourceConstants.POLLING_TRIGGER_CHECK_INTERVAL +
+                            " should be a positive integer. Current mode: " + CDCSourceConstants.MODE_POLLING);
+                }
+                return new ChangeCounterPollingTrigger(counterQuery, checkInterval);
+            default:
+                throw new SiddhiAppValidationException("Unsupported " + CDCSourceConstants.POLLING_TRIGGER + ": " +
+                        pollingTrigger + ". Expected '" + CDCSourceConstants.POLLING_TRIGGER_NONE + "', '" +
+                        CDCSourceConstants.POLLING_TRIGGER_NOTIFY + "' or '" +
+                        CDCSourceConstants.POLLING_TRIGGER_COUNTER + "'. Current mode: " +
+                        CDCSourceConstants.MODE_POLLING);
+        }
+    }
+
+    private ReplicaRouter createReplicaRouter(OptionHolder optionHolder, String username, String password) {
+        String replicaUrl = optionHolder.validateAndGetStaticValue(CDCSourceConstants.REPLICA_URL);
+        String replicaUsername = optionHolder.validateAndGetStaticValue(CDCSourceConstants.REPLICA_USERNAME,
+                username);
+        String replicaPassword = optionHolder.validateAndGetStaticValue(CDCSourceConstants.REPLICA_PASSWORD,
+                password);
+        long maxLagMillis;
+        try {
+            maxLagMillis = Long.parseLong(optionHolder.validateAndGetStaticValue(CDCSourceConstants.REPLICA_MAX_LAG,
+                    Long.toString(CDCSourceConstants.DEFAULT_REPLICA_MAX_LAG_MILLIS)));
+        } catch (NumberFormatException e) {
+            maxLagMillis = -1;
+        }
+        if (maxLagMillis < 0) {
+            throw new SiddhiAppValidationException(CDCSourceConstants.REPLICA_MAX_LAG + " should be a non negative" +
+                    " integer. Current mode: " + CDCSourceConstants.MODE_POLLING);
+        }
+        long lagCheckIntervalMillis;
+        try {
+            lagCheckIntervalMillis = Long.parseLong(optionHolder.validateAndGetStaticValue(
+                    CDCSourceConstants.REPLICA_LAG_CHECK_INTERVAL,
+                    Long.toString(CDCSourceConstants.DEFAULT_REPLICA_LAG_CHECK_INTERVAL_MILLIS)));
+        } catch (NumberFormatException e) {
+            lagCheckIntervalMillis = -1;
+        }
+        if (lagCheckIntervalMillis < 0) {
+            throw new SiddhiAppValidationException(CDCSourceConstants.REPLICA_LAG_CHECK_INTERVAL + " should be a" +
+                    " non negative integer. Current mode: " + CDCSourceConstants.MODE_POLLING);
+        }
+        String lagQuery = optionHolder.validateAndGetStaticValue(CDCSourceConstants.REPLICA_LAG_QUERY, null);
+        return new ReplicaRouter(replicaUrl, replicaUsername, replicaPassword, maxLagMillis, lagCheckIntervalMillis,
+                lagQuery);
+    }
+
+    private PollingRateLimit createPollingRateLimit(OptionHolder optionHolder) {
+        double maxRowsPerSecond = getNonNegativeDouble(optionHolder, CDCSourceConstants.POLLING_MAX_ROWS_PER_SECOND);
+        double maxQueriesPerSecond = getNonNegativeDouble(optionHolder,
+                CDCSourceConstants.POLLING_MAX_QUERIES_PER_SECOND);
+        String window = optionHolder.validateAndGetStaticValue(CDCSourceConstants.POLLING_RATE_LIMIT_WINDOW, "");
+        LocalTime windowStart = null;
+        LocalTime windowEnd = null;
+        if (!window.isEmpty()) {
+            String[] times = window.split("-");
+            try {
+                if (times.length == 2) {
+                    windowStart = LocalTime.parse(times[0].trim());
+                    windowEnd = LocalTime.parse(times[1].trim());
+                }
+            } catch (DateTimeParseException e) {
+                windowStart = null;
+            }
+            if (windowStart == null) {
+                throw new SiddhiAppValidationException(CDCSourceConstants.POLLING_RATE_LIMIT_WINDOW + " should be" +
+                        " in the format 'HH:mm-HH:mm', found: " + window + ". Current mode: " +
+                        CDCSourceConstants.MODE_POLLING);
+            }
+        }
+        return new PollingRateLimit(maxRowsPerSecond, maxQueriesPerSecond, windowStart, windowEnd);
+    }
+
+    private long getNonNegativeLong(OptionHolder optionHolder, String key) {
+        return getNonNegativeLong(optionHolder, key, "0");
+    }
+
+    private long getNonNegativeLong(OptionHolder optionHolder, String key, String defaultValue) {
+        long value;
+        try {
+            value = Long.parseLong(optionHolder.validateAndGetStaticValue(key, defaultValue));
+        } catch (NumberFormatException e) {
+            throw new SiddhiAppValidationException(key + " should be an integer. Current mode: " + mode, e);
+        }
+        if (value < 0) {
+            throw new SiddhiAppValidationException(key + " should be a non negative integer. Current mode: " +
+                    mode);
+        }
+        return value;
+    }
+
+    private double getNonNegativeDouble(OptionHolder optionHolder, String key) {
+        return getNonNegativeDouble(optionHolder, key, "0");
+    }
+
+    private double getNonNegativeDouble(OptionHolder optionHolder, String key, String defaultValue) {
+        double value;
+        try {
+            value = Double.parseDouble(optionHolder.validateAndGetStaticValue(key, defaultValue));
+        } catch (NumberFormatException e) {
+            throw new SiddhiAppValidationException(key + " should be a number. Current mode: " + mode, e);
+        }
+        if (value < 0) {
+            throw new SiddhiAppValidationException(key + " should be a non negative number. Current mode: " +
+                    mode);
+        }
+        return value;
+    }
+
+    private SyntheticChangeEventGenerator createSyntheticGenerator(OptionHolder optionHolder, String tableName) {
+        int columnCount = Integer.parseInt(optionHolder.validateAndGetStaticValue(
+                CDCSourceConstants.SYNTHETIC_COLUMNS, Integer.toString(CDCSourceConstants.DEFAULT_SYNTHETIC_COLUMNS)));
+        if (columnCount <= 0) {
+            throw new SiddhiAppValidationException(CDCSourceConstants.SYNTHETIC_COLUMNS + " should be a positive" +
+                    " integer. Current mode: " + mode);
+        }
+        long keyCount = getNonNegativeLong(optionHolder, CDCSourceConstants.SYNTHETIC_KEY_COUNT,
+                Long.toString(CDCSourceConstants.DEFAULT_SYNTHETIC_KEY_COUNT));
+        if (keyCount == 0) {
+            throw new SiddhiAppValidationException(CDCSourceConstants.SYNTHETIC_KEY_COUNT + " should be a positive" +
+                    " integer. Current mode: " + mode);
+        }
+        String keyDistribution = optionHolder.validateAndGetStaticValue(
+                CDCSourceConstants.SYNTHETIC_KEY_DISTRIBUTION,
+                CDCSourceConstants.SYNTHETIC_KEY_DISTRIBUTION_UNIFORM).toLowerCase(Locale.ENGLISH);
+        switch (keyDistribution) {
+            case CDCSourceConstants.SYNTHETIC_KEY_DISTRIBUTION_UNIFORM:
+            case CDCSourceConstants.SYNTHETIC_KEY_DISTRIBUTION_SEQUENTIAL:
+            case CDCSourceConstants.SYNTHETIC_KEY_DISTRIBUTION_HOTSPOT:
+                break;
+            default:
+                throw new SiddhiAppValidationException("Unsupported " +
+                        CDCSourceConstants.SYNTHETIC_KEY_DISTRIBUTION + ": " + keyDistribution + ". Expected '" +
+                        CDCSourceConstants.SYNTHETIC_KEY_DISTRIBUTION_UNIFORM + "', '" +
+                        CDCSourceConstants.SYNTHETIC_KEY_DISTRIBUTION_SEQUENTIAL + "' or '" +
+                        CDCSourceConstants.SYNTHETIC_KEY_DISTRIBUTION_HOTSPOT + "'. Current mode: " + mode);
+        }
+
+        //the operation mix is given as weights, e.g. 'insert:70, update:20, delete:10'.
+        int[] operationWeights = new int[3];
+        String operations = optionHolder.validateAndGetStaticValue(CDCSourceConstants.SYNTHETIC_OPERATIONS,
+                CDCSourceConstants.DEFAULT_SYNTHETIC_OPERATIONS);
+        for (String[] pair : CDCPollingUtil.processKeyValuePairs(operations)) {
+            int weight;
+            try {
+                weight = Integer.parseInt(pair[1]);
+            } catch (NumberFormatException e) {
+                weight = -1;
+            }
+            if (weight < 0) {
+                throw new SiddhiAppValidationException("The weight of '" + pair[0] + "' in " +
+                        CDCSourceConstants.SYNTHETIC_OPERATIONS + " should be a non negative integer, found: " +
+                        pair[1] + ". Current mode: " + mode);
+            }
+            switch (pair[0].toLowerCase(Locale.ENGLISH)) {
+                case CDCSourceConstants.INSERT:
+                    operationWeights[0] = weight;
+                    break;
+                case CDCSourceConstants.UPDATE:
+                    operationWeights[1] = weight;
+                    break;
+                case CDCSourceConstants.DELETE:
+                    operationWeights[2] = weight;
+                    break;
+                default:
+                    throw new SiddhiAppValidationException("Unsupported operation in " +
+                            CDCSourceConstants.SYNTHETIC_OPERATIONS + ": " + pair[0] + ". Current mode: " + mode);
+            }
+        }
+        if (operationWeights[0] + operationWeights[1] + operationWeights[2] == 0) {
+            throw new SiddhiAppValidationException(CDCSourceConstants.SYNTHETIC_OPERATIONS + " should give a" +
+                    " positive weight to at least one operation. Current mode: " + mode);
+        }
+
+        return new SyntheticChangeEventGenerator(changeDataCapture, tableName, columnCount,
+                getNonNegativeDouble(optionHolder, CDCSourceConstants.SYNTHETIC_RATE,
+                        Double.toString(CDCSourceConstants.DEFAULT_SYNTHETIC_RATE)),
+                getNonNegativeLong(optionHolder, CDCSourceConstants.SYNTHETIC_EVENTS), keyCount, keyDistribution,
+                operationWeights, Long.parseLong(optionHolder.validateAndGetStaticValue(
+                        CDCSourceConstants.SYNTHETIC_SEED, "0")));
+    }
+
+    private String getPlanCheck(OptionHolder optionHolder) {
+        String planCheck = optionHolder.validateAndGetStaticValue(CDCSourceConstants.POLLING_PLAN_CHECK,
+                CDCSourceConstants.POLLING_PLAN_CHECK_OFF).toLowerCase(Locale.ENGLISH);
+        switch (planCheck) {
+            case CDCSourceConstants.POLLING_PLAN_CHECK_OFF:
+            case CDCSourceConstants.POLLING_PLAN_CHECK_WARN:
+            case CDCSourceConstants.POLLING_PLAN_CHECK_REJECT:
+                return planCheck;
+            default:
+                throw new SiddhiAppValidationException("Unsupported " + CDCSourceConstants.POLLING_PLAN_CHECK +
+                        ": " + planCheck + ". Expected '" + CDCSourceConstants.POLLING_PLAN_CHECK_OFF + "', '" +
+                        CDCSourceConstants.POLLING_PLAN_CHECK_WARN + "' or '" +
+                        CDCSourceConstants.POLLING_PLAN_CHECK_REJECT + "'. Current mode: " +
+                        CDCSourceConstants.MODE_POLLING);
+        }
+    }
+
+    private String getRequiredPollingTriggerOption(OptionHolder optionHolder, String key, String pollingTrigger) {
+        String value = optionHolder.validateAndGetStaticValue(key, "");
+        if (value.isEmpty()) {
+            throw new SiddhiAppValidationException(key + " is required when " + CDCSourceConstants.POLLING_TRIGGER +
+                    " is '" + pollingTrigger + "'. Current mode: " + CDCSourceConstants.MODE_POLLING);
+        }
+        return value;
     }
 
     @Override
@@ -540,6 +1739,20 @@ public class CDCSource extends Source {
                 break;
             case CDCSourceConstants.MODE_LISTENING:
                 currentState.put(CDCSourceConstants.CACHE_OBJECT, offsetData);
+                if (incrementalSnapshotter != null) {
+                    currentState.put(CDCSourceConstants.INCREMENTAL_SNAPSHOT_LAST_KEY,
+                            incrementalSnapshotter.getLastKey());
+                    currentState.put(CDCSourceConstants.INCREMENTAL_SNAPSHOT_COMPLETED,
+                            incrementalSnapshotter.isCompleted());
+                }
+                break;
+            case CDCSourceConstants.MODE_REPLAY:
+                currentState.put(CDCSourceConstants.REPLAY_FILE, changeLogReplayer.getFile());
+                currentState.put(CDCSourceConstants.REPLAY_POSITION, changeLogReplayer.getPosition());
+                break;
+            case CDCSourceConstants.MODE_BINLOG:
+                currentState.put(CDCSourceConstants.BINLOG_FILE, binlogFileReader.getFile());
+                currentState.put(CDCSourceConstants.BINLOG_POSITION, binlogFileReader.getPosition());
                 break;
             default:
                 break;
@@ -557,6 +1770,22 @@ public class CDCSource extends Source {
             case CDCSourceConstants.MODE_LISTENING:
                 Object cacheObj = map.get(CDCSourceConstants.CACHE_OBJECT);
                 this.offsetData = (HashMap<byte[], byte[]>) cacheObj;
+                if (incrementalSnapshotter != null) {
+                    incrementalSnapshotter.setLastKey(
+                            (String) map.get(CDCSourceConstants.INCREMENTAL_SNAPSHOT_LAST_KEY));
+                    incrementalSnapshotter.setCompleted(
+                            Boolean.TRUE.equals(map.get(CDCSourceConstants.INCREMENTAL_SNAPSHOT_COMPLETED)));
+                }
+                break;
+            case CDCSourceConstants.MODE_REPLAY:
+                Object replayPosition = map.get(CDCSourceConstants.REPLAY_POSITION);
+                changeLogReplayer.setPosition((String) map.get(CDCSourceConstants.REPLAY_FILE),
+                        replayPosition == null ? 0 : (Long) replayPosition);
+                break;
+            case CDCSourceConstants.MODE_BINLOG:
+                Object binlogPosition = map.get(CDCSourceConstants.BINLOG_POSITION);
+                binlogFileReader.setPosition((String) map.get(CDCSourceConstants.BINLOG_FILE),
+                        binlogPosition == null ? 0 : (Long) binlogPosition);
                 break;
             default:
                 break;
@@ -24,6 +24,14 @@ package org.wso2.extension.siddhi.io.cdc.source.config;
 public class Database {
     private String name;
     private String selectQuery;
+    private String nativeCursor;
+    private String explainQuery;
+    private String fullScanPattern;
+    private String planCostPattern;
+    private String replicaLagQuery;
+    private String currentTimestampQuery;
+    private String keyRangeExpression;
+    private String partitionExpression;
 
     public String getName() {
         return name;
@@ -40,4 +48,68 @@ public class Database {
     public void setSelectQuery(String selectQuery) {
         this.selectQuery = selectQuery;
     }
+
+    public String getNativeCursor() {
+        return nativeCursor;
+    }
+
+    public void setNativeCursor(String nativeCursor) {
+        this.nativeCursor = nativeCursor;
+    }
+
+    public String getExplainQuery() {
+        return explainQuery;
+    }
+
+    public void setExplainQuery(String explainQuery) {
+        this.explainQuery = explainQuery;
+    }
+
+    public String getFullScanPattern() {
+        return fullScanPattern;
+    }
+
+    public void setFullScanPattern(String fullScanPattern) {
+        this.fullScanPattern = fullScanPattern;
+    }
+
+    public String getPlanCostPattern() {
+        return planCostPattern;
+    }
+
+    public void setPlanCostPattern(String planCostPattern) {
+        this.planCostPattern = planCostPattern;
+    }
+
+    public String getReplicaLagQuery() {
+        return replicaLagQuery;
+    }
+
+    public void setReplicaLagQuery(String replicaLagQuery) {
+        this.replicaLagQuery = replicaLagQuery;
+    }
+
+    public String getCurrentTimestampQuery() {
+        return currentTimestampQuery;
+    }
+
+    public void setCurrentTimestampQuery(String currentTimestampQuery) {
+        this.currentTimestampQuery = currentTimestampQuery;
+    }
+
+    public String getKeyRangeExpression() {
+        return keyRangeExpression;
+    }
+
+    public void setKeyRangeExpression(String keyRangeExpression) {
+        this.keyRangeExpression = keyRangeExpression;
+    }
+
+    public String getPartitionExpression() {
+        return partitionExpression;
+    }
+
+    public void setPartitionExpression(String partitionExpression) {
+        this.partitionExpression = partitionExpression;
+    }
 }
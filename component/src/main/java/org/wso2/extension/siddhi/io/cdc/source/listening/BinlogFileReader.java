@@ -0,0 +1,427 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.extension.siddhi.io.cdc.source.listening;
+
+import com.github.shyiko.mysql.binlog.BinaryLogFileReader;
+import com.github.shyiko.mysql.binlog.event.DeleteRowsEventData;
+import com.github.shyiko.mysql.binlog.event.Event;
+import com.github.shyiko.mysql.binlog.event.EventHeaderV4;
+import com.github.shyiko.mysql.binlog.event.EventType;
+import com.github.shyiko.mysql.binlog.event.TableMapEventData;
+import com.github.shyiko.mysql.binlog.event.UpdateRowsEventData;
+import com.github.shyiko.mysql.binlog.event.WriteRowsEventData;
+import com.github.shyiko.mysql.binlog.event.deserialization.ColumnType;
+import com.github.shyiko.mysql.binlog.event.deserialization.EventDeserializer;
+import com.github.shyiko.mysql.binlog.event.deserialization.json.JsonBinary;
+import org.apache.kafka.connect.data.Schema;
+import org.apache.kafka.connect.data.SchemaBuilder;
+import org.apache.kafka.connect.data.Struct;
+import org.apache.kafka.connect.source.SourceRecord;
+import org.apache.log4j.Logger;
+import org.wso2.extension.siddhi.io.cdc.util.CDCSourceConstants;
+import org.wso2.siddhi.core.exception.SiddhiAppRuntimeException;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Reads the row events of MySQL binlog files from disk, e.g. the binlogs of a restored backup, and sends them
+ * through the {@link ChangeDataCapture} handler as debezium shaped change records, without a live server. The
+ * files are read in the order of their names, and the file and the position of the next event are kept, so that
+ * the reading continues from there after a restore.
+ * <p>
+ * The binlog has no column names, so the columns are named by the given column names in the order of the table,
+ * or 'column1', 'column2', and so on. String columns are decoded as UTF-8, and TEXT and BLOB columns, which the
+ * binlog doesn't tell apart, are sent as bytes.
+ */
+public class BinlogFileReader implements Runnable {
+
+    private static final Logger log = Logger.getLogger(BinlogFileReader.class);
+    private static final String COLUMN_PREFIX = "column";
+    private static final String INDEX_FILE_SUFFIX = ".index";
+    private static final String FILE = "file";
+    private static final String POSITION = "pos";
+    private static final String DATABASE = "db";
+    private final ChangeDataCapture changeDataCapture;
+    private final Path path;
+    private final List<Pattern> tablePatterns;
+    private final String[] columnNames;
+    private final Schema sourceSchema;
+    private final Map<Long, TableSchema> tableSchemas = new HashMap<>();
+    private final Map<String, String> sourcePartition;
+    private String file;
+    private long position = 0;
+    private volatile boolean running = true;
+
+    /**
+     * @param changeDataCapture the handler the records are sent to.
+     * @param path              a binlog file, or a directory of binlog files.
+     * @param tableName         comma separated names or regular expressions of the tables to read the changes of,
+     *                          as 'table' or 'database.table', or null for all the tables.
+     * @param columnNames       names of the columns of the tables in their order, or null to name them by position.
+     */
+    public BinlogFileReader(ChangeDataCapture changeDataCapture, String path, String tableName,
+                            String[] columnNames) {
+        this.changeDataCapture = changeDataCapture;
+        this.path = Paths.get(path);
+        if (tableName == null) {
+            this.tablePatterns = null;
+        } else {
+            this.tablePatterns = new ArrayList<>();
+            for (String table : tableName.split(",")) {
+                tablePatterns.add(Pattern.compile(table.trim(), Pattern.CASE_INSENSITIVE));
+            }
+        }
+        this.columnNames = columnNames;
+        this.sourceSchema = SchemaBuilder.struct().name("binlog.Source")
+                .field(CDCSourceConstants.TIMESTAMP_MS, Schema.INT64_SCHEMA)
+                .field(FILE, Schema.STRING_SCHEMA)
+                .field(POSITION, Schema.INT64_SCHEMA)
+                .field(DATABASE, Schema.OPTIONAL_STRING_SCHEMA)
+                .field(CDCSourceConstants.TABLE, Schema.OPTIONAL_STRING_SCHEMA)
+                .build();
+        this.sourcePartition = Collections.singletonMap("server", "binlog");
+    }
+
+    @Override
+    public void run() {
+        try {
+            for (Path binlogFile : listFiles()) {
+                String fileName = binlogFile.getFileName().toString();
+                long startPosition;
+                synchronized (this) {
+                    if (file != null && fileName.compareTo(file) < 0) {
+                        //read before the restored position.
+                        continue;
+                    }
+                    startPosition = fileName.equals(file) ? position : 0;
+                    file = fileName;
+                    position = startPosition;
+                }
+                if (!readFile(binlogFile, fileName, startPosition)) {
+                    return;
+                }
+            }
+            if (log.isDebugEnabled()) {
+                log.debug("Reading the binlog files in " + path + " is completed.");
+            }
+        } catch (IOException e) {
+            throw new SiddhiAppRuntimeException("Error while reading the binlog files in " + path, e);
+        }
+    }
+
+    private List<Path> listFiles() throws IOException {
+        if (!Files.isDirectory(path)) {
+            return Collections.singletonList(path);
+        }
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> directoryStream = Files.newDirectoryStream(path, binlogFile ->
+                Files.isRegularFile(binlogFile) && !binlogFile.toString().endsWith(INDEX_FILE_SUFFIX))) {
+            for (Path binlogFile : directoryStream) {
+                files.add(binlogFile);
+            }
+        }
+        Collections.sort(files);
+        return files;
+    }
+
+    /**
+     * Read the row events of a file. The table map events are always read, since the row events after the start
+     * position refer to them.
+     *
+     * @return false if the reading is stopped before the end of the file.
+     */
+    private boolean readFile(Path binlogFile, String fileName, long startPosition) throws IOException {
+        EventDeserializer eventDeserializer = new EventDeserializer();
+        eventDeserializer.setCompatibilityMode(EventDeserializer.CompatibilityMode.DATE_AND_TIME_AS_LONG,
+                EventDeserializer.CompatibilityMode.CHAR_AND_BINARY_AS_BYTE_ARRAY);
+        tableSchemas.clear();
+        try (BinaryLogFileReader reader = new BinaryLogFileReader(binlogFile.toFile(), eventDeserializer)) {
+            Event event;
+            while ((event = reader.readEvent()) != null) {
+                EventHeaderV4 header = event.getHeader();
+                EventType eventType = header.getEventType();
+                if (eventType == EventType.TABLE_MAP) {
+                    TableMapEventData tableMap = event.getData();
+                    if (isMonitoredTable(tableMap)) {
+                        tableSchemas.put(tableMap.getTableId(), new TableSchema(tableMap));
+                    }
+                } else if (header.getPosition() >= startPosition) {
+                    handleRowsEvent(event, fileName);
+                }
+                synchronized (this) {
+                    position = Math.max(position, header.getNextPosition());
+                }
+                if (!running) {
+                    return false;
+                }
+            }
+        }
+        return running;
+    }
+
+    private boolean isMonitoredTable(TableMapEventData tableMap) {
+        if (tablePatterns == null) {
+            return true;
+        }
+        for (Pattern tablePattern : tablePatterns) {
+            if (tablePattern.matcher(tableMap.getTable()).matches() ||
+                    tablePattern.matcher(tableMap.getDatabase() + "." + tableMap.getTable()).matches()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void handleRowsEvent(Event event, String fileName) {
+        EventHeaderV4 header = event.getHeader();
+        EventType eventType = header.getEventType();
+        if (EventType.isWrite(eventType)) {
+            WriteRowsEventData data = event.getData();
+            TableSchema tableSchema = tableSchemas.get(data.getTableId());
+            if (tableSchema != null) {
+                for (Serializable[] row : data.getRows()) {
+                    sendRecord(tableSchema, header, fileName, CDCSourceConstants.CONNECT_RECORD_INSERT_OPERATION,
+                            null, tableSchema.createRow(data.getIncludedColumns(), row));
+                }
+            }
+        } else if (EventType.isUpdate(eventType)) {
+            UpdateRowsEventData data = event.getData();
+            TableSchema tableSchema = tableSchemas.get(data.getTableId());
+            if (tableSchema != null) {
+                for (Map.Entry<Serializable[], Serializable[]> row : data.getRows()) {
+                    sendRecord(tableSchema, header, fileName, CDCSourceConstants.CONNECT_RECORD_UPDATE_OPERATION,
+                            tableSchema.createRow(data.getIncludedColumnsBeforeUpdate(), row.getKey()),
+                            tableSchema.createRow(data.getIncludedColumns(), row.getValue()));
+                }
+            }
+        } else if (EventType.isDelete(eventType)) {
+            DeleteRowsEventData data = event.getData();
+            TableSchema tableSchema = tableSchemas.get(data.getTableId());
+            if (tableSchema != null) {
+                for (Serializable[] row : data.getRows()) {
+                    sendRecord(tableSchema, header, fileName, CDCSourceConstants.CONNECT_RECORD_DELETE_OPERATION,
+                            tableSchema.createRow(data.getIncludedColumns(), row), null);
+                }
+            }
+        }
+    }
+
+    private void sendRecord(TableSchema tableSchema, EventHeaderV4 header, String fileName, String op,
+                            Struct before, Struct after) {
+        Struct source = new Struct(sourceSchema);
+        source.put(CDCSourceConstants.TIMESTAMP_MS, header.getTimestamp());
+        source.put(FILE, fileName);
+        source.put(POSITION, header.getPosition());
+        source.put(DATABASE, tableSchema.database);
+        source.put(CDCSourceConstants.TABLE, tableSchema.table);
+        Struct envelope = new Struct(tableSchema.envelopeSchema);
+        envelope.put(CDCSourceConstants.BEFORE, before);
+        envelope.put(CDCSourceConstants.AFTER, after);
+        envelope.put(CDCSourceConstants.SOURCE, source);
+        envelope.put(CDCSourceConstants.OP, op);
+        Map<String, Object> sourceOffset = new HashMap<>();
+        sourceOffset.put(FILE, fileName);
+        sourceOffset.put(POSITION, header.getPosition());
+        changeDataCapture.handleEvent(new SourceRecord(sourcePartition, sourceOffset,
+                tableSchema.database + "." + tableSchema.table, tableSchema.envelopeSchema, envelope));
+    }
+
+    /**
+     * Allow the reading to run again after a {@link #stop()}.
+     */
+    public void start() {
+        running = true;
+    }
+
+    public void stop() {
+        running = false;
+    }
+
+    /**
+     * @return name of the binlog file being read, or null if the reading is not started.
+     */
+    public synchronized String getFile() {
+        return file;
+    }
+
+    /**
+     * @return position of the next event in the binlog file being read.
+     */
+    public synchronized long getPosition() {
+        return position;
+    }
+
+    /**
+     * Continue the reading from the given position.
+     *
+     * @param file     name of the binlog file to continue from. The files before it in a directory are skipped.
+     * @param position position of the next event in the file.
+     */
+    public synchronized void setPosition(String file, long position) {
+        this.file = file;
+        this.position = position;
+    }
+
+    /**
+     * The row and envelope schemas of a table, derived from the column types of its table map event.
+     */
+    private class TableSchema {
+        private final String database;
+        private final String table;
+        private final ColumnType[] columnTypes;
+        private final Schema rowSchema;
+        private final Schema envelopeSchema;
+
+        TableSchema(TableMapEventData tableMap) {
+            database = tableMap.getDatabase();
+            table = tableMap.getTable();
+            byte[] types = tableMap.getColumnTypes();
+            int[] metadata = tableMap.getColumnMetadata();
+            columnTypes = new ColumnType[types.length];
+            SchemaBuilder rowSchemaBuilder = SchemaBuilder.struct().name(database + "." + table + ".Value")
+                    .optional();
+            for (int i = 0; i < types.length; i++) {
+                columnTypes[i] = ColumnType.byCode(types[i] & 0xFF);
+                //enum and set columns are logged as strings, with their real type in the metadata.
+                if (columnTypes[i] == ColumnType.STRING && metadata[i] >> 8 != 0) {
+                    ColumnType realType = ColumnType.byCode(metadata[i] >> 8);
+                    if (realType == ColumnType.ENUM || realType == ColumnType.SET) {
+                        columnTypes[i] = realType;
+                    }
+                }
+                rowSchemaBuilder.field(getColumnName(i), getFieldSchema(columnTypes[i]));
+            }
+            rowSchema = rowSchemaBuilder.build();
+            envelopeSchema = SchemaBuilder.struct().name(database + "." + table + ".Envelope")
+                    .field(CDCSourceConstants.BEFORE, rowSchema)
+                    .field(CDCSourceConstants.AFTER, rowSchema)
+                    .field(CDCSourceConstants.SOURCE, sourceSchema)
+                    .field(CDCSourceConstants.OP, Schema.STRING_SCHEMA)
+                    .build();
+        }
+
+        private String getColumnName(int index) {
+            if (columnNames != null && index < columnNames.length) {
+                return columnNames[index];
+            }
+            return COLUMN_PREFIX + (index + 1);
+        }
+
+        private Schema getFieldSchema(ColumnType columnType) {
+            if (columnType == null) {
+                return Schema.OPTIONAL_BYTES_SCHEMA;
+            }
+            switch (columnType) {
+                case TINY:
+                case SHORT:
+                case INT24:
+                case LONG:
+                case YEAR:
+                case ENUM:
+                    return Schema.OPTIONAL_INT32_SCHEMA;
+                case LONGLONG:
+                case SET:
+                case DATE:
+                case TIME:
+                case TIME_V2:
+                case DATETIME:
+                case DATETIME_V2:
+                case TIMESTAMP:
+                case TIMESTAMP_V2:
+                    return Schema.OPTIONAL_INT64_SCHEMA;
+                case FLOAT:
+                    return Schema.OPTIONAL_FLOAT32_SCHEMA;
+                case DOUBLE:
+                case DECIMAL:
+                case NEWDECIMAL:
+                    return Schema.OPTIONAL_FLOAT64_SCHEMA;
+                case VARCHAR:
+                case VAR_STRING:
+                case STRING:
+                case JSON:
+                    return Schema.OPTIONAL_STRING_SCHEMA;
+                default:
+                    return Schema.OPTIONAL_BYTES_SCHEMA;
+            }
+        }
+
+        /**
+         * Create the row struct of the values of the included columns.
+         */
+        Struct createRow(BitSet includedColumns, Serializable[] values) {
+            Struct row = new Struct(rowSchema);
+            int valueIndex = 0;
+            for (int i = includedColumns.nextSetBit(0); i >= 0 && i < columnTypes.length;
+                 i = includedColumns.nextSetBit(i + 1)) {
+                Serializable value = valueIndex < values.length ? values[valueIndex++] : null;
+                if (value != null) {
+                    row.put(rowSchema.fields().get(i), convert(columnTypes[i], rowSchema.fields().get(i).schema(),
+                            value));
+                }
+            }
+            return row;
+        }
+
+        private Object convert(ColumnType columnType, Schema fieldSchema, Serializable value) {
+            switch (fieldSchema.type()) {
+                case INT32:
+                    return ((Number) value).intValue();
+                case INT64:
+                    return ((Number) value).longValue();
+                case FLOAT32:
+                    return ((Number) value).floatValue();
+                case FLOAT64:
+                    return ((Number) value).doubleValue();
+                case STRING:
+                    if (value instanceof byte[]) {
+                        if (columnType == ColumnType.JSON) {
+                            try {
+                                return JsonBinary.parseAsString((byte[]) value);
+                            } catch (IOException e) {
+                                throw new SiddhiAppRuntimeException("Error while reading a JSON value of table '" +
+                                        database + "." + table + "'.", e);
+                            }
+                        }
+                        return new String((byte[]) value, StandardCharsets.UTF_8);
+                    }
+                    return value.toString();
+                default:
+                    if (value instanceof BitSet) {
+                        return ((BitSet) value).toByteArray();
+                    }
+                    if (value instanceof byte[]) {
+                        return value;
+                    }
+                    return value.toString().getBytes(StandardCharsets.UTF_8);
+            }
+        }
+    }
+}
@@ -20,44 +20,93 @@ package org.wso2.extension.siddhi.io.cdc.source.listening;
 
 import org.wso2.extension.siddhi.io.cdc.source.CDCSource;
 
-import java.util.HashMap;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
 import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
- * This class Contains methods to store and retrieve the CDCSource objects.
+ * This class Contains methods to store and retrieve the CDCSource objects, so that the offset backing store created
+ * by the debezium engine can find its source by the id passed through the engine configuration. The sources are
+ * kept by unique generated ids, and are weakly referenced, so that a source which is not removed doesn't leak.
+ * Sources can be added and removed concurrently without locking the registry.
  */
 public class CDCSourceObjectKeeper {
 
     private static CDCSourceObjectKeeper cdcSourceObjectKeeper = new CDCSourceObjectKeeper();
-    private Map<Integer, CDCSource> objectMap;
+    private final Map<String, SourceReference> objectMap = new ConcurrentHashMap<>();
+    private final ReferenceQueue<CDCSource> collectedSources = new ReferenceQueue<>();
 
     private CDCSourceObjectKeeper() {
-        objectMap = new HashMap<>();
     }
 
     /**
-     * @param cdcSource is added to the objectMap against it's toString() value.
+     * @return a new id to add a CDCSource object against.
      */
-    public void addCdcObject(CDCSource cdcSource) {
-        objectMap.put(cdcSource.hashCode(), cdcSource);
+    public String generateObjectId() {
+        return UUID.randomUUID().toString();
     }
 
     /**
-     * @param cdcSourceHashCode is the CDCSource's hashcode to be removed from the objectMap.
+     * @param cdcSourceObjectId the id generated with {@link #generateObjectId()}.
+     * @param cdcSource         is added to the objectMap against the id.
      */
-    public void removeObject(int cdcSourceHashCode) {
-        objectMap.remove(cdcSourceHashCode);
+    public void addCdcObject(String cdcSourceObjectId, CDCSource cdcSource) {
+        removeCollectedObjects();
+        objectMap.put(cdcSourceObjectId, new SourceReference(cdcSourceObjectId, cdcSource, collectedSources));
     }
 
     /**
-     * @param hashCode cdcSource object's hashcode.
+     * @param cdcSourceObjectId is the id of the CDCSource to be removed from the objectMap.
+     */
+    public void removeObject(String cdcSourceObjectId) {
+        objectMap.remove(cdcSourceObjectId);
+        removeCollectedObjects();
+    }
+
+    /**
+     * @param cdcSourceObjectId cdcSource object's id.
      * @return cdcObject if the particular object is already added. Otherwise, return null.
      */
-    CDCSource getCdcObject(int hashCode) {
-        return objectMap.get(hashCode);
+    CDCSource getCdcObject(String cdcSourceObjectId) {
+        SourceReference sourceReference = objectMap.get(cdcSourceObjectId);
+        return sourceReference == null ? null : sourceReference.get();
+    }
+
+    /**
+     * @return whether the id is kept, including the id of a source collected without being removed and not purged
+     * yet.
+     */
+    boolean isObjectIdKept(String cdcSourceObjectId) {
+        return objectMap.containsKey(cdcSourceObjectId);
+    }
+
+    /**
+     * Remove the ids of the sources that were garbage collected without being removed.
+     */
+    private void removeCollectedObjects() {
+        Reference<? extends CDCSource> reference;
+        while ((reference = collectedSources.poll()) != null) {
+            SourceReference sourceReference = (SourceReference) reference;
+            objectMap.remove(sourceReference.cdcSourceObjectId, sourceReference);
+        }
     }
 
     public static CDCSourceObjectKeeper getCdcSourceObjectKeeper() {
         return cdcSourceObjectKeeper;
     }
+
+    /**
+     * Weak reference to a source, which knows the id it is kept against.
+     */
+    private static class SourceReference extends WeakReference<CDCSource> {
+        private final String cdcSourceObjectId;
+
+        SourceReference(String cdcSourceObjectId, CDCSource cdcSource, ReferenceQueue<CDCSource> queue) {
+            super(cdcSource, queue);
+            this.cdcSourceObjectId = cdcSourceObjectId;
+        }
+    }
 }
@@ -21,17 +21,22 @@ package org.wso2.extension.siddhi.io.cdc.source.listening;
 import io.debezium.config.Configuration;
 import io.debezium.embedded.EmbeddedEngine;
 import io.debezium.embedded.spi.OffsetCommitPolicy;
+import io.debezium.engine.DebeziumEngine;
 import org.apache.kafka.connect.connector.ConnectRecord;
 import org.apache.kafka.connect.data.Field;
 import org.apache.kafka.connect.data.Struct;
 import org.apache.kafka.connect.errors.DataException;
+import org.apache.kafka.connect.source.SourceRecord;
+import org.wso2.extension.siddhi.io.cdc.source.metrics.CDCSourceMetrics;
 import org.wso2.extension.siddhi.io.cdc.util.CDCSourceConstants;
+import org.wso2.extension.siddhi.io.cdc.util.CDCSourceUtil;
 import org.wso2.siddhi.core.exception.SiddhiAppRuntimeException;
 import org.wso2.siddhi.core.stream.input.source.SourceEventListener;
 
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.ReentrantLock;
 
@@ -46,10 +51,22 @@ public class ChangeDataCapture {
     private ReentrantLock lock = new ReentrantLock();
     private Condition condition = lock.newCondition();
     private boolean paused = false;
+    private CDCSourceMetrics metrics;
+    private String[] requestedTransportPropertyNames;
+    private IncrementalSnapshotter incrementalSnapshotter;
+    private SpillBuffer spillBuffer;
+    private boolean isTableNameRequested;
+    private Map<String, String> tableNames = new ConcurrentHashMap<>();
+    private String heartbeatTopicsPrefix = CDCSourceConstants.DEFAULT_HEARTBEAT_TOPICS_PREFIX;
 
-    public ChangeDataCapture(String operation, SourceEventListener sourceEventListener) {
+    public ChangeDataCapture(String operation, SourceEventListener sourceEventListener, CDCSourceMetrics metrics,
+                             String[] requestedTransportPropertyNames) {
         this.operation = operation;
         this.sourceEventListener = sourceEventListener;
+        this.metrics = metrics;
+        this.requestedTransportPropertyNames = requestedTransportPropertyNames;
+        this.isTableNameRequested = CDCSourceUtil.isTransportPropertyRequested(requestedTransportPropertyNames,
+                CDCSourceConstants.TRANSPORT_PROPERTY_TABLE_NAME);
     }
 
     /**
@@ -62,6 +79,9 @@ public class ChangeDataCapture {
         for (Map.Entry<String, Object> entry : configMap.entrySet()) {
             config = config.edit().with(entry.getKey(), entry.getValue()).build();
         }
+        Object configuredPrefix = configMap.get(CDCSourceConstants.HEARTBEAT_TOPICS_PREFIX);
+        heartbeatTopicsPrefix = configuredPrefix == null ? CDCSourceConstants.DEFAULT_HEARTBEAT_TOPICS_PREFIX :
+                configuredPrefix.toString();
     }
 
     /**
@@ -79,16 +99,54 @@ public class ChangeDataCapture {
         if (builder == null) {
             throw new SiddhiAppRuntimeException("CDC Engine create failed. Check parameters.");
         } else {
-            EmbeddedEngine engine = builder.notifying(this::handleEvent).build();
+            DebeziumEngine.ChangeConsumer<SourceRecord> batchHandler = this::handleBatch;
+            EmbeddedEngine engine = builder.notifying(batchHandler).build();
             return engine;
         }
     }
 
+    public void setIncrementalSnapshotter(IncrementalSnapshotter incrementalSnapshotter) {
+        this.incrementalSnapshotter = incrementalSnapshotter;
+        incrementalSnapshotter.setEventSender(this::emitEvent);
+    }
+
+    /**
+     * Spill the change events to the given directory while paused, instead of blocking the engine.
+     *
+     * @param errorCallback notified if the spilled events can't be replayed.
+     */
+    public void enableSpillBuffer(String spillDirectory, SpillBuffer.ErrorCallback errorCallback) {
+        this.spillBuffer = new SpillBuffer(spillDirectory, this::sendEvent, errorCallback);
+    }
+
+    /**
+     * Send the events spilled before the source is started, if there are any.
+     */
+    public void start() {
+        if (spillBuffer != null) {
+            spillBuffer.resume();
+        }
+    }
+
+    public void shutdown() {
+        if (spillBuffer != null) {
+            spillBuffer.shutdown();
+        }
+    }
+
     public void pause() {
+        if (spillBuffer != null) {
+            spillBuffer.pause();
+            return;
+        }
         paused = true;
     }
 
     public void resume() {
+        if (spillBuffer != null) {
+            spillBuffer.resume();
+            return;
+        }
         paused = false;
         try {
             lock.lock();
@@ -98,12 +156,34 @@ public class ChangeDataCapture {
         }
     }
 
+    /**
+     * Handle a batch of records received from the engine. The events spilled from the batch are synced to disk
+     * once, before the batch is marked finished, as the engine commits the offsets of the batch after that.
+     */
+    void handleBatch(List<SourceRecord> records, DebeziumEngine.RecordCommitter<SourceRecord> committer)
+            throws InterruptedException {
+        for (SourceRecord record : records) {
+            handleEvent(record);
+            committer.markProcessed(record);
+        }
+        if (spillBuffer != null) {
+            spillBuffer.sync();
+        }
+        committer.markBatchFinished();
+    }
+
     /**
      * When an event is received, create and send the event details to the sourceEventListener.
      */
-    private void handleEvent(ConnectRecord connectRecord) {
+    void handleEvent(ConnectRecord connectRecord) {
         Map<String, Object> detailsMap;
 
+        //heartbeat records only advance the offset.
+        if (connectRecord.topic() != null &&
+                connectRecord.topic().startsWith(heartbeatTopicsPrefix)) {
+            return;
+        }
+
         if (paused) {
             lock.lock();
             try {
@@ -116,10 +196,73 @@ public class ChangeDataCapture {
                 lock.unlock();
             }
         }
+        if (incrementalSnapshotter != null && incrementalSnapshotter.handleEvent(connectRecord)) {
+            return;
+        }
+        metrics.conversionStarted();
         detailsMap = createMap(connectRecord, operation);
+        metrics.conversionEnded();
         if (!detailsMap.isEmpty()) {
-            sourceEventListener.onEvent(detailsMap, null);
+            long commitTimestamp = getCommitTimestamp((Struct) connectRecord.value());
+            String[] transportProperties = CDCSourceUtil.getTransportProperties(requestedTransportPropertyNames,
+                    commitTimestamp, isTableNameRequested ? getTableName((Struct) connectRecord.value()) : null);
+            emitEvent(detailsMap, transportProperties, commitTimestamp);
+        }
+    }
+
+    /**
+     * Send the event, or spill it while paused if the spill buffer is enabled. The rows of the incremental snapshot
+     * are emitted through here as well, to keep them in order with the live changes.
+     */
+    private void emitEvent(Map<String, Object> detailsMap, String[] transportProperties, long commitTimestamp) {
+        if (spillBuffer == null || !spillBuffer.spillIfRequired(detailsMap, transportProperties, commitTimestamp)) {
+            sendEvent(detailsMap, transportProperties, commitTimestamp);
+        }
+    }
+
+    private void sendEvent(Map<String, Object> detailsMap, String[] transportProperties, long commitTimestamp) {
+        sourceEventListener.onEvent(detailsMap, transportProperties);
+        metrics.eventSent(commitTimestamp);
+    }
+
+    /**
+     * Get the time the change is committed in the database, from the source block of the change data object.
+     *
+     * @param record is the value of the change data object.
+     * @return commit time in milliseconds, or -1 if it is not available.
+     */
+    long getCommitTimestamp(Struct record) {
+        try {
+            Struct source = (Struct) record.get(CDCSourceConstants.SOURCE);
+            Object timestamp = source.get(CDCSourceConstants.TIMESTAMP_MS);
+            if (timestamp instanceof Number) {
+                return ((Number) timestamp).longValue();
+            }
+        } catch (NullPointerException | DataException ex) {
+            return -1;
+        }
+        return -1;
+    }
+
+    /**
+     * Get the table of the change from the source block of the change data object. The names are cached, so that
+     * the events of a table share a single name instance.
+     *
+     * @param record is the value of the change data object.
+     * @return the table name, or null if it is not available.
+     */
+    String getTableName(Struct record) {
+        String tableName;
+        try {
+            tableName = ((Struct) record.get(CDCSourceConstants.SOURCE)).getString(CDCSourceConstants.TABLE);
+        } catch (NullPointerException | DataException | ClassCastException ex) {
+            return null;
+        }
+        if (tableName == null) {
+            return null;
         }
+        String cachedTableName = tableNames.putIfAbsent(tableName, tableName);
+        return cachedTableName == null ? tableName : cachedTableName;
     }
 
     /**
@@ -129,7 +272,7 @@ public class ChangeDataCapture {
      * @param operation     is the change data event which is specified by the user.
      **/
 
-    private Map<String, Object> createMap(ConnectRecord connectRecord, String operation) {
+    Map<String, Object> createMap(ConnectRecord connectRecord, String operation) {
 
         //Map to return
         Map<String, Object> detailsMap = new HashMap<>();
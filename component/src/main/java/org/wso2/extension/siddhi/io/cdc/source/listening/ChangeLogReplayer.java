@@ -0,0 +1,255 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.extension.siddhi.io.cdc.source.listening;
+
+import org.apache.kafka.connect.data.SchemaAndValue;
+import org.apache.kafka.connect.data.Struct;
+import org.apache.kafka.connect.errors.DataException;
+import org.apache.kafka.connect.json.JsonConverter;
+import org.apache.kafka.connect.source.SourceRecord;
+import org.apache.log4j.Logger;
+import org.wso2.siddhi.core.exception.SiddhiAppRuntimeException;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Replays newline-delimited debezium change events, written in the JSON format of the kafka connect JsonConverter
+ * with schemas enabled, from a file or from the files of a directory in the order of their names. The events are
+ * sent through the {@link ChangeDataCapture} handler, as fast as they are consumed or at a multiple of the speed
+ * they were committed in. The file and the position of the next event are kept, so that the replay continues from
+ * there after a restore.
+ */
+public class ChangeLogReplayer implements Runnable {
+
+    private static final Logger log = Logger.getLogger(ChangeLogReplayer.class);
+    private static final int READ_BUFFER_SIZE = 1024 * 1024;
+    private static final String TOPIC = "replay";
+    private final ChangeDataCapture changeDataCapture;
+    private final Path path;
+    private final double speed;
+    private final JsonConverter jsonConverter = new JsonConverter();
+    private final ByteBuffer readBuffer = ByteBuffer.allocateDirect(READ_BUFFER_SIZE);
+    private byte[] line = new byte[1024];
+    private int lineLength = 0;
+    private String file;
+    private long position = 0;
+    private long firstCommitTimestamp = -1;
+    private long firstEventNanos;
+    private volatile boolean running = true;
+
+    /**
+     * @param changeDataCapture the handler the events are sent to.
+     * @param path              a change event file, or a directory of change event files.
+     * @param speed             multiple of the commit speed the events are sent in, or a non positive value to
+     *                          send them as fast as they are consumed.
+     */
+    public ChangeLogReplayer(ChangeDataCapture changeDataCapture, String path, double speed) {
+        this.changeDataCapture = changeDataCapture;
+        this.path = Paths.get(path);
+        this.speed = speed;
+        this.jsonConverter.configure(Collections.singletonMap("schemas.enable", "true"), false);
+    }
+
+    @Override
+    public void run() {
+        try {
+            for (Path changeLogFile : listFiles()) {
+                String fileName = changeLogFile.getFileName().toString();
+                long startPosition;
+                synchronized (this) {
+                    if (file != null && fileName.compareTo(file) < 0) {
+                        //replayed before the restored position.
+                        continue;
+                    }
+                    startPosition = fileName.equals(file) ? position : 0;
+                    file = fileName;
+                    position = startPosition;
+                }
+                if (!replayFile(changeLogFile, startPosition)) {
+                    return;
+                }
+            }
+            if (log.isDebugEnabled()) {
+                log.debug("Replay of the change events in " + path + " is completed.");
+            }
+        } catch (IOException e) {
+            throw new SiddhiAppRuntimeException("Error while replaying the change events in " + path, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private List<Path> listFiles() throws IOException {
+        if (!Files.isDirectory(path)) {
+            return Collections.singletonList(path);
+        }
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> directoryStream = Files.newDirectoryStream(path, Files::isRegularFile)) {
+            for (Path changeLogFile : directoryStream) {
+                files.add(changeLogFile);
+            }
+        }
+        Collections.sort(files);
+        return files;
+    }
+
+    /**
+     * Replay the events of a file from the given position.
+     *
+     * @return false if the replay is stopped before the end of the file.
+     */
+    private boolean replayFile(Path changeLogFile, long startPosition) throws IOException, InterruptedException {
+        long lineStart = startPosition;
+        lineLength = 0;
+        try (FileChannel channel = FileChannel.open(changeLogFile, StandardOpenOption.READ)) {
+            channel.position(startPosition);
+            readBuffer.clear();
+            while (channel.read(readBuffer) > 0) {
+                readBuffer.flip();
+                while (readBuffer.hasRemaining()) {
+                    byte b = readBuffer.get();
+                    if (b != '\n') {
+                        appendToLine(b);
+                        continue;
+                    }
+                    long nextLineStart = lineStart + lineLength + 1;
+                    replayLine(changeLogFile);
+                    lineStart = nextLineStart;
+                    lineLength = 0;
+                    synchronized (this) {
+                        position = lineStart;
+                    }
+                    if (!running) {
+                        return false;
+                    }
+                }
+                readBuffer.clear();
+            }
+            //the last line may not end with a new line.
+            if (lineLength > 0) {
+                long nextLineStart = lineStart + lineLength;
+                replayLine(changeLogFile);
+                synchronized (this) {
+                    position = nextLineStart;
+                }
+            }
+        }
+        return running;
+    }
+
+    private void appendToLine(byte b) {
+        if (lineLength == line.length) {
+            line = Arrays.copyOf(line, line.length * 2);
+        }
+        line[lineLength++] = b;
+    }
+
+    private void replayLine(Path changeLogFile) throws InterruptedException {
+        int length = lineLength;
+        if (length > 0 && line[length - 1] == '\r') {
+            length--;
+        }
+        if (length == 0) {
+            return;
+        }
+        SchemaAndValue schemaAndValue;
+        try {
+            schemaAndValue = jsonConverter.toConnectData(TOPIC, Arrays.copyOf(line, length));
+        } catch (DataException e) {
+            log.error("Skipping a change event that couldn't be read from " + changeLogFile + ".", e);
+            return;
+        }
+        if (!(schemaAndValue.value() instanceof Struct)) {
+            //tombstones and events without a schema are not change events.
+            return;
+        }
+        Struct value = (Struct) schemaAndValue.value();
+        if (speed > 0) {
+            waitForCommitTime(changeDataCapture.getCommitTimestamp(value));
+        }
+        changeDataCapture.handleEvent(new SourceRecord(null, null, TOPIC, schemaAndValue.schema(), value));
+    }
+
+    /**
+     * Wait until the time of the event relative to the first replayed event, scaled by the speed.
+     */
+    private void waitForCommitTime(long commitTimestamp) throws InterruptedException {
+        if (commitTimestamp < 0) {
+            return;
+        }
+        if (firstCommitTimestamp < 0) {
+            firstCommitTimestamp = commitTimestamp;
+            firstEventNanos = System.nanoTime();
+            return;
+        }
+        long dueNanos = firstEventNanos +
+                (long) (TimeUnit.MILLISECONDS.toNanos(commitTimestamp - firstCommitTimestamp) / speed);
+        long waitNanos = dueNanos - System.nanoTime();
+        if (waitNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+
+    /**
+     * Allow the replay to run again after a {@link #stop()}.
+     */
+    public void start() {
+        running = true;
+    }
+
+    public void stop() {
+        running = false;
+    }
+
+    /**
+     * @return name of the file being replayed, or null if the replay is not started.
+     */
+    public synchronized String getFile() {
+        return file;
+    }
+
+    /**
+     * @return position of the next event in the file being replayed.
+     */
+    public synchronized long getPosition() {
+        return position;
+    }
+
+    /**
+     * Continue the replay from the given position.
+     *
+     * @param file     name of the file to continue from. The files before it in a directory are skipped.
+     * @param position position of the next event in the file.
+     */
+    public synchronized void setPosition(String file, long position) {
+        this.file = file;
+        this.position = position;
+    }
+}
@@ -46,7 +46,7 @@ public class InMemoryOffsetBackingStore extends MemoryOffsetBackingStore {
      */
     public void configure(WorkerConfig config) {
         super.configure(config);
-        int cdcSourceObjectId = Integer.parseInt((String) config.originals().get(CDCSourceConstants.CDC_SOURCE_OBJECT));
+        String cdcSourceObjectId = String.valueOf(config.originals().get(CDCSourceConstants.CDC_SOURCE_OBJECT));
         cdcSource = CDCSourceObjectKeeper.getCdcSourceObjectKeeper().getCdcObject(cdcSourceObjectId);
     }
 
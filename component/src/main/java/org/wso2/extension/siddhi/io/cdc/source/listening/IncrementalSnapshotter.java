@@ -0,0 +1,430 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.extension.siddhi.io.cdc.source.listening;
+
+import org.apache.kafka.connect.connector.ConnectRecord;
+import org.apache.kafka.connect.data.Field;
+import org.apache.kafka.connect.data.Struct;
+import org.apache.kafka.connect.errors.DataException;
+import org.apache.log4j.Logger;
+import org.wso2.extension.siddhi.io.cdc.util.CDCPollingUtil;
+import org.wso2.extension.siddhi.io.cdc.util.CDCSourceConstants;
+import org.wso2.extension.siddhi.io.cdc.util.CDCSourceUtil;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Backfills the existing rows of a table in primary key chunks while the live changes are being captured.
+ * <p>
+ * Each chunk is selected between a low and a high watermark written to a watermark table that is captured
+ * together with the monitored table. Live changes seen between the two watermarks win over the selected rows, and
+ * the remaining rows of the chunk are emitted when the high watermark is received. Tables are never locked and
+ * the live stream is never paused.
+ */
+public class IncrementalSnapshotter implements Runnable {
+
+    private static final Logger log = Logger.getLogger(IncrementalSnapshotter.class);
+    private static final String LOW_WATERMARK_SUFFIX = "-low";
+    private static final String HIGH_WATERMARK_SUFFIX = "-high";
+    private static final String WATERMARK_ID_COLUMN = "id";
+    private static final String WATERMARK_VALUE_COLUMN = "watermark";
+    private static final long WATERMARK_TIMEOUT_SECONDS = 60;
+    private String url;
+    private String username;
+    private String password;
+    private String tableName;
+    private String watermarkTableName;
+    private String watermarkId;
+    private int chunkSize;
+    private SpillBuffer.EventSender eventSender;
+    private String[] requestedTransportPropertyNames;
+    private String keyColumn;
+    private int keyType = Types.OTHER;
+    private Map<String, String> fieldNames = new HashMap<>();
+    private volatile Object lastKey;
+    private volatile boolean completed = false;
+    private volatile boolean running = false;
+
+    //state of the chunk being processed, shared between the snapshot thread and the engine thread.
+    private final Object chunkLock = new Object();
+    private String currentWatermark;
+    private boolean windowOpen = false;
+    private Map<String, Map<String, Object>> chunk;
+    private Object chunkLastKey;
+    private Map<String, Map<String, Object>> windowChanges = new HashMap<>();
+    private CountDownLatch chunkDone;
+
+    public IncrementalSnapshotter(String url, String username, String password, String tableName,
+                                  String watermarkTableName, String watermarkId, int chunkSize,
+                                  String[] requestedTransportPropertyNames) {
+        this.url = url;
+        this.username = username;
+        this.password = password;
+        this.tableName = tableName;
+        this.watermarkTableName = watermarkTableName;
+        this.watermarkId = watermarkId;
+        this.chunkSize = chunkSize;
+        this.requestedTransportPropertyNames = requestedTransportPropertyNames;
+    }
+
+    /**
+     * Set the sender of the rows of the chunks, which sends them in the same way as the live change events.
+     */
+    void setEventSender(SpillBuffer.EventSender eventSender) {
+        this.eventSender = eventSender;
+    }
+
+    public String getLastKey() {
+        return lastKey == null ? null : lastKey.toString();
+    }
+
+    /**
+     * Restore the key of the last completed chunk. The key is converted to the type of the primary key column
+     * when the snapshot is started.
+     */
+    public void setLastKey(String lastKey) {
+        this.lastKey = lastKey;
+    }
+
+    public boolean isCompleted() {
+        return completed;
+    }
+
+    public void setCompleted(boolean completed) {
+        this.completed = completed;
+    }
+
+    public void stop() {
+        running = false;
+        synchronized (chunkLock) {
+            if (chunkDone != null) {
+                chunkDone.countDown();
+            }
+        }
+    }
+
+    @Override
+    public void run() {
+        running = true;
+        Connection connection = null;
+        try {
+            connection = DriverManager.getConnection(url, username, password);
+            keyColumn = CDCPollingUtil.getPrimaryKeyColumn(connection, tableName);
+            readColumns(connection);
+            if (lastKey instanceof String) {
+                lastKey = toKeyValue((String) lastKey);
+            }
+            createWatermarkTable(connection);
+            String limitClause = getLimitClause(connection);
+            while (running && !completed) {
+                snapshotChunk(connection, limitClause);
+            }
+            if (completed) {
+                log.info("Incremental snapshot of table '" + tableName + "' completed.");
+            }
+        } catch (SQLException e) {
+            log.error("Incremental snapshot of table '" + tableName + "' failed. It will be continued from the " +
+                    "last completed chunk when the source is restarted.", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            CDCPollingUtil.cleanupConnection(null, null, connection);
+        }
+    }
+
+    /**
+     * Select a chunk of rows between a low and a high watermark, and wait till the engine thread emits it.
+     */
+    private void snapshotChunk(Connection connection, String limitClause) throws SQLException,
+            InterruptedException {
+        String watermark = UUID.randomUUID().toString();
+        CountDownLatch done = new CountDownLatch(1);
+        synchronized (chunkLock) {
+            currentWatermark = watermark;
+            windowOpen = false;
+            windowChanges = new HashMap<>();
+            chunk = null;
+            chunkDone = done;
+        }
+
+        writeWatermark(connection, watermark + LOW_WATERMARK_SUFFIX);
+
+        Map<String, Map<String, Object>> selectedRows = new LinkedHashMap<>();
+        Object selectedLastKey = lastKey;
+        String selectQuery = "SELECT * FROM " + tableName +
+                (lastKey == null ? "" : " WHERE " + keyColumn + " > ?") + " ORDER BY " + keyColumn + limitClause;
+        PreparedStatement statement = null;
+        ResultSet resultSet = null;
+        try {
+            statement = connection.prepareStatement(selectQuery);
+            if (lastKey != null) {
+                statement.setObject(1, lastKey);
+            }
+            resultSet = statement.executeQuery();
+            ResultSetMetaData metadata = resultSet.getMetaData();
+            while (resultSet.next()) {
+                Map<String, Object> row = new HashMap<>();
+                for (int i = 1; i <= metadata.getColumnCount(); i++) {
+                    row.put(getFieldName(metadata.getColumnLabel(i)), resultSet.getObject(i));
+                }
+                selectedLastKey = resultSet.getObject(keyColumn);
+                selectedRows.put(String.valueOf(selectedLastKey), row);
+            }
+        } finally {
+            CDCPollingUtil.cleanupConnection(resultSet, statement, null);
+        }
+
+        //the chunk loses the rows deleted within the window, hence the count is taken before it is published.
+        int selectedCount = selectedRows.size();
+        synchronized (chunkLock) {
+            chunk = selectedRows;
+            chunkLastKey = selectedLastKey;
+        }
+
+        writeWatermark(connection, watermark + HIGH_WATERMARK_SUFFIX);
+
+        if (!done.await(WATERMARK_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+            log.warn("High watermark of the incremental snapshot of table '" + tableName + "' was not received " +
+                    "within " + WATERMARK_TIMEOUT_SECONDS + " seconds. Retrying the chunk after key: " + lastKey);
+            return;
+        }
+        if (running && selectedCount < chunkSize) {
+            completed = true;
+        }
+    }
+
+    /**
+     * Handle a change event received from the engine.
+     *
+     * @param connectRecord the change data object received from the embedded engine.
+     * @return true if the record is a watermark and should not be processed further.
+     */
+    boolean handleEvent(ConnectRecord connectRecord) {
+        Struct record;
+        String table;
+        String op;
+        try {
+            record = (Struct) connectRecord.value();
+            table = ((Struct) record.get(CDCSourceConstants.SOURCE)).getString(CDCSourceConstants.TABLE);
+            op = (String) record.get(CDCSourceConstants.OP);
+        } catch (NullPointerException | DataException | ClassCastException ex) {
+            return false;
+        }
+        if (op == null) {
+            return false;
+        }
+
+        if (watermarkTableName.equalsIgnoreCase(table)) {
+            Struct after = (Struct) record.get(CDCSourceConstants.AFTER);
+            if (after != null) {
+                onWatermark(String.valueOf(after.get(WATERMARK_VALUE_COLUMN)));
+            }
+            return true;
+        }
+
+        synchronized (chunkLock) {
+            if (!windowOpen || keyColumn == null) {
+                return false;
+            }
+            switch (op) {
+                case CDCSourceConstants.CONNECT_RECORD_INSERT_OPERATION:
+                    //the live insert is emitted, hence the row should not be emitted by the snapshot.
+                    windowChanges.put(getKey(record, CDCSourceConstants.AFTER), null);
+                    break;
+                case CDCSourceConstants.CONNECT_RECORD_DELETE_OPERATION:
+                    windowChanges.put(getKey(record, CDCSourceConstants.BEFORE), null);
+                    break;
+                case CDCSourceConstants.CONNECT_RECORD_UPDATE_OPERATION:
+                    String key = getKey(record, CDCSourceConstants.AFTER);
+                    if (!windowChanges.containsKey(key) || windowChanges.get(key) != null) {
+                        windowChanges.put(key, toMap((Struct) record.get(CDCSourceConstants.AFTER)));
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+        return false;
+    }
+
+    private void onWatermark(String value) {
+        Map<String, Map<String, Object>> rowsToEmit = null;
+        CountDownLatch done = null;
+        synchronized (chunkLock) {
+            if (currentWatermark == null) {
+                return;
+            }
+            if (value.equals(currentWatermark + LOW_WATERMARK_SUFFIX)) {
+                windowOpen = true;
+            } else if (value.equals(currentWatermark + HIGH_WATERMARK_SUFFIX) && chunk != null) {
+                windowOpen = false;
+                for (Map.Entry<String, Map<String, Object>> change : windowChanges.entrySet()) {
+                    if (change.getValue() == null) {
+                        chunk.remove(change.getKey());
+                    } else if (chunk.containsKey(change.getKey())) {
+                        chunk.put(change.getKey(), change.getValue());
+                    }
+                }
+                rowsToEmit = chunk;
+                lastKey = chunkLastKey;
+                currentWatermark = null;
+                done = chunkDone;
+            }
+        }
+        if (rowsToEmit != null) {
+            for (Map<String, Object> row : rowsToEmit.values()) {
+                eventSender.send(row,
+                        CDCSourceUtil.getTransportProperties(requestedTransportPropertyNames, -1, tableName), -1);
+            }
+            done.countDown();
+        }
+    }
+
+    private String getKey(Struct record, String image) {
+        Struct row = (Struct) record.get(image);
+        return row == null ? null : String.valueOf(row.get(keyColumn));
+    }
+
+    /**
+     * Read the names of the columns as they are in the database catalog, which are the field names of the live
+     * change events, and the type of the primary key column.
+     */
+    private void readColumns(Connection connection) throws SQLException {
+        DatabaseMetaData metaData = connection.getMetaData();
+        int separatorIndex = tableName.lastIndexOf('.');
+        String schema = separatorIndex < 0 ? null : tableName.substring(0, separatorIndex);
+        String table = tableName.substring(separatorIndex + 1);
+        String[][] names = {{schema, table},
+                {schema == null ? null : schema.toUpperCase(Locale.ENGLISH), table.toUpperCase(Locale.ENGLISH)},
+                {schema == null ? null : schema.toLowerCase(Locale.ENGLISH), table.toLowerCase(Locale.ENGLISH)}};
+        for (int i = 0; i < names.length && fieldNames.isEmpty(); i++) {
+            ResultSet resultSet = null;
+            try {
+                resultSet = metaData.getColumns(connection.getCatalog(), names[i][0], names[i][1], null);
+                while (resultSet.next()) {
+                    String columnName = resultSet.getString("COLUMN_NAME");
+                    fieldNames.put(columnName.toUpperCase(Locale.ENGLISH), columnName);
+                    if (columnName.equals(keyColumn)) {
+                        keyType = resultSet.getInt("DATA_TYPE");
+                    }
+                }
+            } finally {
+                CDCPollingUtil.cleanupConnection(resultSet, null, null);
+            }
+        }
+    }
+
+    private String getFieldName(String columnLabel) {
+        String fieldName = fieldNames.get(columnLabel.toUpperCase(Locale.ENGLISH));
+        return fieldName == null ? columnLabel : fieldName;
+    }
+
+    /**
+     * Convert a key restored from the state to the type of the primary key column, so that it is compared with
+     * the keys of the table as a value of the same type.
+     */
+    private Object toKeyValue(String key) {
+        switch (keyType) {
+            case Types.TINYINT:
+            case Types.SMALLINT:
+            case Types.INTEGER:
+            case Types.BIGINT:
+                return Long.valueOf(key);
+            case Types.DECIMAL:
+            case Types.NUMERIC:
+                return new BigDecimal(key);
+            default:
+                return key;
+        }
+    }
+
+    private String getLimitClause(Connection connection) throws SQLException {
+        String databaseName = connection.getMetaData().getDatabaseProductName();
+        switch (databaseName) {
+            case "MySQL":
+            case "PostgreSQL":
+            case "H2":
+                return " LIMIT " + chunkSize;
+            case "Microsoft SQL Server":
+                return " OFFSET 0 ROWS FETCH NEXT " + chunkSize + " ROWS ONLY";
+            default:
+                return " FETCH FIRST " + chunkSize + " ROWS ONLY";
+        }
+    }
+
+    private Map<String, Object> toMap(Struct row) {
+        Map<String, Object> detailsMap = new HashMap<>();
+        for (Field field : row.schema().fields()) {
+            detailsMap.put(field.name(), row.get(field));
+        }
+        return detailsMap;
+    }
+
+    private void createWatermarkTable(Connection connection) {
+        Statement statement = null;
+        try {
+            statement = connection.createStatement();
+            statement.executeUpdate("CREATE TABLE IF NOT EXISTS " + watermarkTableName + " (" +
+                    WATERMARK_ID_COLUMN + " VARCHAR(255) PRIMARY KEY, " + WATERMARK_VALUE_COLUMN + " VARCHAR(64))");
+        } catch (SQLException e) {
+            if (log.isDebugEnabled()) {
+                log.debug("Couldn't create the watermark table '" + watermarkTableName + "'. Assuming it exists.",
+                        e);
+            }
+        } finally {
+            CDCPollingUtil.cleanupConnection(null, statement, null);
+        }
+    }
+
+    private void writeWatermark(Connection connection, String watermark) throws SQLException {
+        PreparedStatement statement = null;
+        try {
+            statement = connection.prepareStatement("UPDATE " + watermarkTableName + " SET " +
+                    WATERMARK_VALUE_COLUMN + " = ? WHERE " + WATERMARK_ID_COLUMN + " = ?");
+            statement.setString(1, watermark);
+            statement.setString(2, watermarkId);
+            if (statement.executeUpdate() == 0) {
+                CDCPollingUtil.cleanupConnection(null, statement, null);
+                statement = connection.prepareStatement("INSERT INTO " + watermarkTableName + " (" +
+                        WATERMARK_ID_COLUMN + ", " + WATERMARK_VALUE_COLUMN + ") VALUES (?, ?)");
+                statement.setString(1, watermarkId);
+                statement.setString(2, watermark);
+                statement.executeUpdate();
+            }
+        } finally {
+            CDCPollingUtil.cleanupConnection(null, statement, null);
+        }
+    }
+}
@@ -0,0 +1,211 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.extension.siddhi.io.cdc.source.listening;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.debezium.config.Configuration;
+import io.debezium.document.DocumentReader;
+import io.debezium.document.DocumentWriter;
+import io.debezium.relational.history.AbstractDatabaseHistory;
+import io.debezium.relational.history.DatabaseHistoryException;
+import io.debezium.relational.history.DatabaseHistoryListener;
+import io.debezium.relational.history.HistoryRecord;
+import io.debezium.relational.history.HistoryRecordComparator;
+import org.apache.log4j.Logger;
+import org.wso2.extension.siddhi.io.cdc.util.CDCPollingUtil;
+import org.wso2.extension.siddhi.io.cdc.util.CDCSourceConstants;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.function.Consumer;
+
+/**
+ * This class keeps the database schema history of the listening mode in a database table, instead of a local file,
+ * so that a source can continue on another node with the schema it has seen. The histories of all the sources are
+ * kept in the same table, by the name of the store.
+ */
+public class JdbcDatabaseHistory extends AbstractDatabaseHistory {
+
+    private static final Logger log = Logger.getLogger(JdbcDatabaseHistory.class);
+    private static final String COLUMN_DEFINITIONS = "store_name VARCHAR(255) NOT NULL, record_id BIGINT NOT NULL," +
+            " history_record {{TEXT}}, PRIMARY KEY (store_name, record_id)";
+    private static final int FETCH_SIZE = 1000;
+    private final DocumentReader reader = DocumentReader.defaultReader();
+    private final DocumentWriter writer = DocumentWriter.defaultWriter();
+    private String url;
+    private String username;
+    private String password;
+    private String tableName;
+    private String storeName;
+    private HikariDataSource dataSource;
+    private long nextRecordId = -1;
+
+    @Override
+    public void configure(Configuration config, HistoryRecordComparator comparator,
+                          DatabaseHistoryListener listener, boolean useCatalogBeforeSchema) {
+        super.configure(config, comparator, listener, useCatalogBeforeSchema);
+        url = config.getString(CDCSourceConstants.DATABASE_HISTORY_JDBC_URL);
+        if (CDCPollingUtil.isEmpty(url)) {
+            throw new DatabaseHistoryException(CDCSourceConstants.DATABASE_HISTORY_JDBC_URL + " is required by " +
+                    JdbcDatabaseHistory.class.getName());
+        }
+        username = config.getString(CDCSourceConstants.DATABASE_HISTORY_JDBC_USER);
+        password = config.getString(CDCSourceConstants.DATABASE_HISTORY_JDBC_PASSWORD);
+        tableName = config.getString(CDCSourceConstants.DATABASE_HISTORY_JDBC_TABLE_NAME,
+                CDCSourceConstants.DEFAULT_DATABASE_HISTORY_JDBC_TABLE_NAME);
+        storeName = config.getString(CDCSourceConstants.DATABASE_HISTORY_JDBC_STORE_NAME);
+    }
+
+    @Override
+    public synchronized void start() {
+        super.start();
+        if (dataSource == null) {
+            dataSource = JdbcStoreSupport.acquireDataSource(url, username, password);
+        }
+        Connection connection = null;
+        try {
+            connection = dataSource.getConnection();
+            JdbcStoreSupport.createTableIfNotExists(connection, tableName, COLUMN_DEFINITIONS);
+        } catch (SQLException e) {
+            throw new DatabaseHistoryException("Error while creating the history table '" + tableName + "'.", e);
+        } finally {
+            CDCPollingUtil.cleanupConnection(null, null, connection);
+        }
+    }
+
+    @Override
+    public synchronized void stop() {
+        super.stop();
+        if (dataSource != null) {
+            JdbcStoreSupport.releaseDataSource(dataSource);
+            dataSource = null;
+        }
+    }
+
+    @Override
+    protected synchronized void storeRecord(HistoryRecord record) throws DatabaseHistoryException {
+        Connection connection = null;
+        PreparedStatement statement = null;
+        try {
+            connection = dataSource.getConnection();
+            if (nextRecordId < 0) {
+                nextRecordId = readLastRecordId(connection) + 1;
+            }
+            statement = connection.prepareStatement("INSERT INTO " + tableName +
+                    " (store_name, record_id, history_record) VALUES (?, ?, ?)");
+            statement.setString(1, storeName);
+            statement.setLong(2, nextRecordId);
+            statement.setString(3, writer.write(record.document()));
+            statement.executeUpdate();
+            nextRecordId++;
+        } catch (SQLException | IOException e) {
+            throw new DatabaseHistoryException("Error while storing a history record of '" + storeName +
+                    "' to table '" + tableName + "'.", e);
+        } finally {
+            CDCPollingUtil.cleanupConnection(null, statement, connection);
+        }
+    }
+
+    @Override
+    protected synchronized void recoverRecords(Consumer<HistoryRecord> records) {
+        Connection connection = null;
+        PreparedStatement statement = null;
+        ResultSet resultSet = null;
+        try {
+            connection = dataSource.getConnection();
+            statement = connection.prepareStatement("SELECT record_id, history_record FROM " + tableName +
+                    " WHERE store_name = ? ORDER BY record_id");
+            statement.setString(1, storeName);
+            statement.setFetchSize(FETCH_SIZE);
+            resultSet = statement.executeQuery();
+            long lastRecordId = -1;
+            while (resultSet.next()) {
+                lastRecordId = resultSet.getLong(1);
+                records.accept(new HistoryRecord(reader.read(resultSet.getString(2))));
+            }
+            nextRecordId = lastRecordId + 1;
+        } catch (SQLException | IOException e) {
+            throw new DatabaseHistoryException("Error while recovering the history of '" + storeName +
+                    "' from table '" + tableName + "'.", e);
+        } finally {
+            CDCPollingUtil.cleanupConnection(resultSet, statement, connection);
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("Recovered the history of '" + storeName + "' up to record " + (nextRecordId - 1) + ".");
+        }
+    }
+
+    private long readLastRecordId(Connection connection) throws SQLException {
+        PreparedStatement statement = null;
+        ResultSet resultSet = null;
+        try {
+            statement = connection.prepareStatement("SELECT MAX(record_id) FROM " + tableName +
+                    " WHERE store_name = ?");
+            statement.setString(1, storeName);
+            resultSet = statement.executeQuery();
+            if (resultSet.next()) {
+                long lastRecordId = resultSet.getLong(1);
+                return resultSet.wasNull() ? -1 : lastRecordId;
+            }
+            return -1;
+        } finally {
+            CDCPollingUtil.cleanupConnection(resultSet, statement, null);
+        }
+    }
+
+    @Override
+    public synchronized boolean exists() {
+        if (!storageExists()) {
+            return false;
+        }
+        Connection connection = null;
+        try {
+            connection = dataSource.getConnection();
+            return readLastRecordId(connection) >= 0;
+        } catch (SQLException e) {
+            throw new DatabaseHistoryException("Error while reading the history of '" + storeName +
+                    "' from table '" + tableName + "'.", e);
+        } finally {
+            CDCPollingUtil.cleanupConnection(null, null, connection);
+        }
+    }
+
+    @Override
+    public synchronized boolean storageExists() {
+        if (dataSource == null) {
+            dataSource = JdbcStoreSupport.acquireDataSource(url, username, password);
+        }
+        Connection connection = null;
+        try {
+            connection = dataSource.getConnection();
+            return JdbcStoreSupport.tableExists(connection, tableName);
+        } catch (SQLException e) {
+            throw new DatabaseHistoryException("Error while looking up the history table '" + tableName + "'.", e);
+        } finally {
+            CDCPollingUtil.cleanupConnection(null, null, connection);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "JDBC table " + tableName + " (" + storeName + ")";
+    }
+}
@@ -0,0 +1,224 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.extension.siddhi.io.cdc.source.listening;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.apache.kafka.connect.errors.ConnectException;
+import org.apache.kafka.connect.runtime.WorkerConfig;
+import org.apache.kafka.connect.storage.MemoryOffsetBackingStore;
+import org.apache.log4j.Logger;
+import org.wso2.extension.siddhi.io.cdc.util.CDCPollingUtil;
+import org.wso2.extension.siddhi.io.cdc.util.CDCSourceConstants;
+
+import java.nio.ByteBuffer;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This class saves and loads the change data offsets in a database table, so that a source can continue from its
+ * offsets on another node. The offsets of all the sources are kept in the same table, by the name of the engine.
+ * Only the offsets changed since the last save are written, in a single transaction of batched upserts.
+ */
+public class JdbcOffsetBackingStore extends MemoryOffsetBackingStore {
+
+    private static final Logger log = Logger.getLogger(JdbcOffsetBackingStore.class);
+    private static final String COLUMN_DEFINITIONS = "store_name VARCHAR(255) NOT NULL," +
+            " offset_key VARCHAR(512) NOT NULL, offset_value {{TEXT}}, PRIMARY KEY (store_name, offset_key)";
+    private String url;
+    private String username;
+    private String password;
+    private String tableName;
+    private String storeName;
+    private HikariDataSource dataSource;
+    private Map<ByteBuffer, ByteBuffer> savedData = new HashMap<>();
+
+    @Override
+    public void configure(WorkerConfig config) {
+        super.configure(config);
+        Map<String, Object> originals = config.originals();
+        url = (String) originals.get(CDCSourceConstants.OFFSET_STORAGE_JDBC_URL);
+        if (CDCPollingUtil.isEmpty(url)) {
+            throw new ConnectException(CDCSourceConstants.OFFSET_STORAGE_JDBC_URL + " is required by " +
+                    JdbcOffsetBackingStore.class.getName());
+        }
+        username = (String) originals.get(CDCSourceConstants.OFFSET_STORAGE_JDBC_USER);
+        password = (String) originals.get(CDCSourceConstants.OFFSET_STORAGE_JDBC_PASSWORD);
+        Object configuredTableName = originals.get(CDCSourceConstants.OFFSET_STORAGE_JDBC_TABLE_NAME);
+        tableName = configuredTableName == null ? CDCSourceConstants.DEFAULT_OFFSET_STORAGE_JDBC_TABLE_NAME :
+                (String) configuredTableName;
+        storeName = String.valueOf(originals.get("name"));
+    }
+
+    @Override
+    public synchronized void start() {
+        super.start();
+        dataSource = JdbcStoreSupport.acquireDataSource(url, username, password);
+        Connection connection = null;
+        PreparedStatement statement = null;
+        ResultSet resultSet = null;
+        try {
+            connection = dataSource.getConnection();
+            JdbcStoreSupport.createTableIfNotExists(connection, tableName, COLUMN_DEFINITIONS);
+            statement = connection.prepareStatement("SELECT offset_key, offset_value FROM " + tableName +
+                    " WHERE store_name = ?");
+            statement.setString(1, storeName);
+            resultSet = statement.executeQuery();
+            data = new HashMap<>();
+            savedData = new HashMap<>();
+            while (resultSet.next()) {
+                ByteBuffer key = decode(resultSet.getString(1));
+                ByteBuffer value = decode(resultSet.getString(2));
+                data.put(key, value);
+                savedData.put(key, value);
+            }
+        } catch (SQLException e) {
+            throw new ConnectException("Error while loading the offsets of '" + storeName + "' from table '" +
+                    tableName + "'.", e);
+        } finally {
+            CDCPollingUtil.cleanupConnection(resultSet, statement, connection);
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("Loaded " + data.size() + " offsets of '" + storeName + "' from table '" + tableName + "'.");
+        }
+    }
+
+    @Override
+    public synchronized void stop() {
+        super.stop();
+        if (dataSource != null) {
+            JdbcStoreSupport.releaseDataSource(dataSource);
+            dataSource = null;
+        }
+    }
+
+    /**
+     * Update the changed offsets, and insert the ones that are not in the table yet.
+     */
+    @Override
+    protected synchronized void save() {
+        List<Map.Entry<ByteBuffer, ByteBuffer>> changedEntries = new ArrayList<>();
+        List<ByteBuffer> removedKeys = new ArrayList<>();
+        for (Map.Entry<ByteBuffer, ByteBuffer> entry : data.entrySet()) {
+            if (entry.getValue() == null) {
+                if (savedData.containsKey(entry.getKey())) {
+                    removedKeys.add(entry.getKey());
+                }
+            } else if (!entry.getValue().equals(savedData.get(entry.getKey()))) {
+                changedEntries.add(entry);
+            }
+        }
+        if (changedEntries.isEmpty() && removedKeys.isEmpty()) {
+            return;
+        }
+        Connection connection = null;
+        PreparedStatement updateStatement = null;
+        PreparedStatement insertStatement = null;
+        PreparedStatement deleteStatement = null;
+        try {
+            connection = dataSource.getConnection();
+            connection.setAutoCommit(false);
+            //the offsets read or saved before are updated, and the others inserted.
+            List<Map.Entry<ByteBuffer, ByteBuffer>> updatedEntries = new ArrayList<>();
+            List<Map.Entry<ByteBuffer, ByteBuffer>> insertedEntries = new ArrayList<>();
+            for (Map.Entry<ByteBuffer, ByteBuffer> entry : changedEntries) {
+                (savedData.containsKey(entry.getKey()) ? updatedEntries : insertedEntries).add(entry);
+            }
+            if (!updatedEntries.isEmpty()) {
+                updateStatement = connection.prepareStatement("UPDATE " + tableName + " SET offset_value = ?" +
+                        " WHERE store_name = ? AND offset_key = ?");
+                for (Map.Entry<ByteBuffer, ByteBuffer> entry : updatedEntries) {
+                    updateStatement.setString(1, encode(entry.getValue()));
+                    updateStatement.setString(2, storeName);
+                    updateStatement.setString(3, encode(entry.getKey()));
+                    updateStatement.addBatch();
+                }
+                int[] updateCounts = updateStatement.executeBatch();
+                for (int i = 0; i < updateCounts.length; i++) {
+                    //removed from the table since it was read.
+                    if (updateCounts[i] == 0) {
+                        insertedEntries.add(updatedEntries.get(i));
+                    }
+                }
+            }
+            if (!insertedEntries.isEmpty()) {
+                insertStatement = connection.prepareStatement("INSERT INTO " + tableName +
+                        " (store_name, offset_key, offset_value) VALUES (?, ?, ?)");
+                for (Map.Entry<ByteBuffer, ByteBuffer> entry : insertedEntries) {
+                    insertStatement.setString(1, storeName);
+                    insertStatement.setString(2, encode(entry.getKey()));
+                    insertStatement.setString(3, encode(entry.getValue()));
+                    insertStatement.addBatch();
+                }
+                insertStatement.executeBatch();
+            }
+            if (!removedKeys.isEmpty()) {
+                deleteStatement = connection.prepareStatement("DELETE FROM " + tableName +
+                        " WHERE store_name = ? AND offset_key = ?");
+                for (ByteBuffer key : removedKeys) {
+                    deleteStatement.setString(1, storeName);
+                    deleteStatement.setString(2, encode(key));
+                    deleteStatement.addBatch();
+                }
+                deleteStatement.executeBatch();
+            }
+            connection.commit();
+        } catch (SQLException e) {
+            rollback(connection);
+            throw new ConnectException("Error while saving the offsets of '" + storeName + "' to table '" +
+                    tableName + "'.", e);
+        } finally {
+            CDCPollingUtil.cleanupConnection(null, updateStatement, null);
+            CDCPollingUtil.cleanupConnection(null, insertStatement, null);
+            CDCPollingUtil.cleanupConnection(null, deleteStatement, connection);
+        }
+        for (Map.Entry<ByteBuffer, ByteBuffer> entry : changedEntries) {
+            savedData.put(entry.getKey(), entry.getValue());
+        }
+        for (ByteBuffer key : removedKeys) {
+            savedData.remove(key);
+        }
+    }
+
+    private void rollback(Connection connection) {
+        if (connection != null) {
+            try {
+                connection.rollback();
+            } catch (SQLException e) {
+                log.error("Error while rolling back the offsets of '" + storeName + "'.", e);
+            }
+        }
+    }
+
+    private static String encode(ByteBuffer buffer) {
+        ByteBuffer duplicate = buffer.duplicate();
+        byte[] bytes = new byte[duplicate.remaining()];
+        duplicate.get(bytes);
+        return Base64.getEncoder().encodeToString(bytes);
+    }
+
+    private static ByteBuffer decode(String value) {
+        return value == null ? null : ByteBuffer.wrap(Base64.getDecoder().decode(value));
+    }
+}
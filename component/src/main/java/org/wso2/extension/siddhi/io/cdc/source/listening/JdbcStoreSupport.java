@@ -0,0 +1,123 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.extension.siddhi.io.cdc.source.listening;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.wso2.extension.siddhi.io.cdc.source.polling.ConnectionPoolRegistry;
+import org.wso2.extension.siddhi.io.cdc.util.CDCPollingUtil;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Locale;
+import java.util.Properties;
+
+/**
+ * This class contains the database access shared by the offset and history stores that keep the state of the
+ * listening mode in a database table. The stores of all the sources using the same database share a connection
+ * pool of the {@link ConnectionPoolRegistry}.
+ */
+final class JdbcStoreSupport {
+
+    private JdbcStoreSupport() {
+    }
+
+    static HikariDataSource acquireDataSource(String url, String username, String password) {
+        return ConnectionPoolRegistry.getConnectionPoolRegistry().acquire(
+                getConnectionProperties(url, username, password), 0, 0);
+    }
+
+    /**
+     * Acquire a pool which waits at most the given time for a connection. It is not shared with the pools without
+     * the timeout.
+     */
+    static HikariDataSource acquireDataSource(String url, String username, String password,
+                                              long connectionTimeoutMillis) {
+        Properties connectionProperties = getConnectionProperties(url, username, password);
+        connectionProperties.setProperty("connectionTimeout", Long.toString(connectionTimeoutMillis));
+        return ConnectionPoolRegistry.getConnectionPoolRegistry().acquire(connectionProperties, 0, 0);
+    }
+
+    private static Properties getConnectionProperties(String url, String username, String password) {
+        Properties connectionProperties = new Properties();
+        connectionProperties.setProperty("jdbcUrl", url);
+        if (username != null) {
+            connectionProperties.setProperty("username", username);
+        }
+        if (password != null) {
+            connectionProperties.setProperty("password", password);
+        }
+        return connectionProperties;
+    }
+
+    static void releaseDataSource(HikariDataSource dataSource) {
+        ConnectionPoolRegistry.getConnectionPoolRegistry().release(dataSource);
+    }
+
+    /**
+     * Create the table with the given column definitions, unless a table of that name exists. The column
+     * definitions may contain {@code {{TEXT}}}, which is replaced by the unbounded text type of the database.
+     */
+    static void createTableIfNotExists(Connection connection, String tableName, String columnDefinitions)
+            throws SQLException {
+        if (tableExists(connection, tableName)) {
+            return;
+        }
+        Statement statement = null;
+        try {
+            statement = connection.createStatement();
+            statement.execute("CREATE TABLE " + tableName + " (" +
+                    columnDefinitions.replace("{{TEXT}}", getTextType(connection)) + ")");
+        } finally {
+            CDCPollingUtil.cleanupConnection(null, statement, null);
+        }
+    }
+
+    static boolean tableExists(Connection connection, String tableName) throws SQLException {
+        DatabaseMetaData metaData = connection.getMetaData();
+        String[] tableNames = {tableName, tableName.toUpperCase(Locale.ENGLISH), tableName.toLowerCase(Locale.ENGLISH)};
+        for (String name : tableNames) {
+            ResultSet resultSet = null;
+            try {
+                resultSet = metaData.getTables(connection.getCatalog(), null, name, null);
+                if (resultSet.next()) {
+                    return true;
+                }
+            } finally {
+                CDCPollingUtil.cleanupConnection(resultSet, null, null);
+            }
+        }
+        return false;
+    }
+
+    private static String getTextType(Connection connection) throws SQLException {
+        String databaseName = connection.getMetaData().getDatabaseProductName();
+        switch (databaseName) {
+            case "MySQL":
+                return "LONGTEXT";
+            case "PostgreSQL":
+                return "TEXT";
+            case "Microsoft SQL Server":
+                return "NVARCHAR(MAX)";
+            default:
+                return "CLOB";
+        }
+    }
+}
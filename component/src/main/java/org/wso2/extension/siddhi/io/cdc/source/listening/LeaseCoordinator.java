@@ -0,0 +1,600 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.extension.siddhi.io.cdc.source.listening;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.apache.log4j.Logger;
+import org.wso2.extension.siddhi.io.cdc.util.CDCPollingUtil;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class elects the holders of named leases kept in a database table, so that of the nodes running the same
+ * source only one does the work of a lease at a time. The holder renews a lease by incrementing its version. Other
+ * nodes take a lease over, by a compare-and-set of the version, when they have not seen the version change for the
+ * lease timeout, measured by their own clocks, so the clocks of the nodes need not agree. A holder that could not
+ * renew a lease for half the lease timeout gives it up. The database calls are bounded by a fraction of the check
+ * interval, and a failing call skips the other calls of the check, so that the holder gives the lease up and its
+ * listener stops the work before another node can take it.
+ * <p>
+ * Leases can also be added as a group, of which each node holds a fair share. The nodes competing for a group
+ * renew a member row of the group, so that the group is rebalanced when the nodes join or leave.
+ */
+public class LeaseCoordinator {
+
+    private static final Logger log = Logger.getLogger(LeaseCoordinator.class);
+    private static final String COLUMN_DEFINITIONS = "lease_name VARCHAR(255) NOT NULL, owner VARCHAR(255)," +
+            " lease_version BIGINT NOT NULL, lease_data VARCHAR(1024), PRIMARY KEY (lease_name)";
+    private static final String MEMBER_SEPARATOR = "#member#";
+    //the least connection timeout HikariCP accepts.
+    private static final long MIN_CONNECTION_TIMEOUT_MILLIS = 250;
+    private final String url;
+    private final String username;
+    private final String password;
+    private final String tableName;
+    private final String owner;
+    private final long leaseTimeoutNanos;
+    private final long checkIntervalNanos;
+    private final long giveUpNanos;
+    private final int queryTimeoutSeconds;
+    private final Map<String, Lease> leases = new LinkedHashMap<>();
+    private final Map<String, LeaseGroup> groups = new LinkedHashMap<>();
+    private HikariDataSource dataSource;
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * Listener of the leases acquired and lost by this node. A lease is released if the listener fails to start
+     * its work, so that another node can take it.
+     */
+    public interface LeaseListener {
+
+        void onLeaseAcquired(String leaseName);
+
+        void onLeaseLost(String leaseName);
+    }
+
+    /**
+     * @param url                the JDBC url of the database of the lease table.
+     * @param username           the username of the database.
+     * @param password           the password of the database.
+     * @param tableName          the lease table, created if it does not exist.
+     * @param leaseTimeoutMillis time after which a lease that is not renewed is taken over.
+     */
+    public LeaseCoordinator(String url, String username, String password, String tableName,
+                            long leaseTimeoutMillis) {
+        this.url = url;
+        this.username = username;
+        this.password = password;
+        this.tableName = tableName;
+        this.leaseTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(leaseTimeoutMillis);
+        //renew six times per timeout, so that a failed renewal or two don't lose a lease.
+        this.checkIntervalNanos = Math.max(1, leaseTimeoutNanos / 6);
+        //the other half of the timeout is left for a check delayed by a failing call, and for stopping the work.
+        this.giveUpNanos = leaseTimeoutNanos / 2;
+        this.queryTimeoutSeconds = (int) Math.max(1, TimeUnit.NANOSECONDS.toSeconds(checkIntervalNanos / 4));
+        this.owner = getHostName() + "-" + UUID.randomUUID().toString();
+    }
+
+    /**
+     * Compete for a lease. The listener is notified from the coordinator thread.
+     */
+    public synchronized void addLease(String leaseName, LeaseListener listener) {
+        leases.put(leaseName, new Lease(leaseName, listener, null));
+    }
+
+    /**
+     * Compete for a group of leases, holding at most the number of leases of the group divided by the number of
+     * live nodes competing for it, rounded up. The listener is notified from the coordinator thread. A lease given
+     * up to rebalance the group is released only after the listener is notified, so that the work of the lease can
+     * be completed before another node takes it over.
+     *
+     * @param groupName  name of the group.
+     * @param leaseNames names of the leases of the group.
+     * @param listener   listener of the leases of the group.
+     */
+    public synchronized void addLeaseGroup(String groupName, Collection<String> leaseNames, LeaseListener listener) {
+        LeaseGroup group = new LeaseGroup(groupName);
+        for (String leaseName : leaseNames) {
+            Lease lease = new Lease(leaseName, listener, group);
+            group.leases.add(lease);
+            leases.put(leaseName, lease);
+        }
+        groups.put(groupName, group);
+    }
+
+    /**
+     * Stop competing for a lease, releasing it if it is held. The listener is not notified.
+     */
+    public synchronized void removeLease(String leaseName) {
+        Lease lease = leases.remove(leaseName);
+        if (lease != null && lease.held && dataSource != null) {
+            release(lease);
+        }
+    }
+
+    public synchronized boolean isHeld(String leaseName) {
+        Lease lease = leases.get(leaseName);
+        return lease != null && lease.held;
+    }
+
+    /**
+     * @return names of the leases held by this node.
+     */
+    public synchronized List<String> getHeldLeases() {
+        List<String> heldLeases = new ArrayList<>();
+        for (Lease lease : leases.values()) {
+            if (lease.held) {
+                heldLeases.add(lease.name);
+            }
+        }
+        return heldLeases;
+    }
+
+    /**
+     * @return the id of this node in the lease table.
+     */
+    public String getOwner() {
+        return owner;
+    }
+
+    /**
+     * Get the data kept with a lease, such as the position the work of the lease reached.
+     *
+     * @return the data, or null if no data is kept with the lease.
+     */
+    public String getLeaseData(String leaseName) throws SQLException {
+        HikariDataSource currentDataSource;
+        synchronized (this) {
+            currentDataSource = dataSource;
+        }
+        if (currentDataSource == null) {
+            throw new SQLException("Lease coordinator of table '" + tableName + "' is not started.");
+        }
+        Connection connection = null;
+        PreparedStatement statement = null;
+        ResultSet resultSet = null;
+        try {
+            connection = currentDataSource.getConnection();
+            statement = connection.prepareStatement("SELECT lease_data FROM " + tableName + " WHERE lease_name = ?");
+            statement.setQueryTimeout(queryTimeoutSeconds);
+            statement.setString(1, leaseName);
+            resultSet = statement.executeQuery();
+            return resultSet.next() ? resultSet.getString(1) : null;
+        } finally {
+            CDCPollingUtil.cleanupConnection(resultSet, statement, connection);
+        }
+    }
+
+    /**
+     * Keep data with a lease held by this node. The data is not changed if another node took the lease over, so
+     * that a node which lost a lease can't overwrite the data of the new holder.
+     *
+     * @return true if the data is kept.
+     */
+    public boolean setLeaseData(String leaseName, String data) throws SQLException {
+        HikariDataSource currentDataSource;
+        synchronized (this) {
+            currentDataSource = dataSource;
+        }
+        if (currentDataSource == null) {
+            return false;
+        }
+        return executeUpdate(currentDataSource, "UPDATE " + tableName + " SET lease_data = ? WHERE lease_name = ?" +
+                " AND owner = ?", data, leaseName, owner) == 1;
+    }
+
+    public synchronized void start() {
+        if (scheduler != null) {
+            return;
+        }
+        dataSource = JdbcStoreSupport.acquireDataSource(url, username, password,
+                Math.max(MIN_CONNECTION_TIMEOUT_MILLIS, TimeUnit.NANOSECONDS.toMillis(checkIntervalNanos / 4)));
+        Connection connection = null;
+        try {
+            connection = dataSource.getConnection();
+            JdbcStoreSupport.createTableIfNotExists(connection, tableName, COLUMN_DEFINITIONS);
+        } catch (SQLException e) {
+            JdbcStoreSupport.releaseDataSource(dataSource);
+            dataSource = null;
+            throw new IllegalStateException("Error while creating the lease table '" + tableName + "'.", e);
+        } finally {
+            CDCPollingUtil.cleanupConnection(null, null, connection);
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor();
+        scheduler.scheduleWithFixedDelay(this::checkLeases, 0, checkIntervalNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Stop competing for the leases, releasing the held ones so that other nodes can take them over right away.
+     * The listeners of the held leases are notified before the leases are released, so that the work of a lease is
+     * stopped before another node takes it over.
+     */
+    public void stop() {
+        ScheduledExecutorService stoppedScheduler;
+        synchronized (this) {
+            stoppedScheduler = scheduler;
+            scheduler = null;
+        }
+        if (stoppedScheduler == null) {
+            return;
+        }
+        stoppedScheduler.shutdown();
+        try {
+            stoppedScheduler.awaitTermination(leaseTimeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        List<Lease> heldLeases = new ArrayList<>();
+        synchronized (this) {
+            for (Lease lease : leases.values()) {
+                if (lease.held) {
+                    heldLeases.add(lease);
+                }
+            }
+        }
+        for (Lease lease : heldLeases) {
+            try {
+                lease.listener.onLeaseLost(lease.name);
+            } catch (RuntimeException e) {
+                log.error("Error while stopping the work of lease '" + lease.name + "'.", e);
+            }
+        }
+        synchronized (this) {
+            for (Lease lease : heldLeases) {
+                if (lease.held) {
+                    release(lease);
+                }
+            }
+            for (LeaseGroup group : groups.values()) {
+                try {
+                    executeUpdate(dataSource, "DELETE FROM " + tableName + " WHERE lease_name = ? AND owner = ?",
+                            group.memberName, owner);
+                } catch (SQLException e) {
+                    log.warn("Error while leaving the lease group '" + group.name + "'.", e);
+                }
+                group.members.clear();
+                group.liveMembers = 1;
+            }
+            JdbcStoreSupport.releaseDataSource(dataSource);
+            dataSource = null;
+        }
+    }
+
+    private void checkLeases() {
+        List<Lease> acquiredLeases = new ArrayList<>();
+        List<Lease> lostLeases = new ArrayList<>();
+        List<Lease> rebalancedLeases = new ArrayList<>();
+        synchronized (this) {
+            if (dataSource == null) {
+                return;
+            }
+            //once a call fails, the others are skipped, so that they don't delay giving up the held leases.
+            boolean failed = false;
+            for (LeaseGroup group : groups.values()) {
+                try {
+                    checkMembers(group, System.nanoTime());
+                } catch (SQLException e) {
+                    log.warn("Error while checking the members of the lease group '" + group.name + "'.", e);
+                    failed = true;
+                    break;
+                }
+            }
+            for (Lease lease : leases.values()) {
+                long now = System.nanoTime();
+                if (lease.held && now - lease.renewedAt >= giveUpNanos) {
+                    //another node may take the lease over once it is not renewed for the timeout.
+                    log.warn("Lease '" + lease.name + "' couldn't be renewed in time, and is given up.");
+                    lease.held = false;
+                    lostLeases.add(lease);
+                    continue;
+                }
+                if (failed) {
+                    continue;
+                }
+                try {
+                    if (lease.held) {
+                        //the time before the renewal, as other nodes see the new version only after it.
+                        if (renew(lease)) {
+                            lease.renewedAt = now;
+                        } else {
+                            lease.held = false;
+                            lostLeases.add(lease);
+                        }
+                    } else if (tryAcquire(lease, now, lease.group == null || lease.group.needsLeases())) {
+                        lease.held = true;
+                        lease.renewedAt = now;
+                        acquiredLeases.add(lease);
+                    }
+                } catch (SQLException e) {
+                    log.warn("Error while checking the lease '" + lease.name + "' in table '" + tableName + "'.", e);
+                    failed = true;
+                }
+            }
+            for (LeaseGroup group : groups.values()) {
+                //give up the leases above the fair share, last acquired first.
+                for (int i = group.leases.size() - 1; i >= 0 && group.getHeldCount() > group.getFairShare(); i--) {
+                    Lease lease = group.leases.get(i);
+                    if (lease.held && !acquiredLeases.contains(lease)) {
+                        lease.held = false;
+                        rebalancedLeases.add(lease);
+                    }
+                }
+            }
+        }
+        //notify outside the lock, since the listeners may start or stop work.
+        for (Lease lease : lostLeases) {
+            log.info("Lease '" + lease.name + "' is lost by " + owner + ".");
+            lease.listener.onLeaseLost(lease.name);
+        }
+        for (Lease lease : rebalancedLeases) {
+            log.info("Lease '" + lease.name + "' is given up by " + owner + " to rebalance the lease group '" +
+                    lease.group.name + "'.");
+            lease.listener.onLeaseLost(lease.name);
+        }
+        if (!rebalancedLeases.isEmpty()) {
+            synchronized (this) {
+                if (dataSource != null) {
+                    for (Lease lease : rebalancedLeases) {
+                        release(lease);
+                    }
+                }
+            }
+        }
+        for (Lease lease : acquiredLeases) {
+            log.info("Lease '" + lease.name + "' is acquired by " + owner + ".");
+            try {
+                lease.listener.onLeaseAcquired(lease.name);
+            } catch (RuntimeException e) {
+                log.error("Error while starting the work of lease '" + lease.name + "'. The lease is released.", e);
+                synchronized (this) {
+                    if (dataSource != null && lease.held) {
+                        release(lease);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Renew the member row of this node in the group, and count the live members, i.e. the members whose rows
+     * were renewed within the lease timeout. The rows of the members that left without deleting them are removed.
+     */
+    private void checkMembers(LeaseGroup group, long now) throws SQLException {
+        if (executeUpdate(dataSource, "UPDATE " + tableName + " SET lease_version = lease_version + 1" +
+                " WHERE lease_name = ? AND owner = ?", group.memberName, owner) == 0) {
+            try {
+                executeUpdate(dataSource, "INSERT INTO " + tableName + " (lease_name, owner, lease_version)" +
+                        " VALUES (?, ?, 0)", group.memberName, owner);
+            } catch (SQLException e) {
+                //the row of this node was removed and inserted again in between.
+                if (log.isDebugEnabled()) {
+                    log.debug("Member row of lease group '" + group.name + "' couldn't be inserted.", e);
+                }
+            }
+        }
+        Map<String, Long> memberVersions = new LinkedHashMap<>();
+        Connection connection = null;
+        PreparedStatement statement = null;
+        ResultSet resultSet = null;
+        try {
+            connection = dataSource.getConnection();
+            statement = connection.prepareStatement("SELECT lease_name, lease_version FROM " + tableName +
+                    " WHERE lease_name LIKE ?");
+            statement.setQueryTimeout(queryTimeoutSeconds);
+            statement.setString(1, group.name + MEMBER_SEPARATOR + "%");
+            resultSet = statement.executeQuery();
+            while (resultSet.next()) {
+                String memberName = resultSet.getString(1);
+                //LIKE wildcards in the group name may match the rows of other groups.
+                if (memberName.startsWith(group.name + MEMBER_SEPARATOR) && !memberName.equals(group.memberName)) {
+                    memberVersions.put(memberName, resultSet.getLong(2));
+                }
+            }
+        } finally {
+            CDCPollingUtil.cleanupConnection(resultSet, statement, connection);
+        }
+        group.members.keySet().retainAll(memberVersions.keySet());
+        int liveMembers = 1;
+        for (Map.Entry<String, Long> memberVersion : memberVersions.entrySet()) {
+            Lease member = group.members.get(memberVersion.getKey());
+            if (member == null) {
+                member = new Lease(memberVersion.getKey(), null, group);
+                group.members.put(member.name, member);
+            }
+            if (member.observedVersion != memberVersion.getValue()) {
+                member.observedVersion = memberVersion.getValue();
+                member.observedAt = now;
+            }
+            if (now - member.observedAt < leaseTimeoutNanos) {
+                liveMembers++;
+            } else if (executeUpdate(dataSource, "DELETE FROM " + tableName + " WHERE lease_name = ?" +
+                    " AND lease_version = " + member.observedVersion, member.name) == 1) {
+                group.members.remove(member.name);
+            }
+        }
+        if (liveMembers != group.liveMembers && log.isDebugEnabled()) {
+            log.debug("Lease group '" + group.name + "' has " + liveMembers + " live members.");
+        }
+        group.liveMembers = liveMembers;
+    }
+
+    private boolean renew(Lease lease) throws SQLException {
+        return executeUpdate(dataSource, "UPDATE " + tableName + " SET lease_version = lease_version + 1" +
+                " WHERE lease_name = ? AND owner = ?", lease.name, owner) == 1;
+    }
+
+    /**
+     * Observe the version of a lease held by another node, and take the lease over if it is released or not
+     * renewed for the lease timeout.
+     *
+     * @param acquire false to only observe the lease.
+     */
+    private boolean tryAcquire(Lease lease, long now, boolean acquire) throws SQLException {
+        Connection connection = null;
+        PreparedStatement statement = null;
+        ResultSet resultSet = null;
+        String currentOwner;
+        long version;
+        try {
+            connection = dataSource.getConnection();
+            statement = connection.prepareStatement("SELECT owner, lease_version FROM " + tableName +
+                    " WHERE lease_name = ?");
+            statement.setQueryTimeout(queryTimeoutSeconds);
+            statement.setString(1, lease.name);
+            resultSet = statement.executeQuery();
+            if (!resultSet.next()) {
+                return acquire && insert(lease);
+            }
+            currentOwner = resultSet.getString(1);
+            version = resultSet.getLong(2);
+        } finally {
+            CDCPollingUtil.cleanupConnection(resultSet, statement, connection);
+        }
+        if (currentOwner != null && !currentOwner.equals(owner)) {
+            if (version != lease.observedVersion) {
+                //the holder is alive.
+                lease.observedVersion = version;
+                lease.observedAt = now;
+                return false;
+            }
+            if (now - lease.observedAt < leaseTimeoutNanos) {
+                return false;
+            }
+        }
+        return acquire && executeUpdate(dataSource, "UPDATE " + tableName + " SET owner = ?," +
+                " lease_version = lease_version + 1 WHERE lease_name = ? AND lease_version = " + version,
+                owner, lease.name) == 1;
+    }
+
+    private boolean insert(Lease lease) {
+        try {
+            return executeUpdate(dataSource, "INSERT INTO " + tableName + " (lease_name, owner, lease_version)" +
+                    " VALUES (?, ?, 0)", lease.name, owner) == 1;
+        } catch (SQLException e) {
+            //inserted by another node at the same time.
+            if (log.isDebugEnabled()) {
+                log.debug("Lease '" + lease.name + "' couldn't be inserted by " + owner + ".", e);
+            }
+            return false;
+        }
+    }
+
+    private void release(Lease lease) {
+        lease.held = false;
+        try {
+            executeUpdate(dataSource, "UPDATE " + tableName + " SET owner = NULL, lease_version = lease_version + 1" +
+                    " WHERE lease_name = ? AND owner = ?", lease.name, owner);
+        } catch (SQLException e) {
+            log.warn("Error while releasing the lease '" + lease.name + "'. It will be taken over after the lease" +
+                    " timeout.", e);
+        }
+    }
+
+    private int executeUpdate(HikariDataSource dataSource, String query, String... parameters)
+            throws SQLException {
+        Connection connection = null;
+        PreparedStatement statement = null;
+        try {
+            connection = dataSource.getConnection();
+            statement = connection.prepareStatement(query);
+            statement.setQueryTimeout(queryTimeoutSeconds);
+            for (int i = 0; i < parameters.length; i++) {
+                statement.setString(i + 1, parameters[i]);
+            }
+            return statement.executeUpdate();
+        } finally {
+            CDCPollingUtil.cleanupConnection(null, statement, connection);
+        }
+    }
+
+    private static String getHostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            return "unknown";
+        }
+    }
+
+    /**
+     * The state of a lease as seen by this node.
+     */
+    private static class Lease {
+        private final String name;
+        private final LeaseListener listener;
+        private final LeaseGroup group;
+        private boolean held = false;
+        private long observedVersion = -1;
+        private long observedAt;
+        private long renewedAt;
+
+        Lease(String name, LeaseListener listener, LeaseGroup group) {
+            this.name = name;
+            this.listener = listener;
+            this.group = group;
+        }
+    }
+
+    /**
+     * The leases of a group and the other nodes competing for them, as seen by this node.
+     */
+    private class LeaseGroup {
+        private final String name;
+        private final String memberName;
+        private final List<Lease> leases = new ArrayList<>();
+        private final Map<String, Lease> members = new HashMap<>();
+        private int liveMembers = 1;
+
+        LeaseGroup(String name) {
+            this.name = name;
+            this.memberName = name + MEMBER_SEPARATOR + owner;
+        }
+
+        int getFairShare() {
+            return (leases.size() + liveMembers - 1) / liveMembers;
+        }
+
+        int getHeldCount() {
+            int heldCount = 0;
+            for (Lease lease : leases) {
+                if (lease.held) {
+                    heldCount++;
+                }
+            }
+            return heldCount;
+        }
+
+        boolean needsLeases() {
+            return getHeldCount() < getFairShare();
+        }
+    }
+}
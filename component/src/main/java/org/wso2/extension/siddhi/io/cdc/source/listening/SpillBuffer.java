@@ -0,0 +1,334 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.extension.siddhi.io.cdc.source.listening;
+
+import org.apache.log4j.Logger;
+import org.wso2.siddhi.core.exception.SiddhiAppRuntimeException;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Keeps the converted change events in segment files on disk while the source is paused, so that the engine keeps
+ * consuming from the database. The events are replayed in order when the source is resumed.
+ * The spilled events are synced to disk with {@link #sync()} once per batch of the engine, before the engine is let
+ * to commit the offsets of the batch. A segment is deleted only after all its events are sent, and a segment which
+ * can't be replayed is kept and reported to the {@link ErrorCallback}.
+ */
+public class SpillBuffer {
+
+    private static final Logger log = Logger.getLogger(SpillBuffer.class);
+    private static final int EVENTS_PER_SEGMENT = 10000;
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".dat";
+    private final Object lock = new Object();
+    private final ExecutorService replayExecutorService = Executors.newSingleThreadExecutor();
+    private File directory;
+    private EventSender eventSender;
+    private ErrorCallback errorCallback;
+    private Deque<File> closedSegments = new ArrayDeque<>();
+    private File writeSegment;
+    private FileOutputStream writeStream;
+    private DataOutputStream writer;
+    private int eventsInWriteSegment = 0;
+    private long nextSegmentId = 0;
+    private File lastLeftSegment;
+    private volatile boolean paused = false;
+    private boolean spilling = false;
+    private volatile boolean failed = false;
+
+    public SpillBuffer(String directoryPath, EventSender eventSender, ErrorCallback errorCallback) {
+        this.directory = new File(directoryPath);
+        this.eventSender = eventSender;
+        this.errorCallback = errorCallback;
+        if (!directory.exists() && !directory.mkdirs()) {
+            throw new SiddhiAppRuntimeException("Couldn't create the spill directory: " + directoryPath);
+        }
+
+        //segments left from a previous run are replayed first, as their offsets are already committed.
+        File[] leftSegments = directory.listFiles((dir, name) -> name.startsWith(SEGMENT_PREFIX));
+        if (leftSegments != null && leftSegments.length > 0) {
+            Arrays.sort(leftSegments);
+            for (File segment : leftSegments) {
+                closedSegments.add(segment);
+                nextSegmentId = Math.max(nextSegmentId, getSegmentId(segment) + 1);
+            }
+            //the last segment may have been open when the previous run crashed.
+            lastLeftSegment = leftSegments[leftSegments.length - 1];
+            spilling = true;
+        }
+    }
+
+    /**
+     * Spill the event to disk if the source is paused or the spilled events are not yet replayed.
+     * The event is only buffered, and is synced to disk by the next {@link #sync()}.
+     *
+     * @return true if the event is spilled, false if it should be sent right away.
+     */
+    boolean spillIfRequired(Map<String, Object> detailsMap, String[] transportProperties, long commitTimestamp) {
+        synchronized (lock) {
+            if (!paused && !spilling) {
+                return false;
+            }
+            spilling = true;
+            try {
+                if (writer == null) {
+                    writeSegment = new File(directory, String.format(Locale.ENGLISH, "%s%020d%s", SEGMENT_PREFIX,
+                            nextSegmentId++, SEGMENT_SUFFIX));
+                    writeStream = new FileOutputStream(writeSegment);
+                    writer = new DataOutputStream(new BufferedOutputStream(writeStream));
+                }
+                //each event is written with its length, so that a partly written event can be told apart.
+                ByteArrayOutputStream eventBytes = new ByteArrayOutputStream();
+                try (ObjectOutputStream eventWriter = new ObjectOutputStream(eventBytes)) {
+                    eventWriter.writeObject(toSerializable(detailsMap));
+                    eventWriter.writeObject(transportProperties);
+                    eventWriter.writeLong(commitTimestamp);
+                }
+                writer.writeInt(eventBytes.size());
+                eventBytes.writeTo(writer);
+                if (++eventsInWriteSegment >= EVENTS_PER_SEGMENT) {
+                    closeWriteSegment();
+                }
+            } catch (IOException e) {
+                throw new SiddhiAppRuntimeException("Error while spilling change events to " + directory, e);
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Sync the events spilled since the last sync to disk. Called before the engine commits the offsets of a
+     * batch, as the offsets of the spilled events must not be committed before the events are on disk.
+     */
+    void sync() {
+        synchronized (lock) {
+            if (writer == null) {
+                return;
+            }
+            try {
+                writer.flush();
+                writeStream.getFD().sync();
+            } catch (IOException e) {
+                throw new SiddhiAppRuntimeException("Error while syncing the spilled change events to " + directory,
+                        e);
+            }
+        }
+    }
+
+    /**
+     * Copy the byte buffer values of the event to {@link SpilledByteBuffer}s, as byte buffers are not serializable.
+     */
+    private Map<String, Object> toSerializable(Map<String, Object> detailsMap) {
+        Map<String, Object> serializableMap = new HashMap<>(detailsMap.size() * 2);
+        for (Map.Entry<String, Object> entry : detailsMap.entrySet()) {
+            Object value = entry.getValue();
+            if (value instanceof ByteBuffer) {
+                ByteBuffer buffer = ((ByteBuffer) value).duplicate();
+                byte[] bytes = new byte[buffer.remaining()];
+                buffer.get(bytes);
+                value = new SpilledByteBuffer(bytes);
+            }
+            serializableMap.put(entry.getKey(), value);
+        }
+        return serializableMap;
+    }
+
+    /**
+     * Wrap the spilled byte buffer values again, so that the replayed events have the same types as the live ones.
+     */
+    private Map<String, Object> fromSerializable(Map<String, Object> serializableMap) {
+        for (Map.Entry<String, Object> entry : serializableMap.entrySet()) {
+            if (entry.getValue() instanceof SpilledByteBuffer) {
+                entry.setValue(ByteBuffer.wrap(((SpilledByteBuffer) entry.getValue()).bytes));
+            }
+        }
+        return serializableMap;
+    }
+
+    public void pause() {
+        paused = true;
+    }
+
+    /**
+     * Resume the source and replay the spilled events in a separate thread.
+     */
+    public void resume() {
+        paused = false;
+        replayExecutorService.execute(this::replay);
+    }
+
+    public void shutdown() {
+        paused = true;
+        replayExecutorService.shutdown();
+        synchronized (lock) {
+            try {
+                closeWriteSegment();
+            } catch (IOException e) {
+                log.error("Error while closing the spill segment " + writeSegment, e);
+            }
+        }
+    }
+
+    private void replay() {
+        while (!paused && !failed) {
+            File segment;
+            synchronized (lock) {
+                if (closedSegments.isEmpty()) {
+                    try {
+                        closeWriteSegment();
+                    } catch (IOException e) {
+                        log.error("Error while closing the spill segment " + writeSegment, e);
+                        return;
+                    }
+                }
+                segment = closedSegments.peek();
+                if (segment == null) {
+                    //all the spilled events are sent, new events can be sent right away.
+                    spilling = false;
+                    return;
+                }
+            }
+            try {
+                replaySegment(segment);
+            } catch (IOException | ClassNotFoundException | RuntimeException e) {
+                //the segment is kept, and the events spilled after it are not sent before it.
+                failed = true;
+                errorCallback.onReplayError(segment, e);
+                return;
+            }
+            synchronized (lock) {
+                closedSegments.poll();
+            }
+            if (!segment.delete()) {
+                log.warn("Couldn't delete the replayed spill segment " + segment);
+            }
+        }
+    }
+
+    private void replaySegment(File segment) throws IOException, ClassNotFoundException {
+        try (DataInputStream reader = new DataInputStream(new BufferedInputStream(new FileInputStream(segment)))) {
+            int firstByte;
+            while ((firstByte = reader.read()) >= 0) {
+                byte[] eventBytes;
+                try {
+                    int length = firstByte << 24 | reader.readUnsignedByte() << 16 |
+                            reader.readUnsignedByte() << 8 | reader.readUnsignedByte();
+                    eventBytes = new byte[length];
+                    reader.readFully(eventBytes);
+                } catch (EOFException e) {
+                    if (segment.equals(lastLeftSegment)) {
+                        //the event was being written when the previous run crashed, so its offset isn't committed.
+                        log.warn("Ignoring the partly written last event of the spill segment " + segment + ".");
+                        return;
+                    }
+                    throw e;
+                }
+                try (ObjectInputStream eventReader = new ObjectInputStream(new ByteArrayInputStream(eventBytes))) {
+                    Map<String, Object> detailsMap = fromSerializable((Map<String, Object>) eventReader.readObject());
+                    String[] transportProperties = (String[]) eventReader.readObject();
+                    long commitTimestamp = eventReader.readLong();
+                    eventSender.send(detailsMap, transportProperties, commitTimestamp);
+                }
+            }
+        }
+    }
+
+    private void closeWriteSegment() throws IOException {
+        if (writer != null) {
+            //the segment may have events not synced yet.
+            writer.flush();
+            writeStream.getFD().sync();
+            writer.close();
+            writer = null;
+            writeStream = null;
+            eventsInWriteSegment = 0;
+            closedSegments.add(writeSegment);
+        }
+    }
+
+    private long getSegmentId(File segment) {
+        String name = segment.getName();
+        try {
+            return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+        } catch (NumberFormatException | IndexOutOfBoundsException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Sends a change event to the source event listener.
+     */
+    public interface EventSender {
+        /**
+         * Send the change event.
+         *
+         * @param detailsMap          the key-value map of the change event.
+         * @param transportProperties the transport property values of the change event.
+         * @param commitTimestamp     the time the change is committed in the database.
+         */
+        void send(Map<String, Object> detailsMap, String[] transportProperties, long commitTimestamp);
+    }
+
+    /**
+     * Notified when the spilled events can't be replayed.
+     */
+    public interface ErrorCallback {
+        /**
+         * Called once, after which no spilled events are sent. The segment is kept on disk.
+         *
+         * @param segment the segment which couldn't be replayed.
+         * @param error   the cause of the failure.
+         */
+        void onReplayError(File segment, Throwable error);
+    }
+
+    /**
+     * The bytes of a byte buffer value of a spilled event.
+     */
+    private static class SpilledByteBuffer implements Serializable {
+        private static final long serialVersionUID = 1L;
+        private final byte[] bytes;
+
+        SpilledByteBuffer(byte[] bytes) {
+            this.bytes = bytes;
+        }
+    }
+}
@@ -0,0 +1,192 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.extension.siddhi.io.cdc.source.listening;
+
+import org.apache.kafka.connect.data.Schema;
+import org.apache.kafka.connect.data.SchemaBuilder;
+import org.apache.kafka.connect.data.Struct;
+import org.apache.kafka.connect.source.SourceRecord;
+import org.apache.log4j.Logger;
+import org.wso2.extension.siddhi.io.cdc.source.polling.RateLimiter;
+import org.wso2.extension.siddhi.io.cdc.util.CDCSourceConstants;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Generates debezium shaped change records and sends them through the {@link ChangeDataCapture} handler, so that
+ * the listening mode can be benchmarked without a database. The rows have an INT64 'id' key column followed by
+ * 'column1' to 'column<N-1>', alternating STRING and INT32 columns.
+ */
+public class SyntheticChangeEventGenerator implements Runnable {
+
+    private static final Logger log = Logger.getLogger(SyntheticChangeEventGenerator.class);
+    private static final String KEY_COLUMN = "id";
+    private static final String COLUMN_PREFIX = "column";
+    //share of the events on the hot keys, and share of the keys that are hot, of the hotspot distribution.
+    private static final double HOTSPOT_EVENT_SHARE = 0.9;
+    private static final double HOTSPOT_KEY_SHARE = 0.1;
+    private final ChangeDataCapture changeDataCapture;
+    private final int columnCount;
+    private final long eventCount;
+    private final long keyCount;
+    private final String keyDistribution;
+    private final int insertWeight;
+    private final int updateWeight;
+    private final int totalWeight;
+    private final RateLimiter rateLimiter;
+    private final Schema rowSchema;
+    private final Schema sourceSchema;
+    private final Schema envelopeSchema;
+    private final Map<String, String> sourcePartition;
+    private final SplittableRandom random;
+    private long sequence = 0;
+    private volatile boolean running = true;
+
+    /**
+     * @param changeDataCapture the handler the records are sent to.
+     * @param tableName         name of the table the records are generated for.
+     * @param columnCount       number of columns of a row, including the key column.
+     * @param eventsPerSecond   rate of the records, or a non positive value to generate them as fast as possible.
+     * @param eventCount        number of records to generate, or a non positive value for no limit.
+     * @param keyCount          number of distinct keys.
+     * @param keyDistribution   how the keys are chosen. One of
+     *                          {@link CDCSourceConstants#SYNTHETIC_KEY_DISTRIBUTION_UNIFORM},
+     *                          {@link CDCSourceConstants#SYNTHETIC_KEY_DISTRIBUTION_SEQUENTIAL} or
+     *                          {@link CDCSourceConstants#SYNTHETIC_KEY_DISTRIBUTION_HOTSPOT}.
+     * @param operationWeights  relative weights of the insert, update and delete records.
+     * @param seed              seed of the keys and the operations, so that the same records are generated for the
+     *                          same seed.
+     */
+    public SyntheticChangeEventGenerator(ChangeDataCapture changeDataCapture, String tableName, int columnCount,
+                                         double eventsPerSecond, long eventCount, long keyCount,
+                                         String keyDistribution, int[] operationWeights, long seed) {
+        this.changeDataCapture = changeDataCapture;
+        this.columnCount = columnCount;
+        this.eventCount = eventCount;
+        this.keyCount = keyCount;
+        this.keyDistribution = keyDistribution;
+        this.insertWeight = operationWeights[0];
+        this.updateWeight = operationWeights[1];
+        this.totalWeight = operationWeights[0] + operationWeights[1] + operationWeights[2];
+        this.rateLimiter = eventsPerSecond > 0 ? new RateLimiter(eventsPerSecond) : null;
+        this.random = new SplittableRandom(seed);
+
+        SchemaBuilder rowSchemaBuilder = SchemaBuilder.struct().name(tableName + ".Value").optional();
+        rowSchemaBuilder.field(KEY_COLUMN, Schema.INT64_SCHEMA);
+        for (int i = 1; i < columnCount; i++) {
+            rowSchemaBuilder.field(COLUMN_PREFIX + i, i % 2 == 0 ? Schema.OPTIONAL_INT32_SCHEMA :
+                    Schema.OPTIONAL_STRING_SCHEMA);
+        }
+        rowSchema = rowSchemaBuilder.build();
+        sourceSchema = SchemaBuilder.struct().name(tableName + ".Source")
+                .field(CDCSourceConstants.TIMESTAMP_MS, Schema.INT64_SCHEMA)
+                .build();
+        envelopeSchema = SchemaBuilder.struct().name(tableName + ".Envelope")
+                .field(CDCSourceConstants.BEFORE, rowSchema)
+                .field(CDCSourceConstants.AFTER, rowSchema)
+                .field(CDCSourceConstants.SOURCE, sourceSchema)
+                .field("op", Schema.STRING_SCHEMA)
+                .build();
+        sourcePartition = Collections.singletonMap("server", "synthetic");
+    }
+
+    @Override
+    public void run() {
+        try {
+            while (running && (eventCount <= 0 || sequence < eventCount)) {
+                if (rateLimiter != null) {
+                    rateLimiter.acquire(1);
+                }
+                changeDataCapture.handleEvent(nextRecord());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("Synthetic change event generation stopped after " + sequence + " events.");
+        }
+    }
+
+    /**
+     * Allow the generation to run again after a {@link #stop()}.
+     */
+    public void start() {
+        running = true;
+    }
+
+    public void stop() {
+        running = false;
+    }
+
+    /**
+     * Create the next record. The values of a row are derived from its key and the sequence number of the record,
+     * so that an update changes all the values.
+     */
+    private SourceRecord nextRecord() {
+        long seq = sequence++;
+        long key = nextKey(seq);
+        int operationPick = random.nextInt(totalWeight);
+        Struct envelope = new Struct(envelopeSchema);
+        if (operationPick < insertWeight) {
+            envelope.put("op", CDCSourceConstants.CONNECT_RECORD_INSERT_OPERATION);
+            envelope.put(CDCSourceConstants.AFTER, createRow(key, seq));
+        } else if (operationPick < insertWeight + updateWeight) {
+            envelope.put("op", CDCSourceConstants.CONNECT_RECORD_UPDATE_OPERATION);
+            envelope.put(CDCSourceConstants.BEFORE, createRow(key, seq - 1));
+            envelope.put(CDCSourceConstants.AFTER, createRow(key, seq));
+        } else {
+            envelope.put("op", CDCSourceConstants.CONNECT_RECORD_DELETE_OPERATION);
+            envelope.put(CDCSourceConstants.BEFORE, createRow(key, seq - 1));
+        }
+        Struct source = new Struct(sourceSchema);
+        source.put(CDCSourceConstants.TIMESTAMP_MS, System.currentTimeMillis());
+        envelope.put(CDCSourceConstants.SOURCE, source);
+        return new SourceRecord(sourcePartition, Collections.singletonMap("sequence", seq), "synthetic",
+                envelopeSchema, envelope);
+    }
+
+    private long nextKey(long seq) {
+        switch (keyDistribution) {
+            case CDCSourceConstants.SYNTHETIC_KEY_DISTRIBUTION_SEQUENTIAL:
+                return seq % keyCount;
+            case CDCSourceConstants.SYNTHETIC_KEY_DISTRIBUTION_HOTSPOT:
+                long hotKeyCount = Math.max(1, (long) (keyCount * HOTSPOT_KEY_SHARE));
+                if (random.nextDouble() < HOTSPOT_EVENT_SHARE || hotKeyCount == keyCount) {
+                    return random.nextLong(hotKeyCount);
+                }
+                return hotKeyCount + random.nextLong(keyCount - hotKeyCount);
+            default:
+                return random.nextLong(keyCount);
+        }
+    }
+
+    private Struct createRow(long key, long version) {
+        Struct row = new Struct(rowSchema);
+        row.put(KEY_COLUMN, key);
+        for (int i = 1; i < columnCount; i++) {
+            if (i % 2 == 0) {
+                row.put(COLUMN_PREFIX + i, (int) (key + version + i));
+            } else {
+                row.put(COLUMN_PREFIX + i, "value-" + key + "-" + version + "-" + i);
+            }
+        }
+        return row;
+    }
+}
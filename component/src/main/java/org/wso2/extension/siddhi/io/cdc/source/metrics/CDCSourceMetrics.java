@@ -0,0 +1,205 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.extension.siddhi.io.cdc.source.metrics;
+
+import com.codahale.metrics.MetricRegistry;
+import org.wso2.siddhi.core.config.SiddhiAppContext;
+import org.wso2.siddhi.core.util.SiddhiConstants;
+import org.wso2.siddhi.core.util.statistics.LatencyTracker;
+import org.wso2.siddhi.core.util.statistics.StatisticsManager;
+import org.wso2.siddhi.core.util.statistics.StatisticsTrackerFactory;
+import org.wso2.siddhi.core.util.statistics.ThroughputTracker;
+import org.wso2.siddhi.core.util.statistics.metrics.Level;
+import org.wso2.siddhi.core.util.statistics.metrics.SiddhiStatisticsManager;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Holds the performance metrics of a single CDC source and registers them with the Siddhi statistics manager.
+ * All the operations are no-ops when statistics are not enabled for the Siddhi app.
+ */
+public class CDCSourceMetrics {
+
+    private static final String METRIC_INFIX_CDC = "cdc";
+    private SiddhiAppContext siddhiAppContext;
+    private ThroughputTracker eventThroughputTracker;
+    private LatencyTracker pollQueryLatencyTracker;
+    private LatencyTracker conversionLatencyTracker;
+    private MetricRegistry metricRegistry;
+    private String metricName;
+    private final Map<String, Gauge> gauges = new ConcurrentHashMap<>();
+    private volatile long rowsInLastPoll = 0;
+    private volatile long lagMillis = 0;
+    private volatile long pausedSince = -1;
+    private AtomicLong pausedMillis = new AtomicLong(0);
+    private AtomicLong throttledMillis = new AtomicLong(0);
+
+    public CDCSourceMetrics(SiddhiAppContext siddhiAppContext, String streamName, String mode) {
+        this.siddhiAppContext = siddhiAppContext;
+        StatisticsManager statisticsManager = siddhiAppContext.getStatisticsManager();
+        if (statisticsManager != null) {
+            StatisticsTrackerFactory factory = siddhiAppContext.getSiddhiContext().getStatisticsConfiguration()
+                    .getFactory();
+            metricName = siddhiAppContext.getSiddhiContext().getStatisticsConfiguration().getMetricPrefix() +
+                    SiddhiConstants.METRIC_DELIMITER + SiddhiConstants.METRIC_INFIX_SIDDHI_APPS +
+                    SiddhiConstants.METRIC_DELIMITER + siddhiAppContext.getName() +
+                    SiddhiConstants.METRIC_DELIMITER + SiddhiConstants.METRIC_INFIX_SIDDHI +
+                    SiddhiConstants.METRIC_DELIMITER + SiddhiConstants.METRIC_INFIX_SOURCES +
+                    SiddhiConstants.METRIC_DELIMITER + streamName +
+                    SiddhiConstants.METRIC_DELIMITER + METRIC_INFIX_CDC +
+                    SiddhiConstants.METRIC_DELIMITER + mode + SiddhiConstants.METRIC_DELIMITER;
+
+            eventThroughputTracker = factory.createThroughputTracker(metricName + "events", statisticsManager);
+            conversionLatencyTracker = factory.createLatencyTracker(metricName + "conversion", statisticsManager);
+            pollQueryLatencyTracker = factory.createLatencyTracker(metricName + "poll.query", statisticsManager);
+
+            //siddhi has no gauge tracker, so the gauges are registered in the registry of the statistics manager.
+            if (statisticsManager instanceof SiddhiStatisticsManager) {
+                metricRegistry = ((SiddhiStatisticsManager) statisticsManager).getRegistry();
+                registerGauge("poll.rows", () -> rowsInLastPoll);
+                registerGauge("lag.millis", () -> lagMillis);
+                registerGauge("paused.millis", this::getPausedMillis);
+                registerGauge("throttled.millis", throttledMillis::get);
+            }
+        }
+    }
+
+    private boolean isEnabled() {
+        return metricName != null && Level.BASIC.compareTo(siddhiAppContext.getRootMetricsLevel()) <= 0;
+    }
+
+    /**
+     * Registers an additional gauge for this source. The value is read by the statistics reporter on demand.
+     * Registering a gauge again with the same name replaces the supplier of its value.
+     *
+     * @param name  name of the gauge, relative to the metric name of this source.
+     * @param gauge supplier of the gauge value.
+     */
+    public void registerGauge(String name, Gauge gauge) {
+        if (metricRegistry != null && gauges.put(name, gauge) == null) {
+            //another source of the same stream may have registered a gauge with the same name before.
+            metricRegistry.remove(metricName + name);
+            metricRegistry.register(metricName + name, new RegisteredGauge(name));
+        }
+    }
+
+    /**
+     * Marks that an event is sent to the source event listener.
+     *
+     * @param commitTimestamp the time the change is committed in the database in milliseconds. A negative value
+     *                        is ignored when calculating the lag.
+     */
+    public void eventSent(long commitTimestamp) {
+        if (isEnabled()) {
+            eventThroughputTracker.eventIn();
+            if (commitTimestamp >= 0) {
+                lagMillis = System.currentTimeMillis() - commitTimestamp;
+            }
+        }
+    }
+
+    public void conversionStarted() {
+        if (isEnabled()) {
+            conversionLatencyTracker.markIn();
+        }
+    }
+
+    public void conversionEnded() {
+        if (isEnabled()) {
+            conversionLatencyTracker.markOut();
+        }
+    }
+
+    public void pollQueryStarted() {
+        if (isEnabled()) {
+            pollQueryLatencyTracker.markIn();
+        }
+    }
+
+    public void pollQueryEnded() {
+        if (isEnabled()) {
+            pollQueryLatencyTracker.markOut();
+        }
+    }
+
+    public void pollCompleted(long rowCount) {
+        rowsInLastPoll = rowCount;
+    }
+
+    /**
+     * Marks that the source waited for a rate limit.
+     *
+     * @param millis the time waited in milliseconds.
+     */
+    public void throttled(long millis) {
+        if (millis > 0) {
+            throttledMillis.addAndGet(millis);
+        }
+    }
+
+    public void paused() {
+        if (pausedSince < 0) {
+            pausedSince = System.currentTimeMillis();
+        }
+    }
+
+    public void resumed() {
+        long since = pausedSince;
+        if (since >= 0) {
+            pausedMillis.addAndGet(System.currentTimeMillis() - since);
+            pausedSince = -1;
+        }
+    }
+
+    private long getPausedMillis() {
+        long since = pausedSince;
+        if (since >= 0) {
+            return pausedMillis.get() + System.currentTimeMillis() - since;
+        }
+        return pausedMillis.get();
+    }
+
+    /**
+     * A value exposed as a gauge metric.
+     */
+    public interface Gauge {
+        /**
+         * @return the current value of the gauge.
+         */
+        long getValue();
+    }
+
+    /**
+     * The gauge registered in the metric registry, which reads the value of the gauge registered with a name.
+     */
+    private class RegisteredGauge implements com.codahale.metrics.Gauge<Long> {
+        private final String name;
+
+        RegisteredGauge(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public Long getValue() {
+            return gauges.get(name).getValue();
+        }
+    }
+}
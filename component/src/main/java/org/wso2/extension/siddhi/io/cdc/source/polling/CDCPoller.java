@@ -28,8 +28,10 @@ import org.wso2.carbon.datasource.core.api.DataSourceService;
 import org.wso2.carbon.datasource.core.exception.DataSourceException;
 import org.wso2.extension.siddhi.io.cdc.source.config.Database;
 import org.wso2.extension.siddhi.io.cdc.source.config.QueryConfiguration;
+import org.wso2.extension.siddhi.io.cdc.source.metrics.CDCSourceMetrics;
 import org.wso2.extension.siddhi.io.cdc.util.CDCPollingUtil;
 import org.wso2.extension.siddhi.io.cdc.util.CDCSourceConstants;
+import org.wso2.extension.siddhi.io.cdc.util.CDCSourceUtil;
 import org.wso2.extension.siddhi.io.cdc.util.MyYamlConstructor;
 import org.wso2.siddhi.core.stream.input.source.SourceEventListener;
 import org.wso2.siddhi.core.util.config.ConfigReader;
@@ -44,11 +46,15 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Properties;
+import java.util.concurrent.ConcurrentSkipListMap;
 import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.ReentrantLock;
 import javax.naming.InitialContext;
@@ -63,16 +69,32 @@ public class CDCPoller implements Runnable {
     private static final String PLACE_HOLDER_TABLE_NAME = "{{TABLE_NAME}}";
     private static final String PLACE_HOLDER_COLUMN_LIST = "{{COLUMN_LIST}}";
     private static final String PLACE_HOLDER_CONDITION = "{{CONDITION}}";
+    private static final String PLACE_HOLDER_POLLING_COLUMN = "{{POLLING_COLUMN}}";
     private static final String SELECT_QUERY_CONFIG_FILE = "query-config.yaml";
     private static final String RECORD_SELECT_QUERY = "recordSelectQuery";
-    private String selectQueryStructure = "";
+    private static final String NATIVE_CURSOR = "nativeCursor";
+    private static final String EXPLAIN_QUERY = "explainQuery";
+    private static final String FULL_SCAN_PATTERN = "fullScanPattern";
+    private static final String PLAN_COST_PATTERN = "planCostPattern";
+    private static final String REPLICA_LAG_QUERY = "replicaLagQuery";
+    private static final String CURRENT_TIMESTAMP_QUERY = "currentTimestampQuery";
+    private static final String KEY_RANGE_EXPRESSION = "keyRangeExpression";
+    private static final String PARTITION_EXPRESSION = "partitionExpression";
+    private static final String DEFAULT_PARTITION_EXPRESSION = "MOD(ABS({{KEY_COLUMN}}), {{PARTITION_COUNT}})";
+    private static final String PLACE_HOLDER_KEY_COLUMN = "{{KEY_COLUMN}}";
+    private static final String PLACE_HOLDER_PARTITION_COUNT = "{{PARTITION_COUNT}}";
+    private static final String NATIVE_CURSOR_COLUMN_LABEL = "CDC_CURSOR_VALUE";
+    private static final String POLLING_QUERY_ALIAS = "cdc_polling_query";
+    private Database dialect;
     private String url;
     private String tableName;
     private String username;
     private String password;
     private String driverClassName;
     private HikariDataSource dataSource;
-    private String lastReadPollingColumnValue;
+    private Properties connectionProperties;
+    private HikariDataSource triggerDataSource;
+    private PollingCursor cursor = new PollingCursor();
     private SourceEventListener sourceEventListener;
     private String pollingColumn;
     private String datasourceName;
@@ -85,11 +107,41 @@ public class CDCPoller implements Runnable {
     private String poolPropertyString;
     private String jndiResource;
     private boolean isLocalDataSource = false;
+    private CDCSourceMetrics metrics;
+    private String[] requestedTransportPropertyNames;
+    private String pollingCursor = CDCSourceConstants.POLLING_CURSOR_COLUMN;
+    private String cursorExpression;
+    private String cursorColumnLabel;
+    private PollingTrigger pollingTrigger;
+    private boolean isPollingTriggerStarted = false;
+    private PollingRateLimit rateLimit = new PollingRateLimit(0, 0, null, null);
+    private ReplicaRouter replicaRouter;
+    private String pollingQuery;
+    private int cursorParameterCount = 1;
+    private long gracePeriodMillis = 0;
+    private long lookbackMillis = 0;
+    private EmittedRowWindow emittedRowWindow;
+    private String lookbackKeyColumn;
+    private long deleteDetectionIntervalMillis = 0;
+    private int deleteDetectionRangeSize;
+    private DeleteReconciler deleteReconciler;
+    private long nextDeleteDetectionTime = 0;
+    private String planCheck = CDCSourceConstants.POLLING_PLAN_CHECK_OFF;
+    private volatile long bootstrapPlanCost = -1;
+    private volatile long pollPlanCost = -1;
+    private volatile long bootstrapQueryMillis = -1;
+    private int partitionCount = 1;
+    private String partitionKey;
+    private String partitionExpression;
+    private PartitionCursorStore partitionCursorStore;
+    private final Map<Integer, PollingCursor> partitionCursors = new ConcurrentSkipListMap<>();
+    private final ReentrantLock partitionLock = new ReentrantLock();
 
     public CDCPoller(String url, String username, String password, String tableName, String driverClassName,
                      String datasourceName, String jndiResource,
                      String pollingColumn, int pollingInterval, String poolPropertyString,
-                     SourceEventListener sourceEventListener, ConfigReader configReader) {
+                     SourceEventListener sourceEventListener, ConfigReader configReader, CDCSourceMetrics metrics,
+                     String[] requestedTransportPropertyNames) {
         this.url = url;
         this.tableName = tableName;
         this.username = username;
@@ -102,6 +154,8 @@ public class CDCPoller implements Runnable {
         this.poolPropertyString = poolPropertyString;
         this.datasourceName = datasourceName;
         this.jndiResource = jndiResource;
+        this.metrics = metrics;
+        this.requestedTransportPropertyNames = requestedTransportPropertyNames;
     }
 
     public HikariDataSource getDataSource() {
@@ -112,11 +166,178 @@ public class CDCPoller implements Runnable {
         this.completionCallback = completionCallback;
     }
 
-    private void initializeDatasource() throws NamingException {
+    /**
+     * Set how the changed rows are found. One of {@link CDCSourceConstants#POLLING_CURSOR_COLUMN} (the
+     * {@code pollingColumn}) or {@link CDCSourceConstants#POLLING_CURSOR_NATIVE} (the row version maintained by the
+     * database, given by the {@code nativeCursor} of the database in query-config.yaml).
+     */
+    public void setPollingCursor(String pollingCursor) {
+        this.pollingCursor = pollingCursor;
+    }
+
+    /**
+     * Set a trigger that wakes up the poller when the database signals a change. The polling interval is still
+     * used as the maximum time between two poll cycles.
+     */
+    public void setPollingTrigger(PollingTrigger pollingTrigger) {
+        this.pollingTrigger = pollingTrigger;
+    }
+
+    /**
+     * Set the limits on the rows read and the queries run by this source.
+     */
+    public void setRateLimit(PollingRateLimit rateLimit) {
+        this.rateLimit = rateLimit;
+    }
+
+    /**
+     * Poll the results of the given query instead of the table. Each occurrence of
+     * {@link CDCSourceConstants#POLLING_QUERY_CURSOR_PLACEHOLDER} in the query is bound to the last read value of
+     * the {@code pollingColumn}, which should be a column of the query results.
+     */
+    public void setPollingQuery(String pollingQuery) {
+        this.pollingQuery = pollingQuery;
+        this.cursorParameterCount = CDCPollingUtil.countOccurrences(pollingQuery,
+                CDCSourceConstants.POLLING_QUERY_CURSOR_PLACEHOLDER);
+        if (tableName == null) {
+            //the table name is only used to identify the source in the logs.
+            tableName = CDCSourceConstants.POLLING_QUERY;
+        }
+    }
+
+    /**
+     * Set how rows committed late with an earlier polling column value are captured. Only applicable to
+     * timestamp polling columns.
+     *
+     * @param gracePeriodMillis rows with a polling column value within this time before the current time of the
+     *                          database are not read yet, so that they can be committed. 0 for no upper bound.
+     * @param lookbackMillis    the polled range starts this time before the last read value, and the rows already
+     *                          sent with the same primary key and polling column value are dropped. Requires a
+     *                          table with an integer primary key. 0 for no lookback.
+     */
+    public void setLateRowHandling(long gracePeriodMillis, long lookbackMillis) {
+        this.gracePeriodMillis = gracePeriodMillis;
+        this.lookbackMillis = lookbackMillis;
+        if (lookbackMillis > 0) {
+            emittedRowWindow = new EmittedRowWindow();
+            metrics.registerGauge("lookback.window.rows", () -> emittedRowWindow.size());
+        }
+    }
+
+    /**
+     * Check the table for deleted rows periodically, and send them as delete events.
+     *
+     * @param intervalSeconds time between two checks.
+     * @param rangeSize       number of primary key values in a range compared by the check.
+     */
+    public void setDeleteDetection(long intervalSeconds, int rangeSize) {
+        this.deleteDetectionIntervalMillis = intervalSeconds * 1000;
+        this.deleteDetectionRangeSize = rangeSize;
+    }
+
+    /**
+     * Poll only the partitions of the table added with {@link #addPartition(int, String)}, each with its own
+     * cursor, so that the partitions can be spread over the nodes running the source. A row belongs to the
+     * partition given by the {@code partitionExpression} of the database in query-config.yaml, by default the
+     * partition key modulo the partition count.
+     *
+     * @param partitionCount number of partitions of the table.
+     * @param partitionKey   integer column the rows are partitioned on, or null for the primary key.
+     * @param cursorStore    store the cursor of a partition is saved to after each poll that moves it.
+     */
+    public void setPartitioning(int partitionCount, String partitionKey, PartitionCursorStore cursorStore) {
+        this.partitionCount = partitionCount;
+        this.partitionKey = partitionKey;
+        this.partitionCursorStore = cursorStore;
+        metrics.registerGauge("polling.partitions", () -> partitionCursors.size());
+    }
+
+    /**
+     * Start polling a partition.
+     *
+     * @param partition   the partition, from 0 to the partition count - 1.
+     * @param cursorValue the cursor saved by the last node that polled the partition, or null to start from the
+     *                    cursor of this source.
+     */
+    public void addPartition(int partition, String cursorValue) {
+        PollingCursor partitionCursor = new PollingCursor();
+        partitionCursor.setValue(cursorValue);
+        partitionLock.lock();
+        try {
+            partitionCursors.put(partition, partitionCursor);
+        } finally {
+            partitionLock.unlock();
+        }
+    }
+
+    /**
+     * Stop polling a partition. Waits for the poll of the partition in progress, so that its cursor is saved
+     * before the partition is handed over.
+     */
+    public void removePartition(int partition) {
+        partitionLock.lock();
+        try {
+            partitionCursors.remove(partition);
+        } finally {
+            partitionLock.unlock();
+        }
+    }
+
+    /**
+     * Stop polling all the partitions, waiting for the poll in progress.
+     */
+    public void removePartitions() {
+        partitionLock.lock();
+        try {
+            partitionCursors.clear();
+        } finally {
+            partitionLock.unlock();
+        }
+    }
+
+    private boolean isPartitioned() {
+        return partitionCursorStore != null;
+    }
+
+    private boolean isBounded() {
+        return gracePeriodMillis > 0 || lookbackMillis > 0;
+    }
+
+    /**
+     * Set the read replica to run the poll queries on while its replication lag is under the threshold.
+     */
+    public void setReplicaRouter(ReplicaRouter replicaRouter) {
+        this.replicaRouter = replicaRouter;
+    }
+
+    private double parsePoolLimit(String[] pair) {
+        try {
+            return Double.parseDouble(pair[1]);
+        } catch (NumberFormatException e) {
+            throw new CDCPollingModeException("Pool property '" + pair[0] + "' should be a number, found: " +
+                    pair[1] + ". Current mode: " + CDCSourceConstants.MODE_POLLING, e);
+        }
+    }
+
+    /**
+     * Set whether the plans of the polling queries are checked at startup. One of
+     * {@link CDCSourceConstants#POLLING_PLAN_CHECK_OFF}, {@link CDCSourceConstants#POLLING_PLAN_CHECK_WARN} or
+     * {@link CDCSourceConstants#POLLING_PLAN_CHECK_REJECT}.
+     */
+    public void setPlanCheck(String planCheck) {
+        this.planCheck = planCheck;
+        if (!CDCSourceConstants.POLLING_PLAN_CHECK_OFF.equals(planCheck)) {
+            metrics.registerGauge("plan.cost.bootstrap", () -> bootstrapPlanCost);
+            metrics.registerGauge("plan.cost.poll", () -> pollPlanCost);
+            metrics.registerGauge("bootstrap.query.millis", () -> bootstrapQueryMillis);
+        }
+    }
+
+    void initializeDatasource() throws NamingException {
         if (datasourceName == null) {
             if (jndiResource == null) {
                 //init using query parameters
-                Properties connectionProperties = new Properties();
+                connectionProperties = new Properties();
 
                 connectionProperties.setProperty("jdbcUrl", url);
                 connectionProperties.setProperty("dataSource.user", username);
@@ -124,14 +345,31 @@ public class CDCPoller implements Runnable {
                     connectionProperties.setProperty("dataSource.password", password);
                 }
                 connectionProperties.setProperty("driverClassName", driverClassName);
+                double poolMaxRowsPerSecond = 0;
+                double poolMaxQueriesPerSecond = 0;
                 if (poolPropertyString != null) {
                     List<String[]> poolProps = CDCPollingUtil.processKeyValuePairs(poolPropertyString);
-                    poolProps.forEach(pair -> connectionProperties.setProperty(pair[0], pair[1]));
+                    for (String[] pair : poolProps) {
+                        //the pool limits are applied by the poller, not by HikariCP.
+                        if (pair[0].equals(CDCSourceConstants.POOL_MAX_ROWS_PER_SECOND)) {
+                            poolMaxRowsPerSecond = parsePoolLimit(pair);
+                        } else if (pair[0].equals(CDCSourceConstants.POOL_MAX_QUERIES_PER_SECOND)) {
+                            poolMaxQueriesPerSecond = parsePoolLimit(pair);
+                        } else {
+                            connectionProperties.setProperty(pair[0], pair[1]);
+                        }
+                    }
                 }
 
-                HikariConfig config = new HikariConfig(connectionProperties);
-                this.dataSource = new HikariDataSource(config);
+                //sources with the same connection and pool properties share the pool.
+                ConnectionPoolRegistry registry = ConnectionPoolRegistry.getConnectionPoolRegistry();
+                this.dataSource = registry.acquire(connectionProperties, poolMaxRowsPerSecond,
+                        poolMaxQueriesPerSecond);
+                rateLimit.setPoolLimiters(registry.getRowLimiter(dataSource), registry.getQueryLimiter(dataSource));
                 isLocalDataSource = true;
+                if (replicaRouter != null) {
+                    replicaRouter.start(connectionProperties, getDialect().getReplicaLagQuery(), metrics);
+                }
                 if (log.isDebugEnabled()) {
                     log.debug("Database connection for '" + this.tableName + "' created through connection" +
                             " parameters specified in the query.");
@@ -173,12 +411,29 @@ public class CDCPoller implements Runnable {
         return isLocalDataSource;
     }
 
+    /**
+     * Release the pool created from the connection parameters. The pool is closed if no other source uses it.
+     */
+    public void releaseDataSource() {
+        if (isLocalDataSource) {
+            ConnectionPoolRegistry.getConnectionPoolRegistry().release(dataSource);
+            isLocalDataSource = false;
+        }
+        if (replicaRouter != null) {
+            replicaRouter.stop();
+        }
+        if (triggerDataSource != null) {
+            triggerDataSource.close();
+            triggerDataSource = null;
+        }
+    }
+
     public String getLastReadPollingColumnValue() {
-        return lastReadPollingColumnValue;
+        return cursor.toString();
     }
 
     public void setLastReadPollingColumnValue(String lastReadPollingColumnValue) {
-        this.lastReadPollingColumnValue = lastReadPollingColumnValue;
+        cursor.setValue(lastReadPollingColumnValue);
     }
 
     private Connection getConnection() {
@@ -195,9 +450,12 @@ public class CDCPoller implements Runnable {
         return conn;
     }
 
-    private String getSelectQuery(String columnList, String condition) {
-        String selectQuery;
-        if (selectQueryStructure.isEmpty()) {
+    /**
+     * Get the database specific query configurations. System parameters given as
+     * {@code <database_name>.<property>} take priority over the properties in query-config.yaml.
+     */
+    private Database getDialect() {
+        if (dialect == null) {
             //Get the database product name
             String databaseName;
             Connection conn = null;
@@ -212,61 +470,254 @@ public class CDCPoller implements Runnable {
                 CDCPollingUtil.cleanupConnection(null, null, conn);
             }
 
-            //Read configs from config reader.
-            selectQueryStructure = configReader.readConfig(databaseName + "." + RECORD_SELECT_QUERY, "");
-
-            if (selectQueryStructure.isEmpty()) {
-                //Read configs from yaml file
-                QueryConfiguration queryConfiguration;
-                InputStream inputStream = null;
-                try {
-                    MyYamlConstructor constructor = new MyYamlConstructor(QueryConfiguration.class);
-                    TypeDescription queryTypeDescription = new TypeDescription(QueryConfiguration.class);
-                    queryTypeDescription.putListPropertyType("databases", Database.class);
-                    constructor.addTypeDescription(queryTypeDescription);
-                    Yaml yaml = new Yaml(constructor);
-                    ClassLoader classLoader = getClass().getClassLoader();
-                    inputStream = classLoader.getResourceAsStream(SELECT_QUERY_CONFIG_FILE);
-                    if (inputStream == null) {
-                        throw new CDCPollingModeException(SELECT_QUERY_CONFIG_FILE
-                                + " is not found in the classpath. Current mode: " + CDCSourceConstants.MODE_POLLING);
-                    }
-                    queryConfiguration = (QueryConfiguration) yaml.load(inputStream);
-                } finally {
-                    if (inputStream != null) {
-                        try {
-                            inputStream.close();
-                        } catch (IOException e) {
-                            log.error("Failed to close the input stream for " + SELECT_QUERY_CONFIG_FILE + ". " +
-                                    "Current mode: " + CDCSourceConstants.MODE_POLLING);
-                        }
+            //Read configs from yaml file
+            QueryConfiguration queryConfiguration;
+            InputStream inputStream = null;
+            try {
+                MyYamlConstructor constructor = new MyYamlConstructor(QueryConfiguration.class);
+                TypeDescription queryTypeDescription = new TypeDescription(QueryConfiguration.class);
+                queryTypeDescription.putListPropertyType("databases", Database.class);
+                constructor.addTypeDescription(queryTypeDescription);
+                Yaml yaml = new Yaml(constructor);
+                ClassLoader classLoader = getClass().getClassLoader();
+                inputStream = classLoader.getResourceAsStream(SELECT_QUERY_CONFIG_FILE);
+                if (inputStream == null) {
+                    throw new CDCPollingModeException(SELECT_QUERY_CONFIG_FILE
+                            + " is not found in the classpath. Current mode: " + CDCSourceConstants.MODE_POLLING);
+                }
+                queryConfiguration = (QueryConfiguration) yaml.load(inputStream);
+            } finally {
+                if (inputStream != null) {
+                    try {
+                        inputStream.close();
+                    } catch (IOException e) {
+                        log.error("Failed to close the input stream for " + SELECT_QUERY_CONFIG_FILE + ". " +
+                                "Current mode: " + CDCSourceConstants.MODE_POLLING);
                     }
                 }
+            }
 
-                //Get database related select query structure
-                if (queryConfiguration != null) {
-                    for (Database database : queryConfiguration.getDatabases()) {
-                        if (database.getName().equalsIgnoreCase(databaseName)) {
-                            selectQueryStructure = database.getSelectQuery();
-                            break;
-                        }
+            //Get database related query configurations
+            Database database = new Database();
+            if (queryConfiguration != null) {
+                for (Database configuredDatabase : queryConfiguration.getDatabases()) {
+                    if (configuredDatabase.getName().equalsIgnoreCase(databaseName)) {
+                        database = configuredDatabase;
+                        break;
                     }
                 }
             }
+            database.setName(databaseName);
 
-            if (selectQueryStructure.isEmpty()) {
+            //Read configs from config reader.
+            database.setSelectQuery(readDialectConfig(databaseName, RECORD_SELECT_QUERY,
+                    database.getSelectQuery()));
+            database.setNativeCursor(readDialectConfig(databaseName, NATIVE_CURSOR, database.getNativeCursor()));
+            database.setExplainQuery(readDialectConfig(databaseName, EXPLAIN_QUERY, database.getExplainQuery()));
+            database.setFullScanPattern(readDialectConfig(databaseName, FULL_SCAN_PATTERN,
+                    database.getFullScanPattern()));
+            database.setPlanCostPattern(readDialectConfig(databaseName, PLAN_COST_PATTERN,
+                    database.getPlanCostPattern()));
+            database.setReplicaLagQuery(readDialectConfig(databaseName, REPLICA_LAG_QUERY,
+                    database.getReplicaLagQuery()));
+            database.setCurrentTimestampQuery(readDialectConfig(databaseName, CURRENT_TIMESTAMP_QUERY,
+                    database.getCurrentTimestampQuery()));
+            database.setKeyRangeExpression(readDialectConfig(databaseName, KEY_RANGE_EXPRESSION,
+                    database.getKeyRangeExpression()));
+            database.setPartitionExpression(readDialectConfig(databaseName, PARTITION_EXPRESSION,
+                    database.getPartitionExpression()));
+
+            if (database.getSelectQuery() == null || database.getSelectQuery().isEmpty()) {
                 throw new CDCPollingModeException("Unsupported database: " + databaseName + ". Configure system" +
                         " parameter: " + databaseName + "." + RECORD_SELECT_QUERY + ". Current mode: " +
                         CDCSourceConstants.MODE_POLLING);
             }
+            dialect = database;
         }
+        return dialect;
+    }
+
+    private String readDialectConfig(String databaseName, String property, String defaultValue) {
+        String value = configReader.readConfig(databaseName + "." + property, "");
+        return value.isEmpty() ? defaultValue : value;
+    }
 
+    private String getSelectQuery(String columnList, String condition) {
         //create the select query with given constraints
-        selectQuery = selectQueryStructure.replace(PLACE_HOLDER_TABLE_NAME, tableName)
+        return getDialect().getSelectQuery().replace(PLACE_HOLDER_TABLE_NAME, tableName)
                 .replace(PLACE_HOLDER_COLUMN_LIST, columnList)
                 .replace(PLACE_HOLDER_CONDITION, condition);
+    }
+
+    /**
+     * Initialize the expression used to find the changed rows, and the label it is read from.
+     */
+    private void initializeCursor() {
+        if (CDCSourceConstants.POLLING_CURSOR_NATIVE.equalsIgnoreCase(pollingCursor)) {
+            String nativeCursor = getDialect().getNativeCursor();
+            if (nativeCursor == null || nativeCursor.isEmpty()) {
+                throw new CDCPollingModeException("Native polling cursor is not supported for database: " +
+                        dialect.getName() + ". Configure system parameter: " + dialect.getName() + "." +
+                        NATIVE_CURSOR + ". Current mode: " + CDCSourceConstants.MODE_POLLING);
+            }
+            if (nativeCursor.contains(PLACE_HOLDER_POLLING_COLUMN)) {
+                if (CDCPollingUtil.isEmpty(pollingColumn)) {
+                    throw new CDCPollingModeException("Native polling cursor of database: " + dialect.getName() +
+                            " requires the row version column to be given as " + CDCSourceConstants.POLLING_COLUMN +
+                            ". Current mode: " + CDCSourceConstants.MODE_POLLING);
+                }
+                nativeCursor = nativeCursor.replace(PLACE_HOLDER_POLLING_COLUMN, pollingColumn);
+            }
+            cursorExpression = nativeCursor;
+            cursorColumnLabel = NATIVE_CURSOR_COLUMN_LABEL;
+        } else {
+            cursorExpression = pollingColumn;
+            cursorColumnLabel = pollingColumn;
+        }
+    }
+
+    /**
+     * Find the JDBC type of the cursor, so that it is bound to the poll query with the type of the column.
+     */
+    private void initializeCursorType(Connection connection) throws SQLException {
+        PreparedStatement statement = null;
+        ResultSet resultSet = null;
+        try {
+            if (pollingQuery == null) {
+                statement = connection.prepareStatement(getSelectQuery(cursorExpression, "WHERE 1 = 0"));
+            } else {
+                statement = connection.prepareStatement(getPollingQuery(POLLING_QUERY_ALIAS + "." + pollingColumn,
+                        " WHERE 1 = 0"));
+                for (int i = 1; i <= cursorParameterCount; i++) {
+                    statement.setNull(i, Types.NULL);
+                }
+            }
+            resultSet = statement.executeQuery();
+            cursor.setSqlType(resultSet.getMetaData().getColumnType(1));
+        } finally {
+            CDCPollingUtil.cleanupConnection(resultSet, statement, null);
+        }
+    }
+
+    /**
+     * Get a query on the results of the polling query.
+     *
+     * @param columnList columns to select from the polling query results.
+     * @param suffix     conditions or ordering of the query.
+     */
+    private String getPollingQuery(String columnList, String suffix) {
+        return "SELECT " + columnList + " FROM (" +
+                pollingQuery.replace(CDCSourceConstants.POLLING_QUERY_CURSOR_PLACEHOLDER, "?") + ") " +
+                POLLING_QUERY_ALIAS + suffix;
+    }
+
+    private void bindCursor(PreparedStatement statement, PollingCursor pollingCursor) throws SQLException {
+        for (int i = 1; i <= cursorParameterCount; i++) {
+            pollingCursor.bind(statement, i);
+        }
+    }
+
+    private String getColumnList() {
+        if (cursorColumnLabel.equals(NATIVE_CURSOR_COLUMN_LABEL)) {
+            return tableName + ".*, " + cursorExpression + " AS " + NATIVE_CURSOR_COLUMN_LABEL;
+        }
+        return "*";
+    }
+
+    private String getCondition() {
+        String partitionCondition = partitionExpression == null ? "" : " AND " + partitionExpression + " = ?";
+        if (cursorColumnLabel.equals(NATIVE_CURSOR_COLUMN_LABEL)) {
+            return "WHERE " + cursorExpression + " > ?" + partitionCondition + " ORDER BY " + cursorExpression;
+        }
+        if (isBounded()) {
+            return "WHERE " + cursorExpression + " > ? AND " + cursorExpression + " <= ?" + partitionCondition +
+                    " ORDER BY " + cursorExpression;
+        }
+        return "WHERE " + cursorExpression + " > ?" + partitionCondition;
+    }
 
-        return selectQuery;
+    /**
+     * Initialize the expression giving the partition of a row, when the table is split into partitions.
+     */
+    private void initializePartitionExpression(Connection connection) throws SQLException {
+        String keyColumn = CDCPollingUtil.isEmpty(partitionKey) ?
+                CDCPollingUtil.getPrimaryKeyColumn(connection, tableName) : partitionKey;
+        String expression = getDialect().getPartitionExpression();
+        partitionExpression = (expression == null ? DEFAULT_PARTITION_EXPRESSION : expression)
+                .replace(PLACE_HOLDER_KEY_COLUMN, keyColumn)
+                .replace(PLACE_HOLDER_PARTITION_COUNT, Integer.toString(partitionCount));
+    }
+
+    /**
+     * Check that the late rows can be handled with the polling column.
+     */
+    private void validateLateRowHandling() {
+        if (!isBounded()) {
+            return;
+        }
+        if (cursor.getSqlType() != Types.TIMESTAMP && cursor.getSqlType() != Types.TIMESTAMP_WITH_TIMEZONE) {
+            throw new CDCPollingModeException(CDCSourceConstants.POLLING_GRACE_PERIOD + " and " +
+                    CDCSourceConstants.POLLING_LOOKBACK + " are only supported for TIMESTAMP polling columns. " +
+                    "Current mode: " + CDCSourceConstants.MODE_POLLING);
+        }
+        if (CDCPollingUtil.isEmpty(getDialect().getCurrentTimestampQuery())) {
+            throw new CDCPollingModeException("The current timestamp query is not known for database: " +
+                    dialect.getName() + ". Configure system parameter: " + dialect.getName() + "." +
+                    CURRENT_TIMESTAMP_QUERY + ". Current mode: " + CDCSourceConstants.MODE_POLLING);
+        }
+    }
+
+    /**
+     * Find the primary key the rows read again in the lookback window are identified with.
+     */
+    private void initializeLookbackKey(Connection connection) throws SQLException {
+        if (CDCSourceConstants.POLLING_QUERY.equals(tableName)) {
+            throw new CDCPollingModeException(CDCSourceConstants.POLLING_LOOKBACK + " requires the " +
+                    CDCSourceConstants.TABLE_NAME + " of the " + CDCSourceConstants.POLLING_QUERY + ", whose " +
+                    "primary key identifies the rows read again. Current mode: " + CDCSourceConstants.MODE_POLLING);
+        }
+        lookbackKeyColumn = CDCPollingUtil.getPrimaryKeyColumn(connection, tableName);
+        if (!CDCPollingUtil.isIntegerColumn(connection, tableName, lookbackKeyColumn)) {
+            throw new CDCPollingModeException(CDCSourceConstants.POLLING_LOOKBACK + " requires an integer primary " +
+                    "key, but the primary key '" + lookbackKeyColumn + "' of table '" + tableName + "' is not of " +
+                    "an integer type. Current mode: " + CDCSourceConstants.MODE_POLLING);
+        }
+    }
+
+    /**
+     * Bind the parameters of the poll query: the cursor, moved back by the lookback window, and the upper bound of
+     * the polling column when late rows are handled.
+     */
+    private void bindPollParameters(PreparedStatement statement, Connection connection, PollingCursor pollingCursor,
+                                    int partition) throws SQLException {
+        bindCursor(statement, lookbackMillis > 0 ? pollingCursor.minusMillis(lookbackMillis) : pollingCursor);
+        int parameterIndex = cursorParameterCount + 1;
+        if (isBounded()) {
+            statement.setTimestamp(parameterIndex++, getUpperBound(connection));
+        }
+        if (partitionExpression != null) {
+            statement.setInt(parameterIndex, partition);
+        }
+    }
+
+    /**
+     * Get the latest polling column value that can be read, i.e. the current time of the database less the
+     * grace period.
+     */
+    private Timestamp getUpperBound(Connection connection) throws SQLException {
+        PreparedStatement statement = null;
+        ResultSet resultSet = null;
+        try {
+            statement = connection.prepareStatement(dialect.getCurrentTimestampQuery());
+            resultSet = statement.executeQuery();
+            if (!resultSet.next()) {
+                throw new SQLException("No result for the current timestamp query: " +
+                        dialect.getCurrentTimestampQuery());
+            }
+            return new Timestamp(resultSet.getTimestamp(1).getTime() - gracePeriodMillis);
+        } finally {
+            CDCPollingUtil.cleanupConnection(resultSet, statement, null);
+        }
     }
 
     /**
@@ -280,31 +731,17 @@ public class CDCPoller implements Runnable {
                     "Current mode: " + CDCSourceConstants.MODE_POLLING, e);
         }
 
-        String selectQuery;
-        ResultSetMetaData metadata;
-        Map<String, Object> detailsMap;
-        Connection connection = getConnection();
-        PreparedStatement statement = null;
-        ResultSet resultSet = null;
-
-        try {
-            //If lastReadPollingColumnValue is null, assign it with last record of the table.
-            if (lastReadPollingColumnValue == null) {
-                selectQuery = getSelectQuery("MAX(" + pollingColumn + ")", "").trim();
-                statement = connection.prepareStatement(selectQuery);
-                resultSet = statement.executeQuery();
-                if (resultSet.next()) {
-                    lastReadPollingColumnValue = resultSet.getString(1);
-                }
-                //if the table is empty, set last offset to a negative value.
-                if (lastReadPollingColumnValue == null) {
-                    lastReadPollingColumnValue = "-1";
-                }
+        String selectQuery = initializePolling();
+        if (pollingTrigger != null) {
+            try {
+                startPollingTrigger();
+            } catch (SQLException e) {
+                throw new CDCPollingModeException("Error in starting the polling trigger for " + tableName + ". " +
+                        "Current mode: " + CDCSourceConstants.MODE_POLLING, e);
             }
+        }
 
-            selectQuery = getSelectQuery("*", "WHERE " + pollingColumn + " > ?");
-            statement = connection.prepareStatement(selectQuery);
-
+        try {
             while (true) {
                 if (paused) {
                     pauseLock.lock();
@@ -318,31 +755,111 @@ public class CDCPoller implements Runnable {
                         pauseLock.unlock();
                     }
                 }
-                try {
-                    statement.setString(1, lastReadPollingColumnValue);
-                    resultSet = statement.executeQuery();
-                    metadata = resultSet.getMetaData();
-                    while (resultSet.next()) {
-                        detailsMap = new HashMap<>();
-                        for (int i = 1; i <= metadata.getColumnCount(); i++) {
-                            String key = metadata.getColumnName(i);
-                            Object value = resultSet.getObject(key);
-                            detailsMap.put(key.toLowerCase(Locale.ENGLISH), value);
-                        }
-                        lastReadPollingColumnValue = resultSet.getString(pollingColumn);
-                        handleEvent(detailsMap);
-                    }
-                } catch (SQLException ex) {
-                    log.error(ex);
-                } finally {
-                    CDCPollingUtil.cleanupConnection(resultSet, null, null);
+                if (isPartitioned()) {
+                    pollPartitions(selectQuery);
+                } else {
+                    poll(selectQuery);
+                }
+                if (deleteReconciler != null && System.currentTimeMillis() >= nextDeleteDetectionTime) {
+                    detectDeletes();
                 }
                 try {
-                    Thread.sleep((long) pollingInterval * 1000);
+                    waitForNextPoll();
                 } catch (InterruptedException e) {
                     log.error("Error while polling. Current mode: " + CDCSourceConstants.MODE_POLLING, e);
                 }
             }
+        } finally {
+            if (isPollingTriggerStarted) {
+                pollingTrigger.stop();
+                isPollingTriggerStarted = false;
+            }
+        }
+    }
+
+    /**
+     * Initialize the cursor, and check the plans of the polling queries if required.
+     *
+     * @return the query to poll for changes.
+     */
+    String initializePolling() {
+        Connection connection = getConnection();
+        PreparedStatement statement = null;
+        ResultSet resultSet = null;
+        try {
+            initializeCursor();
+            initializeCursorType(connection);
+            validateLateRowHandling();
+            if (emittedRowWindow != null) {
+                initializeLookbackKey(connection);
+            }
+            if (deleteDetectionIntervalMillis > 0) {
+                String keyRangeExpression = getDialect().getKeyRangeExpression();
+                deleteReconciler = new DeleteReconciler(tableName, deleteDetectionRangeSize,
+                        keyRangeExpression == null ? DeleteReconciler.DEFAULT_KEY_RANGE_EXPRESSION :
+                                keyRangeExpression);
+                metrics.registerGauge("delete.detection.ranges", () -> deleteReconciler.getRangeCount());
+                metrics.registerGauge("delete.detection.changed.ranges",
+                        () -> deleteReconciler.getChangedRangeCount());
+            }
+            QueryPlanChecker planChecker = null;
+            if (!CDCSourceConstants.POLLING_PLAN_CHECK_OFF.equals(planCheck)) {
+                planChecker = new QueryPlanChecker(planCheck, getDialect());
+            }
+
+            String bootstrapQuery;
+            PollingCursor bootstrapCursor = null;
+            if (pollingQuery == null) {
+                bootstrapQuery = getSelectQuery("MAX(" + cursorExpression + ")", "").trim();
+            } else {
+                //the last record of a polling query is found by running it from the start.
+                bootstrapQuery = getPollingQuery("MAX(" + POLLING_QUERY_ALIAS + "." + pollingColumn + ")", "");
+                bootstrapCursor = new PollingCursor();
+                bootstrapCursor.setSqlType(cursor.getSqlType());
+                bootstrapCursor.setValue(PollingCursor.EMPTY_TABLE_VALUE);
+            }
+            if (planChecker != null) {
+                bootstrapPlanCost = Math.round(planChecker.check(connection, bootstrapQuery, bootstrapCursor,
+                        cursorParameterCount));
+            }
+
+            //If the cursor is empty, assign it with last record of the table.
+            if (cursor.isEmpty()) {
+                statement = connection.prepareStatement(bootstrapQuery);
+                if (bootstrapCursor != null) {
+                    bindCursor(statement, bootstrapCursor);
+                }
+                long bootstrapStartTime = System.currentTimeMillis();
+                resultSet = statement.executeQuery();
+                bootstrapQueryMillis = System.currentTimeMillis() - bootstrapStartTime;
+                if (resultSet.next()) {
+                    cursor.readValue(resultSet, 1);
+                }
+                //if the table is empty, set last offset to a negative value.
+                if (cursor.isEmpty()) {
+                    cursor.setValue(PollingCursor.EMPTY_TABLE_VALUE);
+                }
+            }
+
+            String selectQuery;
+            if (pollingQuery == null) {
+                selectQuery = getSelectQuery(getColumnList(), getCondition());
+            } else {
+                //the rows are ordered by the cursor, so that the cursor is at the last read row.
+                String upperBound = isBounded() ? " WHERE " + POLLING_QUERY_ALIAS + "." + pollingColumn + " <= ?" : "";
+                selectQuery = getPollingQuery("*", upperBound + " ORDER BY " + POLLING_QUERY_ALIAS + "." +
+                        pollingColumn);
+            }
+            if (planChecker != null) {
+                pollPlanCost = Math.round(planChecker.check(connection, selectQuery, cursor,
+                        cursorParameterCount + (isBounded() ? 1 : 0)));
+            }
+            //the plan is checked without the partition condition, which only binds an integer.
+            if (isPartitioned() && partitionCount > 1) {
+                initializePartitionExpression(connection);
+                selectQuery = getSelectQuery(getColumnList(), getCondition());
+            }
+            return selectQuery;
         } catch (SQLException ex) {
             throw new CDCPollingModeException("Error in polling for changes on " + tableName + ". Current mode: " +
                     CDCSourceConstants.MODE_POLLING, ex);
@@ -351,8 +868,242 @@ public class CDCPoller implements Runnable {
         }
     }
 
-    private void handleEvent(Map detailsMap) {
-        sourceEventListener.onEvent(detailsMap, null);
+    /**
+     * Run a poll cycle for each partition polled by this node, saving the cursors moved by the cycles. A partition
+     * without a saved cursor starts from the cursor of this source.
+     */
+    private void pollPartitions(String selectQuery) {
+        for (Integer partition : partitionCursors.keySet()) {
+            partitionLock.lock();
+            try {
+                PollingCursor partitionCursor = partitionCursors.get(partition);
+                if (partitionCursor == null) {
+                    //removed since the iteration started.
+                    continue;
+                }
+                if (partitionCursor.getSqlType() != cursor.getSqlType()) {
+                    partitionCursor.setSqlType(cursor.getSqlType());
+                }
+                String previousValue = partitionCursor.toString();
+                if (partitionCursor.isEmpty()) {
+                    partitionCursor.setValue(cursor.toString());
+                }
+                poll(selectQuery, partitionCursor, partition);
+                String cursorValue = partitionCursor.toString();
+                if (Objects.equals(previousValue, cursorValue)) {
+                    continue;
+                }
+                partitionCursorStore.save(partition, cursorValue);
+            } catch (SQLException e) {
+                log.error("Error while saving the cursor of partition " + partition + " of " + tableName + "." +
+                        " Current mode: " + CDCSourceConstants.MODE_POLLING, e);
+            } finally {
+                partitionLock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Run a single poll cycle. The connection is borrowed from the pool only for the cycle, so that the pool can
+     * be shared by many polling sources. Package-private so that the cycles can be benchmarked on their own.
+     */
+    void poll(String selectQuery) {
+        poll(selectQuery, cursor, 0);
+    }
+
+    private void poll(String selectQuery, PollingCursor pollingCursor, int partition) {
+        Connection connection = null;
+        PreparedStatement statement = null;
+        ResultSet resultSet = null;
+        long rowsRead = 0;
+        try {
+            //the permits are taken while no connection is borrowed, so that a throttled source doesn't hold a
+            //connection of the shared pool. The rows read are paid for after the connection is returned.
+            metrics.throttled(rateLimit.acquireQuery());
+            connection = replicaRouter == null ? dataSource.getConnection() :
+                    replicaRouter.getConnection(dataSource);
+            statement = connection.prepareStatement(selectQuery);
+            bindPollParameters(statement, connection, pollingCursor, partition);
+            metrics.pollQueryStarted();
+            resultSet = statement.executeQuery();
+            metrics.pollQueryEnded();
+            ResultSetMetaData metadata = resultSet.getMetaData();
+            int cursorColumnIndex = resultSet.findColumn(cursorColumnLabel);
+            boolean isNativeCursor = cursorColumnLabel.equals(NATIVE_CURSOR_COLUMN_LABEL);
+            int keyColumnIndex = emittedRowWindow == null ? 0 : resultSet.findColumn(lookbackKeyColumn);
+            long rowCount = 0;
+            while (resultSet.next()) {
+                rowsRead++;
+                metrics.conversionStarted();
+                Map<String, Object> detailsMap = new HashMap<>();
+                for (int i = 1; i <= metadata.getColumnCount(); i++) {
+                    if (isNativeCursor && i == cursorColumnIndex) {
+                        continue;
+                    }
+                    String key = metadata.getColumnName(i);
+                    Object value = resultSet.getObject(i);
+                    detailsMap.put(key.toLowerCase(Locale.ENGLISH), value);
+                }
+                if (isBounded()) {
+                    pollingCursor.advance(resultSet, cursorColumnIndex);
+                } else {
+                    pollingCursor.readValue(resultSet, cursorColumnIndex);
+                }
+                metrics.conversionEnded();
+                if (emittedRowWindow != null) {
+                    Timestamp rowTimestamp = resultSet.getTimestamp(cursorColumnIndex);
+                    if (rowTimestamp != null &&
+                            !emittedRowWindow.add(resultSet.getLong(keyColumnIndex), rowTimestamp.getTime())) {
+                        //the row is already sent in an earlier poll of the lookback window.
+                        continue;
+                    }
+                }
+                handleEvent(detailsMap);
+                rowCount++;
+            }
+            if (emittedRowWindow != null) {
+                emittedRowWindow.removeBefore(pollingCursor.getTimestampMillis() - lookbackMillis);
+            }
+            metrics.pollCompleted(rowCount);
+        } catch (SQLException ex) {
+            log.error(ex);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.error("Interrupted while throttling the polling of " + tableName + ". Current mode: " +
+                    CDCSourceConstants.MODE_POLLING, e);
+        } finally {
+            CDCPollingUtil.cleanupConnection(resultSet, statement, connection);
+        }
+        if (rowsRead > 0) {
+            try {
+                metrics.throttled(rateLimit.acquireRows(rowsRead));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                log.error("Interrupted while throttling the polling of " + tableName + ". Current mode: " +
+                        CDCSourceConstants.MODE_POLLING, e);
+            }
+        }
+    }
+
+    /**
+     * Find the rows deleted since the last check, and send them as delete events.
+     */
+    private void detectDeletes() {
+        nextDeleteDetectionTime = System.currentTimeMillis() + deleteDetectionIntervalMillis;
+        Connection connection = null;
+        try {
+            metrics.throttled(rateLimit.acquireQuery());
+            connection = replicaRouter == null ? dataSource.getConnection() :
+                    replicaRouter.getConnection(dataSource);
+            deleteReconciler.reconcile(connection, this::handleDelete);
+        } catch (SQLException e) {
+            log.error("Error while detecting the rows deleted from " + tableName + ". Current mode: " +
+                    CDCSourceConstants.MODE_POLLING, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.error("Interrupted while throttling the delete detection of " + tableName + ". Current mode: " +
+                    CDCSourceConstants.MODE_POLLING, e);
+        } finally {
+            CDCPollingUtil.cleanupConnection(null, null, connection);
+        }
+    }
+
+    private void handleDelete(long key) {
+        Map<String, Object> detailsMap = new HashMap<>();
+        detailsMap.put(CDCSourceConstants.BEFORE_PREFIX + deleteReconciler.getKeyColumn().toLowerCase(Locale.ENGLISH),
+                key);
+        sourceEventListener.onEvent(detailsMap,
+                CDCSourceUtil.getTransportProperties(requestedTransportPropertyNames, -1, tableName));
+        metrics.eventSent(-1);
+    }
+
+    /**
+     * Start the polling trigger on a new connection. The trigger keeps the connection for as long as it runs, hence
+     * the connection is not taken from the pool shared with the poll cycles, unless the pool is given as a
+     * datasource or a JNDI resource.
+     */
+    private void startPollingTrigger() throws SQLException {
+        Connection triggerConnection = null;
+        try {
+            triggerConnection = connectionProperties == null ? dataSource.getConnection() :
+                    getTriggerDataSource().getConnection();
+            pollingTrigger.start(triggerConnection);
+            isPollingTriggerStarted = true;
+        } catch (SQLException | RuntimeException e) {
+            CDCPollingUtil.cleanupConnection(null, null, triggerConnection);
+            throw e;
+        }
+    }
+
+    /**
+     * Get the pool of the polling trigger, which has a single connection opened with the same driver, connection
+     * and pool properties as the pool of the poll cycles. The pool is started on the first connection, so that a
+     * failure to connect is reported as a {@link SQLException}, after which the trigger is restarted.
+     */
+    HikariDataSource getTriggerDataSource() {
+        if (triggerDataSource == null) {
+            Properties triggerProperties = new Properties();
+            triggerProperties.putAll(connectionProperties);
+            triggerProperties.remove("poolName");
+            triggerProperties.setProperty("maximumPoolSize", "1");
+            triggerDataSource = new HikariDataSource();
+            new HikariConfig(triggerProperties).copyStateTo(triggerDataSource);
+        }
+        return triggerDataSource;
+    }
+
+    /**
+     * Wait until the polling interval elapses, or until the polling trigger signals a change.
+     */
+    private void waitForNextPoll() throws InterruptedException {
+        long pollingIntervalMillis = (long) pollingInterval * 1000;
+        if (pollingTrigger == null) {
+            Thread.sleep(pollingIntervalMillis);
+            return;
+        }
+        long startTime = System.currentTimeMillis();
+        try {
+            if (!isPollingTriggerStarted) {
+                startPollingTrigger();
+                log.info("Restarted the polling trigger for " + tableName + ". Current mode: " +
+                        CDCSourceConstants.MODE_POLLING);
+            }
+            pollingTrigger.awaitChange(pollingIntervalMillis);
+        } catch (SQLException e) {
+            //the connection of the trigger may be broken, hence the trigger is restarted on a new connection in
+            //the next cycle. Till then, the table is polled at the polling interval.
+            log.error("Error in the polling trigger for " + tableName + ". It will be restarted in the next " +
+                    "cycle. Current mode: " + CDCSourceConstants.MODE_POLLING, e);
+            if (isPollingTriggerStarted) {
+                pollingTrigger.stop();
+                isPollingTriggerStarted = false;
+            }
+            long remaining = pollingIntervalMillis - (System.currentTimeMillis() - startTime);
+            if (remaining > 0) {
+                Thread.sleep(remaining);
+            }
+        }
+    }
+
+    private void handleEvent(Map<String, Object> detailsMap) {
+        long commitTimestamp = pollingColumn == null ? -1 :
+                getCommitTimestamp(detailsMap.get(pollingColumn.toLowerCase(Locale.ENGLISH)));
+        sourceEventListener.onEvent(detailsMap,
+                CDCSourceUtil.getTransportProperties(requestedTransportPropertyNames, commitTimestamp, tableName));
+        metrics.eventSent(commitTimestamp);
+    }
+
+    /**
+     * Get the commit time of a row from the polling column, when the polling column is a timestamp.
+     *
+     * @param pollingColumnValue value of the polling column of the row.
+     * @return commit time in milliseconds, or -1 if the polling column is not a timestamp.
+     */
+    private long getCommitTimestamp(Object pollingColumnValue) {
+        if (pollingColumnValue instanceof java.util.Date) {
+            return ((java.util.Date) pollingColumnValue).getTime();
+        }
+        return -1;
     }
 
     public void pause() {
@@ -378,6 +1129,20 @@ public class CDCPoller implements Runnable {
         }
     }
 
+    /**
+     * Store of the cursors of the partitions, shared by the nodes polling the partitions.
+     */
+    public interface PartitionCursorStore {
+        /**
+         * Save the cursor of a partition polled by this node.
+         *
+         * @param partition the partition.
+         * @param cursor    the string form of the cursor.
+         * @throws SQLException if the cursor cannot be saved.
+         */
+        void save(int partition, String cursor) throws SQLException;
+    }
+
     /**
      * A callback function to be notified when {@code CDCPoller} throws an Error.
      */
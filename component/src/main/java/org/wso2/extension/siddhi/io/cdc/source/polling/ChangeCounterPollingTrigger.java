@@ -0,0 +1,81 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.extension.siddhi.io.cdc.source.polling;
+
+import org.wso2.extension.siddhi.io.cdc.util.CDCPollingUtil;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Objects;
+
+/**
+ * This class wakes up the poller when the value returned by a cheap query changes, usually a counter or a
+ * timestamp in a single row table maintained by a trigger on the polled table.
+ */
+public class ChangeCounterPollingTrigger implements PollingTrigger {
+
+    private String counterQuery;
+    private long checkIntervalMillis;
+    private Connection connection;
+    private PreparedStatement statement;
+    private String lastCounterValue;
+
+    public ChangeCounterPollingTrigger(String counterQuery, long checkIntervalMillis) {
+        this.counterQuery = counterQuery;
+        this.checkIntervalMillis = checkIntervalMillis;
+    }
+
+    @Override
+    public void start(Connection connection) throws SQLException {
+        this.connection = connection;
+        connection.setAutoCommit(true);
+        statement = connection.prepareStatement(counterQuery);
+        lastCounterValue = readCounter();
+    }
+
+    @Override
+    public boolean awaitChange(long timeoutMillis) throws SQLException, InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        long remaining = timeoutMillis;
+        while (remaining > 0) {
+            Thread.sleep(Math.min(checkIntervalMillis, remaining));
+            String counterValue = readCounter();
+            if (!Objects.equals(counterValue, lastCounterValue)) {
+                lastCounterValue = counterValue;
+                return true;
+            }
+            remaining = deadline - System.currentTimeMillis();
+        }
+        return false;
+    }
+
+    private String readCounter() throws SQLException {
+        try (ResultSet resultSet = statement.executeQuery()) {
+            return resultSet.next() ? resultSet.getString(1) : null;
+        }
+    }
+
+    @Override
+    public void stop() {
+        CDCPollingUtil.cleanupConnection(null, statement, connection);
+        statement = null;
+        connection = null;
+    }
+}
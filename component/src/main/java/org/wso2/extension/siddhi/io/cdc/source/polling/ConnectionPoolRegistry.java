@@ -0,0 +1,176 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.extension.siddhi.io.cdc.source.polling;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.apache.log4j.Logger;
+
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Properties;
+
+/**
+ * This class keeps the connection pools created by the polling sources from connection parameters, so that the
+ * sources connecting to the same database with the same pool properties share a single pool. A pool is closed when
+ * the last source using it releases it.
+ */
+public class ConnectionPoolRegistry {
+
+    private static final Logger log = Logger.getLogger(ConnectionPoolRegistry.class);
+    private static final String POOL_NAME = "poolName";
+    private static final String POOL_NAME_PREFIX = "siddhi-cdc-polling-";
+    private static ConnectionPoolRegistry connectionPoolRegistry = new ConnectionPoolRegistry();
+    private Map<PoolKey, HikariDataSource> pools = new HashMap<>();
+    private Map<HikariDataSource, PoolKey> poolKeys = new IdentityHashMap<>();
+    private Map<HikariDataSource, Integer> referenceCounts = new IdentityHashMap<>();
+    private Map<HikariDataSource, RateLimiter> rowLimiters = new IdentityHashMap<>();
+    private Map<HikariDataSource, RateLimiter> queryLimiters = new IdentityHashMap<>();
+    private int poolCount = 0;
+
+    private ConnectionPoolRegistry() {
+    }
+
+    /**
+     * Get the pool for the given connection and pool properties, creating it if no source uses it yet.
+     * Each call should be followed by a call to {@link #release(HikariDataSource)}. Sources share a pool only if
+     * the pool limits are also the same.
+     *
+     * @param connectionProperties the HikariCP properties, including the jdbc url and the credentials.
+     * @param maxRowsPerSecond     rows all the sources of the pool may read per second, or a non positive value
+     *                             for no limit.
+     * @param maxQueriesPerSecond  queries all the sources of the pool may run per second, or a non positive value
+     *                             for no limit.
+     * @return the shared pool.
+     */
+    public synchronized HikariDataSource acquire(Properties connectionProperties, double maxRowsPerSecond,
+                                                 double maxQueriesPerSecond) {
+        PoolKey key = new PoolKey(connectionProperties, maxRowsPerSecond, maxQueriesPerSecond);
+        HikariDataSource dataSource = pools.get(key);
+        if (dataSource == null) {
+            Properties poolProperties = new Properties();
+            poolProperties.putAll(connectionProperties);
+            if (!poolProperties.containsKey(POOL_NAME)) {
+                poolProperties.setProperty(POOL_NAME, POOL_NAME_PREFIX + ++poolCount);
+            }
+            dataSource = new HikariDataSource(new HikariConfig(poolProperties));
+            pools.put(key, dataSource);
+            poolKeys.put(dataSource, key);
+            referenceCounts.put(dataSource, 1);
+            if (maxRowsPerSecond > 0) {
+                rowLimiters.put(dataSource, new RateLimiter(maxRowsPerSecond));
+            }
+            if (maxQueriesPerSecond > 0) {
+                queryLimiters.put(dataSource, new RateLimiter(maxQueriesPerSecond));
+            }
+            if (log.isDebugEnabled()) {
+                log.debug("Connection pool '" + dataSource.getPoolName() + "' is created.");
+            }
+        } else {
+            referenceCounts.put(dataSource, referenceCounts.get(dataSource) + 1);
+            if (log.isDebugEnabled()) {
+                log.debug("Connection pool '" + dataSource.getPoolName() + "' is shared by " +
+                        referenceCounts.get(dataSource) + " sources.");
+            }
+        }
+        return dataSource;
+    }
+
+    /**
+     * Release a pool acquired with {@link #acquire(Properties, double, double)}. The pool is closed if no other
+     * source uses it.
+     *
+     * @param dataSource the pool to release.
+     */
+    public synchronized void release(HikariDataSource dataSource) {
+        Integer referenceCount = referenceCounts.get(dataSource);
+        if (referenceCount == null) {
+            return;
+        }
+        if (referenceCount > 1) {
+            referenceCounts.put(dataSource, referenceCount - 1);
+            return;
+        }
+        referenceCounts.remove(dataSource);
+        rowLimiters.remove(dataSource);
+        queryLimiters.remove(dataSource);
+        pools.remove(poolKeys.remove(dataSource));
+        dataSource.close();
+        if (log.isDebugEnabled()) {
+            log.debug("Connection pool '" + dataSource.getPoolName() + "' is closed.");
+        }
+    }
+
+    /**
+     * @return the limiter of the rows read by all the sources of the pool, or null if not limited.
+     */
+    public synchronized RateLimiter getRowLimiter(HikariDataSource dataSource) {
+        return rowLimiters.get(dataSource);
+    }
+
+    /**
+     * @return the limiter of the queries run by all the sources of the pool, or null if not limited.
+     */
+    public synchronized RateLimiter getQueryLimiter(HikariDataSource dataSource) {
+        return queryLimiters.get(dataSource);
+    }
+
+    public static ConnectionPoolRegistry getConnectionPoolRegistry() {
+        return connectionPoolRegistry;
+    }
+
+    /**
+     * The key a pool is shared by. It compares the properties as a map, so that it is independent of the order in
+     * which the properties are given, and it is never turned into a string, as the properties include the password.
+     */
+    private static final class PoolKey {
+
+        private final Map<String, String> properties = new HashMap<>();
+        private final double maxRowsPerSecond;
+        private final double maxQueriesPerSecond;
+
+        private PoolKey(Properties connectionProperties, double maxRowsPerSecond, double maxQueriesPerSecond) {
+            for (String name : connectionProperties.stringPropertyNames()) {
+                properties.put(name, connectionProperties.getProperty(name));
+            }
+            this.maxRowsPerSecond = maxRowsPerSecond;
+            this.maxQueriesPerSecond = maxQueriesPerSecond;
+        }
+
+        @Override
+        public boolean equals(Object object) {
+            if (this == object) {
+                return true;
+            }
+            if (!(object instanceof PoolKey)) {
+                return false;
+            }
+            PoolKey other = (PoolKey) object;
+            return Double.compare(maxRowsPerSecond, other.maxRowsPerSecond) == 0 &&
+                    Double.compare(maxQueriesPerSecond, other.maxQueriesPerSecond) == 0 &&
+                    properties.equals(other.properties);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(properties, maxRowsPerSecond, maxQueriesPerSecond);
+        }
+    }
+}
@@ -0,0 +1,307 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.extension.siddhi.io.cdc.source.polling;
+
+import org.apache.log4j.Logger;
+import org.wso2.extension.siddhi.io.cdc.util.CDCPollingUtil;
+import org.wso2.extension.siddhi.io.cdc.util.CDCSourceConstants;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.function.LongConsumer;
+
+/**
+ * This class finds the rows deleted from a polled table, which are not seen by polling the changed rows. The key
+ * space of the numeric primary key is split into ranges of a fixed size, and the row count and the sum of the keys
+ * of each range are computed in the database and compared with the previous run. Only the keys of the ranges that
+ * differ are read, and compared with a bitmap of the keys the range had in the previous run, so that the cost of a
+ * run is driven by the changed ranges rather than by the size of the table. The checksums and the key bitmaps are
+ * kept off-heap, in two sets of buffers that are swapped after each run and grown only when the table needs more.
+ * <p>
+ * The primary key values should be non negative, and a run fails if a negative key is found. A delete and an insert
+ * in the same range that leave both the count and the sum unchanged are found only when the range changes again.
+ */
+public class DeleteReconciler {
+
+    public static final String DEFAULT_KEY_RANGE_EXPRESSION = "FLOOR({{KEY_COLUMN}} / {{RANGE_SIZE}})";
+    private static final Logger log = Logger.getLogger(DeleteReconciler.class);
+    private static final String PLACE_HOLDER_KEY_COLUMN = "{{KEY_COLUMN}}";
+    private static final String PLACE_HOLDER_RANGE_SIZE = "{{RANGE_SIZE}}";
+    //each range is kept as its id, row count and key sum.
+    private static final int LONGS_PER_RANGE = 3;
+    private static final int INITIAL_RANGE_CAPACITY = 64;
+    private final String tableName;
+    private final String keyRangeExpression;
+    private final int bitmapBytes;
+    private final long rangeSize;
+    private String keyColumn;
+    private LongBuffer ranges = allocateRanges(0);
+    private ByteBuffer bitmaps = ByteBuffer.allocateDirect(0);
+    //buffers of the run in progress, which hold the state of the run before the last one.
+    private LongBuffer spareRanges = allocateRanges(INITIAL_RANGE_CAPACITY);
+    private ByteBuffer spareBitmaps = ByteBuffer.allocateDirect(0);
+    private volatile int rangeCount = 0;
+    private volatile int changedRangeCount = 0;
+
+    /**
+     * @param tableName          the polled table.
+     * @param rangeSize          number of keys in a range. Rounded up to a multiple of 8, as the keys of a range
+     *                           are kept as a bitmap of whole bytes.
+     * @param keyRangeExpression SQL expression of the range id of a row, with the placeholders
+     *                           {@code {{KEY_COLUMN}}} and {@code {{RANGE_SIZE}}}. It should be the key divided by
+     *                           the range size, rounded down.
+     */
+    public DeleteReconciler(String tableName, int rangeSize, String keyRangeExpression) {
+        this.tableName = tableName;
+        this.bitmapBytes = (rangeSize + 7) / 8;
+        this.rangeSize = (long) bitmapBytes * 8;
+        this.keyRangeExpression = keyRangeExpression;
+    }
+
+    /**
+     * Compare the key ranges of the table with the previous run, and report the keys deleted since then. The first
+     * run reads all the keys of the table and reports no deletes.
+     *
+     * @param connection         connection to the database.
+     * @param deletedKeyConsumer consumer of the deleted keys.
+     * @throws SQLException if the table cannot be read. The state of the previous run is kept in that case, so the
+     *                      deletes found in the failed run may be reported again.
+     */
+    public void reconcile(Connection connection, LongConsumer deletedKeyConsumer) throws SQLException {
+        if (keyColumn == null) {
+            keyColumn = CDCPollingUtil.getPrimaryKeyColumn(connection, tableName);
+            validateKeyType(connection);
+        }
+        LongBuffer newRanges = readRanges(connection);
+        int newRangeCount = newRanges.position() / LONGS_PER_RANGE;
+        long newBitmapsSize = (long) newRangeCount * bitmapBytes;
+        if (newBitmapsSize > Integer.MAX_VALUE) {
+            throw new CDCPollingModeException("The keys of table '" + tableName + "' span " + newRangeCount +
+                    " ranges, which is more than the delete detection can keep. Increase " +
+                    CDCSourceConstants.POLLING_DELETE_DETECTION_RANGE_SIZE + ". Current mode: " +
+                    CDCSourceConstants.MODE_POLLING);
+        }
+        if (spareBitmaps.capacity() < newBitmapsSize) {
+            spareBitmaps = ByteBuffer.allocateDirect((int) Math.min(Integer.MAX_VALUE,
+                    Math.max(newBitmapsSize, spareBitmaps.capacity() * 2L)));
+        }
+        ByteBuffer newBitmaps = spareBitmaps;
+        int changed = 0;
+        PreparedStatement keyStatement = null;
+        try {
+            int oldIndex = 0;
+            for (int newIndex = 0; newIndex < newRangeCount; newIndex++) {
+                long rangeId = newRanges.get(newIndex * LONGS_PER_RANGE);
+                //ranges of the previous run without any rows now.
+                while (oldIndex < rangeCount && ranges.get(oldIndex * LONGS_PER_RANGE) < rangeId) {
+                    reportDeletedKeys(oldIndex, null, 0, deletedKeyConsumer);
+                    oldIndex++;
+                    changed++;
+                }
+                boolean isKnownRange = oldIndex < rangeCount && ranges.get(oldIndex * LONGS_PER_RANGE) == rangeId;
+                if (isKnownRange && isSameChecksum(ranges, oldIndex, newRanges, newIndex)) {
+                    copyBitmap(bitmaps, oldIndex, newBitmaps, newIndex);
+                } else {
+                    if (keyStatement == null) {
+                        keyStatement = connection.prepareStatement("SELECT " + keyColumn + " FROM " + tableName +
+                                " WHERE " + keyColumn + " >= ? AND " + keyColumn + " < ?");
+                    }
+                    readKeys(keyStatement, rangeId, newRanges, newIndex, newBitmaps);
+                    if (isKnownRange) {
+                        reportDeletedKeys(oldIndex, newBitmaps, newIndex, deletedKeyConsumer);
+                    }
+                    changed++;
+                }
+                if (isKnownRange) {
+                    oldIndex++;
+                }
+            }
+            for (; oldIndex < rangeCount; oldIndex++) {
+                reportDeletedKeys(oldIndex, null, 0, deletedKeyConsumer);
+                changed++;
+            }
+        } finally {
+            CDCPollingUtil.cleanupConnection(null, keyStatement, null);
+        }
+        spareRanges = ranges;
+        spareBitmaps = bitmaps;
+        ranges = newRanges;
+        bitmaps = newBitmaps;
+        rangeCount = newRangeCount;
+        changedRangeCount = changed;
+        if (log.isDebugEnabled()) {
+            log.debug("Delete detection of " + tableName + " read the keys of " + changed + " out of " +
+                    newRangeCount + " ranges.");
+        }
+    }
+
+    private void validateKeyType(Connection connection) throws SQLException {
+        if (!CDCPollingUtil.isIntegerColumn(connection, tableName, keyColumn)) {
+            throw new CDCPollingModeException("Delete detection requires an integer primary key, but the" +
+                    " primary key '" + keyColumn + "' of table '" + tableName + "' is not of an integer type. " +
+                    "Current mode: " + CDCSourceConstants.MODE_POLLING);
+        }
+    }
+
+    /**
+     * Read the id, row count and key sum of the non empty ranges of the table, ordered by the range id, into the
+     * spare range buffer.
+     */
+    private LongBuffer readRanges(Connection connection) throws SQLException {
+        String rangeExpression = keyRangeExpression.replace(PLACE_HOLDER_KEY_COLUMN, keyColumn)
+                .replace(PLACE_HOLDER_RANGE_SIZE, Long.toString(rangeSize));
+        LongBuffer newRanges = spareRanges;
+        newRanges.clear();
+        PreparedStatement statement = null;
+        ResultSet resultSet = null;
+        try {
+            statement = connection.prepareStatement("SELECT " + rangeExpression + ", COUNT(*), SUM(" + keyColumn +
+                    "), MIN(" + keyColumn + ") FROM " + tableName + " GROUP BY " + rangeExpression + " ORDER BY 1");
+            resultSet = statement.executeQuery();
+            while (resultSet.next()) {
+                validateKey(resultSet.getLong(4));
+                if (newRanges.remaining() < LONGS_PER_RANGE) {
+                    LongBuffer grownRanges = allocateRanges(Math.max(newRanges.capacity() / LONGS_PER_RANGE * 2,
+                            INITIAL_RANGE_CAPACITY));
+                    newRanges.flip();
+                    grownRanges.put(newRanges);
+                    newRanges = grownRanges;
+                    spareRanges = grownRanges;
+                }
+                newRanges.put(resultSet.getLong(1));
+                newRanges.put(resultSet.getLong(2));
+                //the sum may not fit in a long, only its lower bits are compared.
+                BigDecimal keySum = resultSet.getBigDecimal(3);
+                newRanges.put(keySum == null ? 0 : keySum.longValue());
+            }
+        } finally {
+            CDCPollingUtil.cleanupConnection(resultSet, statement, null);
+        }
+        return newRanges;
+    }
+
+    /**
+     * Read the keys of a range into its bitmap. The count and the sum of the range are taken from the keys read,
+     * so that the range is read again in the next run if it changed after the checksums are computed.
+     */
+    private void readKeys(PreparedStatement keyStatement, long rangeId, LongBuffer newRanges, int newIndex,
+                          ByteBuffer newBitmaps) throws SQLException {
+        long rangeStart = rangeId * rangeSize;
+        keyStatement.setLong(1, rangeStart);
+        keyStatement.setLong(2, rangeStart + rangeSize);
+        int bitmapStart = newIndex * bitmapBytes;
+        for (int i = 0; i < bitmapBytes; i++) {
+            newBitmaps.put(bitmapStart + i, (byte) 0);
+        }
+        long count = 0;
+        long sum = 0;
+        ResultSet resultSet = null;
+        try {
+            resultSet = keyStatement.executeQuery();
+            while (resultSet.next()) {
+                long key = resultSet.getLong(1);
+                long bit = key - rangeStart;
+                if (bit < 0 || bit >= rangeSize) {
+                    continue;
+                }
+                int byteIndex = bitmapStart + (int) (bit >>> 3);
+                newBitmaps.put(byteIndex, (byte) (newBitmaps.get(byteIndex) | (1 << (bit & 7))));
+                count++;
+                sum += key;
+            }
+        } finally {
+            CDCPollingUtil.cleanupConnection(resultSet, null, null);
+        }
+        newRanges.put(newIndex * LONGS_PER_RANGE + 1, count);
+        newRanges.put(newIndex * LONGS_PER_RANGE + 2, sum);
+    }
+
+    /**
+     * Report the keys in the bitmap of a range of the previous run that are not in its current bitmap.
+     *
+     * @param newBitmaps current bitmaps, or null if the range has no rows now.
+     */
+    private void reportDeletedKeys(int oldIndex, ByteBuffer newBitmaps, int newIndex,
+                                   LongConsumer deletedKeyConsumer) {
+        long rangeStart = ranges.get(oldIndex * LONGS_PER_RANGE) * rangeSize;
+        int oldStart = oldIndex * bitmapBytes;
+        int newStart = newIndex * bitmapBytes;
+        for (int i = 0; i < bitmapBytes; i++) {
+            int deleted = bitmaps.get(oldStart + i) & 0xFF;
+            if (newBitmaps != null) {
+                deleted &= ~newBitmaps.get(newStart + i);
+            }
+            while (deleted != 0) {
+                int bit = Integer.numberOfTrailingZeros(deleted);
+                deletedKeyConsumer.accept(rangeStart + i * 8L + bit);
+                deleted &= deleted - 1;
+            }
+        }
+    }
+
+    private void validateKey(long key) {
+        if (key < 0) {
+            throw new CDCPollingModeException("Delete detection requires non negative primary key values, but " +
+                    "the primary key '" + keyColumn + "' of table '" + tableName + "' has the value: " + key +
+                    ". Current mode: " + CDCSourceConstants.MODE_POLLING);
+        }
+    }
+
+    private boolean isSameChecksum(LongBuffer oldRanges, int oldIndex, LongBuffer newRanges, int newIndex) {
+        return oldRanges.get(oldIndex * LONGS_PER_RANGE + 1) == newRanges.get(newIndex * LONGS_PER_RANGE + 1) &&
+                oldRanges.get(oldIndex * LONGS_PER_RANGE + 2) == newRanges.get(newIndex * LONGS_PER_RANGE + 2);
+    }
+
+    private void copyBitmap(ByteBuffer source, int sourceIndex, ByteBuffer target, int targetIndex) {
+        ByteBuffer range = source.duplicate();
+        range.limit(sourceIndex * bitmapBytes + bitmapBytes).position(sourceIndex * bitmapBytes);
+        ByteBuffer targetRange = target.duplicate();
+        targetRange.position(targetIndex * bitmapBytes);
+        targetRange.put(range);
+    }
+
+    private static LongBuffer allocateRanges(int rangeCapacity) {
+        return ByteBuffer.allocateDirect(rangeCapacity * LONGS_PER_RANGE * Long.BYTES).asLongBuffer();
+    }
+
+    /**
+     * @return the primary key column of the table, or null before the first run.
+     */
+    public String getKeyColumn() {
+        return keyColumn;
+    }
+
+    /**
+     * @return number of non empty key ranges of the table in the last run.
+     */
+    public int getRangeCount() {
+        return rangeCount;
+    }
+
+    /**
+     * @return number of ranges whose keys were read in the last run.
+     */
+    public int getChangedRangeCount() {
+        return changedRangeCount;
+    }
+}
@@ -0,0 +1,165 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.extension.siddhi.io.cdc.source.polling;
+
+/**
+ * This class keeps the primary key and the polling column value of the rows emitted within the lookback window of a
+ * timestamp polling column, so that the rows read again when the window is re-read are dropped. A row updated with a
+ * new polling column value is a new entry, hence it is emitted again. The entries are kept in an open addressing
+ * table of primitive longs, and in a queue in the order they are added, so that sliding the window only removes the
+ * expired entries from the head of the queue.
+ * <p>
+ * A row committed late with an earlier polling column value is removed only when the rows added before it expire.
+ */
+public class EmittedRowWindow {
+
+    private static final int INITIAL_CAPACITY = 1024;
+    private long[] keys = new long[INITIAL_CAPACITY];
+    private long[] timestamps = new long[INITIAL_CAPACITY];
+    private boolean[] used = new boolean[INITIAL_CAPACITY];
+    private int size = 0;
+    //the entries in the order they are added, as a ring buffer.
+    private long[] queuedKeys = new long[INITIAL_CAPACITY];
+    private long[] queuedTimestamps = new long[INITIAL_CAPACITY];
+    private int queueHead = 0;
+    private int queueSize = 0;
+
+    /**
+     * Add a row to the window.
+     *
+     * @param key       primary key of the row.
+     * @param timestamp polling column value of the row in milliseconds.
+     * @return false if the row is already in the window, true otherwise.
+     */
+    public boolean add(long key, long timestamp) {
+        if ((size + 1) * 2 > keys.length) {
+            rehash(keys.length * 2);
+        }
+        int index = indexOf(key, timestamp);
+        if (used[index]) {
+            return false;
+        }
+        keys[index] = key;
+        timestamps[index] = timestamp;
+        used[index] = true;
+        size++;
+        enqueue(key, timestamp);
+        return true;
+    }
+
+    /**
+     * Remove the rows with a polling column value before the start of the window.
+     *
+     * @param windowStart start of the window in milliseconds.
+     */
+    public void removeBefore(long windowStart) {
+        int mask = queuedKeys.length - 1;
+        while (queueSize > 0 && queuedTimestamps[queueHead] < windowStart) {
+            remove(queuedKeys[queueHead], queuedTimestamps[queueHead]);
+            queueHead = (queueHead + 1) & mask;
+            queueSize--;
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private void enqueue(long key, long timestamp) {
+        if (queueSize == queuedKeys.length) {
+            long[] oldKeys = queuedKeys;
+            long[] oldTimestamps = queuedTimestamps;
+            queuedKeys = new long[oldKeys.length * 2];
+            queuedTimestamps = new long[oldKeys.length * 2];
+            for (int i = 0; i < queueSize; i++) {
+                int index = (queueHead + i) & (oldKeys.length - 1);
+                queuedKeys[i] = oldKeys[index];
+                queuedTimestamps[i] = oldTimestamps[index];
+            }
+            queueHead = 0;
+        }
+        int tail = (queueHead + queueSize) & (queuedKeys.length - 1);
+        queuedKeys[tail] = key;
+        queuedTimestamps[tail] = timestamp;
+        queueSize++;
+    }
+
+    /**
+     * Remove an entry, moving the entries after it in its probe sequence back, so that no tombstones are needed.
+     */
+    private void remove(long key, long timestamp) {
+        int index = indexOf(key, timestamp);
+        if (!used[index]) {
+            return;
+        }
+        int mask = keys.length - 1;
+        int next = index;
+        while (true) {
+            next = (next + 1) & mask;
+            if (!used[next]) {
+                break;
+            }
+            int home = slotOf(keys[next], timestamps[next]);
+            boolean isHomeBetween = index <= next ? index < home && home <= next : index < home || home <= next;
+            if (!isHomeBetween) {
+                keys[index] = keys[next];
+                timestamps[index] = timestamps[next];
+                index = next;
+            }
+        }
+        used[index] = false;
+        size--;
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        long[] oldTimestamps = timestamps;
+        boolean[] oldUsed = used;
+        keys = new long[capacity];
+        timestamps = new long[capacity];
+        used = new boolean[capacity];
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldUsed[i]) {
+                int index = indexOf(oldKeys[i], oldTimestamps[i]);
+                keys[index] = oldKeys[i];
+                timestamps[index] = oldTimestamps[i];
+                used[index] = true;
+            }
+        }
+    }
+
+    /**
+     * Find the slot of the entry, or the empty slot it should be stored in, with linear probing.
+     */
+    private int indexOf(long key, long timestamp) {
+        int mask = keys.length - 1;
+        int index = slotOf(key, timestamp);
+        while (used[index] && (keys[index] != key || timestamps[index] != timestamp)) {
+            index = (index + 1) & mask;
+        }
+        return index;
+    }
+
+    private int slotOf(long key, long timestamp) {
+        long hash = key * 0x9E3779B97F4A7C15L ^ timestamp;
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        return (int) (hash & (keys.length - 1));
+    }
+}
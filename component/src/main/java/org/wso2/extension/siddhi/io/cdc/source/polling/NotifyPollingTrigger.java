@@ -0,0 +1,75 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.extension.siddhi.io.cdc.source.polling;
+
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.wso2.extension.siddhi.io.cdc.util.CDCPollingUtil;
+import org.wso2.extension.siddhi.io.cdc.util.CDCSourceConstants;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * This class wakes up the poller on PostgreSQL notifications sent to a channel with {@code NOTIFY}, usually from a
+ * trigger on the polled table.
+ */
+public class NotifyPollingTrigger implements PollingTrigger {
+
+    private String channel;
+    private Connection connection;
+    private PGConnection pgConnection;
+
+    public NotifyPollingTrigger(String channel) {
+        this.channel = channel;
+    }
+
+    @Override
+    public void start(Connection connection) throws SQLException {
+        this.connection = connection;
+        if (!connection.isWrapperFor(PGConnection.class)) {
+            throw new CDCPollingModeException("Notification polling trigger is only supported for PostgreSQL. " +
+                    "Current mode: " + CDCSourceConstants.MODE_POLLING);
+        }
+        pgConnection = connection.unwrap(PGConnection.class);
+        //notifications are only delivered outside transactions.
+        connection.setAutoCommit(true);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("LISTEN \"" + channel.replace("\"", "\"\"") + "\"");
+        }
+    }
+
+    @Override
+    public boolean awaitChange(long timeoutMillis) throws SQLException {
+        if (timeoutMillis <= 0) {
+            return false;
+        }
+        //a timeout of 0 blocks forever, hence wait at least a millisecond.
+        PGNotification[] notifications = pgConnection.getNotifications((int) Math.min(Math.max(timeoutMillis, 1),
+                Integer.MAX_VALUE));
+        return notifications != null && notifications.length > 0;
+    }
+
+    @Override
+    public void stop() {
+        CDCPollingUtil.cleanupConnection(null, null, connection);
+        connection = null;
+        pgConnection = null;
+    }
+}
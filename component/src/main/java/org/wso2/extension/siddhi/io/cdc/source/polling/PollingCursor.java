@@ -0,0 +1,201 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.extension.siddhi.io.cdc.source.polling;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.sql.Types;
+
+/**
+ * This class holds the last read value of the polling column with the JDBC type of the column, so that it is bound
+ * to the poll query without an implicit cast that would prevent the database from using the column index.
+ * The value is kept in its string form in snapshots.
+ */
+public class PollingCursor {
+
+    /**
+     * Value of the cursor when the table is empty at startup.
+     */
+    static final String EMPTY_TABLE_VALUE = "-1";
+    private int sqlType = Types.VARCHAR;
+    private Object value;
+
+    /**
+     * Set the JDBC type of the polling column, converting the current value to it.
+     *
+     * @param sqlType the type from {@link java.sql.Types}.
+     */
+    public void setSqlType(int sqlType) {
+        this.sqlType = sqlType;
+        if (value != null) {
+            value = parse(value.toString());
+        }
+    }
+
+    public int getSqlType() {
+        return sqlType;
+    }
+
+    public boolean isEmpty() {
+        return value == null;
+    }
+
+    public void setValue(String value) {
+        this.value = value == null ? null : parse(value);
+    }
+
+    /**
+     * Read the cursor value from the current row of the result set. The value is left unchanged if the column is
+     * null in the row.
+     */
+    public void readValue(ResultSet resultSet, int columnIndex) throws SQLException {
+        Object readValue;
+        switch (sqlType) {
+            case Types.TINYINT:
+            case Types.SMALLINT:
+            case Types.INTEGER:
+            case Types.BIGINT:
+                readValue = resultSet.getLong(columnIndex);
+                break;
+            case Types.DECIMAL:
+            case Types.NUMERIC:
+                readValue = resultSet.getBigDecimal(columnIndex);
+                break;
+            case Types.TIMESTAMP:
+            case Types.TIMESTAMP_WITH_TIMEZONE:
+                readValue = resultSet.getTimestamp(columnIndex);
+                break;
+            case Types.DATE:
+                readValue = resultSet.getDate(columnIndex);
+                break;
+            case Types.TIME:
+                readValue = resultSet.getTime(columnIndex);
+                break;
+            default:
+                readValue = resultSet.getString(columnIndex);
+                break;
+        }
+        //rows without a value don't move the cursor.
+        if (!resultSet.wasNull()) {
+            value = readValue;
+        }
+    }
+
+    /**
+     * Read the cursor value from the current row of the result set, only if it is greater than the current value.
+     * Used when the polled range starts before the cursor, so that the cursor never moves back.
+     */
+    @SuppressWarnings("unchecked")
+    public void advance(ResultSet resultSet, int columnIndex) throws SQLException {
+        Object previousValue = value;
+        readValue(resultSet, columnIndex);
+        if (previousValue instanceof Comparable && value != null && previousValue.getClass() == value.getClass()
+                && ((Comparable<Object>) value).compareTo(previousValue) < 0) {
+            value = previousValue;
+        }
+    }
+
+    /**
+     * @return the timestamp value of the cursor in milliseconds, or -1 if the cursor isn't a timestamp.
+     */
+    public long getTimestampMillis() {
+        if (value instanceof Timestamp) {
+            return ((Timestamp) value).getTime();
+        }
+        return -1;
+    }
+
+    /**
+     * Get a cursor with a timestamp value the given time before the value of this cursor.
+     */
+    public PollingCursor minusMillis(long millis) {
+        PollingCursor pollingCursor = new PollingCursor();
+        pollingCursor.sqlType = sqlType;
+        pollingCursor.value = value instanceof Timestamp ? new Timestamp(((Timestamp) value).getTime() - millis) :
+                value;
+        return pollingCursor;
+    }
+
+    /**
+     * Bind the cursor value to the given parameter of the statement.
+     */
+    public void bind(PreparedStatement statement, int parameterIndex) throws SQLException {
+        if (value instanceof Long) {
+            statement.setLong(parameterIndex, (Long) value);
+        } else if (value instanceof BigDecimal) {
+            statement.setBigDecimal(parameterIndex, (BigDecimal) value);
+        } else if (value instanceof Timestamp) {
+            statement.setTimestamp(parameterIndex, (Timestamp) value);
+        } else if (value instanceof Date) {
+            statement.setDate(parameterIndex, (Date) value);
+        } else if (value instanceof Time) {
+            statement.setTime(parameterIndex, (Time) value);
+        } else {
+            statement.setString(parameterIndex, (String) value);
+        }
+    }
+
+    /**
+     * Convert the string form of a value to the JDBC type of the column. Values which can't be converted, such as
+     * offsets of older snapshots with a driver specific format, are kept as strings.
+     */
+    private Object parse(String stringValue) {
+        try {
+            switch (sqlType) {
+                case Types.TINYINT:
+                case Types.SMALLINT:
+                case Types.INTEGER:
+                case Types.BIGINT:
+                    return Long.parseLong(stringValue.trim());
+                case Types.DECIMAL:
+                case Types.NUMERIC:
+                    return new BigDecimal(stringValue.trim());
+                case Types.TIMESTAMP:
+                case Types.TIMESTAMP_WITH_TIMEZONE:
+                    if (EMPTY_TABLE_VALUE.equals(stringValue)) {
+                        return new Timestamp(0);
+                    }
+                    return Timestamp.valueOf(stringValue.trim());
+                case Types.DATE:
+                    if (EMPTY_TABLE_VALUE.equals(stringValue)) {
+                        return new Date(0);
+                    }
+                    return Date.valueOf(stringValue.trim());
+                case Types.TIME:
+                    return Time.valueOf(stringValue.trim());
+                default:
+                    return stringValue;
+            }
+        } catch (IllegalArgumentException e) {
+            return stringValue;
+        }
+    }
+
+    @Override
+    public String toString() {
+        if (value instanceof BigDecimal) {
+            return ((BigDecimal) value).toPlainString();
+        }
+        return value == null ? null : value.toString();
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.extension.siddhi.io.cdc.source.polling;
+
+import java.time.LocalTime;
+
+/**
+ * This class limits the rows read and the queries run by a polling source, with the limits of the source and the
+ * limits shared by all the sources of its connection pool. The limits can be restricted to a daily time window,
+ * e.g. business hours, outside of which the source polls at full speed.
+ */
+public class PollingRateLimit {
+
+    private RateLimiter rowLimiter;
+    private RateLimiter queryLimiter;
+    private RateLimiter poolRowLimiter;
+    private RateLimiter poolQueryLimiter;
+    private LocalTime windowStart;
+    private LocalTime windowEnd;
+
+    /**
+     * @param maxRowsPerSecond    rows the source may read per second, or a non positive value for no limit.
+     * @param maxQueriesPerSecond queries the source may run per second, or a non positive value for no limit.
+     * @param windowStart         start of the daily window the limits apply in, or null to always apply them.
+     * @param windowEnd           end of the daily window. The window may span midnight.
+     */
+    public PollingRateLimit(double maxRowsPerSecond, double maxQueriesPerSecond, LocalTime windowStart,
+                            LocalTime windowEnd) {
+        if (maxRowsPerSecond > 0) {
+            rowLimiter = new RateLimiter(maxRowsPerSecond);
+        }
+        if (maxQueriesPerSecond > 0) {
+            queryLimiter = new RateLimiter(maxQueriesPerSecond);
+        }
+        this.windowStart = windowStart;
+        this.windowEnd = windowEnd;
+    }
+
+    /**
+     * Set the limiters shared by the sources of the connection pool. Either may be null.
+     */
+    void setPoolLimiters(RateLimiter poolRowLimiter, RateLimiter poolQueryLimiter) {
+        this.poolRowLimiter = poolRowLimiter;
+        this.poolQueryLimiter = poolQueryLimiter;
+    }
+
+    /**
+     * Wait until a query may be run.
+     *
+     * @return the time throttled in milliseconds.
+     */
+    public long acquireQuery() throws InterruptedException {
+        return acquire(queryLimiter, poolQueryLimiter, 1);
+    }
+
+    /**
+     * Wait until the given number of rows may be read. The rows may also be paid for after they are read, which
+     * delays the next query instead, so that no connection is held while waiting.
+     *
+     * @return the time throttled in milliseconds.
+     */
+    public long acquireRows(long rows) throws InterruptedException {
+        return acquire(rowLimiter, poolRowLimiter, rows);
+    }
+
+    private long acquire(RateLimiter sourceLimiter, RateLimiter poolLimiter, long permits)
+            throws InterruptedException {
+        if ((sourceLimiter == null && poolLimiter == null) || !isInWindow()) {
+            return 0;
+        }
+        long throttledMillis = 0;
+        if (sourceLimiter != null) {
+            throttledMillis += sourceLimiter.acquire(permits);
+        }
+        if (poolLimiter != null) {
+            throttledMillis += poolLimiter.acquire(permits);
+        }
+        return throttledMillis;
+    }
+
+    private boolean isInWindow() {
+        if (windowStart == null) {
+            return true;
+        }
+        LocalTime now = LocalTime.now();
+        if (windowStart.isAfter(windowEnd)) {
+            return !now.isBefore(windowStart) || now.isBefore(windowEnd);
+        }
+        return !now.isBefore(windowStart) && now.isBefore(windowEnd);
+    }
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.extension.siddhi.io.cdc.source.polling;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * A channel through which the database signals that the polled table has changed, so that a poll cycle can run
+ * without waiting for the full polling interval.
+ */
+public interface PollingTrigger {
+
+    /**
+     * Start listening for changes. A stopped trigger can be started again on a new connection, e.g. after its
+     * connection is broken.
+     *
+     * @param connection a connection dedicated to the trigger. The trigger closes it when stopped.
+     * @throws SQLException if the trigger couldn't be set up in the database.
+     */
+    void start(Connection connection) throws SQLException;
+
+    /**
+     * Wait until the database signals a change or the timeout elapses.
+     *
+     * @param timeoutMillis maximum time to wait in milliseconds.
+     * @return true if a change is signalled, false if the timeout elapsed.
+     * @throws SQLException         if checking for changes failed.
+     * @throws InterruptedException if the thread is interrupted while waiting.
+     */
+    boolean awaitChange(long timeoutMillis) throws SQLException, InterruptedException;
+
+    /**
+     * Stop listening for changes and release the connection.
+     */
+    void stop();
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.extension.siddhi.io.cdc.source.polling;
+
+import org.apache.log4j.Logger;
+import org.wso2.extension.siddhi.io.cdc.source.config.Database;
+import org.wso2.extension.siddhi.io.cdc.util.CDCPollingUtil;
+import org.wso2.extension.siddhi.io.cdc.util.CDCSourceConstants;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * This class runs the database's EXPLAIN for the polling queries, to find out at startup whether they scan the full
+ * table, i.e. the polling column is not indexed.
+ */
+public class QueryPlanChecker {
+
+    private static final Logger log = Logger.getLogger(QueryPlanChecker.class);
+    private static final String PLACE_HOLDER_QUERY = "{{QUERY}}";
+    private String planCheck;
+    private String databaseName;
+    private String explainQuery;
+    private Pattern fullScanPattern;
+    private Pattern planCostPattern;
+
+    /**
+     * @param planCheck one of {@link CDCSourceConstants#POLLING_PLAN_CHECK_WARN} or
+     *                  {@link CDCSourceConstants#POLLING_PLAN_CHECK_REJECT}.
+     * @param dialect   the query configuration of the database.
+     */
+    public QueryPlanChecker(String planCheck, Database dialect) {
+        this.planCheck = planCheck;
+        this.databaseName = dialect.getName();
+        this.explainQuery = dialect.getExplainQuery();
+        if (!CDCPollingUtil.isEmpty(dialect.getFullScanPattern())) {
+            fullScanPattern = Pattern.compile(dialect.getFullScanPattern());
+        }
+        if (!CDCPollingUtil.isEmpty(dialect.getPlanCostPattern())) {
+            planCostPattern = Pattern.compile(dialect.getPlanCostPattern());
+        }
+    }
+
+    /**
+     * Check the plan of the given query.
+     *
+     * @param connection     connection to the database.
+     * @param query          the query to check.
+     * @param cursor         the value bound to the query parameters, or null if the query has no parameters.
+     * @param parameterCount number of parameters of the query.
+     * @return the cost of the plan as estimated by the database, or -1 if the cost is not known.
+     * @throws CDCPollingModeException if the plan is a full scan and full scans are rejected.
+     */
+    public double check(Connection connection, String query, PollingCursor cursor, int parameterCount) {
+        if (CDCPollingUtil.isEmpty(explainQuery)) {
+            log.warn("Query plan check is skipped, as the explain query is not known for database: " +
+                    databaseName + ". Configure system parameter: " + databaseName + ".explainQuery. " +
+                    "Current mode: " + CDCSourceConstants.MODE_POLLING);
+            return -1;
+        }
+        String plan = explain(connection, query, cursor, parameterCount);
+        if (log.isDebugEnabled()) {
+            log.debug("Plan of the polling query '" + query + "': " + plan);
+        }
+        if (fullScanPattern != null && fullScanPattern.matcher(plan).find()) {
+            String message = "The polling query '" + query + "' scans the full table. Create an index on the" +
+                    " polling column to reduce the load on the database. Plan: " + plan;
+            if (CDCSourceConstants.POLLING_PLAN_CHECK_REJECT.equals(planCheck)) {
+                throw new CDCPollingModeException(message + ". Current mode: " + CDCSourceConstants.MODE_POLLING);
+            }
+            log.warn(message);
+        }
+        return getCost(plan);
+    }
+
+    private String explain(Connection connection, String query, PollingCursor cursor, int parameterCount) {
+        PreparedStatement statement = null;
+        ResultSet resultSet = null;
+        try {
+            statement = connection.prepareStatement(explainQuery.replace(PLACE_HOLDER_QUERY, query));
+            if (cursor != null) {
+                for (int i = 1; i <= parameterCount; i++) {
+                    cursor.bind(statement, i);
+                }
+            }
+            resultSet = statement.executeQuery();
+            ResultSetMetaData metadata = resultSet.getMetaData();
+            StringBuilder plan = new StringBuilder();
+            while (resultSet.next()) {
+                if (plan.length() > 0) {
+                    plan.append('\n');
+                }
+                for (int i = 1; i <= metadata.getColumnCount(); i++) {
+                    if (i > 1) {
+                        plan.append(' ');
+                    }
+                    plan.append(metadata.getColumnLabel(i)).append('=').append(resultSet.getString(i));
+                }
+            }
+            return plan.toString();
+        } catch (SQLException e) {
+            throw new CDCPollingModeException("Error in explaining the polling query '" + query + "'. Current " +
+                    "mode: " + CDCSourceConstants.MODE_POLLING, e);
+        } finally {
+            CDCPollingUtil.cleanupConnection(resultSet, statement, null);
+        }
+    }
+
+    private double getCost(String plan) {
+        if (planCostPattern == null) {
+            return -1;
+        }
+        Matcher matcher = planCostPattern.matcher(plan);
+        if (matcher.find()) {
+            try {
+                return Double.parseDouble(matcher.group(1));
+            } catch (NumberFormatException | IndexOutOfBoundsException e) {
+                log.warn("Couldn't read the cost of the plan: " + plan + " with the pattern: " + planCostPattern);
+            }
+        }
+        return -1;
+    }
+}
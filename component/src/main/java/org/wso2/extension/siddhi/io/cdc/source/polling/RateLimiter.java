@@ -0,0 +1,69 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.extension.siddhi.io.cdc.source.polling;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A token bucket that allows a number of permits per second, with bursts of up to a second's worth of permits.
+ * Permits are taken in advance, so a caller asking for more permits than available waits until the bucket is
+ * refilled.
+ */
+public class RateLimiter {
+
+    private final double permitsPerSecond;
+    private double availablePermits;
+    private long lastRefillNanos;
+
+    public RateLimiter(double permitsPerSecond) {
+        this.permitsPerSecond = permitsPerSecond;
+        this.availablePermits = permitsPerSecond;
+        this.lastRefillNanos = System.nanoTime();
+    }
+
+    /**
+     * Take the given number of permits, waiting until they are available.
+     *
+     * @param permits number of permits to take.
+     * @return the time waited in milliseconds.
+     * @throws InterruptedException if the thread is interrupted while waiting.
+     */
+    public long acquire(long permits) throws InterruptedException {
+        long waitNanos = reserve(permits);
+        if (waitNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+        return TimeUnit.NANOSECONDS.toMillis(waitNanos);
+    }
+
+    private synchronized long reserve(long permits) {
+        long now = System.nanoTime();
+        availablePermits = Math.min(permitsPerSecond,
+                availablePermits + (now - lastRefillNanos) * permitsPerSecond / TimeUnit.SECONDS.toNanos(1));
+        lastRefillNanos = now;
+        availablePermits -= permits;
+        if (availablePermits >= 0) {
+            return 0;
+        }
+        return (long) (-availablePermits * TimeUnit.SECONDS.toNanos(1) / permitsPerSecond);
+    }
+
+    public double getPermitsPerSecond() {
+        return permitsPerSecond;
+    }
+}
@@ -0,0 +1,178 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.extension.siddhi.io.cdc.source.polling;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.apache.log4j.Logger;
+import org.wso2.extension.siddhi.io.cdc.source.metrics.CDCSourceMetrics;
+import org.wso2.extension.siddhi.io.cdc.util.CDCPollingUtil;
+import org.wso2.extension.siddhi.io.cdc.util.CDCSourceConstants;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Properties;
+
+/**
+ * This class routes the poll queries to a read replica while its replication lag is under a threshold, and to the
+ * primary otherwise. As a replica applies the changes in the commit order of the primary, the rows it returns are
+ * always a prefix of the rows in the primary, so the cursor never moves past rows the replica hasn't applied yet.
+ * The lag is read once in a check interval, and the poll queries in between are routed by the last read lag.
+ */
+public class ReplicaRouter {
+
+    private static final Logger log = Logger.getLogger(ReplicaRouter.class);
+    private String replicaUrl;
+    private String replicaUsername;
+    private String replicaPassword;
+    private long maxLagMillis;
+    private long lagCheckIntervalMillis;
+    private String lagQuery;
+    private HikariDataSource replicaDataSource;
+    private volatile long lagMillis = -1;
+    private long lagReadTime = 0;
+    private volatile boolean readingFromReplica = false;
+
+    /**
+     * @param replicaUrl      jdbc url of the replica.
+     * @param replicaUsername username of the replica.
+     * @param replicaPassword password of the replica.
+     * @param maxLagMillis           maximum replication lag in milliseconds to read from the replica.
+     * @param lagCheckIntervalMillis minimum time in milliseconds between two reads of the replication lag.
+     * @param lagQuery               query returning the replication lag of the replica in milliseconds, or null to
+     *                               use the replicaLagQuery of the database.
+     */
+    public ReplicaRouter(String replicaUrl, String replicaUsername, String replicaPassword, long maxLagMillis,
+                         long lagCheckIntervalMillis, String lagQuery) {
+        this.replicaUrl = replicaUrl;
+        this.replicaUsername = replicaUsername;
+        this.replicaPassword = replicaPassword;
+        this.maxLagMillis = maxLagMillis;
+        this.lagCheckIntervalMillis = lagCheckIntervalMillis;
+        this.lagQuery = lagQuery;
+    }
+
+    /**
+     * Create the pool of the replica, with the properties of the primary pool. Does nothing if the router is
+     * already started.
+     *
+     * @param primaryProperties the HikariCP properties of the primary.
+     * @param dialectLagQuery   the replicaLagQuery of the database, used if no lag query is given.
+     * @param metrics           metrics of the source.
+     */
+    void start(Properties primaryProperties, String dialectLagQuery, CDCSourceMetrics metrics) {
+        if (replicaDataSource != null) {
+            return;
+        }
+        if (CDCPollingUtil.isEmpty(lagQuery)) {
+            lagQuery = dialectLagQuery;
+        }
+        if (CDCPollingUtil.isEmpty(lagQuery)) {
+            throw new CDCPollingModeException("The replication lag query is not known for the database. Configure " +
+                    CDCSourceConstants.REPLICA_LAG_QUERY + ". Current mode: " + CDCSourceConstants.MODE_POLLING);
+        }
+        Properties replicaProperties = new Properties();
+        replicaProperties.putAll(primaryProperties);
+        replicaProperties.setProperty("jdbcUrl", replicaUrl);
+        replicaProperties.setProperty("dataSource.user", replicaUsername);
+        replicaProperties.remove("dataSource.password");
+        if (!CDCPollingUtil.isEmpty(replicaPassword)) {
+            replicaProperties.setProperty("dataSource.password", replicaPassword);
+        }
+        replicaProperties.remove("poolName");
+        replicaDataSource = ConnectionPoolRegistry.getConnectionPoolRegistry().acquire(replicaProperties, 0, 0);
+        metrics.registerGauge("replica.lag.millis", () -> lagMillis);
+        metrics.registerGauge("replica.active", () -> readingFromReplica ? 1 : 0);
+    }
+
+    /**
+     * Get a connection to run the poll query on. The connection is from the replica if its lag is under the
+     * threshold, and from the primary otherwise.
+     */
+    Connection getConnection(HikariDataSource primaryDataSource) throws SQLException {
+        long currentTime = System.currentTimeMillis();
+        if (currentTime - lagReadTime >= lagCheckIntervalMillis) {
+            lagReadTime = currentTime;
+            return getConnectionByLag(primaryDataSource);
+        }
+        //the lag read last is used until the next check, so that the lag query isn't run in every poll.
+        if (readingFromReplica) {
+            try {
+                return replicaDataSource.getConnection();
+            } catch (SQLException e) {
+                lagMillis = -1;
+                readingFromReplica = false;
+                log.warn("Polling from the primary, as the replica " + replicaUrl + " couldn't be connected.", e);
+            }
+        }
+        return primaryDataSource.getConnection();
+    }
+
+    private Connection getConnectionByLag(HikariDataSource primaryDataSource) throws SQLException {
+        Connection replicaConnection = null;
+        try {
+            replicaConnection = replicaDataSource.getConnection();
+            lagMillis = readLag(replicaConnection);
+            if (lagMillis >= 0 && lagMillis <= maxLagMillis) {
+                if (!readingFromReplica && log.isDebugEnabled()) {
+                    log.debug("Polling from the replica " + replicaUrl + " with a lag of " + lagMillis + " ms.");
+                }
+                readingFromReplica = true;
+                return replicaConnection;
+            }
+            if (readingFromReplica) {
+                log.info("Polling from the primary, as the lag of the replica " + replicaUrl + " is " + lagMillis +
+                        " ms.");
+            }
+        } catch (SQLException e) {
+            lagMillis = -1;
+            log.warn("Polling from the primary, as the lag of the replica " + replicaUrl + " couldn't be read.", e);
+        }
+        readingFromReplica = false;
+        CDCPollingUtil.cleanupConnection(null, null, replicaConnection);
+        return primaryDataSource.getConnection();
+    }
+
+    private long readLag(Connection connection) throws SQLException {
+        PreparedStatement statement = null;
+        ResultSet resultSet = null;
+        try {
+            statement = connection.prepareStatement(lagQuery);
+            resultSet = statement.executeQuery();
+            if (resultSet.next()) {
+                long lag = resultSet.getLong(1);
+                //a null lag means the replica isn't replicating.
+                return resultSet.wasNull() ? -1 : lag;
+            }
+            return -1;
+        } finally {
+            CDCPollingUtil.cleanupConnection(resultSet, statement, null);
+        }
+    }
+
+    void stop() {
+        if (replicaDataSource != null) {
+            ConnectionPoolRegistry.getConnectionPoolRegistry().release(replicaDataSource);
+            replicaDataSource = null;
+        }
+        lagMillis = -1;
+        lagReadTime = 0;
+        readingFromReplica = false;
+    }
+}
@@ -22,11 +22,16 @@ import org.apache.log4j.Logger;
 import org.wso2.extension.siddhi.io.cdc.source.polling.CDCPollingModeException;
 
 import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.sql.Types;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
 
 /**
  * This class contains Util methods for the CDCPoller.
@@ -44,6 +49,19 @@ public class CDCPollingUtil {
         return (field == null || field.trim().length() == 0);
     }
 
+    /**
+     * Count the non overlapping occurrences of a string in a text.
+     */
+    public static int countOccurrences(String text, String value) {
+        int count = 0;
+        int index = text.indexOf(value);
+        while (index >= 0) {
+            count++;
+            index = text.indexOf(value, index + value.length());
+        }
+        return count;
+    }
+
     /**
      * Method which can be used to clear up and ephemeral SQL connectivity artifacts.
      *
@@ -117,4 +135,68 @@ public class CDCPollingUtil {
         }
         return keyValuePairs;
     }
+
+    /**
+     * Get the single column primary key of a table from the database metadata.
+     *
+     * @param connection the connection to the database.
+     * @param tableName  the name of the table, optionally qualified with its schema. Looked up as given, in upper
+     *                   case and in lower case.
+     * @return the name of the primary key column.
+     * @throws SQLException if the metadata cannot be read.
+     */
+    public static String getPrimaryKeyColumn(Connection connection, String tableName) throws SQLException {
+        DatabaseMetaData metaData = connection.getMetaData();
+        String[] tableNames = {tableName, tableName.toUpperCase(Locale.ENGLISH),
+                tableName.toLowerCase(Locale.ENGLISH)};
+        for (String name : tableNames) {
+            List<String> keyColumns = new ArrayList<>();
+            int separatorIndex = name.lastIndexOf('.');
+            ResultSet resultSet = null;
+            try {
+                resultSet = metaData.getPrimaryKeys(connection.getCatalog(),
+                        separatorIndex < 0 ? null : name.substring(0, separatorIndex),
+                        name.substring(separatorIndex + 1));
+                while (resultSet.next()) {
+                    keyColumns.add(resultSet.getString("COLUMN_NAME"));
+                }
+            } finally {
+                cleanupConnection(resultSet, null, null);
+            }
+            if (keyColumns.size() == 1) {
+                return keyColumns.get(0);
+            } else if (keyColumns.size() > 1) {
+                throw new CDCPollingModeException("Table '" + tableName + "' has a composite primary key " +
+                        keyColumns + ". Only tables with a single column primary key are supported.");
+            }
+        }
+        throw new CDCPollingModeException("Couldn't find a primary key for table '" + tableName + "'.");
+    }
+
+    /**
+     * Check whether a column of a table holds integer values, i.e. is of an integer type or a numeric type without
+     * a fraction.
+     *
+     * @param connection the connection to the database.
+     * @param tableName  the name of the table.
+     * @param column     the name of the column.
+     * @return true if the column is of an integer type.
+     * @throws SQLException if the column cannot be read.
+     */
+    public static boolean isIntegerColumn(Connection connection, String tableName, String column)
+            throws SQLException {
+        PreparedStatement statement = null;
+        ResultSet resultSet = null;
+        try {
+            statement = connection.prepareStatement("SELECT " + column + " FROM " + tableName + " WHERE 1 = 0");
+            resultSet = statement.executeQuery();
+            ResultSetMetaData metaData = resultSet.getMetaData();
+            int type = metaData.getColumnType(1);
+            return type == Types.BIGINT || type == Types.INTEGER || type == Types.SMALLINT ||
+                    type == Types.TINYINT || ((type == Types.NUMERIC || type == Types.DECIMAL) &&
+                    metaData.getScale(1) == 0);
+        } finally {
+            cleanupConnection(resultSet, statement, null);
+        }
+    }
 }
@@ -38,6 +38,7 @@ public class CDCSourceConstants {
     public static final String INSERT = "insert";
     public static final String UPDATE = "update";
     public static final String DELETE = "delete";
+    public static final String CONNECTOR_NAME = "name";
     public static final String CONNECTOR_CLASS = "connector.class";
     public static final String DATABASE_PORT = "database.port";
     public static final String TABLE_WHITELIST = "table.whitelist";
@@ -60,13 +61,82 @@ public class CDCSourceConstants {
     public static final String CONNECT_RECORD_DELETE_OPERATION = "d";
     public static final String BEFORE = "before";
     public static final String AFTER = "after";
+    public static final String SOURCE = "source";
+    public static final String TABLE = "table";
+    public static final String OP = "op";
+    public static final String TIMESTAMP_MS = "ts_ms";
+    public static final String TRANSPORT_PROPERTY_COMMIT_TIMESTAMP = "commit.timestamp";
+    public static final String TRANSPORT_PROPERTY_TABLE_NAME = "table.name";
     public static final String CARBON_HOME = "carbon.home";
     public static final String USER_DIRECTORY = "user.dir";
     public static final String MODE = "mode";
     public static final String MODE_LISTENING = "listening";
     public static final String MODE_POLLING = "polling";
+    public static final String MODE_SYNTHETIC = "synthetic";
+    public static final String SYNTHETIC_RATE = "synthetic.rate";
+    public static final double DEFAULT_SYNTHETIC_RATE = 1000;
+    public static final String SYNTHETIC_EVENTS = "synthetic.events";
+    public static final String SYNTHETIC_COLUMNS = "synthetic.columns";
+    public static final int DEFAULT_SYNTHETIC_COLUMNS = 8;
+    public static final String SYNTHETIC_OPERATIONS = "synthetic.operations";
+    public static final String DEFAULT_SYNTHETIC_OPERATIONS = "insert:1";
+    public static final String SYNTHETIC_KEY_COUNT = "synthetic.key.count";
+    public static final long DEFAULT_SYNTHETIC_KEY_COUNT = 1000000;
+    public static final String SYNTHETIC_KEY_DISTRIBUTION = "synthetic.key.distribution";
+    public static final String SYNTHETIC_KEY_DISTRIBUTION_UNIFORM = "uniform";
+    public static final String SYNTHETIC_KEY_DISTRIBUTION_SEQUENTIAL = "sequential";
+    public static final String SYNTHETIC_KEY_DISTRIBUTION_HOTSPOT = "hotspot";
+    public static final String SYNTHETIC_SEED = "synthetic.seed";
+    public static final String MODE_REPLAY = "replay";
+    public static final String REPLAY_PATH = "replay.path";
+    public static final String REPLAY_SPEED = "replay.speed";
+    public static final String REPLAY_FILE = "replay.file";
+    public static final String REPLAY_POSITION = "replay.position";
+    public static final String MODE_BINLOG = "binlog";
+    public static final String BINLOG_PATH = "binlog.path";
+    public static final String BINLOG_COLUMN_NAMES = "binlog.column.names";
+    public static final String BINLOG_FILE = "binlog.file";
+    public static final String BINLOG_POSITION = "binlog.position";
     public static final String JDBC_DRIVER_NAME = "jdbc.driver.name";
     public static final String POLLING_COLUMN = "polling.column";
+    public static final String POLLING_CURSOR = "polling.cursor";
+    public static final String POLLING_CURSOR_COLUMN = "column";
+    public static final String POLLING_CURSOR_NATIVE = "native";
+    public static final String POLLING_QUERY = "polling.query";
+    public static final String POLLING_QUERY_CURSOR_PLACEHOLDER = "{{CURSOR}}";
+    public static final String POLLING_GRACE_PERIOD = "polling.grace.period";
+    public static final String POLLING_LOOKBACK = "polling.lookback";
+    public static final String POLLING_TRIGGER = "polling.trigger";
+    public static final String POLLING_TRIGGER_NONE = "none";
+    public static final String POLLING_TRIGGER_NOTIFY = "notify";
+    public static final String POLLING_TRIGGER_COUNTER = "counter";
+    public static final String POLLING_TRIGGER_CHANNEL = "polling.trigger.channel";
+    public static final String POLLING_TRIGGER_QUERY = "polling.trigger.query";
+    public static final String POLLING_TRIGGER_CHECK_INTERVAL = "polling.trigger.check.interval";
+    public static final int DEFAULT_POLLING_TRIGGER_CHECK_INTERVAL_MILLIS = 100;
+    public static final String POLLING_PLAN_CHECK = "polling.plan.check";
+    public static final String POLLING_PLAN_CHECK_OFF = "off";
+    public static final String POLLING_PLAN_CHECK_WARN = "warn";
+    public static final String POLLING_PLAN_CHECK_REJECT = "reject";
+    public static final String POLLING_DELETE_DETECTION_INTERVAL = "polling.delete.detection.interval";
+    public static final String POLLING_DELETE_DETECTION_RANGE_SIZE = "polling.delete.detection.range.size";
+    public static final int DEFAULT_POLLING_DELETE_DETECTION_RANGE_SIZE = 8192;
+    public static final String POLLING_PARTITIONS = "polling.partitions";
+    public static final String POLLING_PARTITION_KEY = "polling.partition.key";
+    public static final String POLLING_PARTITION_SEPARATOR = ".partition.";
+    public static final String POLLING_MAX_ROWS_PER_SECOND = "polling.max.rows.per.second";
+    public static final String POLLING_MAX_QUERIES_PER_SECOND = "polling.max.queries.per.second";
+    public static final String POLLING_RATE_LIMIT_WINDOW = "polling.rate.limit.window";
+    public static final String POOL_MAX_ROWS_PER_SECOND = "maxRowsPerSecond";
+    public static final String POOL_MAX_QUERIES_PER_SECOND = "maxQueriesPerSecond";
+    public static final String REPLICA_URL = "replica.url";
+    public static final String REPLICA_USERNAME = "replica.username";
+    public static final String REPLICA_PASSWORD = "replica.password";
+    public static final String REPLICA_MAX_LAG = "replica.max.lag";
+    public static final String REPLICA_LAG_QUERY = "replica.lag.query";
+    public static final long DEFAULT_REPLICA_MAX_LAG_MILLIS = 1000;
+    public static final String REPLICA_LAG_CHECK_INTERVAL = "replica.lag.check.interval";
+    public static final long DEFAULT_REPLICA_LAG_CHECK_INTERVAL_MILLIS = 5000;
     public static final String POLLING_INTERVAL = "polling.interval";
     public static final int DEFAULT_POLLING_INTERVAL_SECONDS = 1;
     public static final String DATASOURCE_NAME = "datasource.name";
@@ -77,4 +147,38 @@ public class CDCSourceConstants {
     public static final String PLUGIN_NAME = "plugin.name";
     public static final String PUBLIC = "public.";
     public static final String PG_OUTPUT = "pgoutput";
+    public static final String INCREMENTAL_SNAPSHOT = "incremental.snapshot";
+    public static final String INCREMENTAL_SNAPSHOT_CHUNK_SIZE = "incremental.snapshot.chunk.size";
+    public static final int DEFAULT_INCREMENTAL_SNAPSHOT_CHUNK_SIZE = 1024;
+    public static final String INCREMENTAL_SNAPSHOT_WATERMARK_TABLE = "incremental.snapshot.watermark.table";
+    public static final String DEFAULT_INCREMENTAL_SNAPSHOT_WATERMARK_TABLE = "cdc_snapshot_watermark";
+    public static final String INCREMENTAL_SNAPSHOT_LAST_KEY = "incremental.snapshot.last.key";
+    public static final String INCREMENTAL_SNAPSHOT_COMPLETED = "incremental.snapshot.completed";
+    public static final String SPILL_ON_PAUSE = "spill.on.pause";
+    public static final String HEARTBEAT_INTERVAL = "heartbeat.interval";
+    public static final String HEARTBEAT_ACTION_QUERY = "heartbeat.action.query";
+    public static final String HEARTBEAT_INTERVAL_MS = "heartbeat.interval.ms";
+    public static final String HEARTBEAT_TOPICS_PREFIX = "heartbeat.topics.prefix";
+    public static final String DEFAULT_HEARTBEAT_TOPICS_PREFIX = "__debezium-heartbeat";
+    public static final int DEFAULT_HEARTBEAT_INTERVAL_SECONDS = 0;
+    public static final String STORE_URL = "store.url";
+    public static final String STORE_USERNAME = "store.username";
+    public static final String STORE_PASSWORD = "store.password";
+    public static final String OFFSET_STORAGE_JDBC_URL = "offset.storage.jdbc.url";
+    public static final String OFFSET_STORAGE_JDBC_USER = "offset.storage.jdbc.user";
+    public static final String OFFSET_STORAGE_JDBC_PASSWORD = "offset.storage.jdbc.password";
+    public static final String OFFSET_STORAGE_JDBC_TABLE_NAME = "offset.storage.jdbc.table.name";
+    public static final String DEFAULT_OFFSET_STORAGE_JDBC_TABLE_NAME = "cdc_offsets";
+    public static final String DATABASE_HISTORY_JDBC_URL = "database.history.jdbc.url";
+    public static final String DATABASE_HISTORY_JDBC_USER = "database.history.jdbc.user";
+    public static final String DATABASE_HISTORY_JDBC_PASSWORD = "database.history.jdbc.password";
+    public static final String DATABASE_HISTORY_JDBC_TABLE_NAME = "database.history.jdbc.table.name";
+    public static final String DEFAULT_DATABASE_HISTORY_JDBC_TABLE_NAME = "cdc_history";
+    public static final String DATABASE_HISTORY_JDBC_STORE_NAME = "database.history.jdbc.store.name";
+    public static final String COORDINATION = "coordination";
+    public static final String COORDINATION_NONE = "none";
+    public static final String COORDINATION_LEASE = "lease";
+    public static final String COORDINATION_LEASE_TIMEOUT = "coordination.lease.timeout";
+    public static final int DEFAULT_COORDINATION_LEASE_TIMEOUT_SECONDS = 30;
+    public static final String LEASE_TABLE_NAME = "cdc_leases";
 }
@@ -20,12 +20,17 @@ package org.wso2.extension.siddhi.io.cdc.util;
 
 import org.apache.kafka.connect.storage.FileOffsetBackingStore;
 import org.apache.log4j.Logger;
+import org.wso2.extension.siddhi.io.cdc.source.listening.JdbcDatabaseHistory;
+import org.wso2.extension.siddhi.io.cdc.source.listening.JdbcOffsetBackingStore;
 import org.wso2.extension.siddhi.io.cdc.source.listening.WrongConfigurationException;
 import org.wso2.siddhi.query.api.exception.SiddhiAppValidationException;
 
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
 import java.util.Random;
+import java.util.Set;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -35,11 +40,17 @@ import java.util.regex.Pattern;
 public class CDCSourceUtil {
 
     private static final Logger log = Logger.getLogger(CDCSourceUtil.class);
+    //connector properties the source depends on, hence they can't be given in the connector.properties.
+    private static final Set<String> RESERVED_CONNECTOR_PROPERTIES = new HashSet<>(Arrays.asList(
+            CDCSourceConstants.CONNECTOR_NAME, CDCSourceConstants.CONNECTOR_CLASS, CDCSourceConstants.TABLE_WHITELIST,
+            CDCSourceConstants.OFFSET_STORAGE, CDCSourceConstants.OFFSET_STORAGE_FILE_NAME,
+            CDCSourceConstants.CDC_SOURCE_OBJECT, CDCSourceConstants.DATABASE_HISTORY,
+            CDCSourceConstants.DATABASE_HISTORY_FILE_NAME));
 
     public static Map<String, Object> getConfigMap(String username, String password, String url, String tableName,
                                                    String historyFileDirectory, String siddhiAppName,
                                                    String siddhiStreamName, int serverID, String serverName,
-                                                   String connectorProperties, int cdcSourceHashCode)
+                                                   String connectorProperties, String cdcSourceObjectId)
             throws WrongConfigurationException {
 
         Map<String, Object> configMap = new HashMap<>();
@@ -72,7 +83,7 @@ public class CDCSourceUtil {
 
                     //Add extracted url details to configMap.
                     configMap.put(CDCSourceConstants.DATABASE_PORT, port);
-                    configMap.put(CDCSourceConstants.TABLE_WHITELIST, database + "." + tableName);
+                    configMap.put(CDCSourceConstants.TABLE_WHITELIST, qualifyTableNames(database + ".", tableName));
                     configMap.put(CDCSourceConstants.DATABASE_HOSTNAME, host);
 
                     //Add other MySQL specific details to configMap.
@@ -99,7 +110,8 @@ public class CDCSourceUtil {
                     configMap.put(CDCSourceConstants.DATABASE_HOSTNAME, host);
                     configMap.put(CDCSourceConstants.DATABASE_PORT, port);
                     configMap.put(CDCSourceConstants.DATABASE_DBNAME, database);
-                    configMap.put(CDCSourceConstants.TABLE_WHITELIST, CDCSourceConstants.PUBLIC + tableName);
+                    configMap.put(CDCSourceConstants.TABLE_WHITELIST,
+                            qualifyTableNames(CDCSourceConstants.PUBLIC, tableName));
                     configMap.put(CDCSourceConstants.PLUGIN_NAME, CDCSourceConstants.PG_OUTPUT);
 
                     //Add other PostgreSQL specific details to configMap.
@@ -159,7 +171,7 @@ public class CDCSourceUtil {
                     configMap.put(CDCSourceConstants.DATABASE_HOSTNAME, host);
                     configMap.put(CDCSourceConstants.DATABASE_PORT, port);
                     configMap.put(CDCSourceConstants.TABLE_WHITELIST,
-                            String.format("%s.%s", pdbName != null ? pdbName : database, tableName));
+                            qualifyTableNames((pdbName != null ? pdbName : database) + ".", tableName));
                     configMap.put(CDCSourceConstants.DATABASE_DBNAME, database);
                     configMap.put(CDCSourceConstants.CONNECTOR_CLASS, CDCSourceConstants.ORACLE_CONNECTOR_CLASS);
                     break;
@@ -190,7 +202,7 @@ public class CDCSourceUtil {
 
             configMap.put(CDCSourceConstants.OFFSET_STORAGE, FileOffsetBackingStore.class.getName());
             configMap.put(CDCSourceConstants.OFFSET_STORAGE_FILE_NAME, historyFileDirectory + "offsets.dat");
-            configMap.put(CDCSourceConstants.CDC_SOURCE_OBJECT, cdcSourceHashCode);
+            configMap.put(CDCSourceConstants.CDC_SOURCE_OBJECT, cdcSourceObjectId);
             //set history file path.
             configMap.put(CDCSourceConstants.DATABASE_HISTORY, CDCSourceConstants.DATABASE_HISTORY_FILEBASE_HISTORY);
             configMap.put(CDCSourceConstants.DATABASE_HISTORY_FILE_NAME,
@@ -198,9 +210,10 @@ public class CDCSourceUtil {
 
             log.info("set history file path");
             //set connector property: name
-            configMap.put("name", siddhiAppName + siddhiStreamName);
+            configMap.put(CDCSourceConstants.CONNECTOR_NAME, siddhiAppName + siddhiStreamName);
 
-            //set additional connector properties using comma separated key value pair string
+            //set additional connector properties using comma separated key value pair string. They override the
+            //values set from the parameters, except the reserved properties, which are rejected.
             for (Map.Entry<String, String> entry : getConnectorPropertiesMap(connectorProperties).entrySet()) {
                 configMap.put(entry.getKey(), entry.getValue());
             }
@@ -209,6 +222,95 @@ public class CDCSourceUtil {
         }
     }
 
+    /**
+     * Configure the engine to emit heartbeat records, which advance the stored offset when the monitored table has
+     * no changes. Heartbeat records are not sent to Siddhi. A heartbeat topic prefix given in the connector
+     * properties is kept.
+     *
+     * @param configMap         the config map created by {@link #getConfigMap}.
+     * @param intervalSeconds   the heartbeat interval in seconds. Heartbeats are disabled if it is 0.
+     * @param actionQuery       a query executed on the database at each heartbeat, or empty if not required.
+     */
+    public static void addHeartbeatConfig(Map<String, Object> configMap, int intervalSeconds, String actionQuery) {
+        if (intervalSeconds > 0) {
+            configMap.put(CDCSourceConstants.HEARTBEAT_INTERVAL_MS, intervalSeconds * 1000);
+            configMap.putIfAbsent(CDCSourceConstants.HEARTBEAT_TOPICS_PREFIX,
+                    CDCSourceConstants.DEFAULT_HEARTBEAT_TOPICS_PREFIX);
+            if (!actionQuery.isEmpty()) {
+                configMap.put(CDCSourceConstants.HEARTBEAT_ACTION_QUERY, actionQuery);
+            }
+        }
+    }
+
+    /**
+     * Configure the engine to keep its offsets and schema history in tables of the given database instead of local
+     * files, so that the source can continue on another node. The table names can be changed with the
+     * '{@value CDCSourceConstants#OFFSET_STORAGE_JDBC_TABLE_NAME}' and
+     * '{@value CDCSourceConstants#DATABASE_HISTORY_JDBC_TABLE_NAME}' connector properties.
+     *
+     * @param configMap the config map created by {@link #getConfigMap}.
+     * @param url       the JDBC url of the database of the stores.
+     * @param username  the username of the database of the stores.
+     * @param password  the password of the database of the stores.
+     * @param storeName the name the history of the source is kept by.
+     */
+    public static void addJdbcStoreConfig(Map<String, Object> configMap, String url, String username,
+                                          String password, String storeName) {
+        configMap.put(CDCSourceConstants.OFFSET_STORAGE, JdbcOffsetBackingStore.class.getName());
+        configMap.put(CDCSourceConstants.OFFSET_STORAGE_JDBC_URL, url);
+        configMap.put(CDCSourceConstants.OFFSET_STORAGE_JDBC_USER, username);
+        configMap.put(CDCSourceConstants.OFFSET_STORAGE_JDBC_PASSWORD, password);
+        configMap.put(CDCSourceConstants.DATABASE_HISTORY, JdbcDatabaseHistory.class.getName());
+        configMap.put(CDCSourceConstants.DATABASE_HISTORY_JDBC_URL, url);
+        configMap.put(CDCSourceConstants.DATABASE_HISTORY_JDBC_USER, username);
+        configMap.put(CDCSourceConstants.DATABASE_HISTORY_JDBC_PASSWORD, password);
+        configMap.put(CDCSourceConstants.DATABASE_HISTORY_JDBC_STORE_NAME, storeName);
+    }
+
+    /**
+     * Qualify each table of a comma separated list of table names or regular expressions with the schema, in the
+     * format of the table whitelist of the connectors. Tables already qualified with a schema are kept as they are.
+     *
+     * @param schemaPrefix the schema followed by a '.'.
+     * @param tableName    the comma separated table names or regular expressions.
+     * @return the table whitelist.
+     */
+    static String qualifyTableNames(String schemaPrefix, String tableName) {
+        StringBuilder whitelist = new StringBuilder();
+        for (String table : tableName.split(",")) {
+            String trimmedTable = table.trim();
+            if (whitelist.length() > 0) {
+                whitelist.append(',');
+            }
+            if (!trimmedTable.contains(".") || !isSingleTable(trimmedTable)) {
+                whitelist.append(schemaPrefix);
+            }
+            whitelist.append(trimmedTable);
+        }
+        return whitelist.toString();
+    }
+
+    /**
+     * Check whether a table.name is a single table, optionally qualified with its schema (e.g. 'dbo.orders'), and
+     * not a list of tables or a regular expression.
+     */
+    public static boolean isSingleTable(String tableName) {
+        return tableName.matches("([\\w$]+\\.)?[\\w$]+");
+    }
+
+    /**
+     * Add a table to the table whitelist of the config map, in the same schema as the monitored table.
+     *
+     * @param configMap the config map created by {@link #getConfigMap}.
+     * @param tableName the name of the table to be captured in addition.
+     */
+    public static void addToTableWhitelist(Map<String, Object> configMap, String tableName) {
+        String whitelist = (String) configMap.get(CDCSourceConstants.TABLE_WHITELIST);
+        String firstTable = whitelist.split(",")[0];
+        String schemaPrefix = firstTable.substring(0, firstTable.lastIndexOf('.') + 1);
+        configMap.put(CDCSourceConstants.TABLE_WHITELIST, whitelist + "," + schemaPrefix + tableName);
+    }
+
     private static Map<String, String> getConnectorPropertiesMap(String connectorProperties) {
 
         Map<String, String> connectorPropertiesMap = new HashMap<>();
@@ -221,11 +323,91 @@ public class CDCSourceUtil {
                     throw new SiddhiAppValidationException("connector.properties input is invalid. Check near :" +
                             keyValuePair);
                 }
+                String key = keyAndValue[0].trim();
+                if (RESERVED_CONNECTOR_PROPERTIES.contains(key)) {
+                    throw new SiddhiAppValidationException("connector.properties input is invalid. The property '" +
+                            key + "' is set by the source and can't be overridden.");
+                }
+                connectorPropertiesMap.put(key, keyAndValue[1].trim());
             }
         }
         return connectorPropertiesMap;
     }
 
+    /**
+     * Validate the transport properties requested through the mapping of the stream.
+     *
+     * @param requestedTransportPropertyNames transport property names requested through the mapping, or null if
+     *                                        none is requested.
+     */
+    public static void validateTransportPropertyNames(String[] requestedTransportPropertyNames) {
+        if (requestedTransportPropertyNames == null) {
+            return;
+        }
+        for (String propertyName : requestedTransportPropertyNames) {
+            if (!CDCSourceConstants.TRANSPORT_PROPERTY_COMMIT_TIMESTAMP.equals(propertyName) &&
+                    !CDCSourceConstants.TRANSPORT_PROPERTY_TABLE_NAME.equals(propertyName)) {
+                throw new SiddhiAppValidationException("Unsupported transport property: 'trp:" + propertyName +
+                        "'. Supported transport properties: '" +
+                        CDCSourceConstants.TRANSPORT_PROPERTY_COMMIT_TIMESTAMP + "', '" +
+                        CDCSourceConstants.TRANSPORT_PROPERTY_TABLE_NAME + "'");
+            }
+        }
+    }
+
+    /**
+     * Create the transport property values of a change event in the requested order.
+     *
+     * @param requestedTransportPropertyNames transport property names requested through the mapping.
+     * @param commitTimestamp                 time the change is committed in the database in milliseconds,
+     *                                        or a negative value if it is not known.
+     * @return the transport property values, or null if no transport property is requested.
+     */
+    public static String[] getTransportProperties(String[] requestedTransportPropertyNames, long commitTimestamp) {
+        return getTransportProperties(requestedTransportPropertyNames, commitTimestamp, null);
+    }
+
+    /**
+     * Create the transport property values of a change event in the requested order.
+     *
+     * @param requestedTransportPropertyNames transport property names requested through the mapping.
+     * @param commitTimestamp                 time the change is committed in the database in milliseconds,
+     *                                        or a negative value if it is not known.
+     * @param tableName                       the table of the change, or null if it is not known.
+     * @return the transport property values, or null if no transport property is requested.
+     */
+    public static String[] getTransportProperties(String[] requestedTransportPropertyNames, long commitTimestamp,
+                                                  String tableName) {
+        if (requestedTransportPropertyNames == null || requestedTransportPropertyNames.length == 0) {
+            return null;
+        }
+        String[] transportProperties = new String[requestedTransportPropertyNames.length];
+        for (int i = 0; i < requestedTransportPropertyNames.length; i++) {
+            if (CDCSourceConstants.TRANSPORT_PROPERTY_COMMIT_TIMESTAMP.equals(requestedTransportPropertyNames[i])
+                    && commitTimestamp >= 0) {
+                transportProperties[i] = Long.toString(commitTimestamp);
+            } else if (CDCSourceConstants.TRANSPORT_PROPERTY_TABLE_NAME.equals(requestedTransportPropertyNames[i])) {
+                transportProperties[i] = tableName;
+            }
+        }
+        return transportProperties;
+    }
+
+    /**
+     * Check whether a transport property is requested through the mapping.
+     */
+    public static boolean isTransportPropertyRequested(String[] requestedTransportPropertyNames,
+                                                       String propertyName) {
+        if (requestedTransportPropertyNames != null) {
+            for (String requestedPropertyName : requestedTransportPropertyNames) {
+                if (propertyName.equals(requestedPropertyName)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
     /**
      * Get the WSO2 Stream Processor's local path from System Variables.
      * if carbon.home is not set, return the current project path. (for test cases and for use as a java library)
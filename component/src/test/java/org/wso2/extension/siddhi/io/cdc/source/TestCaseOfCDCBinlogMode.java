@@ -0,0 +1,234 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.extension.siddhi.io.cdc.source;
+
+import io.siddhi.core.SiddhiAppRuntime;
+import io.siddhi.core.SiddhiManager;
+import io.siddhi.core.event.Event;
+import io.siddhi.core.stream.output.StreamCallback;
+import io.siddhi.core.util.SiddhiTestHelper;
+import org.apache.log4j.Logger;
+import org.testng.Assert;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class TestCaseOfCDCBinlogMode {
+    private static final Logger log = Logger.getLogger(TestCaseOfCDCBinlogMode.class);
+    private Event currentEvent;
+    private AtomicInteger eventCount = new AtomicInteger(0);
+    private AtomicBoolean eventArrived = new AtomicBoolean(false);
+    private int waitTime = 50;
+    private int timeout = 10000;
+    private String binlogFile = new File(ClassLoader.getSystemResource("binlog/mysql-bin.000001").getFile())
+            .getAbsolutePath();
+
+    @BeforeMethod
+    public void init() {
+        eventCount.set(0);
+        eventArrived.set(false);
+        currentEvent = new Event();
+    }
+
+    /**
+     * Test case to read the insert events of a table from a directory of binlog files.
+     */
+    @Test
+    public void testCDCBinlogModeInserts() throws InterruptedException {
+        log.info("------------------------------------------------------------------------------------------------");
+        log.info("CDC TestCase: Reading insert events from binlog files with binlog mode.");
+        log.info("------------------------------------------------------------------------------------------------");
+
+        SiddhiManager siddhiManager = new SiddhiManager();
+
+        String cdcinStreamDefinition = "@source(type = 'cdc', mode='binlog', operation='insert'," +
+                " table.name='students', binlog.path='" + new File(binlogFile).getParent() + "'," +
+                " binlog.column.names='id, name'," +
+                " @map(type='keyvalue'))" +
+                "define stream istm (id long, name string);";
+
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(cdcinStreamDefinition);
+
+        StreamCallback insertionStreamCallback = new StreamCallback() {
+            @Override
+            public void receive(Event[] events) {
+                for (Event event : events) {
+                    currentEvent = event;
+                    eventCount.getAndIncrement();
+                    eventArrived.set(true);
+                }
+            }
+        };
+
+        siddhiAppRuntime.addCallback("istm", insertionStreamCallback);
+        siddhiAppRuntime.start();
+
+        SiddhiTestHelper.waitForEvents(waitTime, 2, eventCount, timeout);
+        Thread.sleep(500);
+
+        //Assert that only the inserts of the 'students' table are received.
+        Assert.assertTrue(eventArrived.get());
+        Assert.assertEquals(eventCount.get(), 2);
+        Assert.assertEquals(currentEvent.getData(), new Object[]{2L, "Jill"});
+
+        siddhiAppRuntime.shutdown();
+        siddhiManager.shutdown();
+    }
+
+    /**
+     * Test case to read the update events of a table from a binlog file.
+     */
+    @Test
+    public void testCDCBinlogModeUpdates() throws InterruptedException {
+        log.info("------------------------------------------------------------------------------------------------");
+        log.info("CDC TestCase: Reading update events from a binlog file with binlog mode.");
+        log.info("------------------------------------------------------------------------------------------------");
+
+        SiddhiManager siddhiManager = new SiddhiManager();
+
+        String cdcinStreamDefinition = "@source(type = 'cdc', mode='binlog', operation='update'," +
+                " table.name='SimpleDB.students', binlog.path='" + binlogFile + "'," +
+                " binlog.column.names='id, name'," +
+                " @map(type='keyvalue', @attributes(before_name = 'before_name', id = 'id', name = 'name'," +
+                " commitTime = 'trp:commit.timestamp')))" +
+                "define stream istm (before_name string, id long, name string, commitTime long);";
+
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(cdcinStreamDefinition);
+
+        StreamCallback updateStreamCallback = new StreamCallback() {
+            @Override
+            public void receive(Event[] events) {
+                for (Event event : events) {
+                    currentEvent = event;
+                    eventCount.getAndIncrement();
+                    eventArrived.set(true);
+                }
+            }
+        };
+
+        siddhiAppRuntime.addCallback("istm", updateStreamCallback);
+        siddhiAppRuntime.start();
+
+        SiddhiTestHelper.waitForEvents(waitTime, 1, eventCount, timeout);
+
+        //Assert the update, and that the commit time is the time of the binlog event.
+        Assert.assertTrue(eventArrived.get());
+        Assert.assertEquals(eventCount.get(), 1);
+        Assert.assertEquals(currentEvent.getData(), new Object[]{"Jack", 1L, "John", 1539661202000L});
+
+        siddhiAppRuntime.shutdown();
+        siddhiManager.shutdown();
+    }
+
+    /**
+     * Test case to read the delete events of a table, with the columns named by their position.
+     */
+    @Test
+    public void testCDCBinlogModeDeletesWithoutColumnNames() throws InterruptedException {
+        log.info("------------------------------------------------------------------------------------------------");
+        log.info("CDC TestCase: Reading delete events from a binlog file without column names with binlog mode.");
+        log.info("------------------------------------------------------------------------------------------------");
+
+        SiddhiManager siddhiManager = new SiddhiManager();
+
+        String cdcinStreamDefinition = "@source(type = 'cdc', mode='binlog', operation='delete'," +
+                " table.name='students', binlog.path='" + binlogFile + "'," +
+                " @map(type='keyvalue'))" +
+                "define stream istm (before_column1 long, before_column2 string);";
+
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(cdcinStreamDefinition);
+
+        StreamCallback deletionStreamCallback = new StreamCallback() {
+            @Override
+            public void receive(Event[] events) {
+                for (Event event : events) {
+                    currentEvent = event;
+                    eventCount.getAndIncrement();
+                    eventArrived.set(true);
+                }
+            }
+        };
+
+        siddhiAppRuntime.addCallback("istm", deletionStreamCallback);
+        siddhiAppRuntime.start();
+
+        SiddhiTestHelper.waitForEvents(waitTime, 1, eventCount, timeout);
+
+        Assert.assertTrue(eventArrived.get());
+        Assert.assertEquals(eventCount.get(), 1);
+        Assert.assertEquals(currentEvent.getData(), new Object[]{2L, "Jill"});
+
+        siddhiAppRuntime.shutdown();
+        siddhiManager.shutdown();
+    }
+
+    /**
+     * Test case to read the insert events of many tables with a single source, routed by the table name.
+     */
+    @Test
+    public void testCDCBinlogModeManyTables() throws InterruptedException {
+        log.info("------------------------------------------------------------------------------------------------");
+        log.info("CDC TestCase: Reading insert events of many tables with binlog mode.");
+        log.info("------------------------------------------------------------------------------------------------");
+
+        SiddhiManager siddhiManager = new SiddhiManager();
+
+        String cdcinStreamDefinition = "@source(type = 'cdc', mode='binlog', operation='insert'," +
+                " table.name='students, teach.*', binlog.path='" + binlogFile + "'," +
+                " binlog.column.names='id, name'," +
+                " @map(type='keyvalue', @attributes(id = 'id', name = 'name', tableName = 'trp:table.name')))" +
+                "define stream istm (id long, name string, tableName string);";
+
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(cdcinStreamDefinition);
+
+        List<String> tableNames = Collections.synchronizedList(new ArrayList<>());
+        StreamCallback insertionStreamCallback = new StreamCallback() {
+            @Override
+            public void receive(Event[] events) {
+                for (Event event : events) {
+                    currentEvent = event;
+                    tableNames.add((String) event.getData(2));
+                    eventCount.getAndIncrement();
+                    eventArrived.set(true);
+                }
+            }
+        };
+
+        siddhiAppRuntime.addCallback("istm", insertionStreamCallback);
+        siddhiAppRuntime.start();
+
+        SiddhiTestHelper.waitForEvents(waitTime, 3, eventCount, timeout);
+        Thread.sleep(500);
+
+        //Assert that the inserts of both the tables are received with their table names.
+        Assert.assertTrue(eventArrived.get());
+        Assert.assertEquals(eventCount.get(), 3);
+        Assert.assertEquals(tableNames, Arrays.asList("students", "students", "teachers"));
+        Assert.assertEquals(currentEvent.getData(1), "Smith");
+
+        siddhiAppRuntime.shutdown();
+        siddhiManager.shutdown();
+    }
+}
@@ -0,0 +1,268 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.extension.siddhi.io.cdc.source;
+
+import io.siddhi.core.SiddhiAppRuntime;
+import io.siddhi.core.SiddhiManager;
+import io.siddhi.core.event.Event;
+import io.siddhi.core.stream.output.StreamCallback;
+import io.siddhi.core.util.SiddhiTestHelper;
+import org.apache.log4j.Logger;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Throughput and latency regression tests, run with the 'performance' profile. The events per second and the p50
+ * and p99 latencies from the commit of a change to the stream callback are measured for the polling mode against an
+ * embedded H2 database and for the listening mode with the synthetic change events, and compared with the
+ * baseline given by the 'performance.baseline' system property. The results of a run are written to
+ * 'target/cdc-performance-results.properties', which can be copied over the baseline after an intended change.
+ */
+public class TestCaseOfCDCPerformance {
+    private static final Logger log = Logger.getLogger(TestCaseOfCDCPerformance.class);
+    private static final String DEFAULT_BASELINE = "src/test/resources/performance/baseline.properties";
+    private static final String RESULTS_FILE = "target/cdc-performance-results.properties";
+    private String databaseURL = "jdbc:h2:mem:cdc_performance;DB_CLOSE_DELAY=-1";
+    private String username = "sa";
+    private String password = "sa";
+    private String pollingTableName = "orders";
+    private int timeout = 120000;
+    private Properties baseline = new Properties();
+    private Properties results = new Properties();
+    private Connection connection;
+
+    @BeforeClass
+    public void loadBaseline() throws IOException, SQLException {
+        try (InputStream inputStream = new FileInputStream(System.getProperty("performance.baseline",
+                DEFAULT_BASELINE))) {
+            baseline.load(inputStream);
+        }
+        //keeps the in-memory database alive through the test.
+        connection = DriverManager.getConnection(databaseURL, username, password);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE " + pollingTableName + " (id BIGINT AUTO_INCREMENT PRIMARY KEY," +
+                    " name VARCHAR(64), created_at BIGINT)");
+        }
+    }
+
+    @AfterClass
+    public void storeResults() throws IOException, SQLException {
+        new File(RESULTS_FILE).getParentFile().mkdirs();
+        try (OutputStream outputStream = new FileOutputStream(RESULTS_FILE)) {
+            results.store(outputStream, "CDC performance results");
+        }
+        connection.close();
+    }
+
+    /**
+     * Test case to measure the listening mode, from the synthetic change events to the stream callback.
+     */
+    @Test
+    public void testListeningModePerformance() throws InterruptedException {
+        log.info("------------------------------------------------------------------------------------------------");
+        log.info("CDC TestCase: Measuring the throughput and latency of listening mode.");
+        log.info("------------------------------------------------------------------------------------------------");
+
+        int warmUpEvents = getInt("listening.warmup.events");
+        int events = getInt("listening.events");
+        runListeningMode(warmUpEvents);
+        Measurement measurement = runListeningMode(events);
+
+        checkAgainstBaseline("listening", measurement);
+    }
+
+    /**
+     * Test case to measure the polling mode, from the insertion of the rows in H2 to the stream callback.
+     */
+    @Test
+    public void testPollingModePerformance() throws InterruptedException, SQLException {
+        log.info("------------------------------------------------------------------------------------------------");
+        log.info("CDC TestCase: Measuring the throughput and latency of polling mode.");
+        log.info("------------------------------------------------------------------------------------------------");
+
+        int warmUpEvents = getInt("polling.warmup.events");
+        int events = getInt("polling.events");
+        runPollingMode(warmUpEvents);
+        Measurement measurement = runPollingMode(events);
+
+        checkAgainstBaseline("polling", measurement);
+    }
+
+    private Measurement runListeningMode(int events) throws InterruptedException {
+        SiddhiManager siddhiManager = new SiddhiManager();
+
+        String cdcinStreamDefinition = "@source(type = 'cdc', mode='synthetic', operation='insert'," +
+                " synthetic.rate='0', synthetic.events='" + events + "', synthetic.columns='8'," +
+                " @map(type='keyvalue', @attributes(id = 'id', commitTime = 'trp:commit.timestamp')))" +
+                "define stream istm (id long, commitTime long);";
+
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(cdcinStreamDefinition);
+        Measurement measurement = new Measurement(events);
+        siddhiAppRuntime.addCallback("istm", measurement.createCallback(1));
+
+        measurement.start();
+        siddhiAppRuntime.start();
+        SiddhiTestHelper.waitForEvents(10, events, measurement.eventCount, timeout);
+        measurement.end();
+
+        siddhiAppRuntime.shutdown();
+        siddhiManager.shutdown();
+        Assert.assertEquals(measurement.eventCount.get(), events);
+        return measurement;
+    }
+
+    private Measurement runPollingMode(int events) throws InterruptedException, SQLException {
+        SiddhiManager siddhiManager = new SiddhiManager();
+
+        String cdcinStreamDefinition = "@source(type = 'cdc', mode='polling', polling.column='id'," +
+                " jdbc.driver.name='org.h2.Driver'," +
+                " url = '" + databaseURL + "'," +
+                " username = '" + username + "'," +
+                " password = '" + password + "'," +
+                " table.name = '" + pollingTableName + "', polling.interval = '1'," +
+                " polling.trigger = 'counter', polling.trigger.check.interval = '10'," +
+                " polling.trigger.query = 'SELECT MAX(id) FROM " + pollingTableName + "'," +
+                " @map(type='keyvalue'))" +
+                "define stream istm (id long, name string, created_at long);";
+
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(cdcinStreamDefinition);
+        Measurement measurement = new Measurement(events);
+        siddhiAppRuntime.addCallback("istm", measurement.createCallback(2));
+        siddhiAppRuntime.start();
+
+        //start polling from the rows inserted from now on.
+        Thread.sleep(1500);
+        measurement.start();
+        try (PreparedStatement statement = connection.prepareStatement("INSERT INTO " + pollingTableName +
+                " (name, created_at) VALUES (?, ?)")) {
+            for (int i = 0; i < events; i++) {
+                statement.setString(1, "order-" + i);
+                statement.setLong(2, System.currentTimeMillis());
+                statement.executeUpdate();
+            }
+        }
+        SiddhiTestHelper.waitForEvents(10, events, measurement.eventCount, timeout);
+        measurement.end();
+
+        siddhiAppRuntime.shutdown();
+        siddhiManager.shutdown();
+        Assert.assertEquals(measurement.eventCount.get(), events);
+        return measurement;
+    }
+
+    private void checkAgainstBaseline(String name, Measurement measurement) {
+        double eventsPerSecond = measurement.getEventsPerSecond();
+        long p50 = measurement.getLatencyPercentile(50);
+        long p99 = measurement.getLatencyPercentile(99);
+        results.setProperty(name + ".events.per.second", String.valueOf((long) eventsPerSecond));
+        results.setProperty(name + ".latency.p50", String.valueOf(p50));
+        results.setProperty(name + ".latency.p99", String.valueOf(p99));
+        log.info(name + " mode: " + (long) eventsPerSecond + " events/sec, p50 latency " + p50 + " ms, p99 latency "
+                + p99 + " ms.");
+
+        double throughputTolerance = getDouble("throughput.tolerance");
+        double latencyTolerance = getDouble("latency.tolerance");
+        long latencySlack = getInt("latency.slack");
+        double minEventsPerSecond = getDouble(name + ".events.per.second") * (1 - throughputTolerance);
+        long maxP50 = (long) (getDouble(name + ".latency.p50") * (1 + latencyTolerance)) + latencySlack;
+        long maxP99 = (long) (getDouble(name + ".latency.p99") * (1 + latencyTolerance)) + latencySlack;
+        Assert.assertTrue(eventsPerSecond >= minEventsPerSecond, name + " mode throughput regressed to " +
+                (long) eventsPerSecond + " events/sec, expected at least " + (long) minEventsPerSecond + ".");
+        Assert.assertTrue(p50 <= maxP50, name + " mode p50 latency regressed to " + p50 + " ms, expected at most "
+                + maxP50 + " ms.");
+        Assert.assertTrue(p99 <= maxP99, name + " mode p99 latency regressed to " + p99 + " ms, expected at most "
+                + maxP99 + " ms.");
+    }
+
+    private int getInt(String key) {
+        return Integer.parseInt(baseline.getProperty(key).trim());
+    }
+
+    private double getDouble(String key) {
+        return Double.parseDouble(baseline.getProperty(key).trim());
+    }
+
+    /**
+     * The latencies and the duration of a run. The latency of an event is the time from its commit, given by an
+     * attribute of the event, to its arrival at the stream callback.
+     */
+    private static class Measurement {
+        private final long[] latencies;
+        private final AtomicInteger eventCount = new AtomicInteger(0);
+        private long startTime;
+        private long endTime;
+
+        Measurement(int events) {
+            latencies = new long[events];
+        }
+
+        StreamCallback createCallback(int commitTimeIndex) {
+            return new StreamCallback() {
+                @Override
+                public void receive(Event[] events) {
+                    long now = System.currentTimeMillis();
+                    for (Event event : events) {
+                        int index = eventCount.getAndIncrement();
+                        if (index < latencies.length) {
+                            latencies[index] = now - (Long) event.getData(commitTimeIndex);
+                        }
+                    }
+                }
+            };
+        }
+
+        void start() {
+            startTime = System.nanoTime();
+        }
+
+        void end() {
+            endTime = System.nanoTime();
+        }
+
+        double getEventsPerSecond() {
+            return Math.min(eventCount.get(), latencies.length) * 1e9 / Math.max(1, endTime - startTime);
+        }
+
+        long getLatencyPercentile(int percentile) {
+            int count = Math.min(eventCount.get(), latencies.length);
+            if (count == 0) {
+                return 0;
+            }
+            long[] sorted = Arrays.copyOf(latencies, count);
+            Arrays.sort(sorted);
+            return sorted[Math.min(count - 1, (int) Math.ceil(count * percentile / 100.0) - 1)];
+        }
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.extension.siddhi.io.cdc.source;
+
+import io.siddhi.core.SiddhiAppRuntime;
+import io.siddhi.core.SiddhiManager;
+import io.siddhi.core.event.Event;
+import io.siddhi.core.stream.output.StreamCallback;
+import io.siddhi.core.util.SiddhiTestHelper;
+import org.apache.log4j.Logger;
+import org.testng.Assert;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class TestCaseOfCDCReplayMode {
+    private static final Logger log = Logger.getLogger(TestCaseOfCDCReplayMode.class);
+    private Event currentEvent;
+    private AtomicInteger eventCount = new AtomicInteger(0);
+    private AtomicBoolean eventArrived = new AtomicBoolean(false);
+    private int waitTime = 50;
+    private int timeout = 10000;
+    private String replayPath = new File(ClassLoader.getSystemResource("replay/students.json").getFile())
+            .getAbsolutePath();
+
+    @BeforeMethod
+    public void init() {
+        eventCount.set(0);
+        eventArrived.set(false);
+        currentEvent = new Event();
+    }
+
+    /**
+     * Test case to replay the recorded insert events as fast as they are consumed.
+     */
+    @Test
+    public void testCDCReplayModeInserts() throws InterruptedException {
+        log.info("------------------------------------------------------------------------------------------------");
+        log.info("CDC TestCase: Replaying recorded insert events with replay mode.");
+        log.info("------------------------------------------------------------------------------------------------");
+
+        SiddhiManager siddhiManager = new SiddhiManager();
+
+        String cdcinStreamDefinition = "@source(type = 'cdc', mode='replay', operation='insert'," +
+                " replay.path='" + replayPath + "'," +
+                " @map(type='keyvalue'))" +
+                "define stream istm (id long, name string);";
+
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(cdcinStreamDefinition);
+
+        StreamCallback insertionStreamCallback = new StreamCallback() {
+            @Override
+            public void receive(Event[] events) {
+                for (Event event : events) {
+                    currentEvent = event;
+                    eventCount.getAndIncrement();
+                    eventArrived.set(true);
+                }
+            }
+        };
+
+        siddhiAppRuntime.addCallback("istm", insertionStreamCallback);
+        siddhiAppRuntime.start();
+
+        SiddhiTestHelper.waitForEvents(waitTime, 3, eventCount, timeout);
+
+        //Assert event arrival.
+        Assert.assertTrue(eventArrived.get());
+        Assert.assertEquals(eventCount.get(), 3);
+
+        //Assert event data of the last recorded insert.
+        Assert.assertEquals(currentEvent.getData(), new Object[]{3L, "Mary"});
+
+        siddhiAppRuntime.shutdown();
+        siddhiManager.shutdown();
+    }
+
+    /**
+     * Test case to replay the recorded update events at the speed they were committed in.
+     */
+    @Test
+    public void testCDCReplayModeUpdatesAtCommitSpeed() throws InterruptedException {
+        log.info("------------------------------------------------------------------------------------------------");
+        log.info("CDC TestCase: Replaying recorded update events at commit speed with replay mode.");
+        log.info("------------------------------------------------------------------------------------------------");
+
+        SiddhiManager siddhiManager = new SiddhiManager();
+
+        String cdcinStreamDefinition = "@source(type = 'cdc', mode='replay', operation='update'," +
+                " replay.path='" + new File(replayPath).getParent() + "', replay.speed='1'," +
+                " @map(type='keyvalue'))" +
+                "define stream istm (before_id long, before_name string, id long, name string);";
+
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(cdcinStreamDefinition);
+
+        StreamCallback updateStreamCallback = new StreamCallback() {
+            @Override
+            public void receive(Event[] events) {
+                for (Event event : events) {
+                    currentEvent = event;
+                    eventCount.getAndIncrement();
+                    eventArrived.set(true);
+                }
+            }
+        };
+
+        siddhiAppRuntime.addCallback("istm", updateStreamCallback);
+        long startTime = System.currentTimeMillis();
+        siddhiAppRuntime.start();
+
+        SiddhiTestHelper.waitForEvents(waitTime, 1, eventCount, timeout);
+
+        //Assert that the update is sent after the 200ms it was committed in after the first recorded event.
+        Assert.assertTrue(eventArrived.get());
+        Assert.assertEquals(eventCount.get(), 1);
+        Assert.assertTrue(System.currentTimeMillis() - startTime >= 200);
+        Assert.assertEquals(currentEvent.getData(), new Object[]{1L, "Jack", 1L, "John"});
+
+        siddhiAppRuntime.shutdown();
+        siddhiManager.shutdown();
+    }
+}
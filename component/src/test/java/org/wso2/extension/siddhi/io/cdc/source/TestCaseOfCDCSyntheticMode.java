@@ -0,0 +1,154 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.extension.siddhi.io.cdc.source;
+
+import io.siddhi.core.SiddhiAppRuntime;
+import io.siddhi.core.SiddhiManager;
+import io.siddhi.core.event.Event;
+import io.siddhi.core.stream.output.StreamCallback;
+import io.siddhi.core.util.SiddhiTestHelper;
+import org.apache.log4j.Logger;
+import org.testng.Assert;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class TestCaseOfCDCSyntheticMode {
+    private static final Logger log = Logger.getLogger(TestCaseOfCDCSyntheticMode.class);
+    private Event currentEvent;
+    private AtomicInteger eventCount = new AtomicInteger(0);
+    private AtomicBoolean eventArrived = new AtomicBoolean(false);
+    private int waitTime = 50;
+    private int timeout = 10000;
+
+    @BeforeMethod
+    public void init() {
+        eventCount.set(0);
+        eventArrived.set(false);
+        currentEvent = new Event();
+    }
+
+    /**
+     * Test case to generate insert events with the synthetic mode.
+     */
+    @Test
+    public void testCDCSyntheticModeInserts() throws InterruptedException {
+        log.info("------------------------------------------------------------------------------------------------");
+        log.info("CDC TestCase: Generating insert events with synthetic mode.");
+        log.info("------------------------------------------------------------------------------------------------");
+
+        SiddhiManager siddhiManager = new SiddhiManager();
+
+        String cdcinStreamDefinition = "@source(type = 'cdc', mode='synthetic', operation='insert'," +
+                " synthetic.rate='0', synthetic.events='100', synthetic.columns='3'," +
+                " synthetic.key.distribution='sequential'," +
+                " @map(type='keyvalue'))" +
+                "define stream istm (id long, column1 string, column2 int);";
+
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(cdcinStreamDefinition);
+
+        StreamCallback insertionStreamCallback = new StreamCallback() {
+            @Override
+            public void receive(Event[] events) {
+                for (Event event : events) {
+                    currentEvent = event;
+                    eventCount.getAndIncrement();
+                    eventArrived.set(true);
+                }
+            }
+        };
+
+        siddhiAppRuntime.addCallback("istm", insertionStreamCallback);
+        siddhiAppRuntime.start();
+
+        SiddhiTestHelper.waitForEvents(waitTime, 100, eventCount, timeout);
+
+        //Assert event arrival.
+        Assert.assertTrue(eventArrived.get());
+        Assert.assertEquals(eventCount.get(), 100);
+
+        //Assert event data of the last event, whose sequence number is 99.
+        Assert.assertEquals(currentEvent.getData(), new Object[]{99L, "value-99-99-1", 99 + 99 + 2});
+
+        siddhiAppRuntime.shutdown();
+        siddhiManager.shutdown();
+    }
+
+    /**
+     * Test case to send only the events of the given operation out of an operation mix. The operations are drawn
+     * with the given seed, hence each operation has a fixed count.
+     */
+    @Test
+    public void testCDCSyntheticModeOperationMix() throws InterruptedException {
+        log.info("------------------------------------------------------------------------------------------------");
+        log.info("CDC TestCase: Generating an operation mix with synthetic mode.");
+        log.info("------------------------------------------------------------------------------------------------");
+
+        SiddhiManager siddhiManager = new SiddhiManager();
+
+        String syntheticOptions = " synthetic.rate='0', synthetic.events='200', synthetic.columns='2'," +
+                " synthetic.operations='insert:2, update:1, delete:1', synthetic.key.distribution='uniform'," +
+                " synthetic.seed='7', @map(type='keyvalue'))";
+        String cdcinStreamDefinitions = "@source(type = 'cdc', mode='synthetic', operation='insert'," +
+                syntheticOptions + "define stream insertionStream (id long, column1 string);" +
+                "@source(type = 'cdc', mode='synthetic', operation='update'," +
+                syntheticOptions + "define stream updateStream (before_id long, id long);" +
+                "@source(type = 'cdc', mode='synthetic', operation='delete'," +
+                syntheticOptions + "define stream deletionStream (before_id long, before_column1 string);";
+
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(cdcinStreamDefinitions);
+
+        AtomicInteger insertCount = new AtomicInteger(0);
+        AtomicInteger updateCount = new AtomicInteger(0);
+        AtomicInteger deleteCount = new AtomicInteger(0);
+        siddhiAppRuntime.addCallback("insertionStream", new StreamCallback() {
+            @Override
+            public void receive(Event[] events) {
+                insertCount.addAndGet(events.length);
+                eventCount.addAndGet(events.length);
+            }
+        });
+        siddhiAppRuntime.addCallback("updateStream", new StreamCallback() {
+            @Override
+            public void receive(Event[] events) {
+                updateCount.addAndGet(events.length);
+                eventCount.addAndGet(events.length);
+            }
+        });
+        siddhiAppRuntime.addCallback("deletionStream", new StreamCallback() {
+            @Override
+            public void receive(Event[] events) {
+                deleteCount.addAndGet(events.length);
+                eventCount.addAndGet(events.length);
+            }
+        });
+        siddhiAppRuntime.start();
+
+        SiddhiTestHelper.waitForEvents(waitTime, 200, eventCount, timeout);
+
+        //Assert the counts of the operations drawn with the seed, which add up to the generated events.
+        Assert.assertEquals(insertCount.get(), 94);
+        Assert.assertEquals(updateCount.get(), 57);
+        Assert.assertEquals(deleteCount.get(), 49);
+
+        siddhiAppRuntime.shutdown();
+        siddhiManager.shutdown();
+    }
+}
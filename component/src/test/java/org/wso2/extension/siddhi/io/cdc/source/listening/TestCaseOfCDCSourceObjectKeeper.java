@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.extension.siddhi.io.cdc.source.listening;
+
+import org.apache.log4j.Logger;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import org.wso2.extension.siddhi.io.cdc.source.CDCSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class TestCaseOfCDCSourceObjectKeeper {
+
+    private static final Logger log = Logger.getLogger(TestCaseOfCDCSourceObjectKeeper.class);
+    private static final int THREAD_COUNT = 8;
+    private static final int SOURCES_PER_THREAD = 200;
+    private CDCSourceObjectKeeper keeper = CDCSourceObjectKeeper.getCdcSourceObjectKeeper();
+
+    /**
+     * Add a source without keeping a reference to it, so that it can be garbage collected.
+     */
+    private String addUnreferencedSource() {
+        String cdcSourceObjectId = keeper.generateObjectId();
+        keeper.addCdcObject(cdcSourceObjectId, new CDCSource());
+        return cdcSourceObjectId;
+    }
+
+    /**
+     * Test case to add, get and remove sources from several threads at once.
+     */
+    @Test
+    public void testConcurrentAccess() throws InterruptedException, ExecutionException {
+        log.info("------------------------------------------------------------------------------------------------");
+        log.info("CDC TestCase: Adding, getting and removing sources from several threads at once.");
+        log.info("------------------------------------------------------------------------------------------------");
+
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (int i = 0; i < THREAD_COUNT; i++) {
+            tasks.add(() -> {
+                List<String> ids = new ArrayList<>();
+                List<CDCSource> sources = new ArrayList<>();
+                for (int j = 0; j < SOURCES_PER_THREAD; j++) {
+                    String cdcSourceObjectId = keeper.generateObjectId();
+                    CDCSource cdcSource = new CDCSource();
+                    keeper.addCdcObject(cdcSourceObjectId, cdcSource);
+                    ids.add(cdcSourceObjectId);
+                    sources.add(cdcSource);
+                }
+                for (int j = 0; j < SOURCES_PER_THREAD; j++) {
+                    Assert.assertSame(keeper.getCdcObject(ids.get(j)), sources.get(j));
+                    keeper.removeObject(ids.get(j));
+                    Assert.assertNull(keeper.getCdcObject(ids.get(j)));
+                    Assert.assertFalse(keeper.isObjectIdKept(ids.get(j)));
+                }
+                return null;
+            });
+        }
+        ExecutorService executorService = Executors.newFixedThreadPool(THREAD_COUNT);
+        try {
+            for (Future<Void> future : executorService.invokeAll(tasks)) {
+                //rethrows the assertion errors of the threads.
+                future.get();
+            }
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    /**
+     * Test case to purge the ids of the sources garbage collected without being removed.
+     */
+    @Test
+    public void testCollectedSourcesPurged() throws InterruptedException {
+        log.info("------------------------------------------------------------------------------------------------");
+        log.info("CDC TestCase: Purging the ids of the sources collected without being removed.");
+        log.info("------------------------------------------------------------------------------------------------");
+
+        String collectedId = addUnreferencedSource();
+        String liveId = keeper.generateObjectId();
+        CDCSource liveSource = new CDCSource();
+        keeper.addCdcObject(liveId, liveSource);
+        Assert.assertTrue(keeper.isObjectIdKept(collectedId));
+
+        for (int i = 0; i < 100 && keeper.isObjectIdKept(collectedId); i++) {
+            System.gc();
+            Thread.sleep(50);
+            //the ids of the collected sources are purged when a source is added or removed.
+            keeper.removeObject(liveId);
+            keeper.addCdcObject(liveId, liveSource);
+        }
+        Assert.assertFalse(keeper.isObjectIdKept(collectedId));
+        Assert.assertNull(keeper.getCdcObject(collectedId));
+        //the sources still referenced are kept.
+        Assert.assertSame(keeper.getCdcObject(liveId), liveSource);
+        keeper.removeObject(liveId);
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.extension.siddhi.io.cdc.source.listening;
+
+import org.apache.kafka.connect.data.Schema;
+import org.apache.kafka.connect.data.SchemaBuilder;
+import org.apache.kafka.connect.data.Struct;
+import org.apache.kafka.connect.source.SourceRecord;
+import org.apache.log4j.Logger;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import org.wso2.extension.siddhi.io.cdc.source.metrics.CDCSourceMetrics;
+import org.wso2.extension.siddhi.io.cdc.util.CDCSourceConstants;
+import org.wso2.siddhi.core.config.SiddhiAppContext;
+import org.wso2.siddhi.core.stream.input.source.SourceEventListener;
+import org.wso2.siddhi.query.api.definition.StreamDefinition;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class TestCaseOfChangeDataCapture {
+
+    private static final Logger log = Logger.getLogger(TestCaseOfChangeDataCapture.class);
+    private static final Schema ROW_SCHEMA = SchemaBuilder.struct()
+            .field("id", Schema.INT64_SCHEMA)
+            .optional()
+            .build();
+    private List<Map<String, Object>> sentEvents;
+
+    private ChangeDataCapture createChangeDataCapture(Map<String, Object> configMap) {
+        sentEvents = Collections.synchronizedList(new ArrayList<>());
+        SourceEventListener sourceEventListener = new SourceEventListener() {
+            @Override
+            public StreamDefinition getStreamDefinition() {
+                return null;
+            }
+
+            @Override
+            public void onEvent(Object eventObject, String[] transportProperties) {
+                sentEvents.add((Map<String, Object>) eventObject);
+            }
+
+            @Override
+            public void onEvent(Object eventObject, String[] transportProperties, String[] transportSyncProperties) {
+                onEvent(eventObject, transportProperties);
+            }
+        };
+        ChangeDataCapture changeDataCapture = new ChangeDataCapture(CDCSourceConstants.INSERT, sourceEventListener,
+                new CDCSourceMetrics(new SiddhiAppContext(), "inputStream", CDCSourceConstants.MODE_LISTENING),
+                new String[0]);
+        changeDataCapture.setConfig(configMap);
+        return changeDataCapture;
+    }
+
+    private static SourceRecord createInsertRecord(String topic, long id) {
+        Schema sourceSchema = SchemaBuilder.struct().field(CDCSourceConstants.TABLE, Schema.STRING_SCHEMA).build();
+        Schema valueSchema = SchemaBuilder.struct()
+                .field(CDCSourceConstants.OP, Schema.STRING_SCHEMA)
+                .field(CDCSourceConstants.SOURCE, sourceSchema)
+                .field(CDCSourceConstants.AFTER, ROW_SCHEMA)
+                .build();
+        Struct value = new Struct(valueSchema)
+                .put(CDCSourceConstants.OP, CDCSourceConstants.CONNECT_RECORD_INSERT_OPERATION)
+                .put(CDCSourceConstants.SOURCE, new Struct(sourceSchema).put(CDCSourceConstants.TABLE, "orders"))
+                .put(CDCSourceConstants.AFTER, new Struct(ROW_SCHEMA).put("id", id));
+        return new SourceRecord(null, null, topic, null, valueSchema, value);
+    }
+
+    private List<Object> getSentIds() {
+        List<Object> ids = new ArrayList<>();
+        for (Map<String, Object> event : sentEvents) {
+            ids.add(event.get("id"));
+        }
+        return ids;
+    }
+
+    /**
+     * Test case to drop the heartbeat records, which only advance the offset.
+     */
+    @Test
+    public void testHeartbeatRecords() {
+        log.info("------------------------------------------------------------------------------------------------");
+        log.info("CDC TestCase: Dropping the heartbeat records.");
+        log.info("------------------------------------------------------------------------------------------------");
+
+        ChangeDataCapture changeDataCapture = createChangeDataCapture(new HashMap<>());
+        changeDataCapture.handleEvent(createInsertRecord(CDCSourceConstants.DEFAULT_HEARTBEAT_TOPICS_PREFIX +
+                ".inventory_server", 1));
+        changeDataCapture.handleEvent(createInsertRecord("inventory_server.inventory.orders", 2));
+        Assert.assertEquals(getSentIds(), Collections.singletonList(2L));
+    }
+
+    /**
+     * Test case to drop the heartbeat records by the heartbeat topic prefix given in the connector properties.
+     */
+    @Test
+    public void testConfiguredHeartbeatTopicsPrefix() {
+        log.info("------------------------------------------------------------------------------------------------");
+        log.info("CDC TestCase: Dropping the heartbeat records by the configured heartbeat topic prefix.");
+        log.info("------------------------------------------------------------------------------------------------");
+
+        Map<String, Object> configMap = new HashMap<>();
+        configMap.put(CDCSourceConstants.HEARTBEAT_TOPICS_PREFIX, "inventory-heartbeat");
+        ChangeDataCapture changeDataCapture = createChangeDataCapture(configMap);
+        changeDataCapture.handleEvent(createInsertRecord("inventory-heartbeat.inventory_server", 1));
+        //records of the default prefix are no longer heartbeats.
+        changeDataCapture.handleEvent(createInsertRecord(CDCSourceConstants.DEFAULT_HEARTBEAT_TOPICS_PREFIX +
+                ".inventory_server", 2));
+        changeDataCapture.handleEvent(createInsertRecord("inventory_server.inventory.orders", 3));
+        Assert.assertEquals(getSentIds(), Arrays.asList(2L, 3L));
+    }
+}
@@ -0,0 +1,343 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.extension.siddhi.io.cdc.source.listening;
+
+import org.apache.kafka.connect.data.Schema;
+import org.apache.kafka.connect.data.SchemaBuilder;
+import org.apache.kafka.connect.data.Struct;
+import org.apache.kafka.connect.source.SourceRecord;
+import org.apache.log4j.Logger;
+import org.h2.api.Trigger;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+import org.wso2.extension.siddhi.io.cdc.source.metrics.CDCSourceMetrics;
+import org.wso2.extension.siddhi.io.cdc.util.CDCSourceConstants;
+import org.wso2.siddhi.core.config.SiddhiAppContext;
+import org.wso2.siddhi.core.stream.input.source.SourceEventListener;
+import org.wso2.siddhi.query.api.definition.StreamDefinition;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class TestCaseOfIncrementalSnapshotter {
+
+    private static final Logger log = Logger.getLogger(TestCaseOfIncrementalSnapshotter.class);
+    private static final String URL = "jdbc:h2:mem:cdc_incremental_snapshot;DB_CLOSE_DELAY=-1";
+    private static final String TABLE_NAME = "SNAPSHOT_TABLE";
+    private static final String WATERMARK_TABLE_NAME = "SNAPSHOT_WATERMARK";
+    private static final int ROW_COUNT = 25;
+    private static final long TIMEOUT = 5000;
+    private static final Schema ROW_SCHEMA = SchemaBuilder.struct()
+            .field("ID", Schema.INT64_SCHEMA)
+            .field("NAME", Schema.OPTIONAL_STRING_SCHEMA)
+            .optional()
+            .build();
+    private static final Schema WATERMARK_SCHEMA = SchemaBuilder.struct()
+            .field("id", Schema.STRING_SCHEMA)
+            .field("watermark", Schema.OPTIONAL_STRING_SCHEMA)
+            .optional()
+            .build();
+    //accessed by the watermark trigger, which is created by the database.
+    private static volatile IncrementalSnapshotter snapshotter;
+    private static volatile Runnable liveChanges;
+    private Connection connection;
+    private ChangeDataCapture changeDataCapture;
+    private List<Map<String, Object>> sentEvents;
+
+    @BeforeClass
+    public void init() throws ClassNotFoundException, SQLException {
+        Class.forName("org.h2.Driver");
+        //keeps the in-memory database alive through the test.
+        connection = DriverManager.getConnection(URL, "sa", "");
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE " + TABLE_NAME + " (ID BIGINT PRIMARY KEY, NAME VARCHAR(64))");
+            statement.execute("CREATE TABLE " + WATERMARK_TABLE_NAME + " (id VARCHAR(255) PRIMARY KEY, " +
+                    "watermark VARCHAR(64))");
+            statement.execute("CREATE TRIGGER SNAPSHOT_WATERMARK_TRIGGER AFTER INSERT, UPDATE ON " +
+                    WATERMARK_TABLE_NAME + " FOR EACH ROW CALL \"" + WatermarkTrigger.class.getName() + "\"");
+        }
+        try (PreparedStatement statement = connection.prepareStatement("INSERT INTO " + TABLE_NAME +
+                " VALUES (?, ?)")) {
+            for (long id = 1; id <= ROW_COUNT; id++) {
+                statement.setLong(1, id);
+                statement.setString(2, "name-" + id);
+                statement.addBatch();
+            }
+            statement.executeBatch();
+        }
+    }
+
+    @AfterClass
+    public void destroy() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE " + TABLE_NAME);
+            statement.execute("DROP TABLE " + WATERMARK_TABLE_NAME);
+        }
+        connection.close();
+    }
+
+    @AfterMethod
+    public void cleanUp() {
+        snapshotter = null;
+        liveChanges = null;
+    }
+
+    private IncrementalSnapshotter createSnapshotter(int chunkSize) {
+        sentEvents = Collections.synchronizedList(new ArrayList<>());
+        SourceEventListener sourceEventListener = new SourceEventListener() {
+            @Override
+            public StreamDefinition getStreamDefinition() {
+                return null;
+            }
+
+            @Override
+            public void onEvent(Object eventObject, String[] transportProperties) {
+                sentEvents.add((Map<String, Object>) eventObject);
+            }
+
+            @Override
+            public void onEvent(Object eventObject, String[] transportProperties, String[] transportSyncProperties) {
+                onEvent(eventObject, transportProperties);
+            }
+        };
+        changeDataCapture = new ChangeDataCapture(CDCSourceConstants.INSERT, sourceEventListener,
+                new CDCSourceMetrics(new SiddhiAppContext(), "inputStream", CDCSourceConstants.MODE_LISTENING),
+                new String[0]);
+        snapshotter = new IncrementalSnapshotter(URL, "sa", "", TABLE_NAME, WATERMARK_TABLE_NAME,
+                "snapshotTest", chunkSize, new String[0]);
+        changeDataCapture.setIncrementalSnapshotter(snapshotter);
+        return snapshotter;
+    }
+
+    private static SourceRecord createRecord(String table, String op, Schema rowSchema, Struct before,
+                                             Struct after) {
+        Schema sourceSchema = SchemaBuilder.struct().field(CDCSourceConstants.TABLE, Schema.STRING_SCHEMA).build();
+        Schema valueSchema = SchemaBuilder.struct()
+                .field(CDCSourceConstants.OP, Schema.STRING_SCHEMA)
+                .field(CDCSourceConstants.SOURCE, sourceSchema)
+                .field(CDCSourceConstants.BEFORE, rowSchema)
+                .field(CDCSourceConstants.AFTER, rowSchema)
+                .build();
+        Struct value = new Struct(valueSchema)
+                .put(CDCSourceConstants.OP, op)
+                .put(CDCSourceConstants.SOURCE, new Struct(sourceSchema).put(CDCSourceConstants.TABLE, table))
+                .put(CDCSourceConstants.BEFORE, before)
+                .put(CDCSourceConstants.AFTER, after);
+        return new SourceRecord(null, null, table, null, valueSchema, value);
+    }
+
+    private static Struct createRow(long id, String name) {
+        return new Struct(ROW_SCHEMA).put("ID", id).put("NAME", name);
+    }
+
+    private void assertSentIds(long firstId, long lastId) {
+        Assert.assertEquals(sentEvents.size(), lastId - firstId + 1);
+        for (int i = 0; i < sentEvents.size(); i++) {
+            Assert.assertEquals(sentEvents.get(i).get("ID"), firstId + i);
+        }
+    }
+
+    /**
+     * Test case to backfill a table in chunks.
+     */
+    @Test
+    public void testChunking() {
+        log.info("------------------------------------------------------------------------------------------------");
+        log.info("CDC TestCase: Backfilling a table in chunks.");
+        log.info("------------------------------------------------------------------------------------------------");
+
+        IncrementalSnapshotter incrementalSnapshotter = createSnapshotter(10);
+        incrementalSnapshotter.run();
+
+        assertSentIds(1, ROW_COUNT);
+        Assert.assertEquals(sentEvents.get(0).get("NAME"), "name-1");
+        Assert.assertTrue(incrementalSnapshotter.isCompleted());
+        Assert.assertEquals(incrementalSnapshotter.getLastKey(), Integer.toString(ROW_COUNT));
+    }
+
+    /**
+     * Test case to continue a backfill from the key restored from the state.
+     */
+    @Test
+    public void testResumeFromRestoredKey() {
+        log.info("------------------------------------------------------------------------------------------------");
+        log.info("CDC TestCase: Continuing a backfill from the key restored from the state.");
+        log.info("------------------------------------------------------------------------------------------------");
+
+        IncrementalSnapshotter incrementalSnapshotter = createSnapshotter(10);
+        incrementalSnapshotter.setLastKey("20");
+        incrementalSnapshotter.run();
+
+        assertSentIds(21, ROW_COUNT);
+        Assert.assertTrue(incrementalSnapshotter.isCompleted());
+    }
+
+    /**
+     * Test case to merge the live changes received between the watermarks with the rows of a chunk.
+     */
+    @Test
+    public void testLiveChangesWithinChunk() {
+        log.info("------------------------------------------------------------------------------------------------");
+        log.info("CDC TestCase: Merging the live changes received between the watermarks with a chunk.");
+        log.info("------------------------------------------------------------------------------------------------");
+
+        IncrementalSnapshotter incrementalSnapshotter = createSnapshotter(ROW_COUNT);
+        liveChanges = () -> {
+            incrementalSnapshotter.handleEvent(createRecord(TABLE_NAME,
+                    CDCSourceConstants.CONNECT_RECORD_UPDATE_OPERATION, ROW_SCHEMA, createRow(3, "name-3"),
+                    createRow(3, "updated-3")));
+            incrementalSnapshotter.handleEvent(createRecord(TABLE_NAME,
+                    CDCSourceConstants.CONNECT_RECORD_DELETE_OPERATION, ROW_SCHEMA, createRow(5, "name-5"), null));
+        };
+        incrementalSnapshotter.run();
+
+        Assert.assertEquals(sentEvents.size(), ROW_COUNT - 1);
+        for (Map<String, Object> event : sentEvents) {
+            Assert.assertNotEquals(event.get("ID"), 5L);
+            if (event.get("ID").equals(3L)) {
+                Assert.assertEquals(event.get("NAME"), "updated-3");
+            }
+        }
+        Assert.assertTrue(incrementalSnapshotter.isCompleted());
+    }
+
+    /**
+     * Test case to continue the backfill after a row of a full chunk is deleted between its watermarks.
+     */
+    @Test
+    public void testDeleteWithinEarlyChunk() {
+        log.info("------------------------------------------------------------------------------------------------");
+        log.info("CDC TestCase: Continuing the backfill after a row of a full chunk is deleted.");
+        log.info("------------------------------------------------------------------------------------------------");
+
+        IncrementalSnapshotter incrementalSnapshotter = createSnapshotter(10);
+        AtomicBoolean deleted = new AtomicBoolean(false);
+        liveChanges = () -> {
+            if (deleted.compareAndSet(false, true)) {
+                incrementalSnapshotter.handleEvent(createRecord(TABLE_NAME,
+                        CDCSourceConstants.CONNECT_RECORD_DELETE_OPERATION, ROW_SCHEMA, createRow(5, "name-5"),
+                        null));
+            }
+        };
+        incrementalSnapshotter.run();
+
+        //the first chunk has one row less than the chunk size, which should not complete the snapshot.
+        List<Object> sentIds = new ArrayList<>();
+        for (Map<String, Object> event : sentEvents) {
+            sentIds.add(event.get("ID"));
+        }
+        List<Object> expectedIds = new ArrayList<>();
+        for (long id = 1; id <= ROW_COUNT; id++) {
+            if (id != 5) {
+                expectedIds.add(id);
+            }
+        }
+        Assert.assertEquals(sentIds, expectedIds);
+        Assert.assertTrue(incrementalSnapshotter.isCompleted());
+        Assert.assertEquals(incrementalSnapshotter.getLastKey(), Integer.toString(ROW_COUNT));
+    }
+
+    /**
+     * Test case to spill the rows of the chunks while the source is paused, as the live change events are spilled.
+     */
+    @Test
+    public void testSpillWhilePaused() throws IOException, InterruptedException {
+        log.info("------------------------------------------------------------------------------------------------");
+        log.info("CDC TestCase: Spilling the rows of the chunks while the source is paused.");
+        log.info("------------------------------------------------------------------------------------------------");
+
+        IncrementalSnapshotter incrementalSnapshotter = createSnapshotter(10);
+        File directory = Files.createTempDirectory("cdc-spill").toFile();
+        try {
+            changeDataCapture.enableSpillBuffer(directory.getPath(), (segment, error) -> log.error(
+                    "Error while replaying the segment " + segment, error));
+            changeDataCapture.pause();
+            incrementalSnapshotter.run();
+
+            Assert.assertTrue(sentEvents.isEmpty());
+            Assert.assertTrue(incrementalSnapshotter.isCompleted());
+
+            changeDataCapture.resume();
+            long deadline = System.currentTimeMillis() + TIMEOUT;
+            while (sentEvents.size() < ROW_COUNT && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            assertSentIds(1, ROW_COUNT);
+        } finally {
+            changeDataCapture.shutdown();
+            File[] files = directory.listFiles();
+            if (files != null) {
+                for (File file : files) {
+                    Assert.assertTrue(file.delete());
+                }
+            }
+            Assert.assertTrue(directory.delete());
+        }
+    }
+
+    /**
+     * Sends the watermarks written by the snapshotter back to it, as the change events of the watermark table
+     * would be sent by the embedded engine.
+     */
+    public static class WatermarkTrigger implements Trigger {
+
+        @Override
+        public void init(Connection conn, String schemaName, String triggerName, String tableName,
+                         boolean before, int type) {
+        }
+
+        @Override
+        public void fire(Connection conn, Object[] oldRow, Object[] newRow) {
+            IncrementalSnapshotter incrementalSnapshotter = snapshotter;
+            if (incrementalSnapshotter == null) {
+                return;
+            }
+            String watermark = (String) newRow[1];
+            incrementalSnapshotter.handleEvent(createRecord(WATERMARK_TABLE_NAME,
+                    oldRow == null ? CDCSourceConstants.CONNECT_RECORD_INSERT_OPERATION :
+                            CDCSourceConstants.CONNECT_RECORD_UPDATE_OPERATION, WATERMARK_SCHEMA, null,
+                    new Struct(WATERMARK_SCHEMA).put("id", newRow[0]).put("watermark", watermark)));
+            Runnable changes = liveChanges;
+            if (changes != null && watermark.endsWith("-low")) {
+                changes.run();
+            }
+        }
+
+        @Override
+        public void close() {
+        }
+
+        @Override
+        public void remove() {
+        }
+    }
+}
@@ -0,0 +1,162 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.extension.siddhi.io.cdc.source.listening;
+
+import io.debezium.config.Configuration;
+import io.debezium.document.Document;
+import io.debezium.relational.history.DatabaseHistoryListener;
+import io.debezium.relational.history.HistoryRecord;
+import io.debezium.relational.history.HistoryRecordComparator;
+import org.apache.kafka.connect.json.JsonConverter;
+import org.apache.kafka.connect.runtime.standalone.StandaloneConfig;
+import org.apache.log4j.Logger;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+import org.wso2.extension.siddhi.io.cdc.util.CDCSourceConstants;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+
+public class TestCaseOfJdbcStores {
+
+    private static final Logger log = Logger.getLogger(TestCaseOfJdbcStores.class);
+    private String url = "jdbc:h2:mem:cdc_stores;DB_CLOSE_DELAY=-1";
+    private Connection connection;
+
+    @BeforeClass
+    public void init() throws ClassNotFoundException, SQLException {
+        Class.forName("org.h2.Driver");
+        //keeps the in-memory database alive through the test.
+        connection = DriverManager.getConnection(url, "sa", "");
+    }
+
+    @AfterClass
+    public void destroy() throws SQLException {
+        connection.close();
+    }
+
+    private JdbcOffsetBackingStore createOffsetStore(String name) {
+        Map<String, String> config = new HashMap<>();
+        config.put(StandaloneConfig.KEY_CONVERTER_CLASS_CONFIG, JsonConverter.class.getName());
+        config.put(StandaloneConfig.VALUE_CONVERTER_CLASS_CONFIG, JsonConverter.class.getName());
+        config.put(StandaloneConfig.OFFSET_STORAGE_FILE_FILENAME_CONFIG, "");
+        config.put(CDCSourceConstants.OFFSET_STORAGE_JDBC_URL, url);
+        config.put(CDCSourceConstants.OFFSET_STORAGE_JDBC_USER, "sa");
+        config.put(CDCSourceConstants.OFFSET_STORAGE_JDBC_PASSWORD, "");
+        config.put("name", name);
+        JdbcOffsetBackingStore store = new JdbcOffsetBackingStore();
+        store.configure(new StandaloneConfig(config));
+        return store;
+    }
+
+    private JdbcDatabaseHistory createHistory(String name) {
+        Configuration config = Configuration.create()
+                .with(CDCSourceConstants.DATABASE_HISTORY_JDBC_URL, url)
+                .with(CDCSourceConstants.DATABASE_HISTORY_JDBC_USER, "sa")
+                .with(CDCSourceConstants.DATABASE_HISTORY_JDBC_PASSWORD, "")
+                .with(CDCSourceConstants.DATABASE_HISTORY_JDBC_STORE_NAME, name)
+                .build();
+        JdbcDatabaseHistory history = new JdbcDatabaseHistory();
+        history.configure(config, HistoryRecordComparator.INSTANCE, DatabaseHistoryListener.NOOP, true);
+        return history;
+    }
+
+    private static ByteBuffer toBuffer(String value) {
+        return ByteBuffer.wrap(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testOffsetsAreLoadedByAnotherStore() throws ExecutionException, InterruptedException {
+        log.info("JDBC stores: offsets saved by a store are loaded by another store of the same name.");
+        ByteBuffer key = toBuffer("[\"app.stream\",{\"server\":\"localhost_3306\"}]");
+        ByteBuffer otherKey = toBuffer("[\"app.stream\",{\"server\":\"localhost_3307\"}]");
+
+        JdbcOffsetBackingStore store = createOffsetStore("app.stream");
+        store.start();
+        Map<ByteBuffer, ByteBuffer> offsets = new HashMap<>();
+        offsets.put(key, toBuffer("{\"file\":\"mysql-bin.000003\",\"pos\":154}"));
+        offsets.put(otherKey, toBuffer("{\"file\":\"mysql-bin.000001\",\"pos\":4}"));
+        store.set(offsets, null).get();
+        //an update of one of the saved offsets.
+        store.set(Collections.singletonMap(key, toBuffer("{\"file\":\"mysql-bin.000003\",\"pos\":980}")),
+                null).get();
+        store.stop();
+
+        JdbcOffsetBackingStore restartedStore = createOffsetStore("app.stream");
+        restartedStore.start();
+        Map<ByteBuffer, ByteBuffer> loadedOffsets = restartedStore.get(Arrays.asList(key, otherKey)).get();
+        restartedStore.stop();
+        Assert.assertEquals(loadedOffsets.get(key), toBuffer("{\"file\":\"mysql-bin.000003\",\"pos\":980}"));
+        Assert.assertEquals(loadedOffsets.get(otherKey), toBuffer("{\"file\":\"mysql-bin.000001\",\"pos\":4}"));
+
+        JdbcOffsetBackingStore otherStore = createOffsetStore("app.otherStream");
+        otherStore.start();
+        Map<ByteBuffer, ByteBuffer> otherOffsets = otherStore.get(Arrays.asList(key, otherKey)).get();
+        otherStore.stop();
+        Assert.assertNull(otherOffsets.get(key));
+    }
+
+    @Test
+    public void testHistoryIsRecoveredInOrder() {
+        log.info("JDBC stores: history records stored by a history are recovered by another history in order.");
+        JdbcDatabaseHistory history = createHistory("app.stream");
+        history.start();
+        Assert.assertTrue(history.storageExists());
+        Assert.assertFalse(history.exists());
+        for (int i = 0; i < 3; i++) {
+            history.storeRecord(new HistoryRecord(Document.create(
+                    "source", Document.create("server", "localhost_3306"),
+                    "position", Document.create("pos", 154L + i),
+                    "databaseName", "SimpleDB",
+                    "ddl", "ALTER TABLE students ADD COLUMN column" + i + " INT")));
+        }
+        history.stop();
+
+        JdbcDatabaseHistory restartedHistory = createHistory("app.stream");
+        restartedHistory.start();
+        Assert.assertTrue(restartedHistory.exists());
+        List<String> ddls = new ArrayList<>();
+        restartedHistory.recoverRecords(record -> ddls.add(record.document().getString("ddl")));
+        //the next record follows the recovered ones.
+        restartedHistory.storeRecord(new HistoryRecord(Document.create(
+                "source", Document.create("server", "localhost_3306"),
+                "position", Document.create("pos", 200L),
+                "databaseName", "SimpleDB",
+                "ddl", "DROP TABLE students")));
+        restartedHistory.stop();
+        Assert.assertEquals(ddls, Arrays.asList("ALTER TABLE students ADD COLUMN column0 INT",
+                "ALTER TABLE students ADD COLUMN column1 INT", "ALTER TABLE students ADD COLUMN column2 INT"));
+
+        JdbcDatabaseHistory otherHistory = createHistory("app.otherStream");
+        otherHistory.start();
+        Assert.assertFalse(otherHistory.exists());
+        otherHistory.stop();
+    }
+}
@@ -0,0 +1,256 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.extension.siddhi.io.cdc.source.listening;
+
+import org.apache.log4j.Logger;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class TestCaseOfLeaseCoordinator {
+
+    private static final Logger log = Logger.getLogger(TestCaseOfLeaseCoordinator.class);
+    private static final long LEASE_TIMEOUT = 600;
+    private String url = "jdbc:h2:mem:cdc_leases;DB_CLOSE_DELAY=-1";
+    private Connection connection;
+
+    @BeforeClass
+    public void init() throws ClassNotFoundException, SQLException {
+        Class.forName("org.h2.Driver");
+        //keeps the in-memory database alive through the test.
+        connection = DriverManager.getConnection(url, "sa", "");
+    }
+
+    @AfterClass
+    public void destroy() throws SQLException {
+        connection.close();
+    }
+
+    /**
+     * Counts the leases held through the listener notifications.
+     */
+    private static class HeldLeaseCounter implements LeaseCoordinator.LeaseListener {
+        private final AtomicInteger held = new AtomicInteger();
+        private volatile long lostAt = -1;
+
+        @Override
+        public void onLeaseAcquired(String leaseName) {
+            held.incrementAndGet();
+        }
+
+        @Override
+        public void onLeaseLost(String leaseName) {
+            held.decrementAndGet();
+            lostAt = System.currentTimeMillis();
+        }
+    }
+
+    private LeaseCoordinator createCoordinator(String leaseName, HeldLeaseCounter counter) {
+        LeaseCoordinator coordinator = new LeaseCoordinator(url, "sa", "", "cdc_leases", LEASE_TIMEOUT);
+        coordinator.addLease(leaseName, counter);
+        return coordinator;
+    }
+
+    /**
+     * Test case to validate that only one of the nodes holds a lease, and that a standby takes the lease over right
+     * away when the holder stops.
+     */
+    @Test
+    public void testLeaseHandoverOnStop() throws InterruptedException {
+        log.info("------------------------------------------------------------------------------------------------");
+        log.info("Lease coordinator: Test the lease handover when the holder stops.");
+        log.info("------------------------------------------------------------------------------------------------");
+
+        HeldLeaseCounter firstCounter = new HeldLeaseCounter();
+        HeldLeaseCounter secondCounter = new HeldLeaseCounter();
+        LeaseCoordinator first = createCoordinator("app.stopped", firstCounter);
+        LeaseCoordinator second = createCoordinator("app.stopped", secondCounter);
+        first.start();
+        Thread.sleep(100);
+        second.start();
+        Thread.sleep(LEASE_TIMEOUT * 2);
+
+        //the holder keeps renewing, so the standby never takes over.
+        Assert.assertTrue(first.isHeld("app.stopped"));
+        Assert.assertFalse(second.isHeld("app.stopped"));
+        Assert.assertEquals(firstCounter.held.get(), 1);
+        Assert.assertEquals(secondCounter.held.get(), 0);
+
+        first.stop();
+        Thread.sleep(LEASE_TIMEOUT);
+        Assert.assertFalse(first.isHeld("app.stopped"));
+        Assert.assertTrue(second.isHeld("app.stopped"));
+        Assert.assertEquals(secondCounter.held.get(), 1);
+        second.stop();
+    }
+
+    /**
+     * Test case to validate that a standby takes a lease over once the holder stops renewing it, and that the
+     * former holder gives the lease up.
+     */
+    @Test
+    public void testLeaseTakeoverOnTimeout() throws InterruptedException, SQLException {
+        log.info("------------------------------------------------------------------------------------------------");
+        log.info("Lease coordinator: Test the lease takeover when the holder stops renewing.");
+        log.info("------------------------------------------------------------------------------------------------");
+
+        HeldLeaseCounter firstCounter = new HeldLeaseCounter();
+        HeldLeaseCounter secondCounter = new HeldLeaseCounter();
+        LeaseCoordinator first = createCoordinator("app.expired", firstCounter);
+        LeaseCoordinator second = createCoordinator("app.expired", secondCounter);
+        first.start();
+        Thread.sleep(100);
+        second.start();
+        Thread.sleep(LEASE_TIMEOUT);
+        Assert.assertTrue(first.isHeld("app.expired"));
+
+        //simulate a holder that can no longer reach the database, by moving the lease to an unknown owner.
+        try (Statement statement = connection.createStatement()) {
+            statement.executeUpdate("UPDATE cdc_leases SET owner = 'lost-node' WHERE lease_name = 'app.expired'");
+        }
+        Thread.sleep(LEASE_TIMEOUT * 3);
+
+        Assert.assertEquals(firstCounter.held.get() + secondCounter.held.get(), 1);
+        Assert.assertFalse(first.isHeld("app.expired") && second.isHeld("app.expired"));
+        first.stop();
+        second.stop();
+    }
+
+    /**
+     * Test case to validate that a holder which can't renew a lease gives it up and stops its work within the lease
+     * timeout, before a standby can take the lease over.
+     */
+    @Test
+    public void testLeaseGiveUpOnRenewalFailure() throws InterruptedException, SQLException {
+        log.info("------------------------------------------------------------------------------------------------");
+        log.info("Lease coordinator: Test giving up a lease that can't be renewed.");
+        log.info("------------------------------------------------------------------------------------------------");
+
+        long leaseTimeout = 3000;
+        HeldLeaseCounter firstCounter = new HeldLeaseCounter();
+        HeldLeaseCounter secondCounter = new HeldLeaseCounter();
+        LeaseCoordinator first = new LeaseCoordinator(url, "sa", "", "cdc_leases", leaseTimeout);
+        LeaseCoordinator second = new LeaseCoordinator(url, "sa", "", "cdc_leases", leaseTimeout);
+        first.addLease("app.unreachable", firstCounter);
+        second.addLease("app.unreachable", secondCounter);
+        first.start();
+        Thread.sleep(100);
+        second.start();
+        Thread.sleep(1000);
+        Assert.assertTrue(first.isHeld("app.unreachable"));
+
+        //the renewals of the holder time out while the row of the lease is locked.
+        try (Connection lockConnection = DriverManager.getConnection(url, "sa", "");
+             Statement statement = lockConnection.createStatement()) {
+            lockConnection.setAutoCommit(false);
+            long lockedAt = System.currentTimeMillis();
+            statement.executeQuery("SELECT * FROM cdc_leases WHERE lease_name = 'app.unreachable' FOR UPDATE")
+                    .close();
+            while (firstCounter.held.get() > 0 && System.currentTimeMillis() - lockedAt < leaseTimeout * 2) {
+                Thread.sleep(50);
+            }
+            Assert.assertEquals(firstCounter.held.get(), 0);
+            Assert.assertFalse(first.isHeld("app.unreachable"));
+            Assert.assertTrue(firstCounter.lostAt - lockedAt < leaseTimeout);
+            Assert.assertEquals(secondCounter.held.get(), 0);
+            lockConnection.commit();
+        }
+        Thread.sleep(leaseTimeout * 2);
+
+        Assert.assertEquals(firstCounter.held.get() + secondCounter.held.get(), 1);
+        Assert.assertFalse(first.isHeld("app.unreachable") && second.isHeld("app.unreachable"));
+        first.stop();
+        second.stop();
+    }
+
+    /**
+     * Test case to validate that the leases of a group are shared by the live nodes, and rebalanced when the nodes
+     * join or leave.
+     */
+    @Test
+    public void testLeaseGroupRebalance() throws InterruptedException {
+        log.info("------------------------------------------------------------------------------------------------");
+        log.info("Lease coordinator: Test the rebalance of a lease group.");
+        log.info("------------------------------------------------------------------------------------------------");
+
+        List<String> leaseNames = Arrays.asList("app.group.partition.0", "app.group.partition.1",
+                "app.group.partition.2", "app.group.partition.3");
+        HeldLeaseCounter firstCounter = new HeldLeaseCounter();
+        HeldLeaseCounter secondCounter = new HeldLeaseCounter();
+        LeaseCoordinator first = new LeaseCoordinator(url, "sa", "", "cdc_leases", LEASE_TIMEOUT);
+        LeaseCoordinator second = new LeaseCoordinator(url, "sa", "", "cdc_leases", LEASE_TIMEOUT);
+        first.addLeaseGroup("app.group", leaseNames, firstCounter);
+        second.addLeaseGroup("app.group", leaseNames, secondCounter);
+
+        first.start();
+        Thread.sleep(LEASE_TIMEOUT);
+        Assert.assertEquals(first.getHeldLeases().size(), 4);
+
+        //the first node gives up half of the leases to the joining node.
+        second.start();
+        Thread.sleep(LEASE_TIMEOUT * 2);
+        Assert.assertEquals(first.getHeldLeases().size(), 2);
+        Assert.assertEquals(second.getHeldLeases().size(), 2);
+        Assert.assertEquals(firstCounter.held.get(), 2);
+        Assert.assertEquals(secondCounter.held.get(), 2);
+
+        //the remaining node takes all the leases over when the other node leaves.
+        first.stop();
+        Thread.sleep(LEASE_TIMEOUT);
+        Assert.assertEquals(second.getHeldLeases().size(), 4);
+        Assert.assertEquals(secondCounter.held.get(), 4);
+        second.stop();
+    }
+
+    /**
+     * Test case to validate that the data of a lease is kept only by its holder.
+     */
+    @Test
+    public void testLeaseData() throws InterruptedException, SQLException {
+        log.info("------------------------------------------------------------------------------------------------");
+        log.info("Lease coordinator: Test the data kept with a lease.");
+        log.info("------------------------------------------------------------------------------------------------");
+
+        LeaseCoordinator first = createCoordinator("app.data", new HeldLeaseCounter());
+        LeaseCoordinator second = createCoordinator("app.data", new HeldLeaseCounter());
+        first.start();
+        Thread.sleep(100);
+        second.start();
+        Thread.sleep(LEASE_TIMEOUT);
+
+        Assert.assertTrue(first.setLeaseData("app.data", "42"));
+        Assert.assertFalse(second.setLeaseData("app.data", "7"));
+        Assert.assertEquals(second.getLeaseData("app.data"), "42");
+
+        //the next holder continues from the data kept by the previous holder.
+        first.stop();
+        Thread.sleep(LEASE_TIMEOUT);
+        Assert.assertEquals(second.getLeaseData("app.data"), "42");
+        Assert.assertTrue(second.setLeaseData("app.data", "43"));
+        second.stop();
+    }
+}
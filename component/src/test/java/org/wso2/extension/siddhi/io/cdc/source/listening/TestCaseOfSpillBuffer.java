@@ -0,0 +1,213 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.extension.siddhi.io.cdc.source.listening;
+
+import org.apache.log4j.Logger;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class TestCaseOfSpillBuffer {
+
+    private static final Logger log = Logger.getLogger(TestCaseOfSpillBuffer.class);
+    private static final long TIMEOUT = 5000;
+    private File directory;
+    private List<Map<String, Object>> sentEvents;
+    private AtomicReference<File> failedSegment;
+
+    @BeforeMethod
+    public void init() throws IOException {
+        directory = Files.createTempDirectory("cdc-spill").toFile();
+        sentEvents = Collections.synchronizedList(new ArrayList<>());
+        failedSegment = new AtomicReference<>();
+    }
+
+    @AfterMethod
+    public void cleanUp() {
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                Assert.assertTrue(file.delete());
+            }
+        }
+        Assert.assertTrue(directory.delete());
+    }
+
+    private SpillBuffer createSpillBuffer() {
+        return new SpillBuffer(directory.getPath(), (detailsMap, transportProperties, commitTimestamp) ->
+                sentEvents.add(detailsMap), (segment, error) -> failedSegment.set(segment));
+    }
+
+    private Map<String, Object> createEvent(int id) {
+        Map<String, Object> detailsMap = new HashMap<>();
+        detailsMap.put("id", id);
+        detailsMap.put("data", ByteBuffer.wrap(("data-" + id).getBytes(StandardCharsets.UTF_8)));
+        return detailsMap;
+    }
+
+    private void waitForEvents(int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT;
+        while (sentEvents.size() < count && failedSegment.get() == null && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    private File[] getSegments() {
+        File[] segments = directory.listFiles((dir, name) -> name.startsWith("segment-"));
+        Assert.assertNotNull(segments);
+        return segments;
+    }
+
+    /**
+     * Test case to spill the events while paused, and to replay them in order with the same value types.
+     */
+    @Test
+    public void testSpillAndReplay() throws InterruptedException {
+        log.info("------------------------------------------------------------------------------------------------");
+        log.info("Spill buffer: Test spilling events while paused and replaying them on resume.");
+        log.info("------------------------------------------------------------------------------------------------");
+
+        SpillBuffer spillBuffer = createSpillBuffer();
+        Assert.assertFalse(spillBuffer.spillIfRequired(createEvent(0), null, -1));
+
+        spillBuffer.pause();
+        for (int i = 1; i <= 3; i++) {
+            Assert.assertTrue(spillBuffer.spillIfRequired(createEvent(i), null, -1));
+        }
+        Assert.assertTrue(sentEvents.isEmpty());
+        Assert.assertEquals(getSegments().length, 1);
+
+        spillBuffer.resume();
+        waitForEvents(3);
+        Assert.assertEquals(sentEvents.size(), 3);
+        for (int i = 1; i <= 3; i++) {
+            Map<String, Object> event = sentEvents.get(i - 1);
+            Assert.assertEquals(event.get("id"), i);
+            Assert.assertEquals(event.get("data"), ByteBuffer.wrap(("data-" + i).getBytes(StandardCharsets.UTF_8)));
+        }
+
+        //once the spilled events are sent, the events are sent right away and the segments are deleted.
+        Thread.sleep(100);
+        Assert.assertFalse(spillBuffer.spillIfRequired(createEvent(4), null, -1));
+        Assert.assertEquals(getSegments().length, 0);
+        spillBuffer.shutdown();
+    }
+
+    /**
+     * Test case to replay the events spilled by a previous run, including one which was not closed, before the new
+     * events.
+     */
+    @Test
+    public void testReplayAfterRestart() throws InterruptedException {
+        log.info("------------------------------------------------------------------------------------------------");
+        log.info("Spill buffer: Test replaying the events spilled by a previous run.");
+        log.info("------------------------------------------------------------------------------------------------");
+
+        SpillBuffer crashedSpillBuffer = createSpillBuffer();
+        crashedSpillBuffer.pause();
+        Assert.assertTrue(crashedSpillBuffer.spillIfRequired(createEvent(1), null, -1));
+        Assert.assertTrue(crashedSpillBuffer.spillIfRequired(createEvent(2), null, -1));
+        //the events are on disk only once the batch is synced.
+        Assert.assertEquals(getSegments()[0].length(), 0);
+        crashedSpillBuffer.sync();
+        Assert.assertTrue(getSegments()[0].length() > 0);
+
+        //the segment of the crashed run is never closed, and the new events are spilled after it.
+        SpillBuffer spillBuffer = createSpillBuffer();
+        Assert.assertTrue(spillBuffer.spillIfRequired(createEvent(3), null, -1));
+        spillBuffer.resume();
+        waitForEvents(3);
+        Assert.assertNull(failedSegment.get());
+        Assert.assertEquals(sentEvents.size(), 3);
+        for (int i = 1; i <= 3; i++) {
+            Assert.assertEquals(sentEvents.get(i - 1).get("id"), i);
+        }
+        spillBuffer.shutdown();
+        crashedSpillBuffer.shutdown();
+    }
+
+    /**
+     * Test case to ignore the partly written last event of the segment a crashed run was writing to.
+     */
+    @Test
+    public void testReplayOfTruncatedSegment() throws InterruptedException, IOException {
+        log.info("------------------------------------------------------------------------------------------------");
+        log.info("Spill buffer: Test replaying a segment with a partly written last event.");
+        log.info("------------------------------------------------------------------------------------------------");
+
+        SpillBuffer crashedSpillBuffer = createSpillBuffer();
+        crashedSpillBuffer.pause();
+        Assert.assertTrue(crashedSpillBuffer.spillIfRequired(createEvent(1), null, -1));
+        crashedSpillBuffer.shutdown();
+        try (FileOutputStream outputStream = new FileOutputStream(getSegments()[0], true)) {
+            outputStream.write(new byte[]{0, 0, 1, 0, 1, 2});
+        }
+
+        SpillBuffer spillBuffer = createSpillBuffer();
+        spillBuffer.resume();
+        waitForEvents(1);
+        Thread.sleep(100);
+        Assert.assertNull(failedSegment.get());
+        Assert.assertEquals(sentEvents.size(), 1);
+        Assert.assertEquals(getSegments().length, 0);
+        spillBuffer.shutdown();
+    }
+
+    /**
+     * Test case to keep a corrupt segment and the events spilled after it, and to report the failure.
+     */
+    @Test
+    public void testReplayOfCorruptSegment() throws InterruptedException, IOException {
+        log.info("------------------------------------------------------------------------------------------------");
+        log.info("Spill buffer: Test replaying a corrupt segment.");
+        log.info("------------------------------------------------------------------------------------------------");
+
+        File corruptSegment = new File(directory, String.format(Locale.ENGLISH, "segment-%020d.dat", 0));
+        try (FileOutputStream outputStream = new FileOutputStream(corruptSegment)) {
+            outputStream.write(new byte[]{0, 0, 0, 4, 1, 2, 3, 4});
+        }
+
+        SpillBuffer spillBuffer = createSpillBuffer();
+        Assert.assertTrue(spillBuffer.spillIfRequired(createEvent(1), null, -1));
+        spillBuffer.resume();
+        waitForEvents(1);
+        Assert.assertEquals(failedSegment.get(), corruptSegment);
+        Assert.assertTrue(sentEvents.isEmpty());
+
+        //the new events are still spilled after the failed segment.
+        Assert.assertTrue(spillBuffer.spillIfRequired(createEvent(2), null, -1));
+        spillBuffer.shutdown();
+        Assert.assertTrue(corruptSegment.exists());
+        Assert.assertEquals(getSegments().length, 2);
+    }
+}
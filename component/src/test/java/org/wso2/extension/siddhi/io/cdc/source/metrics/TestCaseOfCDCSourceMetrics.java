@@ -0,0 +1,107 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.extension.siddhi.io.cdc.source.metrics;
+
+import com.codahale.metrics.Gauge;
+import org.apache.log4j.Logger;
+import org.testng.Assert;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import org.wso2.siddhi.core.config.SiddhiAppContext;
+import org.wso2.siddhi.core.config.SiddhiContext;
+import org.wso2.siddhi.core.util.statistics.metrics.Level;
+import org.wso2.siddhi.core.util.statistics.metrics.SiddhiStatisticsManager;
+
+import java.util.ArrayList;
+import java.util.Map;
+
+public class TestCaseOfCDCSourceMetrics {
+
+    private static final Logger log = Logger.getLogger(TestCaseOfCDCSourceMetrics.class);
+    private SiddhiAppContext siddhiAppContext;
+    private SiddhiStatisticsManager statisticsManager;
+
+    @BeforeMethod
+    public void init() {
+        statisticsManager = new SiddhiStatisticsManager(new ArrayList<>());
+        siddhiAppContext = new SiddhiAppContext();
+        siddhiAppContext.setSiddhiContext(new SiddhiContext());
+        siddhiAppContext.setName("cdcMetricsTestApp");
+        siddhiAppContext.setStatisticsManager(statisticsManager);
+        siddhiAppContext.setRootMetricsLevel(Level.BASIC);
+    }
+
+    /**
+     * Test case to read the gauges of a source from the metric registry.
+     */
+    @Test
+    public void testGauges() {
+        log.info("------------------------------------------------------------------------------------------------");
+        log.info("CDC TestCase: Reading the gauges of a source from the metric registry.");
+        log.info("------------------------------------------------------------------------------------------------");
+
+        CDCSourceMetrics metrics = new CDCSourceMetrics(siddhiAppContext, "inputStream", "polling");
+        Assert.assertEquals(getGaugeValue("poll.rows"), 0L);
+        metrics.pollCompleted(5);
+        metrics.throttled(20);
+        metrics.throttled(30);
+        Assert.assertEquals(getGaugeValue("poll.rows"), 5L);
+        Assert.assertEquals(getGaugeValue("throttled.millis"), 50L);
+
+        metrics.registerGauge("test.value", () -> 7);
+        Assert.assertEquals(getGaugeValue("test.value"), 7L);
+
+        //registering again, as when a poller is initialized again, replaces the value instead of failing.
+        metrics.registerGauge("test.value", () -> 8);
+        Assert.assertEquals(getGaugeValue("test.value"), 8L);
+
+        //a second source of the same stream replaces the gauges of the first one.
+        CDCSourceMetrics secondMetrics = new CDCSourceMetrics(siddhiAppContext, "inputStream", "polling");
+        secondMetrics.pollCompleted(3);
+        Assert.assertEquals(getGaugeValue("poll.rows"), 3L);
+    }
+
+    /**
+     * Test case to use the metrics of a source when statistics are not enabled.
+     */
+    @Test
+    public void testMetricsWithoutStatistics() {
+        log.info("------------------------------------------------------------------------------------------------");
+        log.info("CDC TestCase: Using the metrics of a source when statistics are not enabled.");
+        log.info("------------------------------------------------------------------------------------------------");
+
+        siddhiAppContext.setStatisticsManager(null);
+        CDCSourceMetrics metrics = new CDCSourceMetrics(siddhiAppContext, "inputStream", "polling");
+        metrics.registerGauge("test.value", () -> 7);
+        metrics.pollQueryStarted();
+        metrics.pollQueryEnded();
+        metrics.eventSent(System.currentTimeMillis());
+        Assert.assertTrue(statisticsManager.getRegistry().getGauges().isEmpty());
+    }
+
+    private long getGaugeValue(String name) {
+        String suffix = ".inputStream.cdc.polling." + name;
+        for (Map.Entry<String, Gauge> entry : statisticsManager.getRegistry().getGauges().entrySet()) {
+            if (entry.getKey().endsWith(suffix)) {
+                return (Long) entry.getValue().getValue();
+            }
+        }
+        Assert.fail("Gauge '" + name + "' is not registered.");
+        return -1;
+    }
+}
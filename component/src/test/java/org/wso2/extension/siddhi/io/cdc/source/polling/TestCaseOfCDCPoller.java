@@ -0,0 +1,333 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.extension.siddhi.io.cdc.source.polling;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.apache.log4j.Logger;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import org.wso2.extension.siddhi.io.cdc.source.metrics.CDCSourceMetrics;
+import org.wso2.extension.siddhi.io.cdc.util.CDCSourceConstants;
+import org.wso2.siddhi.core.config.SiddhiAppContext;
+import org.wso2.siddhi.core.stream.input.source.SourceEventListener;
+import org.wso2.siddhi.core.util.config.InMemoryConfigReader;
+import org.wso2.siddhi.query.api.definition.StreamDefinition;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import javax.naming.NamingException;
+
+public class TestCaseOfCDCPoller {
+
+    private static final Logger log = Logger.getLogger(TestCaseOfCDCPoller.class);
+    private static final String URL = "jdbc:h2:mem:cdc_poller;DB_CLOSE_DELAY=-1";
+    private static final String TABLE_NAME = "polled_table";
+    private Connection connection;
+    private List<Map<String, Object>> sentEvents;
+    private CDCPoller cdcPoller;
+
+    @BeforeClass
+    public void init() throws ClassNotFoundException, SQLException {
+        Class.forName("org.h2.Driver");
+        //keeps the in-memory database alive through the test.
+        connection = DriverManager.getConnection(URL, "sa", "");
+        execute("CREATE TABLE " + TABLE_NAME + " (id BIGINT PRIMARY KEY, name VARCHAR(64), " +
+                "last_updated TIMESTAMP)");
+    }
+
+    @AfterClass
+    public void destroy() throws SQLException {
+        execute("DROP TABLE " + TABLE_NAME);
+        connection.close();
+    }
+
+    @BeforeMethod
+    public void clearTable() throws SQLException {
+        execute("DELETE FROM " + TABLE_NAME);
+        sentEvents = Collections.synchronizedList(new ArrayList<>());
+    }
+
+    @AfterMethod
+    public void releasePoller() {
+        if (cdcPoller != null) {
+            cdcPoller.releaseDataSource();
+            cdcPoller = null;
+        }
+    }
+
+    private void execute(String query) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(query);
+        }
+    }
+
+    private void upsert(long id, String name, long ageMillis) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("MERGE INTO " + TABLE_NAME +
+                " KEY (id) VALUES (?, ?, ?)")) {
+            statement.setLong(1, id);
+            statement.setString(2, name);
+            statement.setTimestamp(3, new Timestamp(System.currentTimeMillis() - ageMillis));
+            statement.executeUpdate();
+        }
+    }
+
+    private CDCPoller createPoller(String tableName, String pollingColumn) {
+        return createPoller(tableName, pollingColumn, null);
+    }
+
+    private CDCPoller createPoller(String tableName, String pollingColumn, String poolPropertyString) {
+        SourceEventListener sourceEventListener = new SourceEventListener() {
+            @Override
+            public StreamDefinition getStreamDefinition() {
+                return null;
+            }
+
+            @Override
+            public void onEvent(Object eventObject, String[] transportProperties) {
+                sentEvents.add((Map<String, Object>) eventObject);
+            }
+
+            @Override
+            public void onEvent(Object eventObject, String[] transportProperties, String[] transportSyncProperties) {
+                onEvent(eventObject, transportProperties);
+            }
+        };
+        cdcPoller = new CDCPoller(URL, "sa", "", tableName, "org.h2.Driver", null, null, pollingColumn, 1,
+                poolPropertyString, sourceEventListener, new InMemoryConfigReader("", new HashMap<>()),
+                new CDCSourceMetrics(new SiddhiAppContext(), "inputStream", CDCSourceConstants.MODE_POLLING),
+                new String[0]);
+        return cdcPoller;
+    }
+
+    private String initializePoller() throws NamingException {
+        cdcPoller.initializeDatasource();
+        return cdcPoller.initializePolling();
+    }
+
+    private List<Object> getSentValues(String column) {
+        List<Object> values = new ArrayList<>();
+        for (Map<String, Object> event : sentEvents) {
+            values.add(event.get(column));
+        }
+        return values;
+    }
+
+    /**
+     * Test case to leave the rows within the grace period to a later poll.
+     */
+    @Test
+    public void testGracePeriod() throws SQLException, NamingException {
+        log.info("------------------------------------------------------------------------------------------------");
+        log.info("CDC TestCase: Leaving the rows within the grace period to a later poll.");
+        log.info("------------------------------------------------------------------------------------------------");
+
+        createPoller(TABLE_NAME, "last_updated").setLateRowHandling(60000, 0);
+        String selectQuery = initializePoller();
+
+        upsert(1, "committed", 120000);
+        upsert(2, "recent", 0);
+        cdcPoller.poll(selectQuery);
+        Assert.assertEquals(getSentValues("id"), Collections.singletonList(1L));
+
+        //the row is older than the grace period in the next poll.
+        upsert(2, "recent", 90000);
+        cdcPoller.poll(selectQuery);
+        Assert.assertEquals(getSentValues("id"), Arrays.asList(1L, 2L));
+    }
+
+    /**
+     * Test case to read the rows committed late within the lookback window, dropping the rows already sent.
+     */
+    @Test
+    public void testLookback() throws SQLException, NamingException {
+        log.info("------------------------------------------------------------------------------------------------");
+        log.info("CDC TestCase: Reading the rows committed late within the lookback window.");
+        log.info("------------------------------------------------------------------------------------------------");
+
+        createPoller(TABLE_NAME, "last_updated").setLateRowHandling(0, 60000);
+        String selectQuery = initializePoller();
+
+        upsert(1, "first", 30000);
+        cdcPoller.poll(selectQuery);
+        Assert.assertEquals(getSentValues("id"), Collections.singletonList(1L));
+
+        //committed after the first row with an earlier timestamp.
+        upsert(2, "late", 40000);
+        cdcPoller.poll(selectQuery);
+        Assert.assertEquals(getSentValues("id"), Arrays.asList(1L, 2L));
+
+        cdcPoller.poll(selectQuery);
+        Assert.assertEquals(sentEvents.size(), 2);
+
+        //an update of a row already sent is sent again.
+        upsert(1, "updated", 20000);
+        //rows with the same values apart from the key are sent.
+        upsert(3, "same", 10000);
+        upsert(4, "same", 10000);
+        cdcPoller.poll(selectQuery);
+        List<Object> sentIds = getSentValues("id");
+        Assert.assertEquals(sentIds.subList(0, 3), Arrays.asList(1L, 2L, 1L));
+        Assert.assertEquals(new HashSet<>(sentIds.subList(3, sentIds.size())), new HashSet<>(Arrays.asList(3L, 4L)));
+        Assert.assertEquals(sentEvents.get(2).get("name"), "updated");
+    }
+
+    /**
+     * Test case to poll the rows inserted after the start using the native cursor of H2, '_ROWID_'.
+     */
+    @Test
+    public void testNativeCursor() throws SQLException, NamingException {
+        log.info("------------------------------------------------------------------------------------------------");
+        log.info("CDC TestCase: Polling the inserted rows using the native cursor.");
+        log.info("------------------------------------------------------------------------------------------------");
+
+        execute("CREATE TABLE native_table (id INT PRIMARY KEY, name VARCHAR(64))");
+        try {
+            execute("INSERT INTO native_table VALUES (1, 'existing'), (2, 'existing')");
+            createPoller("native_table", null).setPollingCursor(CDCSourceConstants.POLLING_CURSOR_NATIVE);
+            String selectQuery = initializePoller();
+
+            //the rows in the table at the start are not sent.
+            cdcPoller.poll(selectQuery);
+            Assert.assertTrue(sentEvents.isEmpty());
+
+            execute("INSERT INTO native_table VALUES (3, 'inserted'), (4, 'inserted')");
+            cdcPoller.poll(selectQuery);
+            Assert.assertEquals(getSentValues("id"), Arrays.asList(3, 4));
+            Assert.assertEquals(getSentValues("name"), Arrays.asList("inserted", "inserted"));
+            //the cursor is not sent as a column of the table.
+            Assert.assertEquals(sentEvents.get(0).keySet(), new HashSet<>(Arrays.asList("id", "name")));
+
+            cdcPoller.poll(selectQuery);
+            Assert.assertEquals(sentEvents.size(), 2);
+        } finally {
+            execute("DROP TABLE native_table");
+        }
+    }
+
+    /**
+     * Test case to poll the results of a join given as the polling query, with the cursor placeholder given twice.
+     */
+    @Test
+    public void testPollingQuery() throws SQLException, NamingException {
+        log.info("------------------------------------------------------------------------------------------------");
+        log.info("CDC TestCase: Polling the results of a join given as the polling query.");
+        log.info("------------------------------------------------------------------------------------------------");
+
+        execute("CREATE TABLE customers (id BIGINT PRIMARY KEY, name VARCHAR(64), last_updated TIMESTAMP)");
+        execute("CREATE TABLE orders (id BIGINT PRIMARY KEY, customer_id BIGINT, last_updated TIMESTAMP)");
+        try {
+            long now = System.currentTimeMillis();
+            execute("INSERT INTO customers VALUES (1, 'alice', '" + new Timestamp(now - 60000) + "'), " +
+                    "(2, 'bob', '" + new Timestamp(now - 60000) + "')");
+            execute("INSERT INTO orders VALUES (1, 1, '" + new Timestamp(now - 30000) + "')");
+            String pollingQuery = "SELECT o.id, c.name, GREATEST(o.last_updated, c.last_updated) AS last_updated " +
+                    "FROM orders o JOIN customers c ON o.customer_id = c.id " +
+                    "WHERE o.last_updated > {{CURSOR}} OR c.last_updated > {{CURSOR}}";
+            createPoller(null, "last_updated").setPollingQuery(pollingQuery);
+            String selectQuery = initializePoller();
+            Assert.assertEquals(selectQuery, "SELECT * FROM (" + pollingQuery.replace("{{CURSOR}}", "?") +
+                    ") cdc_polling_query ORDER BY cdc_polling_query.last_updated");
+
+            //the bootstrap query moves the cursor past the results at the start.
+            cdcPoller.poll(selectQuery);
+            Assert.assertTrue(sentEvents.isEmpty());
+
+            execute("INSERT INTO orders VALUES (2, 2, '" + new Timestamp(now - 20000) + "')");
+            cdcPoller.poll(selectQuery);
+            Assert.assertEquals(getSentValues("id"), Collections.singletonList(2L));
+            Assert.assertEquals(getSentValues("name"), Collections.singletonList("bob"));
+
+            //a change in a joined table is matched by the second placeholder.
+            execute("UPDATE customers SET name = 'alice smith', last_updated = '" + new Timestamp(now - 10000) +
+                    "' WHERE id = 1");
+            cdcPoller.poll(selectQuery);
+            Assert.assertEquals(getSentValues("id"), Arrays.asList(2L, 1L));
+            Assert.assertEquals(sentEvents.get(1).get("name"), "alice smith");
+
+            //the results are sent in the order of the polling column.
+            execute("INSERT INTO orders VALUES (3, 2, '" + new Timestamp(now - 5000) + "'), " +
+                    "(4, 2, '" + new Timestamp(now - 8000) + "')");
+            cdcPoller.poll(selectQuery);
+            Assert.assertEquals(getSentValues("id"), Arrays.asList(2L, 1L, 4L, 3L));
+
+            cdcPoller.poll(selectQuery);
+            Assert.assertEquals(sentEvents.size(), 4);
+        } finally {
+            execute("DROP TABLE orders");
+            execute("DROP TABLE customers");
+        }
+    }
+
+    /**
+     * Test case to fail the lookback on a table without an integer primary key.
+     */
+    @Test(expectedExceptions = CDCPollingModeException.class)
+    public void testLookbackWithoutIntegerKey() throws SQLException, NamingException {
+        log.info("------------------------------------------------------------------------------------------------");
+        log.info("CDC TestCase: Failing the lookback on a table without an integer primary key.");
+        log.info("------------------------------------------------------------------------------------------------");
+
+        execute("CREATE TABLE text_keyed_table (id VARCHAR(64) PRIMARY KEY, last_updated TIMESTAMP)");
+        try {
+            createPoller("text_keyed_table", "last_updated").setLateRowHandling(0, 60000);
+            initializePoller();
+        } finally {
+            execute("DROP TABLE text_keyed_table");
+        }
+    }
+
+    /**
+     * Test case to open the connection of the polling trigger with the driver and the pool properties of the source.
+     */
+    @Test
+    public void testTriggerDataSource() throws SQLException, NamingException {
+        log.info("------------------------------------------------------------------------------------------------");
+        log.info("CDC TestCase: Opening the connection of the polling trigger with the pool properties.");
+        log.info("------------------------------------------------------------------------------------------------");
+
+        createPoller(TABLE_NAME, "last_updated", "connectionTimeout:5000,maximumPoolSize:5");
+        cdcPoller.initializeDatasource();
+        HikariDataSource triggerDataSource = cdcPoller.getTriggerDataSource();
+
+        Assert.assertEquals(triggerDataSource.getDriverClassName(), "org.h2.Driver");
+        Assert.assertEquals(triggerDataSource.getConnectionTimeout(), 5000);
+        Assert.assertEquals(triggerDataSource.getMaximumPoolSize(), 1);
+        try (Connection triggerConnection = triggerDataSource.getConnection()) {
+            Assert.assertTrue(triggerConnection.isValid(1));
+        }
+
+        cdcPoller.releaseDataSource();
+        cdcPoller = null;
+        Assert.assertTrue(triggerDataSource.isClosed());
+    }
+}
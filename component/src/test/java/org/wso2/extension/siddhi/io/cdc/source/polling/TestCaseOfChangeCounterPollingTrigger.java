@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.extension.siddhi.io.cdc.source.polling;
+
+import org.apache.log4j.Logger;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+public class TestCaseOfChangeCounterPollingTrigger {
+
+    private static final Logger log = Logger.getLogger(TestCaseOfChangeCounterPollingTrigger.class);
+    private static final String URL = "jdbc:h2:mem:cdc_polling_trigger;DB_CLOSE_DELAY=-1";
+    private Connection connection;
+    private ChangeCounterPollingTrigger pollingTrigger;
+
+    @BeforeClass
+    public void init() throws ClassNotFoundException, SQLException {
+        Class.forName("org.h2.Driver");
+        //keeps the in-memory database alive through the test.
+        connection = DriverManager.getConnection(URL, "sa", "");
+        execute("CREATE TABLE change_counter (id INT PRIMARY KEY, counter BIGINT)");
+        execute("INSERT INTO change_counter VALUES (1, 0)");
+    }
+
+    @AfterClass
+    public void destroy() throws SQLException {
+        execute("DROP TABLE change_counter");
+        connection.close();
+    }
+
+    @AfterMethod
+    public void stopTrigger() {
+        if (pollingTrigger != null) {
+            pollingTrigger.stop();
+            pollingTrigger = null;
+        }
+    }
+
+    private void execute(String query) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(query);
+        }
+    }
+
+    private void incrementCounter() throws SQLException {
+        execute("UPDATE change_counter SET counter = counter + 1 WHERE id = 1");
+    }
+
+    private ChangeCounterPollingTrigger startTrigger(Connection triggerConnection) throws SQLException {
+        pollingTrigger = new ChangeCounterPollingTrigger("SELECT counter FROM change_counter WHERE id = 1", 10);
+        pollingTrigger.start(triggerConnection);
+        return pollingTrigger;
+    }
+
+    /**
+     * Test case to signal a change when the result of the counter query changes.
+     */
+    @Test
+    public void testCounterChange() throws SQLException, InterruptedException {
+        log.info("------------------------------------------------------------------------------------------------");
+        log.info("CDC TestCase: Signalling a change when the result of the counter query changes.");
+        log.info("------------------------------------------------------------------------------------------------");
+
+        Connection triggerConnection = DriverManager.getConnection(URL, "sa", "");
+        startTrigger(triggerConnection);
+        Assert.assertFalse(pollingTrigger.awaitChange(100));
+
+        incrementCounter();
+        Assert.assertTrue(pollingTrigger.awaitChange(5000));
+        //the change is signalled only once.
+        Assert.assertFalse(pollingTrigger.awaitChange(100));
+
+        pollingTrigger.stop();
+        pollingTrigger = null;
+        Assert.assertTrue(triggerConnection.isClosed());
+    }
+
+    /**
+     * Test case to restart the trigger on a new connection after its connection is broken.
+     */
+    @Test
+    public void testRestartOnNewConnection() throws SQLException, InterruptedException {
+        log.info("------------------------------------------------------------------------------------------------");
+        log.info("CDC TestCase: Restarting the trigger on a new connection after its connection is broken.");
+        log.info("------------------------------------------------------------------------------------------------");
+
+        Connection triggerConnection = DriverManager.getConnection(URL, "sa", "");
+        startTrigger(triggerConnection);
+        triggerConnection.close();
+        try {
+            pollingTrigger.awaitChange(100);
+            Assert.fail("A change is awaited on a closed connection.");
+        } catch (SQLException e) {
+            pollingTrigger.stop();
+        }
+
+        pollingTrigger.start(DriverManager.getConnection(URL, "sa", ""));
+        Assert.assertFalse(pollingTrigger.awaitChange(100));
+        incrementCounter();
+        Assert.assertTrue(pollingTrigger.awaitChange(5000));
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.extension.siddhi.io.cdc.source.polling;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.apache.log4j.Logger;
+import org.testng.Assert;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.util.Properties;
+
+public class TestCaseOfConnectionPoolRegistry {
+
+    private static final Logger log = Logger.getLogger(TestCaseOfConnectionPoolRegistry.class);
+    private static final String URL = "jdbc:h2:mem:cdc_pool_registry;DB_CLOSE_DELAY=-1";
+    private ConnectionPoolRegistry registry = ConnectionPoolRegistry.getConnectionPoolRegistry();
+
+    @BeforeClass
+    public void init() throws ClassNotFoundException {
+        Class.forName("org.h2.Driver");
+    }
+
+    private Properties getConnectionProperties(String password, String... extraProperties) {
+        Properties connectionProperties = new Properties();
+        for (int i = 0; i < extraProperties.length; i += 2) {
+            connectionProperties.setProperty(extraProperties[i], extraProperties[i + 1]);
+        }
+        connectionProperties.setProperty("jdbcUrl", URL);
+        connectionProperties.setProperty("username", "sa");
+        connectionProperties.setProperty("password", password);
+        return connectionProperties;
+    }
+
+    /**
+     * Test case to share a pool between the sources with the same connection properties and pool limits.
+     */
+    @Test
+    public void testPoolSharing() {
+        log.info("------------------------------------------------------------------------------------------------");
+        log.info("CDC TestCase: Sharing a pool between the sources with the same properties and limits.");
+        log.info("------------------------------------------------------------------------------------------------");
+
+        HikariDataSource dataSource = registry.acquire(getConnectionProperties("", "maximumPoolSize", "2"), 0, 0);
+        //the same properties given in another order.
+        Properties reorderedProperties = new Properties();
+        reorderedProperties.setProperty("password", "");
+        reorderedProperties.setProperty("maximumPoolSize", "2");
+        reorderedProperties.setProperty("username", "sa");
+        reorderedProperties.setProperty("jdbcUrl", URL);
+        HikariDataSource sharedDataSource = registry.acquire(reorderedProperties, 0, 0);
+        HikariDataSource limitedDataSource = registry.acquire(getConnectionProperties("", "maximumPoolSize", "2"),
+                100, 0);
+        HikariDataSource otherDataSource = registry.acquire(getConnectionProperties("", "maximumPoolSize", "3"), 0,
+                0);
+        try {
+            Assert.assertSame(sharedDataSource, dataSource);
+            Assert.assertNotSame(limitedDataSource, dataSource);
+            Assert.assertNotSame(otherDataSource, dataSource);
+            Assert.assertNull(registry.getRowLimiter(dataSource));
+            Assert.assertNotNull(registry.getRowLimiter(limitedDataSource));
+            Assert.assertNull(registry.getQueryLimiter(limitedDataSource));
+        } finally {
+            registry.release(dataSource);
+            registry.release(sharedDataSource);
+            registry.release(limitedDataSource);
+            registry.release(otherDataSource);
+        }
+    }
+
+    /**
+     * Test case to not share a pool between the sources with different passwords.
+     */
+    @Test
+    public void testPoolsOfDifferentPasswords() {
+        log.info("------------------------------------------------------------------------------------------------");
+        log.info("CDC TestCase: Not sharing a pool between the sources with different passwords.");
+        log.info("------------------------------------------------------------------------------------------------");
+
+        //the pools are not connected at startup, as one of them has a wrong password.
+        HikariDataSource dataSource = registry.acquire(getConnectionProperties("", "initializationFailTimeout",
+                "-1"), 0, 0);
+        HikariDataSource otherDataSource = registry.acquire(getConnectionProperties("other",
+                "initializationFailTimeout", "-1"), 0, 0);
+        try {
+            Assert.assertNotSame(otherDataSource, dataSource);
+        } finally {
+            registry.release(dataSource);
+            registry.release(otherDataSource);
+        }
+    }
+
+    /**
+     * Test case to close a pool when the last source using it releases it.
+     */
+    @Test
+    public void testPoolRelease() {
+        log.info("------------------------------------------------------------------------------------------------");
+        log.info("CDC TestCase: Closing a pool when the last source using it releases it.");
+        log.info("------------------------------------------------------------------------------------------------");
+
+        HikariDataSource dataSource = registry.acquire(getConnectionProperties(""), 0, 50);
+        Assert.assertSame(registry.acquire(getConnectionProperties(""), 0, 50), dataSource);
+        Assert.assertNotNull(registry.getQueryLimiter(dataSource));
+
+        registry.release(dataSource);
+        Assert.assertFalse(dataSource.isClosed());
+        registry.release(dataSource);
+        Assert.assertTrue(dataSource.isClosed());
+        Assert.assertNull(registry.getQueryLimiter(dataSource));
+        //releasing a closed pool again is ignored.
+        registry.release(dataSource);
+
+        HikariDataSource newDataSource = registry.acquire(getConnectionProperties(""), 0, 50);
+        try {
+            Assert.assertNotSame(newDataSource, dataSource);
+            Assert.assertFalse(newDataSource.isClosed());
+        } finally {
+            registry.release(newDataSource);
+        }
+    }
+}
@@ -0,0 +1,172 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.extension.siddhi.io.cdc.source.polling;
+
+import org.apache.log4j.Logger;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class TestCaseOfDeleteReconciler {
+
+    private static final Logger log = Logger.getLogger(TestCaseOfDeleteReconciler.class);
+    private static final String TABLE_NAME = "reconciled_table";
+    private static final int ROW_COUNT = 1000;
+    private static final int RANGE_SIZE = 8;
+    private Connection connection;
+    private List<Long> deletedKeys;
+
+    @BeforeMethod
+    public void init() throws ClassNotFoundException, SQLException {
+        Class.forName("org.h2.Driver");
+        connection = DriverManager.getConnection("jdbc:h2:mem:delete_reconcile;DB_CLOSE_DELAY=-1", "sa", "");
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE " + TABLE_NAME + " (id BIGINT PRIMARY KEY, name VARCHAR(64))");
+        }
+        try (PreparedStatement statement = connection.prepareStatement("INSERT INTO " + TABLE_NAME +
+                " VALUES (?, ?)")) {
+            for (long id = 0; id < ROW_COUNT; id++) {
+                statement.setLong(1, id);
+                statement.setString(2, "name-" + id);
+                statement.addBatch();
+            }
+            statement.executeBatch();
+        }
+        deletedKeys = new ArrayList<>();
+    }
+
+    @AfterMethod
+    public void destroy() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE " + TABLE_NAME);
+        }
+        connection.close();
+    }
+
+    private void execute(String query) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(query);
+        }
+    }
+
+    private DeleteReconciler createReconciler() {
+        return new DeleteReconciler(TABLE_NAME, RANGE_SIZE, DeleteReconciler.DEFAULT_KEY_RANGE_EXPRESSION);
+    }
+
+    /**
+     * Test case to find the deleted keys by comparing the key ranges with the previous run.
+     */
+    @Test
+    public void testDeleteDetection() throws SQLException {
+        log.info("------------------------------------------------------------------------------------------------");
+        log.info("CDC TestCase: Finding the deleted keys by comparing the key ranges with the previous run.");
+        log.info("------------------------------------------------------------------------------------------------");
+
+        DeleteReconciler reconciler = createReconciler();
+        reconciler.reconcile(connection, deletedKeys::add);
+        Assert.assertTrue(deletedKeys.isEmpty());
+        Assert.assertTrue("id".equalsIgnoreCase(reconciler.getKeyColumn()));
+        Assert.assertEquals(reconciler.getRangeCount(), ROW_COUNT / RANGE_SIZE);
+        Assert.assertEquals(reconciler.getChangedRangeCount(), ROW_COUNT / RANGE_SIZE);
+
+        //a key in the first range, a key in the middle of a range, a whole range and the last key.
+        execute("DELETE FROM " + TABLE_NAME + " WHERE id IN (0, 17, 999) OR (id >= 64 AND id < 72)");
+        reconciler.reconcile(connection, deletedKeys::add);
+        Collections.sort(deletedKeys);
+        Assert.assertEquals(deletedKeys, Arrays.asList(0L, 17L, 64L, 65L, 66L, 67L, 68L, 69L, 70L, 71L, 999L));
+        Assert.assertEquals(reconciler.getRangeCount(), ROW_COUNT / RANGE_SIZE - 1);
+        Assert.assertEquals(reconciler.getChangedRangeCount(), 4);
+
+        deletedKeys.clear();
+        reconciler.reconcile(connection, deletedKeys::add);
+        Assert.assertTrue(deletedKeys.isEmpty());
+        Assert.assertEquals(reconciler.getChangedRangeCount(), 0);
+    }
+
+    /**
+     * Test case to find the deleted keys of ranges that got new keys in the same run.
+     */
+    @Test
+    public void testDeleteDetectionWithInserts() throws SQLException {
+        log.info("------------------------------------------------------------------------------------------------");
+        log.info("CDC TestCase: Finding the deleted keys of ranges that got new keys in the same run.");
+        log.info("------------------------------------------------------------------------------------------------");
+
+        DeleteReconciler reconciler = createReconciler();
+        reconciler.reconcile(connection, deletedKeys::add);
+
+        execute("DELETE FROM " + TABLE_NAME + " WHERE id IN (20, 500)");
+        execute("INSERT INTO " + TABLE_NAME + " VALUES (5000, 'name-5000')");
+        reconciler.reconcile(connection, deletedKeys::add);
+        Collections.sort(deletedKeys);
+        Assert.assertEquals(deletedKeys, Arrays.asList(20L, 500L));
+        Assert.assertEquals(reconciler.getRangeCount(), ROW_COUNT / RANGE_SIZE + 1);
+
+        //the range of the new key is compared with the bitmap read in the previous run.
+        deletedKeys.clear();
+        execute("DELETE FROM " + TABLE_NAME + " WHERE id = 5000");
+        execute("INSERT INTO " + TABLE_NAME + " VALUES (20, 'name-20')");
+        reconciler.reconcile(connection, deletedKeys::add);
+        Assert.assertEquals(deletedKeys, Collections.singletonList(5000L));
+        Assert.assertEquals(reconciler.getRangeCount(), ROW_COUNT / RANGE_SIZE);
+    }
+
+    /**
+     * Test case to fail the delete detection of a table with a negative key.
+     */
+    @Test(expectedExceptions = CDCPollingModeException.class)
+    public void testNegativeKey() throws SQLException {
+        log.info("------------------------------------------------------------------------------------------------");
+        log.info("CDC TestCase: Failing the delete detection of a table with a negative key.");
+        log.info("------------------------------------------------------------------------------------------------");
+
+        DeleteReconciler reconciler = createReconciler();
+        reconciler.reconcile(connection, deletedKeys::add);
+        execute("INSERT INTO " + TABLE_NAME + " VALUES (-1, 'name-negative')");
+        reconciler.reconcile(connection, deletedKeys::add);
+    }
+
+    /**
+     * Test case to fail the delete detection of a table without an integer primary key.
+     */
+    @Test(expectedExceptions = CDCPollingModeException.class)
+    public void testNonIntegerKey() throws SQLException {
+        log.info("------------------------------------------------------------------------------------------------");
+        log.info("CDC TestCase: Failing the delete detection of a table without an integer primary key.");
+        log.info("------------------------------------------------------------------------------------------------");
+
+        execute("CREATE TABLE text_keyed_table (id VARCHAR(64) PRIMARY KEY)");
+        try {
+            new DeleteReconciler("text_keyed_table", RANGE_SIZE, DeleteReconciler.DEFAULT_KEY_RANGE_EXPRESSION)
+                    .reconcile(connection, deletedKeys::add);
+        } finally {
+            execute("DROP TABLE text_keyed_table");
+        }
+    }
+}
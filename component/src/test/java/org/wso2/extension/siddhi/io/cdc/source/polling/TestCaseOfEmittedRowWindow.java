@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.extension.siddhi.io.cdc.source.polling;
+
+import org.apache.log4j.Logger;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+public class TestCaseOfEmittedRowWindow {
+
+    private static final Logger log = Logger.getLogger(TestCaseOfEmittedRowWindow.class);
+
+    /**
+     * Test case to drop the rows already in the window.
+     */
+    @Test
+    public void testDuplicateRows() {
+        log.info("------------------------------------------------------------------------------------------------");
+        log.info("CDC TestCase: Dropping the rows already in the lookback window.");
+        log.info("------------------------------------------------------------------------------------------------");
+
+        EmittedRowWindow window = new EmittedRowWindow();
+        Assert.assertTrue(window.add(1, 1000));
+        Assert.assertTrue(window.add(2, 1000));
+        Assert.assertFalse(window.add(1, 1000));
+        //the same row updated with a new polling column value.
+        Assert.assertTrue(window.add(1, 2000));
+        //identical rows with different keys.
+        Assert.assertTrue(window.add(0, 0));
+        Assert.assertFalse(window.add(0, 0));
+        Assert.assertEquals(window.size(), 4);
+    }
+
+    /**
+     * Test case to remove the rows before the start of the window as it slides.
+     */
+    @Test
+    public void testRemoveBefore() {
+        log.info("------------------------------------------------------------------------------------------------");
+        log.info("CDC TestCase: Removing the rows before the start of the lookback window.");
+        log.info("------------------------------------------------------------------------------------------------");
+
+        EmittedRowWindow window = new EmittedRowWindow();
+        for (long timestamp = 0; timestamp < 5000; timestamp++) {
+            Assert.assertTrue(window.add(timestamp % 7, timestamp));
+        }
+        Assert.assertEquals(window.size(), 5000);
+
+        window.removeBefore(4000);
+        Assert.assertEquals(window.size(), 1000);
+        Assert.assertTrue(window.add(3999 % 7, 3999));
+        Assert.assertFalse(window.add(4000 % 7, 4000));
+        Assert.assertFalse(window.add(4999 % 7, 4999));
+
+        //the row added late with an earlier timestamp is removed once the rows added before it are removed.
+        window.removeBefore(4500);
+        Assert.assertEquals(window.size(), 501);
+        Assert.assertFalse(window.add(3999 % 7, 3999));
+        window.removeBefore(5000);
+        Assert.assertEquals(window.size(), 0);
+        Assert.assertTrue(window.add(4999 % 7, 4999));
+    }
+
+    /**
+     * Test case to compare the window with a set of the rows of the window, over random adds and slides.
+     */
+    @Test
+    public void testRandomRows() {
+        log.info("------------------------------------------------------------------------------------------------");
+        log.info("CDC TestCase: Comparing the lookback window with a set over random adds and slides.");
+        log.info("------------------------------------------------------------------------------------------------");
+
+        EmittedRowWindow window = new EmittedRowWindow();
+        Set<String> rows = new HashSet<>();
+        Deque<long[]> addedRows = new ArrayDeque<>();
+        Random random = new Random(7);
+        long time = 0;
+        for (int poll = 0; poll < 200; poll++) {
+            for (int i = 0; i < 100; i++) {
+                long key = random.nextInt(50);
+                long timestamp = time - random.nextInt(20);
+                boolean isNew = rows.add(key + ":" + timestamp);
+                Assert.assertEquals(window.add(key, timestamp), isNew);
+                if (isNew) {
+                    addedRows.add(new long[]{key, timestamp});
+                }
+                time++;
+            }
+            long windowStart = time - 500;
+            window.removeBefore(windowStart);
+            while (!addedRows.isEmpty() && addedRows.peek()[1] < windowStart) {
+                long[] row = addedRows.poll();
+                rows.remove(row[0] + ":" + row[1]);
+            }
+            Assert.assertEquals(window.size(), rows.size());
+        }
+    }
+}
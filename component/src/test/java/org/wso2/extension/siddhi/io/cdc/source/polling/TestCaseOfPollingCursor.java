@@ -0,0 +1,163 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.extension.siddhi.io.cdc.source.polling;
+
+import org.apache.log4j.Logger;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class TestCaseOfPollingCursor {
+
+    private static final Logger log = Logger.getLogger(TestCaseOfPollingCursor.class);
+
+    private static PollingCursor createCursor(int sqlType, String value) {
+        PollingCursor pollingCursor = new PollingCursor();
+        pollingCursor.setSqlType(sqlType);
+        pollingCursor.setValue(value);
+        return pollingCursor;
+    }
+
+    /**
+     * Create a result set whose current row has the given value in every column.
+     */
+    private static ResultSet createResultSet(Object value) {
+        return (ResultSet) Proxy.newProxyInstance(ResultSet.class.getClassLoader(), new Class[]{ResultSet.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("wasNull")) {
+                        return value == null;
+                    }
+                    if (value == null && method.getReturnType() == long.class) {
+                        return 0L;
+                    }
+                    return value;
+                });
+    }
+
+    /**
+     * Bind the cursor to a statement, and get the setter called and the value bound.
+     */
+    private static List<Object> bind(PollingCursor pollingCursor) throws SQLException {
+        List<Object> boundParameter = new ArrayList<>();
+        PreparedStatement statement = (PreparedStatement) Proxy.newProxyInstance(
+                PreparedStatement.class.getClassLoader(), new Class[]{PreparedStatement.class},
+                (proxy, method, args) -> {
+                    Assert.assertEquals(args[0], 1);
+                    boundParameter.add(method.getName());
+                    boundParameter.add(args[1]);
+                    return null;
+                });
+        pollingCursor.bind(statement, 1);
+        return boundParameter;
+    }
+
+    /**
+     * Test case to bind the cursor with the JDBC type of the polling column.
+     */
+    @Test
+    public void testBind() throws SQLException {
+        log.info("------------------------------------------------------------------------------------------------");
+        log.info("CDC TestCase: Binding the cursor with the JDBC type of the polling column.");
+        log.info("------------------------------------------------------------------------------------------------");
+
+        Assert.assertEquals(bind(createCursor(Types.INTEGER, "42")), Arrays.asList("setLong", 42L));
+        Assert.assertEquals(bind(createCursor(Types.DECIMAL, "1.50")),
+                Arrays.asList("setBigDecimal", new BigDecimal("1.50")));
+        Assert.assertEquals(bind(createCursor(Types.TIMESTAMP, "2018-06-01 10:15:30.25")),
+                Arrays.asList("setTimestamp", Timestamp.valueOf("2018-06-01 10:15:30.25")));
+        Assert.assertEquals(bind(createCursor(Types.DATE, "2018-06-01")),
+                Arrays.asList("setDate", Date.valueOf("2018-06-01")));
+        Assert.assertEquals(bind(createCursor(Types.TIME, "10:15:30")),
+                Arrays.asList("setTime", Time.valueOf("10:15:30")));
+        Assert.assertEquals(bind(createCursor(Types.VARCHAR, "a-1")), Arrays.asList("setString", "a-1"));
+        //the cursor of an empty table is before all the timestamps.
+        Assert.assertEquals(bind(createCursor(Types.TIMESTAMP, PollingCursor.EMPTY_TABLE_VALUE)),
+                Arrays.asList("setTimestamp", new Timestamp(0)));
+        //values that can't be converted to the type are bound as they are.
+        Assert.assertEquals(bind(createCursor(Types.TIMESTAMP, "1528000000000")),
+                Arrays.asList("setString", "1528000000000"));
+    }
+
+    /**
+     * Test case to advance the cursor only to greater values.
+     */
+    @Test
+    public void testAdvance() throws SQLException {
+        log.info("------------------------------------------------------------------------------------------------");
+        log.info("CDC TestCase: Advancing the cursor only to greater values.");
+        log.info("------------------------------------------------------------------------------------------------");
+
+        PollingCursor pollingCursor = createCursor(Types.TIMESTAMP, "2018-06-01 10:00:00");
+        pollingCursor.advance(createResultSet(Timestamp.valueOf("2018-06-01 09:59:59")), 1);
+        Assert.assertEquals(pollingCursor.toString(), "2018-06-01 10:00:00.0");
+        pollingCursor.advance(createResultSet(Timestamp.valueOf("2018-06-01 10:00:01")), 1);
+        Assert.assertEquals(pollingCursor.toString(), "2018-06-01 10:00:01.0");
+        //rows without a value don't move the cursor.
+        pollingCursor.advance(createResultSet(null), 1);
+        Assert.assertEquals(pollingCursor.toString(), "2018-06-01 10:00:01.0");
+
+        PollingCursor integerCursor = createCursor(Types.BIGINT, "100");
+        integerCursor.advance(createResultSet(99L), 1);
+        Assert.assertEquals(integerCursor.toString(), "100");
+        integerCursor.advance(createResultSet(101L), 1);
+        Assert.assertEquals(integerCursor.toString(), "101");
+
+        //an empty cursor takes the first value read.
+        PollingCursor emptyCursor = new PollingCursor();
+        emptyCursor.setSqlType(Types.BIGINT);
+        Assert.assertTrue(emptyCursor.isEmpty());
+        emptyCursor.advance(createResultSet(5L), 1);
+        Assert.assertEquals(emptyCursor.toString(), "5");
+    }
+
+    /**
+     * Test case to move a timestamp cursor back by a time, leaving the cursor unchanged.
+     */
+    @Test
+    public void testMinusMillis() throws SQLException {
+        log.info("------------------------------------------------------------------------------------------------");
+        log.info("CDC TestCase: Moving a timestamp cursor back by a time.");
+        log.info("------------------------------------------------------------------------------------------------");
+
+        PollingCursor pollingCursor = createCursor(Types.TIMESTAMP, "2018-06-01 10:00:00");
+        PollingCursor lookbackCursor = pollingCursor.minusMillis(60000);
+        Assert.assertEquals(lookbackCursor.toString(), "2018-06-01 09:59:00.0");
+        Assert.assertEquals(lookbackCursor.getSqlType(), Types.TIMESTAMP);
+        Assert.assertEquals(lookbackCursor.getTimestampMillis(), pollingCursor.getTimestampMillis() - 60000);
+        Assert.assertEquals(bind(lookbackCursor),
+                Arrays.asList("setTimestamp", Timestamp.valueOf("2018-06-01 09:59:00")));
+        Assert.assertEquals(pollingCursor.toString(), "2018-06-01 10:00:00.0");
+
+        //only timestamps are moved back.
+        PollingCursor integerCursor = createCursor(Types.BIGINT, "100");
+        Assert.assertEquals(integerCursor.minusMillis(60000).toString(), "100");
+        Assert.assertEquals(integerCursor.minusMillis(60000).getTimestampMillis(), -1);
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.extension.siddhi.io.cdc.source.polling;
+
+import org.apache.log4j.Logger;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.time.LocalTime;
+
+public class TestCaseOfPollingRateLimit {
+
+    private static final Logger log = Logger.getLogger(TestCaseOfPollingRateLimit.class);
+
+    /**
+     * Test case to take a second's worth of permits at once, and to wait for the permits taken in advance.
+     */
+    @Test
+    public void testRateLimiter() throws InterruptedException {
+        log.info("------------------------------------------------------------------------------------------------");
+        log.info("Polling rate limit: Test the token bucket.");
+        log.info("------------------------------------------------------------------------------------------------");
+
+        RateLimiter rateLimiter = new RateLimiter(10);
+        Assert.assertEquals(rateLimiter.acquire(10), 0);
+
+        //the permits are taken in advance, so the caller waits for the missing 5 permits.
+        long startTime = System.nanoTime();
+        long throttledMillis = rateLimiter.acquire(5);
+        long waitedMillis = (System.nanoTime() - startTime) / 1000000;
+        Assert.assertTrue(throttledMillis >= 400 && throttledMillis <= 500, "Throttled " + throttledMillis + " ms.");
+        Assert.assertTrue(waitedMillis >= throttledMillis - 10, "Waited " + waitedMillis + " ms.");
+
+        //more permits than a second's worth are paid for by a longer wait.
+        throttledMillis = rateLimiter.acquire(20);
+        Assert.assertTrue(throttledMillis >= 1900 && throttledMillis <= 2000, "Throttled " + throttledMillis + " ms.");
+    }
+
+    /**
+     * Test case to validate that the sources of a pool share the pool limit on top of their own limits.
+     */
+    @Test
+    public void testPoolLimit() throws InterruptedException {
+        log.info("------------------------------------------------------------------------------------------------");
+        log.info("Polling rate limit: Test the limits shared by the sources of a pool.");
+        log.info("------------------------------------------------------------------------------------------------");
+
+        RateLimiter poolQueryLimiter = new RateLimiter(4);
+        PollingRateLimit first = new PollingRateLimit(0, 0, null, null);
+        PollingRateLimit second = new PollingRateLimit(0, 100, null, null);
+        first.setPoolLimiters(null, poolQueryLimiter);
+        second.setPoolLimiters(null, poolQueryLimiter);
+
+        for (int i = 0; i < 2; i++) {
+            Assert.assertEquals(first.acquireQuery(), 0);
+            Assert.assertEquals(second.acquireQuery(), 0);
+        }
+        //the pool limit is used up, though the second source is within its own limit.
+        long throttledMillis = second.acquireQuery();
+        Assert.assertTrue(throttledMillis >= 150 && throttledMillis <= 250, "Throttled " + throttledMillis + " ms.");
+
+        //no limits means no waiting.
+        Assert.assertEquals(first.acquireRows(1000000), 0);
+    }
+
+    /**
+     * Test case to validate that the limits apply only within the daily window.
+     */
+    @Test
+    public void testLimitWindow() throws InterruptedException {
+        log.info("------------------------------------------------------------------------------------------------");
+        log.info("Polling rate limit: Test the daily window of the limits.");
+        log.info("------------------------------------------------------------------------------------------------");
+
+        LocalTime now = LocalTime.now();
+        PollingRateLimit outsideWindow = new PollingRateLimit(1, 1, now.plusHours(1), now.plusHours(2));
+        for (int i = 0; i < 5; i++) {
+            Assert.assertEquals(outsideWindow.acquireQuery(), 0);
+            Assert.assertEquals(outsideWindow.acquireRows(10), 0);
+        }
+
+        PollingRateLimit insideWindow = new PollingRateLimit(10, 0, now.minusHours(1), now.plusHours(1));
+        Assert.assertEquals(insideWindow.acquireRows(10), 0);
+        long throttledMillis = insideWindow.acquireRows(1);
+        Assert.assertTrue(throttledMillis >= 50 && throttledMillis <= 100, "Throttled " + throttledMillis + " ms.");
+    }
+}
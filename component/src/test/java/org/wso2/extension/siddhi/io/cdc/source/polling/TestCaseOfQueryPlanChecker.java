@@ -0,0 +1,140 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.extension.siddhi.io.cdc.source.polling;
+
+import org.apache.log4j.Logger;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+import org.wso2.extension.siddhi.io.cdc.source.config.Database;
+import org.wso2.extension.siddhi.io.cdc.util.CDCSourceConstants;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+
+public class TestCaseOfQueryPlanChecker {
+
+    private static final Logger log = Logger.getLogger(TestCaseOfQueryPlanChecker.class);
+    private Connection connection;
+
+    @BeforeClass
+    public void init() throws ClassNotFoundException, SQLException {
+        Class.forName("org.h2.Driver");
+        connection = DriverManager.getConnection("jdbc:h2:mem:plan_check;DB_CLOSE_DELAY=-1", "sa", "");
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE login (id INT PRIMARY KEY, name VARCHAR(255), " +
+                    "last_updated TIMESTAMP, created TIMESTAMP)");
+            statement.execute("CREATE INDEX login_last_updated ON login (last_updated)");
+        }
+    }
+
+    @AfterClass
+    public void destroy() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE login");
+        }
+        connection.close();
+    }
+
+    private Database getH2Dialect() {
+        Database dialect = new Database();
+        dialect.setName("H2");
+        dialect.setExplainQuery("EXPLAIN {{QUERY}}");
+        dialect.setFullScanPattern("(?i)tableScan \\*/");
+        return dialect;
+    }
+
+    private PollingCursor getTimestampCursor() {
+        PollingCursor cursor = new PollingCursor();
+        cursor.setSqlType(Types.TIMESTAMP);
+        cursor.setValue("2018-01-01 00:00:00");
+        return cursor;
+    }
+
+    /**
+     * Test case to check that polling queries on an indexed column are accepted.
+     */
+    @Test
+    public void planCheckOnIndexedColumn() {
+        log.info("------------------------------------------------------------------------------------------------");
+        log.info("CDC TestCase: Checking plans of polling queries on an indexed column.");
+        log.info("------------------------------------------------------------------------------------------------");
+
+        QueryPlanChecker planChecker = new QueryPlanChecker(CDCSourceConstants.POLLING_PLAN_CHECK_REJECT,
+                getH2Dialect());
+        planChecker.check(connection, "SELECT MAX(last_updated) FROM login", null, 0);
+        double cost = planChecker.check(connection, "SELECT * FROM login WHERE last_updated > ?",
+                getTimestampCursor(), 1);
+
+        //H2 doesn't give the cost of the plan.
+        Assert.assertEquals(cost, -1.0);
+    }
+
+    /**
+     * Test case to check that a polling query on an unindexed column is rejected.
+     */
+    @Test(expectedExceptions = CDCPollingModeException.class)
+    public void planCheckRejectOnUnindexedColumn() {
+        log.info("------------------------------------------------------------------------------------------------");
+        log.info("CDC TestCase: Rejecting a polling query on an unindexed column.");
+        log.info("------------------------------------------------------------------------------------------------");
+
+        QueryPlanChecker planChecker = new QueryPlanChecker(CDCSourceConstants.POLLING_PLAN_CHECK_REJECT,
+                getH2Dialect());
+        planChecker.check(connection, "SELECT * FROM login WHERE created > ?", getTimestampCursor(), 1);
+    }
+
+    /**
+     * Test case to check that a polling query on an unindexed column is only warned about.
+     */
+    @Test
+    public void planCheckWarnOnUnindexedColumn() {
+        log.info("------------------------------------------------------------------------------------------------");
+        log.info("CDC TestCase: Warning about a polling query on an unindexed column.");
+        log.info("------------------------------------------------------------------------------------------------");
+
+        QueryPlanChecker planChecker = new QueryPlanChecker(CDCSourceConstants.POLLING_PLAN_CHECK_WARN,
+                getH2Dialect());
+        planChecker.check(connection, "SELECT MAX(created) FROM login", null, 0);
+        planChecker.check(connection, "SELECT * FROM login WHERE created > ?", getTimestampCursor(), 1);
+    }
+
+    /**
+     * Test case to check reading the plan cost with the configured pattern.
+     */
+    @Test
+    public void planCostFromPattern() {
+        log.info("------------------------------------------------------------------------------------------------");
+        log.info("CDC TestCase: Reading the plan cost with the configured pattern.");
+        log.info("------------------------------------------------------------------------------------------------");
+
+        Database dialect = getH2Dialect();
+        //H2 gives the number of scanned rows with EXPLAIN ANALYZE.
+        dialect.setExplainQuery("EXPLAIN ANALYZE {{QUERY}}");
+        dialect.setPlanCostPattern("scanCount: ([0-9]+)");
+        QueryPlanChecker planChecker = new QueryPlanChecker(CDCSourceConstants.POLLING_PLAN_CHECK_WARN, dialect);
+        double cost = planChecker.check(connection, "SELECT * FROM login WHERE created > ?",
+                getTimestampCursor(), 1);
+
+        Assert.assertTrue(cost >= 0);
+    }
+}
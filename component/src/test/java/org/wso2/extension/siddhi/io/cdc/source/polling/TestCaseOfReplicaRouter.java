@@ -0,0 +1,224 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.extension.siddhi.io.cdc.source.polling;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.apache.log4j.Logger;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import org.wso2.extension.siddhi.io.cdc.source.metrics.CDCSourceMetrics;
+import org.wso2.extension.siddhi.io.cdc.util.CDCSourceConstants;
+import org.wso2.siddhi.core.config.SiddhiAppContext;
+import org.wso2.siddhi.core.stream.input.source.SourceEventListener;
+import org.wso2.siddhi.core.util.config.InMemoryConfigReader;
+import org.wso2.siddhi.query.api.definition.StreamDefinition;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.Properties;
+import javax.naming.NamingException;
+
+public class TestCaseOfReplicaRouter {
+
+    private static final Logger log = Logger.getLogger(TestCaseOfReplicaRouter.class);
+    private static final String PRIMARY_URL = "jdbc:h2:mem:replica_router_primary;DB_CLOSE_DELAY=-1";
+    private static final String REPLICA_URL = "jdbc:h2:mem:replica_router_replica;DB_CLOSE_DELAY=-1";
+    private static final String LAG_QUERY = "SELECT lag FROM replication_lag";
+    private static final long MAX_LAG_MILLIS = 1000;
+    private Connection primaryConnection;
+    private Connection replicaConnection;
+    private HikariDataSource primaryDataSource;
+    private ReplicaRouter replicaRouter;
+
+    @BeforeClass
+    public void init() throws ClassNotFoundException, SQLException {
+        Class.forName("org.h2.Driver");
+        //keep the in-memory databases alive through the test.
+        primaryConnection = DriverManager.getConnection(PRIMARY_URL, "sa", "");
+        replicaConnection = DriverManager.getConnection(REPLICA_URL, "sa", "");
+        execute(primaryConnection, "CREATE TABLE database_role (name VARCHAR(16))");
+        execute(primaryConnection, "INSERT INTO database_role VALUES ('primary')");
+        execute(primaryConnection, "CREATE TABLE routed_table (id INT PRIMARY KEY, last_updated TIMESTAMP)");
+        execute(replicaConnection, "CREATE TABLE database_role (name VARCHAR(16))");
+        execute(replicaConnection, "INSERT INTO database_role VALUES ('replica')");
+        execute(replicaConnection, "CREATE TABLE replication_lag (lag BIGINT)");
+        execute(replicaConnection, "INSERT INTO replication_lag VALUES (0)");
+        primaryDataSource = ConnectionPoolRegistry.getConnectionPoolRegistry().acquire(
+                getConnectionProperties(PRIMARY_URL), 0, 0);
+    }
+
+    @AfterClass
+    public void destroy() throws SQLException {
+        ConnectionPoolRegistry.getConnectionPoolRegistry().release(primaryDataSource);
+        execute(primaryConnection, "DROP ALL OBJECTS");
+        execute(replicaConnection, "DROP ALL OBJECTS");
+        primaryConnection.close();
+        replicaConnection.close();
+    }
+
+    @BeforeMethod
+    public void resetLag() throws SQLException {
+        setLag(0L);
+    }
+
+    @AfterMethod
+    public void stopRouter() {
+        if (replicaRouter != null) {
+            replicaRouter.stop();
+            replicaRouter = null;
+        }
+    }
+
+    private void execute(Connection connection, String query) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(query);
+        }
+    }
+
+    private void setLag(Long lagMillis) throws SQLException {
+        execute(replicaConnection, "UPDATE replication_lag SET lag = " + lagMillis);
+    }
+
+    private Properties getConnectionProperties(String url) {
+        Properties connectionProperties = new Properties();
+        connectionProperties.setProperty("jdbcUrl", url);
+        connectionProperties.setProperty("dataSource.user", "sa");
+        connectionProperties.setProperty("driverClassName", "org.h2.Driver");
+        return connectionProperties;
+    }
+
+    private CDCSourceMetrics createMetrics() {
+        return new CDCSourceMetrics(new SiddhiAppContext(), "inputStream", CDCSourceConstants.MODE_POLLING);
+    }
+
+    private ReplicaRouter startRouter(long lagCheckIntervalMillis) {
+        replicaRouter = new ReplicaRouter(REPLICA_URL, "sa", "", MAX_LAG_MILLIS, lagCheckIntervalMillis,
+                LAG_QUERY);
+        replicaRouter.start(getConnectionProperties(PRIMARY_URL), null, createMetrics());
+        return replicaRouter;
+    }
+
+    /**
+     * Get the database a connection of the router is to.
+     */
+    private String getRoutedDatabase() throws SQLException {
+        try (Connection connection = replicaRouter.getConnection(primaryDataSource);
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT name FROM database_role")) {
+            Assert.assertTrue(resultSet.next());
+            return resultSet.getString(1);
+        }
+    }
+
+    /**
+     * Test case to route the poll queries to the replica while its lag is under the threshold.
+     */
+    @Test
+    public void testRoutingByLag() throws SQLException {
+        log.info("------------------------------------------------------------------------------------------------");
+        log.info("CDC TestCase: Routing the poll queries to the replica while its lag is under the threshold.");
+        log.info("------------------------------------------------------------------------------------------------");
+
+        startRouter(0);
+        Assert.assertEquals(getRoutedDatabase(), "replica");
+
+        setLag(MAX_LAG_MILLIS + 1);
+        Assert.assertEquals(getRoutedDatabase(), "primary");
+
+        //a replica that isn't replicating has a null lag.
+        setLag(null);
+        Assert.assertEquals(getRoutedDatabase(), "primary");
+
+        setLag(MAX_LAG_MILLIS);
+        Assert.assertEquals(getRoutedDatabase(), "replica");
+    }
+
+    /**
+     * Test case to route the poll queries by the last read lag until the next lag check.
+     */
+    @Test
+    public void testLagCheckInterval() throws SQLException {
+        log.info("------------------------------------------------------------------------------------------------");
+        log.info("CDC TestCase: Routing the poll queries by the last read lag until the next lag check.");
+        log.info("------------------------------------------------------------------------------------------------");
+
+        startRouter(60000);
+        Assert.assertEquals(getRoutedDatabase(), "replica");
+
+        //the lag isn't read again within the interval.
+        setLag(MAX_LAG_MILLIS + 1);
+        Assert.assertEquals(getRoutedDatabase(), "replica");
+
+        //the lag is read again when the router is restarted.
+        replicaRouter.stop();
+        replicaRouter.start(getConnectionProperties(PRIMARY_URL), null, createMetrics());
+        Assert.assertEquals(getRoutedDatabase(), "primary");
+        setLag(0L);
+        Assert.assertEquals(getRoutedDatabase(), "primary");
+    }
+
+    /**
+     * Test case to start the router once with the datasource of the poller, so that initializing the polling again
+     * doesn't acquire the pool of the replica again.
+     */
+    @Test
+    public void testStartWithDatasource() throws NamingException {
+        log.info("------------------------------------------------------------------------------------------------");
+        log.info("CDC TestCase: Starting the replica router once with the datasource of the poller.");
+        log.info("------------------------------------------------------------------------------------------------");
+
+        ConnectionPoolRegistry registry = ConnectionPoolRegistry.getConnectionPoolRegistry();
+        HikariDataSource replicaDataSource = registry.acquire(getConnectionProperties(REPLICA_URL), 0, 0);
+        SourceEventListener sourceEventListener = new SourceEventListener() {
+            @Override
+            public StreamDefinition getStreamDefinition() {
+                return null;
+            }
+
+            @Override
+            public void onEvent(Object eventObject, String[] transportProperties) {
+            }
+
+            @Override
+            public void onEvent(Object eventObject, String[] transportProperties, String[] transportSyncProperties) {
+            }
+        };
+        CDCPoller cdcPoller = new CDCPoller(PRIMARY_URL, "sa", "", "routed_table", "org.h2.Driver", null, null,
+                "last_updated", 1, null, sourceEventListener, new InMemoryConfigReader("", new HashMap<>()),
+                createMetrics(), new String[0]);
+        cdcPoller.setReplicaRouter(new ReplicaRouter(REPLICA_URL, "sa", "", MAX_LAG_MILLIS, 0, LAG_QUERY));
+        try {
+            cdcPoller.initializeDatasource();
+            cdcPoller.initializePolling();
+            cdcPoller.initializePolling();
+        } finally {
+            cdcPoller.releaseDataSource();
+        }
+        //the pool of the replica is closed if the poller has released all its references.
+        registry.release(replicaDataSource);
+        Assert.assertTrue(replicaDataSource.isClosed());
+    }
+}
@@ -0,0 +1,230 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.extension.siddhi.io.cdc.util;
+
+import org.apache.log4j.Logger;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import org.wso2.extension.siddhi.io.cdc.source.listening.WrongConfigurationException;
+import org.wso2.siddhi.query.api.exception.SiddhiAppValidationException;
+
+import java.util.Map;
+
+public class TestCaseOfCDCSourceUtil {
+
+    private static final Logger log = Logger.getLogger(TestCaseOfCDCSourceUtil.class);
+
+    private Map<String, Object> getConfigMap(String url, String tableName, String connectorProperties)
+            throws WrongConfigurationException {
+        return CDCSourceUtil.getConfigMap("user", "password", url, tableName, "history/", "cdcTestApp",
+                "inputStream", CDCSourceConstants.DEFAULT_SERVER_ID, "", connectorProperties, "1");
+    }
+
+    /**
+     * Test case to tell a single table from a list of tables or a regular expression.
+     */
+    @Test
+    public void testIsSingleTable() {
+        log.info("------------------------------------------------------------------------------------------------");
+        log.info("CDC TestCase: Telling a single table from a list of tables or a regular expression.");
+        log.info("------------------------------------------------------------------------------------------------");
+
+        Assert.assertTrue(CDCSourceUtil.isSingleTable("orders"));
+        Assert.assertTrue(CDCSourceUtil.isSingleTable("dbo.orders"));
+        Assert.assertTrue(CDCSourceUtil.isSingleTable("order$log"));
+        Assert.assertFalse(CDCSourceUtil.isSingleTable("orders,customers"));
+        Assert.assertFalse(CDCSourceUtil.isSingleTable("orders_[0-9]+"));
+        Assert.assertFalse(CDCSourceUtil.isSingleTable("orders.*"));
+        Assert.assertFalse(CDCSourceUtil.isSingleTable("shop.dbo.orders"));
+    }
+
+    /**
+     * Test case to qualify the tables of a table list with the schema.
+     */
+    @Test
+    public void testQualifyTableNames() {
+        log.info("------------------------------------------------------------------------------------------------");
+        log.info("CDC TestCase: Qualifying the tables of a table list with the schema.");
+        log.info("------------------------------------------------------------------------------------------------");
+
+        Assert.assertEquals(CDCSourceUtil.qualifyTableNames("inventory.", "orders"), "inventory.orders");
+        Assert.assertEquals(CDCSourceUtil.qualifyTableNames("inventory.", "orders, customers"),
+                "inventory.orders,inventory.customers");
+        Assert.assertEquals(CDCSourceUtil.qualifyTableNames("inventory.", "orders_[0-9]+,orders.*"),
+                "inventory.orders_[0-9]+,inventory.orders.*");
+        Assert.assertEquals(CDCSourceUtil.qualifyTableNames("public.", "sales.orders,customers"),
+                "sales.orders,public.customers");
+    }
+
+    /**
+     * Test case to create the table whitelist of the connectors from a table list or a regular expression.
+     */
+    @Test
+    public void testConfigMapTableWhitelist() throws WrongConfigurationException {
+        log.info("------------------------------------------------------------------------------------------------");
+        log.info("CDC TestCase: Creating the table whitelist from a table list or a regular expression.");
+        log.info("------------------------------------------------------------------------------------------------");
+
+        Assert.assertEquals(getConfigMap("jdbc:mysql://localhost:3306/inventory", "orders,customers", "")
+                .get(CDCSourceConstants.TABLE_WHITELIST), "inventory.orders,inventory.customers");
+        Assert.assertEquals(getConfigMap("jdbc:mysql://localhost:3306/inventory", "orders_[0-9]+", "")
+                .get(CDCSourceConstants.TABLE_WHITELIST), "inventory.orders_[0-9]+");
+        Assert.assertEquals(getConfigMap("jdbc:postgresql://localhost:5432/shop", "orders, sales.orders", "")
+                .get(CDCSourceConstants.TABLE_WHITELIST), "public.orders,sales.orders");
+        Assert.assertEquals(getConfigMap("jdbc:sqlserver://localhost:1433;databaseName=shop", "dbo.orders", "")
+                .get(CDCSourceConstants.TABLE_WHITELIST), "dbo.orders");
+    }
+
+    /**
+     * Test case to add a table to the whitelist in the schema of the monitored table.
+     */
+    @Test
+    public void testAddToTableWhitelist() throws WrongConfigurationException {
+        log.info("------------------------------------------------------------------------------------------------");
+        log.info("CDC TestCase: Adding a table to the whitelist in the schema of the monitored table.");
+        log.info("------------------------------------------------------------------------------------------------");
+
+        Map<String, Object> configMap = getConfigMap("jdbc:sqlserver://localhost:1433;databaseName=shop",
+                "dbo.orders", "");
+        CDCSourceUtil.addToTableWhitelist(configMap, "cdc_watermark");
+        Assert.assertEquals(configMap.get(CDCSourceConstants.TABLE_WHITELIST), "dbo.orders,dbo.cdc_watermark");
+    }
+
+    /**
+     * Test case to add the connector properties to the config map.
+     */
+    @Test
+    public void testConnectorProperties() throws WrongConfigurationException {
+        log.info("------------------------------------------------------------------------------------------------");
+        log.info("CDC TestCase: Adding the connector properties to the config map.");
+        log.info("------------------------------------------------------------------------------------------------");
+
+        Map<String, Object> configMap = getConfigMap("jdbc:mysql://localhost:3306/inventory", "orders",
+                "snapshot.mode = schema_only, max.batch.size=1024");
+        Assert.assertEquals(configMap.get("snapshot.mode"), "schema_only");
+        Assert.assertEquals(configMap.get("max.batch.size"), "1024");
+        //the connector properties take priority over the properties of the source.
+        Assert.assertEquals(getConfigMap("jdbc:mysql://localhost:3306/inventory", "orders",
+                "database.server.name=inventory_server").get(CDCSourceConstants.DATABASE_SERVER_NAME),
+                "inventory_server");
+    }
+
+    /**
+     * Test case to reject the connector properties which override the properties the source depends on.
+     */
+    @Test
+    public void testReservedConnectorProperties() throws WrongConfigurationException {
+        log.info("------------------------------------------------------------------------------------------------");
+        log.info("CDC TestCase: Rejecting the connector properties which override the properties of the source.");
+        log.info("------------------------------------------------------------------------------------------------");
+
+        String[] reservedProperties = {CDCSourceConstants.CONNECTOR_NAME, CDCSourceConstants.CONNECTOR_CLASS,
+                CDCSourceConstants.TABLE_WHITELIST, CDCSourceConstants.OFFSET_STORAGE,
+                CDCSourceConstants.OFFSET_STORAGE_FILE_NAME, CDCSourceConstants.CDC_SOURCE_OBJECT,
+                CDCSourceConstants.DATABASE_HISTORY, CDCSourceConstants.DATABASE_HISTORY_FILE_NAME};
+        for (String property : reservedProperties) {
+            try {
+                getConfigMap("jdbc:mysql://localhost:3306/inventory", "orders",
+                        "max.batch.size=1024, " + property + " = overridden");
+                Assert.fail("The connector property '" + property + "' is not rejected.");
+            } catch (SiddhiAppValidationException e) {
+                Assert.assertTrue(e.getMessage().contains("'" + property + "'"));
+            }
+        }
+    }
+
+    /**
+     * Test case to configure the heartbeats, keeping a heartbeat topic prefix given in the connector properties.
+     */
+    @Test
+    public void testAddHeartbeatConfig() throws WrongConfigurationException {
+        log.info("------------------------------------------------------------------------------------------------");
+        log.info("CDC TestCase: Configuring the heartbeats, keeping the heartbeat topic prefix of the user.");
+        log.info("------------------------------------------------------------------------------------------------");
+
+        Map<String, Object> configMap = getConfigMap("jdbc:mysql://localhost:3306/inventory", "orders", "");
+        CDCSourceUtil.addHeartbeatConfig(configMap, 10, "");
+        Assert.assertEquals(configMap.get(CDCSourceConstants.HEARTBEAT_INTERVAL_MS), 10000);
+        Assert.assertEquals(configMap.get(CDCSourceConstants.HEARTBEAT_TOPICS_PREFIX),
+                CDCSourceConstants.DEFAULT_HEARTBEAT_TOPICS_PREFIX);
+        Assert.assertFalse(configMap.containsKey(CDCSourceConstants.HEARTBEAT_ACTION_QUERY));
+
+        configMap = getConfigMap("jdbc:mysql://localhost:3306/inventory", "orders",
+                "heartbeat.topics.prefix=inventory-heartbeat");
+        CDCSourceUtil.addHeartbeatConfig(configMap, 10, "UPDATE heartbeat SET ts = NOW()");
+        Assert.assertEquals(configMap.get(CDCSourceConstants.HEARTBEAT_TOPICS_PREFIX), "inventory-heartbeat");
+        Assert.assertEquals(configMap.get(CDCSourceConstants.HEARTBEAT_ACTION_QUERY),
+                "UPDATE heartbeat SET ts = NOW()");
+
+        //heartbeats are disabled with a 0 interval.
+        configMap = getConfigMap("jdbc:mysql://localhost:3306/inventory", "orders", "");
+        CDCSourceUtil.addHeartbeatConfig(configMap, 0, "");
+        Assert.assertFalse(configMap.containsKey(CDCSourceConstants.HEARTBEAT_INTERVAL_MS));
+        Assert.assertFalse(configMap.containsKey(CDCSourceConstants.HEARTBEAT_TOPICS_PREFIX));
+    }
+
+    /**
+     * Test case to accept the supported transport properties, and no transport properties.
+     */
+    @Test
+    public void testValidateTransportPropertyNames() {
+        log.info("------------------------------------------------------------------------------------------------");
+        log.info("CDC TestCase: Accepting the supported transport properties.");
+        log.info("------------------------------------------------------------------------------------------------");
+
+        CDCSourceUtil.validateTransportPropertyNames(new String[]{
+                CDCSourceConstants.TRANSPORT_PROPERTY_COMMIT_TIMESTAMP,
+                CDCSourceConstants.TRANSPORT_PROPERTY_TABLE_NAME});
+        CDCSourceUtil.validateTransportPropertyNames(new String[0]);
+        CDCSourceUtil.validateTransportPropertyNames(null);
+    }
+
+    /**
+     * Test case to reject a transport property that is not supported.
+     */
+    @Test(expectedExceptions = SiddhiAppValidationException.class,
+            expectedExceptionsMessageRegExp = "Unsupported transport property: 'trp:commit.lsn'.*")
+    public void testUnsupportedTransportPropertyName() {
+        log.info("------------------------------------------------------------------------------------------------");
+        log.info("CDC TestCase: Rejecting a transport property that is not supported.");
+        log.info("------------------------------------------------------------------------------------------------");
+
+        CDCSourceUtil.validateTransportPropertyNames(new String[]{
+                CDCSourceConstants.TRANSPORT_PROPERTY_TABLE_NAME, "commit.lsn"});
+    }
+
+    /**
+     * Test case to create the transport property values in the requested order.
+     */
+    @Test
+    public void testGetTransportProperties() {
+        log.info("------------------------------------------------------------------------------------------------");
+        log.info("CDC TestCase: Creating the transport property values in the requested order.");
+        log.info("------------------------------------------------------------------------------------------------");
+
+        String[] requestedNames = new String[]{CDCSourceConstants.TRANSPORT_PROPERTY_TABLE_NAME,
+                CDCSourceConstants.TRANSPORT_PROPERTY_COMMIT_TIMESTAMP};
+        Assert.assertEquals(CDCSourceUtil.getTransportProperties(requestedNames, 1000, "orders"),
+                new String[]{"orders", "1000"});
+        //an unknown commit time is left empty.
+        Assert.assertEquals(CDCSourceUtil.getTransportProperties(requestedNames, -1, "orders"),
+                new String[]{"orders", null});
+        Assert.assertNull(CDCSourceUtil.getTransportProperties(null, 1000, "orders"));
+        Assert.assertNull(CDCSourceUtil.getTransportProperties(new String[0], 1000));
+    }
+}